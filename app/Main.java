@@ -1,22 +1,45 @@
 package app;
 
+import loadtest.LoadDriver;
 import logistics.*;
+import server.FleetServer;
+import telemetry.TelemetryRecorder;
+import telemetry.TelemetryStore;
 import vehicles.*;
 import vehicles.interfaces.CargoCarrier;
 import vehicles.interfaces.FuelConsumable;
 import vehicles.interfaces.PassengerCarrier;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 public class Main {
 
-    private static final FleetManager manager = new FleetManager();
+    private static FleetManager manager = new FleetManager();
     private static final Scanner sc = new Scanner(System.in);
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            FleetServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        if (opts.containsKey("shards")) {
+            manager = new ShardedFleetManager(Integer.parseInt(opts.get("shards")));
+        }
+        TelemetryStore telemetry = null;
+        if (opts.containsKey("telemetry")) {
+            telemetry = new TelemetryStore(Paths.get(opts.get("telemetry")));
+            manager.addObserver(new TelemetryRecorder(telemetry));
+        }
         runDemo();   // quick demo
         runCLI();   
+        if (telemetry != null) telemetry.close();
     }
 
     // -------- Demo --------
@@ -61,7 +84,7 @@ public class Main {
                 case "3": startJourney(); break;
                 case "4": refuelAll(); break;
                 case "5": manager.maintainAll(); break;
-                case "6": System.out.println(manager.generateReport()); break;
+                case "6": printReport(); break;
                 case "7": saveFleet(); break;
                 case "8": loadFleet(); break;
                 case "9": searchByType(); break;
@@ -75,7 +98,8 @@ public class Main {
                 case "17": sortByEfficiency(); break;
                 case "18": showFastestSlowest(); break;
                 case "19": showDistinctModels(); break;
-                case "20": System.out.println("Exiting."); return;
+                case "20": mergeFleetDelta(); break;
+                case "21": System.out.println("Exiting."); return;
                 default: System.out.println("Invalid option.");
             }
         }
@@ -102,7 +126,8 @@ public class Main {
         System.out.println("17. Sort Vehicles by Fuel Efficiency");
         System.out.println("18. Show Fastest & Slowest Vehicle");
         System.out.println("19. Show Distinct Vehicle Models");
-        System.out.println("20. Exit");
+        System.out.println("20. Merge Fleet Delta");
+        System.out.println("21. Exit");
         System.out.print("Enter choice: ");
     }
 
@@ -164,6 +189,14 @@ public class Main {
         }
     }
 
+    private static void printReport() {
+        try {
+            manager.writeReport(new OutputStreamWriter(System.out), ReportFormat.HUMAN);
+        } catch (IOException e) {
+            System.out.println("Error writing report: " + e.getMessage());
+        }
+    }
+
     private static void saveFleet() {
         System.out.print("Filename to save: ");
         manager.saveToFile(sc.nextLine().trim());
@@ -174,6 +207,14 @@ public class Main {
         manager.loadFromFile(sc.nextLine().trim());
     }
 
+    private static void mergeFleetDelta() {
+        System.out.print("Delta file to merge: ");
+        String file = sc.nextLine().trim();
+        System.out.print("Remove vehicles missing from the file? (y/N): ");
+        boolean removeMissing = sc.nextLine().trim().equalsIgnoreCase("y");
+        System.out.println("Merged " + file + ": " + manager.upsertFromFile(file, removeMissing));
+    }
+
     private static void searchByType() {
         System.out.print("Class name to search (e.g., Car): ");
         String type = sc.nextLine().trim();
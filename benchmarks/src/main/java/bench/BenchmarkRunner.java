@@ -0,0 +1,30 @@
+package bench;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: the normal JMH command line, except results are
+ * written as JSON to jmh-results.json unless -rf / -rff are given.
+ *
+ *   java -jar benchmarks/target/benchmarks.jar                      # everything
+ *   java -jar benchmarks/target/benchmarks.jar VehicleHashTable -p size=100000
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> argv = new ArrayList<>(Arrays.asList(args));
+        if (!argv.contains("-rf")) {
+            argv.add("-rf");
+            argv.add("json");
+        }
+        if (!argv.contains("-rff")) {
+            argv.add("-rff");
+            argv.add("jmh-results.json");
+        }
+        Main.main(argv.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,50 @@
+package bench;
+
+import loadtest.FleetGenerator;
+import logistics.InvalidOperationException;
+import vehicles.Vehicle;
+import vehicles.interfaces.FuelConsumable;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Deterministic fleets for the benchmarks, built with loadtest.FleetGenerator.
+ *
+ * The mix names a type distribution: "balanced" (equal parts of all five types),
+ * "land" (cars, trucks, buses) or "cargo" (trucks, airplanes, ships).
+ */
+final class FleetFixtures {
+
+    private FleetFixtures() { }
+
+    static List<Vehicle> generate(int size, String mix, long seed) {
+        String spec = switch (mix) {
+            case "land" -> "car=1,truck=1,bus=1";
+            case "cargo" -> "truck=1,airplane=1,ship=1";
+            default -> "car=1,truck=1,bus=1,airplane=1,ship=1";
+        };
+        return new FleetGenerator(FleetGenerator.parseMix(spec), seed).generate(size);
+    }
+
+    static void refuelAll(List<Vehicle> vehicles, double litres) {
+        for (Vehicle v : vehicles) {
+            if (v instanceof FuelConsumable fc) {
+                try {
+                    fc.refuel(litres);
+                } catch (InvalidOperationException e) {
+                    // sailing ships cannot be refueled
+                }
+            }
+        }
+    }
+
+    /** move() and save/load print on every call; keep that out of the measurements. */
+    static PrintStream silenceStdout() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+
+}
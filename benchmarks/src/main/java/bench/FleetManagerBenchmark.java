@@ -0,0 +1,98 @@
+package bench;
+
+import logistics.BatchResult;
+import logistics.FleetCommand;
+import logistics.FleetManager;
+import logistics.InvalidOperationException;
+import logistics.ReportFormat;
+import org.openjdk.jmh.annotations.*;
+import vehicles.Vehicle;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Bulk insert, sorts, reporting, journeys and batch commands on a FleetManager. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetManagerBenchmark {
+
+    @Param({"1000", "10000"})
+    int size;
+
+    @Param({"balanced", "cargo"})
+    String mix;
+
+    private List<Vehicle> vehicles;
+    private List<Vehicle> bulkVehicles;     // addVehicleBulk's own copies; adding takes over a vehicle's observer
+    private FleetManager manager;
+    private List<FleetCommand> refuels;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidOperationException {
+        stdout = FleetFixtures.silenceStdout();
+        vehicles = FleetFixtures.generate(size, mix, 42);
+        FleetFixtures.refuelAll(vehicles, 1e9);
+        manager = new FleetManager();
+        for (Vehicle v : vehicles) manager.addVehicle(v);
+        bulkVehicles = FleetFixtures.generate(size, mix, 42);
+        refuels = new ArrayList<>(size);
+        for (Vehicle v : vehicles) refuels.add(FleetCommand.refuel(v.getId(), 1.0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public FleetManager addVehicleBulk() throws InvalidOperationException {
+        FleetManager m = new FleetManager();
+        for (Vehicle v : bulkVehicles) m.addVehicle(v);
+        return m;
+    }
+
+    @Benchmark
+    public List<Vehicle> sortBySpeed() {
+        return manager.sortBySpeed();
+    }
+
+    @Benchmark
+    public List<Vehicle> sortByModel() {
+        return manager.sortByModel();
+    }
+
+    @Benchmark
+    public List<Vehicle> sortByEfficiency() {
+        return manager.sortByEfficiency();
+    }
+
+    @Benchmark
+    public String generateReport() {
+        return manager.generateReport();
+    }
+
+    @Benchmark
+    public void writeReportCsv() throws IOException {
+        manager.writeReport(Writer.nullWriter(), ReportFormat.CSV);
+    }
+
+    @Benchmark
+    public FleetManager startAllJourneys() {
+        manager.startAllJourneys(1.0);
+        return manager;
+    }
+
+    @Benchmark
+    public BatchResult applyBatchRefuel() {
+        return manager.applyBatch(refuels);
+    }
+}
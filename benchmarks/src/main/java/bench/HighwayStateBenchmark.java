@@ -0,0 +1,36 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import ui.HighwayState;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention on HighwayState.addDistance, the counter every simulator worker
+ * bumps. Run with different -t thread counts to see the lock scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class HighwayStateBenchmark {
+
+    @Param({"false", "true"})
+    boolean useLock;
+
+    private HighwayState state;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        state = new HighwayState();
+        state.setUseLock(useLock);
+    }
+
+    @Benchmark
+    public void addDistance() {
+        state.addDistance(1.0);
+    }
+}
@@ -0,0 +1,65 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import persistence.OffHeapVehicleStore;
+import persistence.VehicleRecord;
+import vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Full-fleet mileage scan on heap objects vs the off-heap store, and a store save. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffHeapStoreBenchmark {
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    private List<Vehicle> fleet;
+    private OffHeapVehicleStore store;
+    private VehicleRecord cursor;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fleet = FleetFixtures.generate(size, "balanced", 42);
+        store = new OffHeapVehicleStore();
+        for (Vehicle v : fleet) store.add(v);
+        cursor = store.record();
+        file = Files.createTempFile("fleet-offheap", ".store");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public double scanHeap() {
+        double total = 0;
+        for (Vehicle v : fleet) total += v.getCurrentMileage();
+        return total;
+    }
+
+    @Benchmark
+    public double scanOffHeap() {
+        double total = 0;
+        for (int slot = 0, n = store.getSlotCount(); slot < n; slot++) {
+            total += cursor.moveTo(slot).getMileage();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        store.save(file);
+    }
+}
@@ -0,0 +1,60 @@
+package bench;
+
+import logistics.FleetManager;
+import logistics.InvalidOperationException;
+import org.openjdk.jmh.annotations.*;
+import vehicles.Vehicle;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** CSV saveToFile / loadFromFile throughput; a single op is one whole file. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private FleetManager source;
+    private FleetManager target;
+    private Path saveFile;
+    private Path loadFile;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidOperationException {
+        stdout = FleetFixtures.silenceStdout();
+        source = new FleetManager();
+        for (Vehicle v : FleetFixtures.generate(size, "balanced", 42)) source.addVehicle(v);
+        target = new FleetManager();
+        saveFile = Files.createTempFile("fleet-save", ".csv");
+        loadFile = Files.createTempFile("fleet-load", ".csv");
+        source.saveToFile(loadFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(stdout);
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(loadFile);
+    }
+
+    @Benchmark
+    public void saveToFile() {
+        source.saveToFile(saveFile.toString());
+    }
+
+    @Benchmark
+    public FleetManager loadFromFile() {
+        target.loadFromFile(loadFile.toString());
+        return target;
+    }
+}
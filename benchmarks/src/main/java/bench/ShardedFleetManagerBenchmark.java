@@ -0,0 +1,59 @@
+package bench;
+
+import logistics.InvalidOperationException;
+import logistics.ShardedFleetManager;
+import org.openjdk.jmh.annotations.*;
+import vehicles.Vehicle;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent lookups and a fleet-wide sort on a ShardedFleetManager.
+ * shards=1 is the single-lock baseline; run with different -t thread counts
+ * to see how the shard count scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ShardedFleetManagerBenchmark {
+
+    @Param({"1", "8"})
+    int shards;
+
+    @Param({"20000"})
+    int size;
+
+    private List<Vehicle> vehicles;
+    private ShardedFleetManager manager;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom rnd = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidOperationException {
+        vehicles = FleetFixtures.generate(size, "balanced", 42);
+        manager = new ShardedFleetManager(shards);
+        for (Vehicle v : vehicles) manager.addVehicle(v);
+    }
+
+    @Benchmark
+    public Vehicle searchById(Cursor c) {
+        return manager.searchById(vehicles.get(c.rnd.nextInt(vehicles.size())).getId());
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Vehicle> sortBySpeed() {
+        return manager.sortBySpeed();
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import indexing.VehicleHashTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import vehicles.Vehicle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** get/put/remove on VehicleHashTable across table sizes and load factors. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleHashTableBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({"0.5", "0.75", "0.9"})
+    double loadFactor;
+
+    private VehicleHashTable table;
+    private String[] keys;
+    private String[] missing;
+    private Vehicle spare;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Vehicle> fleet = FleetFixtures.generate(size, "balanced", 42);
+        table = new VehicleHashTable(64, loadFactor);
+        keys = new String[size];
+        missing = new String[size];
+        for (int i = 0; i < size; i++) {
+            Vehicle v = fleet.get(i);
+            table.put(v.getId(), v);
+            keys[i] = v.getId();
+            missing[i] = "X" + i;
+        }
+        spare = fleet.get(0);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public Vehicle getHit() {
+        return table.get(keys[next()]);
+    }
+
+    @Benchmark
+    public Vehicle getMiss() {
+        return table.get(missing[next()]);
+    }
+
+    /** put of a new key followed by its remove, so the table size stays constant. */
+    @Benchmark
+    public void putRemove(Blackhole bh) {
+        String key = missing[next()];
+        table.put(key, spare);
+        table.remove(key);
+        bh.consume(table);
+    }
+
+    /** Overwrite of an existing key. */
+    @Benchmark
+    public void putExisting() {
+        String key = keys[next()];
+        table.put(key, spare);
+    }
+}
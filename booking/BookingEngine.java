@@ -0,0 +1,195 @@
+package booking;
+
+import logistics.FleetManager;
+import logistics.InvalidOperationException;
+import logistics.OverloadException;
+import vehicles.Vehicle;
+import vehicles.interfaces.PassengerCarrier;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seat reservations on top of PassengerCarrier.
+ *
+ * reserve() holds seats in the vehicle's SeatInventory with a CAS, confirm()
+ * boards the passengers, cancel() gives the seats back (disembarking them if the
+ * reservation was already confirmed). Because seats are held before anyone
+ * boards, boardPassengers() is only ever called for seats that exist.
+ *
+ * confirm() claims the reservation as CONFIRMING, boards and moves the seats
+ * from held to confirmed, and only then publishes CONFIRMED; cancel() rejects a
+ * reservation that is still being confirmed, so it never disembarks passengers
+ * that have not boarded. Cancelling a confirmed reservation works the same way
+ * round: CANCELLING while the passengers disembark, CANCELLED once they have.
+ */
+public class BookingEngine {
+
+    private final Map<String, SeatInventory> inventories = new ConcurrentHashMap<>();
+    private final AtomicLong nextReservationId = new AtomicLong(1);
+
+    // ---------- Registration ----------
+
+    public SeatInventory register(Vehicle v) throws InvalidOperationException {
+        if (!(v instanceof PassengerCarrier)) {
+            throw new InvalidOperationException("Vehicle " + v.getId() + " does not carry passengers");
+        }
+        return inventories.computeIfAbsent(v.getId(), id -> new SeatInventory(v));
+    }
+
+    /** Registers every PassengerCarrier in the fleet; returns how many were added. */
+    public int registerAll(FleetManager manager) {
+        int n = 0;
+        for (Vehicle v : manager.searchByType(PassengerCarrier.class)) {
+            if (inventories.putIfAbsent(v.getId(), new SeatInventory(v)) == null) n++;
+        }
+        return n;
+    }
+
+    public SeatInventory getInventory(String vehicleId) {
+        return inventories.get(vehicleId);
+    }
+
+    public Collection<SeatInventory> getInventories() {
+        return Collections.unmodifiableCollection(inventories.values());
+    }
+
+    // ---------- Single reservations ----------
+
+    public Reservation reserve(String vehicleId, int seats) throws InvalidOperationException, OverloadException {
+        if (seats <= 0) throw new InvalidOperationException("Seat count must be positive");
+        SeatInventory inv = inventoryFor(vehicleId);
+        if (!inv.tryHold(seats)) {
+            throw new OverloadException("Only " + inv.getAvailable() + " seats left on " + vehicleId);
+        }
+        return new Reservation(nextReservationId.getAndIncrement(), inv, seats);
+    }
+
+    public void confirm(Reservation r) throws InvalidOperationException, OverloadException {
+        if (!r.transition(Reservation.Status.HELD, Reservation.Status.CONFIRMING)) {
+            throw new InvalidOperationException(r + " is not held");
+        }
+        SeatInventory inv = r.inventory();
+        try {
+            inv.carrier().boardPassengers(r.getSeats());
+        } catch (OverloadException e) {
+            // someone boarded passengers outside the engine; give the seats back
+            inv.releaseHeld(r.getSeats());
+            r.transition(Reservation.Status.CONFIRMING, Reservation.Status.CANCELLED);
+            throw e;
+        }
+        inv.heldToConfirmed(r.getSeats());
+        r.transition(Reservation.Status.CONFIRMING, Reservation.Status.CONFIRMED);
+    }
+
+    public void cancel(Reservation r) throws InvalidOperationException {
+        SeatInventory inv = r.inventory();
+        if (r.transition(Reservation.Status.HELD, Reservation.Status.CANCELLED)) {
+            inv.releaseHeld(r.getSeats());
+        } else if (r.transition(Reservation.Status.CONFIRMED, Reservation.Status.CANCELLING)) {
+            try {
+                inv.carrier().disembarkPassengers(r.getSeats());
+            } catch (InvalidOperationException | RuntimeException e) {
+                // the passengers are still on board, so the booking stands
+                r.transition(Reservation.Status.CANCELLING, Reservation.Status.CONFIRMED);
+                throw e;
+            }
+            inv.releaseConfirmed(r.getSeats());
+            r.transition(Reservation.Status.CANCELLING, Reservation.Status.CANCELLED);
+        } else {
+            switch (r.getStatus()) {
+                case CONFIRMING -> throw new InvalidOperationException(r + " is being confirmed");
+                case CANCELLING -> throw new InvalidOperationException(r + " is being cancelled");
+                default -> throw new InvalidOperationException(r + " is already cancelled");
+            }
+        }
+    }
+
+    // ---------- Batches ----------
+
+    /**
+     * Books a batch of requests. Requests for the same vehicle are held with a
+     * single CAS when the vehicle has room for all of them, and boarded with a
+     * single boardPassengers() call when confirm is true.
+     *
+     * @return one result per request, in request order
+     */
+    public List<BookingResult> bookBatch(List<BookingRequest> requests, boolean confirm) {
+        BookingResult[] results = new BookingResult[requests.size()];
+
+        Map<String, List<Integer>> byVehicle = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            byVehicle.computeIfAbsent(requests.get(i).getVehicleId(), k -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<String, List<Integer>> e : byVehicle.entrySet()) {
+            SeatInventory inv = inventories.get(e.getKey());
+            List<Integer> idx = e.getValue();
+            if (inv == null) {
+                for (int i : idx) {
+                    results[i] = new BookingResult(requests.get(i), null, "Vehicle " + e.getKey() + " is not registered");
+                }
+                continue;
+            }
+
+            int total = 0;
+            for (int i : idx) total += requests.get(i).getSeats();
+
+            List<Reservation> held = new ArrayList<>();
+            if (inv.tryHold(total)) {
+                for (int i : idx) {
+                    Reservation r = new Reservation(nextReservationId.getAndIncrement(), inv, requests.get(i).getSeats());
+                    held.add(r);
+                    results[i] = new BookingResult(requests.get(i), r, null);
+                }
+            } else {
+                for (int i : idx) {
+                    BookingRequest req = requests.get(i);
+                    if (inv.tryHold(req.getSeats())) {
+                        Reservation r = new Reservation(nextReservationId.getAndIncrement(), inv, req.getSeats());
+                        held.add(r);
+                        results[i] = new BookingResult(req, r, null);
+                    } else {
+                        results[i] = new BookingResult(req, null, "Not enough seats on " + e.getKey());
+                    }
+                }
+            }
+
+            if (confirm && !held.isEmpty()) {
+                confirmAll(inv, held, idx, requests, results);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void confirmAll(SeatInventory inv, List<Reservation> held, List<Integer> idx,
+                            List<BookingRequest> requests, BookingResult[] results) {
+        int seats = 0;
+        for (Reservation r : held) {
+            r.transition(Reservation.Status.HELD, Reservation.Status.CONFIRMING);
+            seats += r.getSeats();
+        }
+        try {
+            inv.carrier().boardPassengers(seats);
+            inv.heldToConfirmed(seats);
+            for (Reservation r : held) r.transition(Reservation.Status.CONFIRMING, Reservation.Status.CONFIRMED);
+        } catch (OverloadException ex) {
+            inv.releaseHeld(seats);
+            for (Reservation r : held) r.transition(Reservation.Status.CONFIRMING, Reservation.Status.CANCELLED);
+            for (int i : idx) {
+                if (results[i].isSuccess()) {
+                    results[i] = new BookingResult(requests.get(i), null, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private SeatInventory inventoryFor(String vehicleId) throws InvalidOperationException {
+        SeatInventory inv = inventories.get(vehicleId);
+        if (inv == null) {
+            throw new InvalidOperationException("Vehicle " + vehicleId + " is not registered for booking");
+        }
+        return inv;
+    }
+}
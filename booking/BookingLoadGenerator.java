@@ -0,0 +1,142 @@
+package booking;
+
+import logistics.FleetManager;
+import logistics.InvalidOperationException;
+import logistics.OverloadException;
+import vehicles.Airplane;
+import vehicles.Bus;
+import vehicles.Car;
+import vehicles.interfaces.PassengerCarrier;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hammers a BookingEngine from many client threads and checks that no vehicle
+ * is ever overbooked. One request in BATCH_EVERY goes through bookBatch(), a
+ * few vehicles with several bookings each, so the batch path gets load too.
+ *
+ * Usage: java -cp out booking.BookingLoadGenerator [clients] [seconds] [vehicles]
+ */
+public class BookingLoadGenerator {
+
+    private static final int MAX_OPEN_BOOKINGS_PER_CLIENT = 32;
+    private static final int BATCH_EVERY = 4;
+
+    public static void main(String[] args) throws Exception {
+        int clients  = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds  = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int vehicles = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        FleetManager manager = new FleetManager();
+        for (int i = 0; i < vehicles; i++) {
+            switch (i % 3) {
+                case 0 -> manager.addVehicle(new Car("C" + i, "Sedan", 120, 4));
+                case 1 -> manager.addVehicle(new Bus("B" + i, "CityBus", 80, 6));
+                default -> manager.addVehicle(new Airplane("A" + i, "Boeing", 850, 10000));
+            }
+        }
+        BookingEngine engine = new BookingEngine();
+        engine.registerAll(manager);
+        List<String> ids = new ArrayList<>();
+        for (SeatInventory inv : engine.getInventories()) ids.add(inv.getVehicle().getId());
+
+        LongAdder confirmed = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder cancelled = new LongAdder();
+        LongAdder overbooked = new LongAdder();
+        LongAdder batches = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch go = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Thread t = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                ArrayDeque<Reservation> open = new ArrayDeque<>();
+                try {
+                    go.await();
+                    while (running.get()) {
+                        if (rnd.nextInt(BATCH_EVERY) == 0) {
+                            List<BookingRequest> batch = new ArrayList<>();
+                            for (int v = 1 + rnd.nextInt(3); v > 0; v--) {
+                                String id = ids.get(rnd.nextInt(ids.size()));
+                                for (int b = 1 + rnd.nextInt(3); b > 0; b--) {
+                                    batch.add(new BookingRequest(id, 1 + rnd.nextInt(4)));
+                                }
+                            }
+                            for (BookingResult res : engine.bookBatch(batch, true)) {
+                                if (!res.isSuccess()) {
+                                    rejected.increment();
+                                    continue;
+                                }
+                                confirmed.increment();
+                                PassengerCarrier pc = (PassengerCarrier) res.getReservation().inventory().getVehicle();
+                                if (pc.getCurrentPassengers() > pc.getPassengerCapacity()) overbooked.increment();
+                                open.add(res.getReservation());
+                            }
+                            batches.increment();
+                            while (open.size() > MAX_OPEN_BOOKINGS_PER_CLIENT) engine.cancel(open.poll());
+                            continue;
+                        }
+                        String id = ids.get(rnd.nextInt(ids.size()));
+                        try {
+                            Reservation r = engine.reserve(id, 1 + rnd.nextInt(4));
+                            if (rnd.nextInt(10) == 0) {
+                                engine.cancel(r);
+                                cancelled.increment();
+                                continue;
+                            }
+                            engine.confirm(r);
+                            confirmed.increment();
+                            PassengerCarrier pc = (PassengerCarrier) r.inventory().getVehicle();
+                            if (pc.getCurrentPassengers() > pc.getPassengerCapacity()) overbooked.increment();
+                            open.add(r);
+                            if (open.size() > MAX_OPEN_BOOKINGS_PER_CLIENT) {
+                                engine.cancel(open.poll()); // trip finished, seats go back on sale
+                            }
+                        } catch (OverloadException e) {
+                            rejected.increment();
+                        }
+                    }
+                } catch (InterruptedException | InvalidOperationException e) {
+                    System.err.println("Client failed: " + e.getMessage());
+                }
+            }, "BookingClient-" + c);
+            threads.add(t);
+            t.start();
+        }
+
+        System.out.println("Booking load: " + clients + " clients, " + vehicles + " vehicles, " + seconds + " s");
+        long start = System.nanoTime();
+        go.countDown();
+        long last = 0;
+        for (int s = 1; s <= seconds; s++) {
+            Thread.sleep(1000);
+            long now = confirmed.sum();
+            System.out.println("  t=" + s + "s bookings/s: " + (now - last));
+            last = now;
+        }
+        running.set(false);
+        for (Thread t : threads) t.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int inconsistent = 0;
+        for (SeatInventory inv : engine.getInventories()) {
+            PassengerCarrier pc = inv.carrier();
+            boolean balanced = inv.getAvailable() + inv.getHeld() + inv.getConfirmed() == inv.getSeats();
+            boolean boarded = pc.getCurrentPassengers() == pc.getPassengerCapacity() - inv.getSeats() + inv.getConfirmed();
+            if (!balanced || !boarded || pc.getCurrentPassengers() > pc.getPassengerCapacity()) inconsistent++;
+        }
+
+        System.out.printf("Confirmed: %d (%.0f bookings/s), rejected: %d, cancelled: %d, batches: %d%n",
+                confirmed.sum(), confirmed.sum() / elapsed, rejected.sum(), cancelled.sum(), batches.sum());
+        System.out.println("Overbooked observations: " + overbooked.sum()
+                + ", inconsistent inventories: " + inconsistent);
+    }
+}
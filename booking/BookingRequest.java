@@ -0,0 +1,22 @@
+package booking;
+
+/** One entry of a batch booking: seats wanted on a given vehicle. */
+public class BookingRequest {
+
+    private final String vehicleId;
+    private final int seats;
+
+    public BookingRequest(String vehicleId, int seats) {
+        if (seats <= 0) throw new IllegalArgumentException("Seat count must be positive");
+        this.vehicleId = vehicleId;
+        this.seats = seats;
+    }
+
+    public String getVehicleId() {
+        return vehicleId;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+}
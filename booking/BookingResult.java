@@ -0,0 +1,33 @@
+package booking;
+
+/** Outcome of a single BookingRequest inside a batch. */
+public class BookingResult {
+
+    private final BookingRequest request;
+    private final Reservation reservation;
+    private final String error;
+
+    BookingResult(BookingRequest request, Reservation reservation, String error) {
+        this.request = request;
+        this.reservation = reservation;
+        this.error = error;
+    }
+
+    public BookingRequest getRequest() {
+        return request;
+    }
+
+    /** The reservation, or null if the request failed. */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    public boolean isSuccess() {
+        return reservation != null;
+    }
+
+    /** Why the request failed, or null on success. */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,55 @@
+package booking;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A block of seats on one vehicle. Status changes are single CAS transitions:
+ * HELD -> CONFIRMING -> CONFIRMED -> CANCELLING -> CANCELLED,
+ * HELD -> CONFIRMING -> CANCELLED (boarding failed), HELD -> CANCELLED, or
+ * CANCELLING -> CONFIRMED (disembarking failed). Only confirm() leaves
+ * CONFIRMING and only cancel() leaves CANCELLING.
+ */
+public class Reservation {
+
+    public enum Status { HELD, CONFIRMING, CONFIRMED, CANCELLING, CANCELLED }
+
+    private final long id;
+    private final SeatInventory inventory;
+    private final int seats;
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.HELD);
+
+    Reservation(long id, SeatInventory inventory, int seats) {
+        this.id = id;
+        this.inventory = inventory;
+        this.seats = seats;
+    }
+
+    boolean transition(Status from, Status to) {
+        return status.compareAndSet(from, to);
+    }
+
+    SeatInventory inventory() {
+        return inventory;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getVehicleId() {
+        return inventory.getVehicle().getId();
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation #" + id + " [" + getVehicleId() + ", " + seats + " seats, " + getStatus() + "]";
+    }
+}
@@ -0,0 +1,82 @@
+package booking;
+
+import vehicles.Vehicle;
+import vehicles.interfaces.PassengerCarrier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seat counters for one PassengerCarrier.
+ *
+ * available + held + confirmed always equals the number of seats that were
+ * free when the vehicle was registered. Seats move between the counters with
+ * CAS only, so reservations never take a lock and can never overbook.
+ */
+public class SeatInventory {
+
+    private final Vehicle vehicle;
+    private final int seats;
+
+    private final AtomicInteger available;
+    private final AtomicInteger held = new AtomicInteger();
+    private final AtomicInteger confirmed = new AtomicInteger();
+
+    SeatInventory(Vehicle vehicle) {
+        PassengerCarrier pc = (PassengerCarrier) vehicle;
+        this.vehicle = vehicle;
+        this.seats = pc.getPassengerCapacity() - pc.getCurrentPassengers();
+        this.available = new AtomicInteger(seats);
+    }
+
+    /** Moves count seats from available to held, or returns false if they are not there. */
+    boolean tryHold(int count) {
+        while (true) {
+            int free = available.get();
+            if (free < count) return false;
+            if (available.compareAndSet(free, free - count)) {
+                held.addAndGet(count);
+                return true;
+            }
+        }
+    }
+
+    void releaseHeld(int count) {
+        held.addAndGet(-count);
+        available.addAndGet(count);
+    }
+
+    void heldToConfirmed(int count) {
+        held.addAndGet(-count);
+        confirmed.addAndGet(count);
+    }
+
+    void releaseConfirmed(int count) {
+        confirmed.addAndGet(-count);
+        available.addAndGet(count);
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    PassengerCarrier carrier() {
+        return (PassengerCarrier) vehicle;
+    }
+
+    /** Seats that were free when the vehicle was registered. */
+    public int getSeats() {
+        return seats;
+    }
+
+    public int getAvailable() {
+        return available.get();
+    }
+
+    public int getHeld() {
+        return held.get();
+    }
+
+    public int getConfirmed() {
+        return confirmed.get();
+    }
+}
@@ -0,0 +1,145 @@
+package events;
+
+import vehicles.VehicleChange;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer, multi-subscriber ring of pre-allocated FleetEvents.
+ *
+ * Producers claim a sequence with a CAS on the cursor, fill the slot and mark
+ * it available; no locks are taken. Every subscriber owns a sequence (the last
+ * event it finished), and a producer may not claim a slot until the slowest
+ * subscriber has moved past the event previously stored there. That is the
+ * backpressure: publish() parks until there is room, tryPublish() gives up.
+ *
+ * Slot availability is tracked per slot as the ring "lap" number, so a
+ * subscriber can tell a freshly published slot from a stale one without any
+ * shared publish counter.
+ */
+public class EventRingBuffer {
+
+    private final FleetEvent[] entries;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicIntegerArray available;
+
+    private final AtomicLong cursor = new AtomicLong(-1); // last claimed sequence
+    private final List<AtomicLong> gating = new CopyOnWriteArrayList<>();
+    private volatile long gatingCache = -1;
+
+    private final LongAdder producerWaits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /** @param capacity slots in the ring; must be a power of two */
+    public EventRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+        }
+        this.entries = new FleetEvent[capacity];
+        for (int i = 0; i < capacity; i++) entries[i] = new FleetEvent();
+        this.mask = capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(capacity);
+        this.available = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) available.set(i, -1);
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /** Last claimed sequence, -1 before the first publish. */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    /** Times a producer had to wait for the slowest subscriber. */
+    public long getProducerWaits() {
+        return producerWaits.sum();
+    }
+
+    /** tryPublish() calls that found the ring full. */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    // ---------- Producers ----------
+
+    /** Publishes one event, parking while the ring is full. */
+    public long publish(VehicleChange change, String vehicleId, String vehicleType, double amount) {
+        long seq = claim(true);
+        entries[(int) seq & mask].set(seq, change, vehicleId, vehicleType, amount);
+        available.set((int) seq & mask, (int) (seq >>> indexShift));
+        return seq;
+    }
+
+    /** Publishes one event unless the ring is full; returns its sequence or -1. */
+    public long tryPublish(VehicleChange change, String vehicleId, String vehicleType, double amount) {
+        long seq = claim(false);
+        if (seq < 0) {
+            rejected.increment();
+            return -1;
+        }
+        entries[(int) seq & mask].set(seq, change, vehicleId, vehicleType, amount);
+        available.set((int) seq & mask, (int) (seq >>> indexShift));
+        return seq;
+    }
+
+    private long claim(boolean block) {
+        boolean waited = false;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - entries.length;
+            if (wrapPoint > gatingCache) {
+                long min = minimumGating(current);
+                gatingCache = min;
+                if (wrapPoint > min) {
+                    if (!block) return -1;
+                    if (!waited) {
+                        producerWaits.increment();
+                        waited = true;
+                    }
+                    LockSupport.parkNanos(1_000);
+                    continue;
+                }
+            }
+            if (cursor.compareAndSet(current, next)) return next;
+        }
+    }
+
+    private long minimumGating(long fallback) {
+        long min = fallback;
+        for (AtomicLong s : gating) min = Math.min(min, s.get());
+        return min;
+    }
+
+    // ---------- Subscribers ----------
+
+    /** A new gating sequence starting after everything claimed so far. */
+    AtomicLong addGatingSequence() {
+        AtomicLong seq = new AtomicLong(cursor.get());
+        gating.add(seq);
+        // producers were not gated by seq until it was in the list and may have
+        // lapped it meanwhile; from here on they are, so restart at the cursor
+        seq.set(cursor.get());
+        return seq;
+    }
+
+    void removeGatingSequence(AtomicLong seq) {
+        gating.remove(seq);
+    }
+
+    boolean isAvailable(long seq) {
+        return available.get((int) seq & mask) == (int) (seq >>> indexShift);
+    }
+
+    FleetEvent get(long seq) {
+        return entries[(int) seq & mask];
+    }
+}
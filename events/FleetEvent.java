@@ -0,0 +1,51 @@
+package events;
+
+import vehicles.VehicleChange;
+
+/**
+ * One change-data-capture record: which vehicle, what changed and by how much.
+ *
+ * Instances are ring buffer slots that get overwritten as the ring wraps, so
+ * a handler must copy anything it wants to keep before returning.
+ */
+public class FleetEvent {
+
+    private long sequence = -1;
+    private long timestampNanos;
+    private VehicleChange change;
+    private String vehicleId;
+    private String vehicleType;
+    private double amount;
+
+    void set(long sequence, VehicleChange change, String vehicleId, String vehicleType, double amount) {
+        this.sequence = sequence;
+        this.timestampNanos = System.nanoTime();
+        this.change = change;
+        this.vehicleId = vehicleId;
+        this.vehicleType = vehicleType;
+        this.amount = amount;
+    }
+
+    /** Position in the stream; gap-free and increasing for every subscriber. */
+    public long getSequence() { return sequence; }
+
+    /** System.nanoTime() at publication. */
+    public long getTimestampNanos() { return timestampNanos; }
+
+    public VehicleChange getChange() { return change; }
+
+    /** Null for RESET. */
+    public String getVehicleId() { return vehicleId; }
+
+    /** Vehicle class simple name ("Truck", ...); null for RESET. */
+    public String getVehicleType() { return vehicleType; }
+
+    /** Meaning depends on the change; see VehicleChange. */
+    public double getAmount() { return amount; }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + change + (vehicleId == null ? "" : " " + vehicleType + " " + vehicleId)
+                + (amount == 0 ? "" : " " + amount);
+    }
+}
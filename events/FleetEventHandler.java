@@ -0,0 +1,14 @@
+package events;
+
+/**
+ * Consumer callback, run on the subscription's own thread.
+ *
+ * Events arrive in sequence order in batches; endOfBatch marks the last event
+ * of a batch, which is the place to flush whatever the handler accumulated.
+ * A handler must not mutate fleet vehicles: that publishes into the same ring
+ * and can block on its own backpressure.
+ */
+@FunctionalInterface
+public interface FleetEventHandler {
+    void onEvent(FleetEvent event, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,92 @@
+package events;
+
+import vehicles.Vehicle;
+import vehicles.VehicleChange;
+import vehicles.interfaces.VehicleObserver;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Change-data-capture feed of a fleet: register it with
+ * FleetManager.addObserver() and every vehicle change is published into a
+ * bounded ring that any number of subscribers drain independently.
+ *
+ * Publishing blocks while the slowest subscriber is a full ring behind, so a
+ * stalled subscriber eventually stalls fleet mutations instead of losing
+ * events. Close subscriptions that are no longer needed.
+ */
+public class FleetEventStream implements VehicleObserver, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BATCH = 256;
+
+    private final EventRingBuffer ring;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public FleetEventStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity ring slots; must be a power of two */
+    public FleetEventStream(int capacity) {
+        this.ring = new EventRingBuffer(capacity);
+    }
+
+    @Override
+    public void onChange(Vehicle vehicle, VehicleChange change, double amount) {
+        if (vehicle == null) {
+            ring.publish(change, null, null, amount);
+        } else {
+            ring.publish(change, vehicle.getId(), vehicle.getClass().getSimpleName(), amount);
+        }
+    }
+
+    /** Starts a subscriber that sees every event published from now on. */
+    public Subscription subscribe(String name, FleetEventHandler handler) {
+        return subscribe(name, handler, DEFAULT_BATCH);
+    }
+
+    public Subscription subscribe(String name, FleetEventHandler handler, int maxBatch) {
+        Subscription s = new Subscription(name, ring, handler, maxBatch);
+        subscriptions.add(s);
+        return s;
+    }
+
+    public void unsubscribe(Subscription s) {
+        if (subscriptions.remove(s)) s.close();
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return List.copyOf(subscriptions);
+    }
+
+    public EventRingBuffer getRing() {
+        return ring;
+    }
+
+    /** Waits until every subscriber has handled everything published so far. */
+    public void awaitDrained() throws InterruptedException {
+        for (Subscription s : subscriptions) {
+            while (s.getLag() > 0) Thread.sleep(1);
+        }
+    }
+
+    /** One line per subscriber with processed, lag and failure counts. */
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Published %d, producer waits %d, rejected %d%n",
+                ring.getCursor() + 1, ring.getProducerWaits(), ring.getRejected()));
+        for (Subscription s : subscriptions) {
+            sb.append(String.format("  %-16s processed %d in %d batches, lag %d, failures %d%n",
+                    s.getName(), s.getProcessed(), s.getBatches(), s.getLag(), s.getFailures()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        for (Subscription s : subscriptions) s.close();
+        subscriptions.clear();
+    }
+}
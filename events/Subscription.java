@@ -0,0 +1,108 @@
+package events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One subscriber of an EventRingBuffer, draining it on its own daemon thread.
+ *
+ * The thread takes every contiguous published event up to maxBatch at once and
+ * hands them to the handler, then advances its gating sequence past the whole
+ * batch, which is what lets producers reuse those slots. A handler exception
+ * is reported and counted; the event is not retried.
+ */
+public class Subscription implements AutoCloseable {
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final String name;
+    private final EventRingBuffer ring;
+    private final FleetEventHandler handler;
+    private final int maxBatch;
+    private final AtomicLong sequence;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile long processed;
+    private volatile long batches;
+    private volatile long failures;
+
+    Subscription(String name, EventRingBuffer ring, FleetEventHandler handler, int maxBatch) {
+        if (maxBatch < 1) throw new IllegalArgumentException("maxBatch must be positive");
+        this.name = name;
+        this.ring = ring;
+        this.handler = handler;
+        this.maxBatch = Math.min(maxBatch, ring.getCapacity());
+        this.sequence = ring.addGatingSequence();
+        this.thread = new Thread(this::run, "fleet-events-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Events handed to the handler so far. */
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    /** Events whose handler threw. */
+    public long getFailures() {
+        return failures;
+    }
+
+    /** Events claimed by producers but not yet finished by this subscriber. */
+    public long getLag() {
+        return ring.getCursor() - sequence.get();
+    }
+
+    /** Stops the thread after its current batch and releases its hold on the ring. */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ring.removeGatingSequence(sequence);
+    }
+
+    private void run() {
+        long next = sequence.get() + 1;
+        int idle = 0;
+        while (running) {
+            long limit = Math.min(ring.getCursor(), next + maxBatch - 1);
+            long last = next - 1;
+            while (last < limit && ring.isAvailable(last + 1)) last++;
+
+            if (last < next) {
+                if (++idle > SPINS_BEFORE_PARK) LockSupport.parkNanos(IDLE_PARK_NANOS);
+                else Thread.onSpinWait();
+                continue;
+            }
+            idle = 0;
+
+            for (long s = next; s <= last; s++) {
+                try {
+                    handler.onEvent(ring.get(s), s == last);
+                } catch (Exception e) {
+                    failures++;
+                    System.err.println("Event handler " + name + " failed on " + ring.get(s) + ": " + e.getMessage());
+                }
+            }
+            processed += last - next + 1;
+            batches++;
+            sequence.set(last);
+            next = last + 1;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package indexing;
+
+/**
+ * Packs vehicle IDs of the usual shape, up to three ASCII letters followed by
+ * one to ten digits ("T12345", "AB0042", "7"), into a non-negative long. An
+ * encoded ID takes 8 bytes instead of a String and its byte array, and two
+ * encoded IDs are equal exactly when their codes are. Leading zeros are
+ * kept, so decode(encode(id)) gives id back.
+ *
+ * Layout: bits 0-3 the digit count, 4-37 the number, 38-58 the letters,
+ * 7 bits each, first letter highest, 0 for none. Other IDs encode to NONE.
+ * Codes therefore compare like the IDs do in OrderedIdIndex.ORDER: by
+ * letters, then number, then leading zeros.
+ */
+public final class CompactId {
+
+    public static final long NONE = -1L;
+    /** Longest ID that has a code; getChars() writes at most this many chars. */
+    public static final int MAX_LENGTH = 13;
+
+    private static final int MAX_LETTERS = 3;
+    private static final int MAX_DIGITS = 10;
+    private static final int NUMBER_SHIFT = 4;
+    private static final int LETTERS_SHIFT = 38;
+    private static final long NUMBER_MASK = (1L << (LETTERS_SHIFT - NUMBER_SHIFT)) - 1;
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L};
+
+    private CompactId() { }
+
+    /** The code for id, or NONE if it does not have the letters-then-digits shape. */
+    public static long encode(String id) {
+        if (id == null) return NONE;
+        int len = id.length();
+        if (len == 0 || len > MAX_LETTERS + MAX_DIGITS) return NONE;
+        long letters = 0;
+        int i = 0;
+        while (i < len && i < MAX_LETTERS && isLetter(id.charAt(i))) {
+            letters = (letters << 7) | id.charAt(i);
+            i++;
+        }
+        letters <<= 7 * (MAX_LETTERS - i);        // left-align so "A1" and "AA1" differ
+        int digits = len - i;
+        if (digits < 1 || digits > MAX_DIGITS) return NONE;
+        long number = 0;
+        for (; i < len; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return NONE;
+            number = number * 10 + (c - '0');
+        }
+        return (letters << LETTERS_SHIFT) | (number << NUMBER_SHIFT) | digits;
+    }
+
+    public static String decode(long code) {
+        char[] buf = new char[MAX_LENGTH];
+        return new String(buf, 0, getChars(code, buf, 0));
+    }
+
+    /**
+     * Spells the ID into dst from off, as decode() would, and returns the
+     * index after its last char; for writers that should not allocate.
+     */
+    public static int getChars(long code, char[] dst, int off) {
+        check(code);
+        int digits = (int) (code & 0xF);
+        long letters = code >>> LETTERS_SHIFT;
+        long number = (code >>> NUMBER_SHIFT) & NUMBER_MASK;
+        int n = off;
+        for (int shift = 7 * (MAX_LETTERS - 1); shift >= 0; shift -= 7) {
+            char c = (char) ((letters >>> shift) & 0x7F);
+            if (c == 0) break;
+            dst[n++] = c;
+        }
+        for (int i = n + digits - 1; i >= n; i--) {
+            dst[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return n + digits;
+    }
+
+    /** decode(code).hashCode(), without building the string. */
+    public static int hashCode(long code) {
+        check(code);
+        int digits = (int) (code & 0xF);
+        long letters = code >>> LETTERS_SHIFT;
+        long number = (code >>> NUMBER_SHIFT) & NUMBER_MASK;
+        int h = 0;
+        for (int shift = 7 * (MAX_LETTERS - 1); shift >= 0; shift -= 7) {
+            int c = (int) ((letters >>> shift) & 0x7F);
+            if (c == 0) break;
+            h = 31 * h + c;
+        }
+        for (int d = digits - 1; d >= 0; d--) {
+            h = 31 * h + '0' + (int) (number / POW10[d] % 10);
+        }
+        return h;
+    }
+
+    /** decode(code).startsWith(prefix), without building the string. */
+    public static boolean startsWith(long code, String prefix) {
+        check(code);
+        int digits = (int) (code & 0xF);
+        long letters = code >>> LETTERS_SHIFT;
+        long number = (code >>> NUMBER_SHIFT) & NUMBER_MASK;
+        int len = prefix.length();
+        int i = 0;
+        for (int shift = 7 * (MAX_LETTERS - 1); shift >= 0 && i < len; shift -= 7) {
+            char c = (char) ((letters >>> shift) & 0x7F);
+            if (c == 0) break;
+            if (prefix.charAt(i++) != c) return false;
+        }
+        for (int d = digits - 1; d >= 0 && i < len; d--) {
+            if (prefix.charAt(i++) != '0' + number / POW10[d] % 10) return false;
+        }
+        return i == len;
+    }
+
+    private static void check(long code) {
+        if (code < 0) throw new IllegalArgumentException("Not a compact ID: " + code);
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+}
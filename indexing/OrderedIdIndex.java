@@ -0,0 +1,153 @@
+package indexing;
+
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Vehicles ordered by ID, kept next to VehicleHashTable for what a hash
+ * cannot do: range scans (T1000 to T1999), prefix scans (every ID starting
+ * with A) and ordered iteration.
+ *
+ * IDs sort in natural order (ORDER): digit runs compare by numeric value,
+ * so T2 comes before T10 and the range T1000..T1999 holds exactly the
+ * numbers in between; a run with leading zeros sorts right after the same
+ * number without them. Other characters compare by char value.
+ *
+ * Backed by a ConcurrentSkipListMap, so readers never lock and scans see a
+ * weakly consistent view while writers add and remove. IDs of the usual
+ * letters-then-digits shape are keyed by their CompactId code, whose order
+ * matches ORDER, so the index holds no ID strings for them.
+ */
+public class OrderedIdIndex {
+
+    /** Natural ID order; consistent with String.equals(). */
+    public static final Comparator<String> ORDER = OrderedIdIndex::compareIds;
+
+    private final ConcurrentSkipListMap<Object, Vehicle> map = new ConcurrentSkipListMap<>(OrderedIdIndex::compareKeys);
+
+    public void put(String id, Vehicle v) {
+        if (id == null || v == null) return;
+        map.put(keyOf(id), v);
+    }
+
+    public void remove(String id) {
+        if (id != null) map.remove(keyOf(id));
+    }
+
+    public Vehicle get(String id) {
+        return id == null ? null : map.get(keyOf(id));
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    /** Every vehicle in ID order; a live, read-only view. */
+    public Collection<Vehicle> values() {
+        return Collections.unmodifiableCollection(map.values());
+    }
+
+    /** Vehicles with from <= ID <= to in ORDER, in ID order. */
+    public List<Vehicle> range(String from, String to) {
+        if (compareIds(from, to) > 0) return new ArrayList<>();
+        return new ArrayList<>(map.subMap(keyOf(from), true, keyOf(to), true).values());
+    }
+
+    /** Vehicles whose ID starts with prefix, in ID order. */
+    public List<Vehicle> prefix(String prefix) {
+        List<Vehicle> out = new ArrayList<>();
+        int start = prefix.length();
+        while (start > 0 && isDigit(prefix.charAt(start - 1))) start--;
+        if (start == prefix.length()) {
+            // ends in a non-digit (or is empty): the matches are one contiguous run
+            out.addAll(map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+            return out;
+        }
+
+        // Ends in digits: matches continue that number with k more digits, and
+        // for each k those numbers are one range. A run of zeros has no such
+        // ranges, so it filters every number after the head.
+        String head = prefix.substring(0, start);
+        String run = prefix.substring(start);
+        String afterNumbers = head + (char) ('9' + 1);
+        if (run.chars().allMatch(c -> c == '0')) {
+            collect(map.subMap(head + "0", true, afterNumbers, false), prefix, out);
+            return out;
+        }
+        for (int k = 0; ; k++) {
+            String lo = prefix + "0".repeat(k);
+            Object first = map.ceilingKey(keyOf(lo));
+            if (first == null || compareKeys(first, afterNumbers) >= 0) break;
+            collect(map.subMap(keyOf(lo), true, prefix + "9".repeat(k) + Character.MAX_VALUE, false), prefix, out);
+        }
+        return out;
+    }
+
+    private static void collect(NavigableMap<Object, Vehicle> range, String prefix, List<Vehicle> out) {
+        for (Map.Entry<Object, Vehicle> e : range.entrySet()) {
+            if (idOf(e.getKey()).startsWith(prefix)) out.add(e.getValue());
+        }
+    }
+
+    // ---------- Keys and order ----------
+
+    private static Object keyOf(String id) {
+        long code = CompactId.encode(id);
+        return code != CompactId.NONE ? (Object) code : id;
+    }
+
+    private static String idOf(Object key) {
+        return key instanceof Long code ? CompactId.decode(code) : (String) key;
+    }
+
+    private static int compareKeys(Object a, Object b) {
+        if (a instanceof Long x && b instanceof Long y) return Long.compare(x, y);
+        return compareIds(idOf(a), idOf(b));
+    }
+
+    /** Compares digit runs by value (then by length), everything else by char. */
+    static int compareIds(String a, String b) {
+        int n = a.length(), m = b.length();
+        int i = 0, j = 0;
+        while (i < n && j < m) {
+            char ca = a.charAt(i), cb = b.charAt(j);
+            if (!isDigit(ca) || !isDigit(cb)) {
+                if (ca != cb) return ca - cb;
+                i++;
+                j++;
+                continue;
+            }
+            int si = i, sj = j;
+            while (si < n && a.charAt(si) == '0') si++;
+            while (sj < m && b.charAt(sj) == '0') sj++;
+            int ei = si, ej = sj;
+            while (ei < n && isDigit(a.charAt(ei))) ei++;
+            while (ej < m && isDigit(b.charAt(ej))) ej++;
+            if (ei - si != ej - sj) return (ei - si) - (ej - sj);      // more significant digits
+            for (int k = 0; k < ei - si; k++) {
+                int d = a.charAt(si + k) - b.charAt(sj + k);
+                if (d != 0) return d;
+            }
+            if (ei - i != ej - j) return (ei - i) - (ej - j);          // same value, fewer zeros first
+            i = ei;
+            j = ej;
+        }
+        return (n - i) - (m - j);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,59 @@
+package indexing;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns names to dense int codes (0, 1, 2, ...), for values with only a
+ * handful of distinct names such as vehicle models. Each name is held once;
+ * holders keep the int, and two holders have the same name exactly when
+ * their codes are equal. Codes are never released.
+ *
+ * Lookups do not lock. intern() takes a lock only for a name it has not
+ * seen before.
+ */
+public class SymbolTable {
+
+    /** Code of null, and of names not interned (see code()). */
+    public static final int NONE = -1;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private volatile int size;
+
+    /** The code of name, adding it if new; NONE for null. */
+    public int intern(String name) {
+        if (name == null) return NONE;
+        Integer code = codes.get(name);
+        return code != null ? code : add(name);
+    }
+
+    private synchronized int add(String name) {
+        Integer code = codes.get(name);
+        if (code != null) return code;
+        int next = size;
+        String[] current = names;
+        if (next == current.length) current = Arrays.copyOf(current, next * 2);
+        current[next] = name;
+        names = current;
+        size = next + 1;
+        codes.put(name, next);   // published last: a code seen in the map has its name in place
+        return next;
+    }
+
+    /** The code of name, or NONE if it was never interned. */
+    public int code(String name) {
+        if (name == null) return NONE;
+        Integer code = codes.get(name);
+        return code != null ? code : NONE;
+    }
+
+    /** The name for code; null for NONE. */
+    public String name(int code) {
+        return code == NONE ? null : names[code];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -5,39 +5,67 @@ import vehicles.Vehicle;
 import java.util.Arrays;
 
 
+/**
+ * Open-addressing ID index in parallel arrays, with no entry objects.
+ *
+ * Each slot holds a long key: the CompactId code for IDs of the usual
+ * letters-then-digits shape, which compares exactly, or for any other ID
+ * its String hash with the sign bit set, confirmed against the ID string
+ * kept in names[] (only such slots hold a name).
+ */
 public class VehicleHashTable {
 
-    private static class Entry {
-        final String key;
-        Vehicle value;
+    private static final long HASHED = Long.MIN_VALUE;
 
-        Entry(String key, Vehicle value) {
-            this.key = key;
-            this.value = value;
-        }
-    }
-
-    private Entry[] table;
+    private long[] keys;
+    private String[] names;
+    private Vehicle[] values;   // null marks an empty slot
     private int size;
-    private static final double LOAD_FACTOR = 0.75;
+    private final double loadFactor;
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
 
     public VehicleHashTable() {
-        this.table = new Entry[64]; // default capacity
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public VehicleHashTable(int initialCapacity, double loadFactor) {
+        if (initialCapacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        if (loadFactor <= 0 || loadFactor >= 1) throw new IllegalArgumentException("Load factor must be in (0, 1)");
+        allocate(initialCapacity);
         this.size = 0;
+        this.loadFactor = loadFactor;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        names = new String[capacity];
+        values = new Vehicle[capacity];
+    }
+
+    private static long keyOf(String id) {
+        long code = CompactId.encode(id);
+        return code != CompactId.NONE ? code : HASHED | (id.hashCode() & 0xFFFFFFFFL);
+    }
+
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (h ^ (h >>> 32)), values.length);
     }
 
-    private int hash(String key) {
-        return Math.abs(key.hashCode()) % table.length;
+    private boolean matches(int slot, long key, String id) {
+        return keys[slot] == key && (key >= 0 || names[slot].equals(id));
     }
-    private int findSlot(String key) {
+
+    private int findSlot(long key, String id) {
         int idx = hash(key);
         int start = idx;
         while (true) {
-            Entry e = table[idx];
-            if (e == null || e.key.equals(key)) {
+            if (values[idx] == null || matches(idx, key, id)) {
                 return idx;
             }
-            idx = (idx + 1) % table.length;
+            idx = (idx + 1) % values.length;
             if (idx == start) {
                 // Table is full, caller should rehash
                 return -1;
@@ -46,51 +74,67 @@ public class VehicleHashTable {
     }
 
     private void rehash() {
-        Entry[] old = table;
-        table = new Entry[old.length * 2];
+        long[] oldKeys = keys;
+        String[] oldNames = names;
+        Vehicle[] oldValues = values;
+        allocate(oldValues.length * 2);
         size = 0;
-        for (Entry e : old) {
-            if (e != null) {
-                putInternal(e.key, e.value);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                putInternal(oldKeys[i], oldNames[i], oldValues[i]);
             }
         }
     }
 
-    private void putInternal(String key, Vehicle value) {
-        int slot = findSlot(key);
+    private void putInternal(long key, String id, Vehicle value) {
+        int slot = findSlot(key, id);
         if (slot < 0) {
             // should not happen after rehash
             return;
         }
-        if (table[slot] == null) {
-            table[slot] = new Entry(key, value);
+        if (values[slot] == null) {
+            keys[slot] = key;
+            names[slot] = key < 0 ? id : null;
             size++;
-        } else {
-            table[slot].value = value;
         }
+        values[slot] = value;
     }
 
     public synchronized void put(String key, Vehicle value) {
         if (key == null || value == null) return;
-        if ((size + 1.0) / table.length > LOAD_FACTOR) {
+        if ((size + 1.0) / values.length > loadFactor) {
             rehash();
         }
-        putInternal(key, value);
+        putInternal(keyOf(key), key, value);
     }
 
     public synchronized Vehicle get(String key) {
-        if (key == null) return null;
+        return lookup(key);
+    }
+
+    /**
+     * Looks up keys[0..count) into out[0..count) under a single lock
+     * acquisition; missing keys give null.
+     */
+    public synchronized void getAll(String[] keys, int count, Vehicle[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = lookup(keys[i]);
+        }
+    }
+
+    private Vehicle lookup(String id) {
+        if (id == null) return null;
+        long key = keyOf(id);
         int idx = hash(key);
         int start = idx;
         while (true) {
-            Entry e = table[idx];
-            if (e == null) {
+            if (values[idx] == null) {
                 return null;
             }
-            if (e.key.equals(key)) {
-                return e.value;
+            if (matches(idx, key, id)) {
+                return values[idx];
             }
-            idx = (idx + 1) % table.length;
+            idx = (idx + 1) % values.length;
             if (idx == start) {
                 return null;
             }
@@ -100,38 +144,45 @@ public class VehicleHashTable {
     /**
      * Remove a key and recompact the probe cluster after it.
      */
-    public synchronized void remove(String key) {
-        if (key == null) return;
+    public synchronized void remove(String id) {
+        if (id == null) return;
+        long key = keyOf(id);
         int idx = hash(key);
         int start = idx;
         while (true) {
-            Entry e = table[idx];
-            if (e == null) {
+            if (values[idx] == null) {
                 return;
             }
-            if (e.key.equals(key)) {
-                table[idx] = null;
-                size--;
+            if (matches(idx, key, id)) {
+                clearSlot(idx);
                 // Re-insert cluster following this slot to preserve probing chain
-                idx = (idx + 1) % table.length;
-                while (table[idx] != null) {
-                    Entry toRehash = table[idx];
-                    table[idx] = null;
-                    size--;
-                    putInternal(toRehash.key, toRehash.value);
-                    idx = (idx + 1) % table.length;
+                idx = (idx + 1) % values.length;
+                while (values[idx] != null) {
+                    long k = keys[idx];
+                    String name = names[idx];
+                    Vehicle v = values[idx];
+                    clearSlot(idx);
+                    putInternal(k, name, v);
+                    idx = (idx + 1) % values.length;
                 }
                 return;
             }
-            idx = (idx + 1) % table.length;
+            idx = (idx + 1) % values.length;
             if (idx == start) {
                 return;
             }
         }
     }
 
+    private void clearSlot(int idx) {
+        names[idx] = null;
+        values[idx] = null;
+        size--;
+    }
+
     public synchronized void clear() {
-        Arrays.fill(table, null);
+        Arrays.fill(names, null);
+        Arrays.fill(values, null);
         size = 0;
     }
 
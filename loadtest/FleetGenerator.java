@@ -0,0 +1,242 @@
+package loadtest;
+
+import logistics.InvalidOperationException;
+import logistics.VehicleFactory;
+import logistics.VehicleSnapshot;
+import persistence.Codecs;
+import persistence.FleetSnapshotWriter;
+import vehicles.Vehicle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Synthetic fleets of any size for load tests and benchmarks.
+ *
+ * Each vehicle type has its own model catalogue, picked with a Zipf-like
+ * distribution (a few popular models, a long tail), exponentially distributed
+ * mileage, speed spread around the type's usual top speed, and partial fuel,
+ * cargo and passenger loads. Output is the saveToFile() CSV layout or the
+ * binary snapshot format, written as it is generated so fleet size is not
+ * limited by heap.
+ *
+ * Usage: java -cp out loadtest.FleetGenerator --size 1000000
+ *            [--mix car=40,truck=25,bus=15,airplane=10,ship=10]
+ *            [--format csv|bin] [--out fleet.csv] [--seed 1]
+ */
+public class FleetGenerator {
+
+    /** Per-type generation profile. */
+    private static final class Profile {
+        final String type;
+        final String idPrefix;
+        final String[] models;
+        final double baseSpeed;
+        final double meanMileage;
+        final double tank;
+        final int seats;
+        final double cargoCapacity;
+
+        Profile(String type, String idPrefix, String[] models, double baseSpeed, double meanMileage,
+                double tank, int seats, double cargoCapacity) {
+            this.type = type;
+            this.idPrefix = idPrefix;
+            this.models = models;
+            this.baseSpeed = baseSpeed;
+            this.meanMileage = meanMileage;
+            this.tank = tank;
+            this.seats = seats;
+            this.cargoCapacity = cargoCapacity;
+        }
+    }
+
+    private static final Map<String, Profile> PROFILES = new LinkedHashMap<>();
+
+    static {
+        PROFILES.put("car", new Profile("Car", "C",
+                new String[] {"Sedan", "Hatchback", "Compact", "SUV", "Coupe", "Estate", "Roadster"},
+                130, 8000, 50, 5, 0));
+        PROFILES.put("truck", new Profile("Truck", "T",
+                new String[] {"Hauler", "Tipper", "Reefer", "Flatbed", "Tanker"},
+                90, 15000, 300, 0, 2000));
+        PROFILES.put("bus", new Profile("Bus", "B",
+                new String[] {"CityBus", "Coach", "DoubleDecker", "Shuttle"},
+                80, 12000, 250, 50, 500));
+        PROFILES.put("airplane", new Profile("Airplane", "A",
+                new String[] {"Boeing", "Airbus", "Embraer", "Bombardier"},
+                850, 20000, 20000, 180, 5000));
+        PROFILES.put("ship", new Profile("CargoShip", "S",
+                new String[] {"Freighter", "Bulker", "Feeder", "Panamax"},
+                40, 30000, 50000, 0, 200000));
+    }
+
+    private final Profile[] profiles;
+    private final double[] cumulative;
+    private final SplittableRandom rnd;
+    private final Map<String, Double> efficiencyByType = new HashMap<>();
+    private long sequence;
+
+    public FleetGenerator(Map<String, Double> mix, long seed) {
+        List<Profile> ps = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        double total = 0;
+        for (Map.Entry<String, Double> e : mix.entrySet()) {
+            Profile p = PROFILES.get(e.getKey().toLowerCase());
+            if (p == null) throw new IllegalArgumentException("Unknown vehicle kind in mix: " + e.getKey());
+            if (e.getValue() <= 0) continue;
+            ps.add(p);
+            total += e.getValue();
+            weights.add(total);
+        }
+        if (ps.isEmpty()) throw new IllegalArgumentException("Mix must contain at least one positive weight");
+        this.profiles = ps.toArray(new Profile[0]);
+        this.cumulative = new double[profiles.length];
+        for (int i = 0; i < cumulative.length; i++) cumulative[i] = weights.get(i) / total;
+        this.rnd = new SplittableRandom(seed);
+    }
+
+    /** Equal parts of all five types. */
+    public static FleetGenerator balanced(long seed) {
+        return new FleetGenerator(parseMix("car=1,truck=1,bus=1,airplane=1,ship=1"), seed);
+    }
+
+    /** Parses "car=40,truck=25,..." into a mix map. */
+    public static Map<String, Double> parseMix(String spec) {
+        Map<String, Double> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("Bad mix entry: " + part);
+            mix.put(kv[0].trim(), Double.parseDouble(kv[1].trim()));
+        }
+        return mix;
+    }
+
+    /** IDs continue from here (the next vehicle gets sequence + 1); keeps extra vehicles clear of a loaded fleet. */
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    // ---------- Generation ----------
+
+    public VehicleSnapshot next() {
+        Profile p = pickProfile();
+        long n = ++sequence;
+        String model = p.models[zipf(p.models.length)];
+        double speed = Math.round(p.baseSpeed * (0.8 + 0.4 * rnd.nextDouble()));
+        double mileage = Math.round(-Math.log(1.0 - rnd.nextDouble()) * p.meanMileage * 10) / 10.0;
+        boolean sail = p.type.equals("CargoShip") && rnd.nextInt(20) == 0;
+        double fuel = sail ? 0.0 : Math.round(p.tank * (0.1 + 0.9 * rnd.nextDouble()));
+        double cargo = p.cargoCapacity > 0 ? Math.round(p.cargoCapacity * rnd.nextDouble() * 0.8) : 0.0;
+        int passengers = p.seats > 0 ? rnd.nextInt(p.seats + 1) : 0;
+        int wheels = switch (p.type) {
+            case "Car" -> 4;
+            case "Truck" -> rnd.nextBoolean() ? 6 : 10;
+            case "Bus" -> 6;
+            default -> 0;
+        };
+        double altitude = p.type.equals("Airplane") ? 9000 + rnd.nextInt(4000) : 0.0;
+        return new VehicleSnapshot(p.type, p.idPrefix + n, model, speed, mileage, fuel, cargo, passengers,
+                wheels, altitude, sail, false);
+    }
+
+    public List<Vehicle> generate(int size) {
+        List<Vehicle> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            try {
+                out.add(VehicleFactory.restore(next()));
+            } catch (InvalidOperationException e) {
+                throw new IllegalStateException("Generator produced an invalid vehicle: " + e.getMessage(), e);
+            }
+        }
+        return out;
+    }
+
+    /** Same layout as FleetManager.saveToFile(): Type,ID,Model,MaxSpeed,Mileage,Efficiency. */
+    public void writeCsv(String filename, long size) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(
+                Codecs.openOutput(Paths.get(filename)), StandardCharsets.UTF_8), 64 * 1024)) {
+            for (long i = 0; i < size; i++) {
+                VehicleSnapshot s = next();
+                bw.write(s.getType());
+                bw.write(',');
+                bw.write(s.getId());
+                bw.write(',');
+                bw.write(s.getModel());
+                bw.write(',');
+                bw.write(Double.toString(s.getMaxSpeed()));
+                bw.write(',');
+                bw.write(Double.toString(s.getMileage()));
+                bw.write(',');
+                bw.write(Double.toString(efficiencyOf(s)));
+                bw.newLine();
+            }
+        }
+    }
+
+    public void writeBinary(String filename, long size) throws IOException {
+        try (OutputStream os = Codecs.openOutput(Paths.get(filename));
+             FleetSnapshotWriter w = new FleetSnapshotWriter(os)) {
+            for (long i = 0; i < size; i++) {
+                w.write(next());
+            }
+        }
+    }
+
+    private Profile pickProfile() {
+        double u = rnd.nextDouble();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (u < cumulative[i]) return profiles[i];
+        }
+        return profiles[profiles.length - 1];
+    }
+
+    /** Index in [0, n) with probability proportional to 1 / (rank + 1). */
+    private int zipf(int n) {
+        double norm = 0;
+        for (int i = 1; i <= n; i++) norm += 1.0 / i;
+        double u = rnd.nextDouble() * norm;
+        for (int i = 1; i <= n; i++) {
+            u -= 1.0 / i;
+            if (u <= 0) return i - 1;
+        }
+        return n - 1;
+    }
+
+    /** Efficiency is a per-type constant, so ask one prototype per type instead of every row. */
+    private double efficiencyOf(VehicleSnapshot s) {
+        String key = s.getType() + (s.hasSail() ? "/sail" : "");
+        Double e = efficiencyByType.get(key);
+        if (e == null) {
+            try {
+                e = VehicleFactory.restore(s).calculateFuelEfficiency();
+            } catch (InvalidOperationException ex) {
+                throw new IllegalStateException("Generator produced an invalid vehicle: " + ex.getMessage(), ex);
+            }
+            efficiencyByType.put(key, e);
+        }
+        return e;
+    }
+
+    // ---------- CLI ----------
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        long size = Long.parseLong(opts.getOrDefault("size", "100000"));
+        String format = opts.getOrDefault("format", "csv");
+        String out = opts.getOrDefault("out", "bin".equals(format) ? "fleet.bin" : "fleet.csv");
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        FleetGenerator gen = new FleetGenerator(
+                parseMix(opts.getOrDefault("mix", "car=40,truck=25,bus=15,airplane=10,ship=10")), seed);
+
+        long start = System.nanoTime();
+        if ("bin".equals(format)) gen.writeBinary(out, size);
+        else gen.writeCsv(out, size);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d vehicles to %s (%s) in %.2f s%n", size, out, format, secs);
+    }
+}
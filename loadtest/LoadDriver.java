@@ -0,0 +1,224 @@
+package loadtest;
+
+import logistics.FleetManager;
+import logistics.InvalidOperationException;
+import logistics.VehicleFactory;
+import vehicles.Vehicle;
+import vehicles.interfaces.FuelConsumable;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load driver: replays a mixed add/remove/search/journey/refuel
+ * workload against a FleetManager at a fixed target rate and reports
+ * throughput and p50/p99/p99.9 latency per operation.
+ *
+ * The schedule is open-loop: operation i is due at start + i / rate, and its
+ * latency is measured from when it was due, not from when it actually started,
+ * so a stall shows up in the tail instead of silently lowering the rate.
+ *
+ * Usage: java -cp out loadtest.LoadDriver [--fleet fleet.csv|fleet.bin | --size 100000]
+ *            [--rate 50000] [--seconds 30] [--seed 1]
+ *            [--ops add=5,remove=5,search=60,journey=20,refuel=10]
+ */
+public class LoadDriver {
+
+    enum Op { ADD, REMOVE, SEARCH, JOURNEY, REFUEL }
+
+    private final FleetManager manager;
+    private final List<String> liveIds = new ArrayList<>();
+    private final Map<String, Integer> slotOf = new HashMap<>();
+    private final FleetGenerator generator;
+    private final SplittableRandom rnd;
+    private final Op[] opTable; // 100 slots filled according to the op mix
+
+    private final EnumMap<Op, LatencyHistogram> latency = new EnumMap<>(Op.class);
+    private final EnumMap<Op, long[]> failures = new EnumMap<>(Op.class);
+
+    public LoadDriver(FleetManager manager, Map<String, Double> opMix, long seed) {
+        this.manager = manager;
+        this.generator = new FleetGenerator(
+                FleetGenerator.parseMix("car=40,truck=25,bus=15,airplane=10,ship=10"), seed ^ 0x5DEECE66DL);
+        this.generator.setSequence(1_000_000_000L);
+        this.rnd = new SplittableRandom(seed);
+        this.opTable = buildOpTable(opMix);
+        for (Vehicle v : manager.getAllVehicles()) trackId(v.getId());
+        for (Op op : Op.values()) {
+            latency.put(op, new LatencyHistogram());
+            failures.put(op, new long[1]);
+        }
+    }
+
+    // ---------- Run loop ----------
+
+    public void run(double ratePerSecond, long durationNanos) {
+        long interval = (long) (1e9 / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long due = start;
+
+        while (due < end) {
+            long now = System.nanoTime();
+            if (now < due) {
+                LockSupport.parkNanos(due - now);
+                continue;
+            }
+            Op op = opTable[rnd.nextInt(opTable.length)];
+            boolean ok = execute(op);
+            latency.get(op).record(System.nanoTime() - due);
+            if (!ok) failures.get(op)[0]++;
+            due += interval;
+        }
+    }
+
+    private boolean execute(Op op) {
+        try {
+            switch (op) {
+                case ADD -> {
+                    Vehicle v = VehicleFactory.restore(generator.next());
+                    manager.addVehicle(v);
+                    trackId(v.getId());
+                }
+                case REMOVE -> {
+                    if (liveIds.isEmpty()) return false;
+                    String id = randomId();
+                    manager.removeVehicle(id);
+                    untrackId(id);
+                }
+                case SEARCH -> {
+                    // one in ten lookups misses on purpose
+                    String id = rnd.nextInt(10) == 0 || liveIds.isEmpty() ? "MISSING" + rnd.nextInt() : randomId();
+                    manager.searchById(id);
+                }
+                case JOURNEY -> {
+                    Vehicle v = randomVehicle();
+                    if (v == null) return false;
+                    v.move(1 + rnd.nextInt(50));
+                }
+                case REFUEL -> {
+                    Vehicle v = randomVehicle();
+                    if (!(v instanceof FuelConsumable fc)) return false;
+                    fc.refuel(10 + rnd.nextInt(90));
+                }
+            }
+            return true;
+        } catch (InvalidOperationException e) {
+            return false; // out of fuel, sailing ship refuel, ... counted, not fatal
+        }
+    }
+
+    // ---------- Live ID bookkeeping ----------
+
+    private void trackId(String id) {
+        slotOf.put(id, liveIds.size());
+        liveIds.add(id);
+    }
+
+    private void untrackId(String id) {
+        int slot = slotOf.remove(id);
+        String last = liveIds.remove(liveIds.size() - 1);
+        if (slot < liveIds.size()) {
+            liveIds.set(slot, last);
+            slotOf.put(last, slot);
+        }
+    }
+
+    private String randomId() {
+        return liveIds.get(rnd.nextInt(liveIds.size()));
+    }
+
+    private Vehicle randomVehicle() {
+        return liveIds.isEmpty() ? null : manager.searchById(randomId());
+    }
+
+    private static Op[] buildOpTable(Map<String, Double> mix) {
+        double total = 0;
+        for (double w : mix.values()) total += w;
+        List<Op> table = new ArrayList<>();
+        for (Map.Entry<String, Double> e : mix.entrySet()) {
+            Op op = Op.valueOf(e.getKey().toUpperCase());
+            long slots = Math.round(e.getValue() / total * 100);
+            for (long i = 0; i < slots; i++) table.add(op);
+        }
+        if (table.isEmpty()) throw new IllegalArgumentException("Operation mix is empty");
+        return table.toArray(new Op[0]);
+    }
+
+    // ---------- Reporting ----------
+
+    public void printReport(double elapsedSeconds, PrintStream out) {
+        out.printf("%-8s %10s %10s %8s %10s %10s %10s %10s%n",
+                "op", "count", "ops/s", "failed", "p50(us)", "p99(us)", "p999(us)", "max(us)");
+        LatencyHistogram all = new LatencyHistogram();
+        for (Op op : Op.values()) {
+            LatencyHistogram h = latency.get(op);
+            if (h.getCount() == 0) continue;
+            all.merge(h);
+            printRow(out, op.name().toLowerCase(), h, failures.get(op)[0], elapsedSeconds);
+        }
+        long failed = 0;
+        for (long[] f : failures.values()) failed += f[0];
+        printRow(out, "total", all, failed, elapsedSeconds);
+    }
+
+    private static void printRow(PrintStream out, String name, LatencyHistogram h, long failed, double secs) {
+        out.printf("%-8s %10d %10.0f %8d %10.1f %10.1f %10.1f %10.1f%n",
+                name, h.getCount(), h.getCount() / secs, failed,
+                h.percentile(50) / 1e3, h.percentile(99) / 1e3, h.percentile(99.9) / 1e3, h.getMax() / 1e3);
+    }
+
+    // ---------- CLI ----------
+
+    public static void main(String[] args) {
+        Map<String, String> opts = parseArgs(args);
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "50000"));
+        long seconds = Long.parseLong(opts.getOrDefault("seconds", "30"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        Map<String, Double> ops = FleetGenerator.parseMix(
+                opts.getOrDefault("ops", "add=5,remove=5,search=60,journey=20,refuel=10"));
+
+        FleetManager manager = new FleetManager();
+        String fleet = opts.get("fleet");
+        PrintStream stdout = System.out;
+        // move(), save and load print on every call; that is not what we are measuring
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            if (fleet != null && fleet.endsWith(".bin")) {
+                manager.loadSnapshot(fleet);
+            } else if (fleet != null) {
+                manager.loadFromFile(fleet);
+            } else {
+                int size = Integer.parseInt(opts.getOrDefault("size", "100000"));
+                for (Vehicle v : FleetGenerator.balanced(seed).generate(size)) {
+                    manager.addVehicle(v);
+                }
+            }
+
+            LoadDriver driver = new LoadDriver(manager, ops, seed);
+            stdout.printf("Driving %d vehicles at %.0f ops/s for %d s%n",
+                    manager.getAllVehicles().size(), rate, seconds);
+            long start = System.nanoTime();
+            driver.run(rate, TimeUnit.SECONDS.toNanos(seconds));
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            driver.printReport(elapsed, stdout);
+        } catch (InvalidOperationException e) {
+            stdout.println("Could not build fleet: " + e.getMessage());
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    /** "--key value" pairs into a map. */
+    public static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Expected --option, got " + args[i]);
+            opts.put(args[i].substring(2), args[i + 1]);
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,129 @@
+package logistics;
+
+import indexing.VehicleHashTable;
+import metrics.FleetMetrics;
+import vehicles.Vehicle;
+import vehicles.interfaces.CargoCarrier;
+import vehicles.interfaces.FuelConsumable;
+import vehicles.interfaces.Maintainable;
+import vehicles.interfaces.PassengerCarrier;
+
+import java.util.List;
+
+/**
+ * Runs a batch of FleetCommands against one index.
+ *
+ * Commands are grouped by vehicle ID first. All distinct IDs are then resolved
+ * in one VehicleHashTable.getAll() call, so the index lock is taken once per
+ * batch rather than once per command. Commands for the same vehicle run in
+ * their input order; different vehicles run in order of first appearance.
+ */
+final class BatchExecutor {
+
+    private BatchExecutor() { }
+
+    /**
+     * Applies commands at positions[0..count) (or 0..count when positions is
+     * null) and records each outcome in result at the command's own position.
+     */
+    static void apply(List<FleetCommand> commands, int[] positions, int count,
+                      VehicleHashTable index, FleetMetrics metrics, BatchResult result) {
+        // open-addressing table of group numbers (+1, 0 = empty); no boxing, no per-entry objects
+        int mask = (Integer.highestOneBit(Math.max(4, count * 2 - 1)) << 1) - 1;
+        int[] slots = new int[mask + 1];
+        String[] keys = new String[count];
+        int[] keyHash = new int[count];
+        int[] head = new int[count];
+        int[] tail = new int[count];
+        int[] next = new int[count];
+        int groups = 0;
+
+        for (int k = 0; k < count; k++) {
+            String id = commands.get(positions == null ? k : positions[k]).getVehicleId();
+            int h = id.hashCode();
+            next[k] = -1;
+            for (int i = spread(h) & mask; ; i = (i + 1) & mask) {
+                int g = slots[i] - 1;
+                if (g < 0) {
+                    slots[i] = groups + 1;
+                    keys[groups] = id;
+                    keyHash[groups] = h;
+                    head[groups] = k;
+                    tail[groups] = k;
+                    groups++;
+                    break;
+                }
+                if (keyHash[g] == h && keys[g].equals(id)) {
+                    next[tail[g]] = k;
+                    tail[g] = k;
+                    break;
+                }
+            }
+        }
+
+        Vehicle[] vehicles = new Vehicle[groups];
+        index.getAll(keys, groups, vehicles);
+        result.addLookups(groups);
+
+        for (int g = 0; g < groups; g++) {
+            Vehicle v = vehicles[g];
+            for (int k = head[g]; k >= 0; k = next[k]) {
+                int pos = positions == null ? k : positions[k];
+                if (v == null) {
+                    result.fail(pos, BatchResult.Status.NOT_FOUND, "Vehicle with ID " + keys[g] + " not found");
+                } else {
+                    applyOne(commands.get(pos), v, pos, metrics, result);
+                }
+            }
+        }
+    }
+
+    private static void applyOne(FleetCommand c, Vehicle v, int pos, FleetMetrics metrics, BatchResult result) {
+        try {
+            switch (c.getKind()) {
+                case REFUEL -> {
+                    if (!(v instanceof FuelConsumable fc)) { unsupported(c, v, pos, result); return; }
+                    fc.refuel(c.getAmount());
+                }
+                case LOAD_CARGO -> {
+                    if (!(v instanceof CargoCarrier cc)) { unsupported(c, v, pos, result); return; }
+                    cc.loadCargo(c.getAmount());
+                }
+                case UNLOAD_CARGO -> {
+                    if (!(v instanceof CargoCarrier cc)) { unsupported(c, v, pos, result); return; }
+                    cc.unloadCargo(c.getAmount());
+                }
+                case BOARD -> {
+                    if (!(v instanceof PassengerCarrier pc)) { unsupported(c, v, pos, result); return; }
+                    pc.boardPassengers((int) c.getAmount());
+                }
+                case DISEMBARK -> {
+                    if (!(v instanceof PassengerCarrier pc)) { unsupported(c, v, pos, result); return; }
+                    pc.disembarkPassengers((int) c.getAmount());
+                }
+                case MOVE -> {
+                    v.move(c.getAmount());
+                    metrics.incrementJourneyCount();
+                }
+                case MAINTAIN -> {
+                    if (!(v instanceof Maintainable m)) { unsupported(c, v, pos, result); return; }
+                    m.performMaintenance();
+                }
+            }
+            result.ok(pos);
+        } catch (InvalidOperationException | OverloadException e) {
+            result.fail(pos, BatchResult.Status.REJECTED, e.getMessage());
+        }
+    }
+
+    /** Mixes sequential String hashes (V1, V2, ...) across the table. */
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void unsupported(FleetCommand c, Vehicle v, int pos, BatchResult result) {
+        result.fail(pos, BatchResult.Status.UNSUPPORTED,
+                v.getClass().getSimpleName() + " " + v.getId() + " does not support " + c.getKind());
+    }
+}
@@ -0,0 +1,77 @@
+package logistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-command outcome of FleetManager.applyBatch(), indexed like the input
+ * list. Outcomes are kept in flat arrays and error messages are only stored
+ * for failures, so a million successful refuels cost a few megabytes.
+ */
+public class BatchResult {
+
+    public enum Status { OK, NOT_FOUND, UNSUPPORTED, REJECTED }
+
+    private static final Status[] STATUSES = Status.values();
+
+    private final byte[] status;
+    private final String[] errors;
+    private int vehicleLookups;
+
+    BatchResult(int size) {
+        this.status = new byte[size];
+        this.errors = new String[size];
+    }
+
+    void ok(int i) {
+        status[i] = (byte) Status.OK.ordinal();
+    }
+
+    void fail(int i, Status s, String error) {
+        status[i] = (byte) s.ordinal();
+        errors[i] = error;
+    }
+
+    synchronized void addLookups(int n) {
+        vehicleLookups += n;
+    }
+
+    public int size() {
+        return status.length;
+    }
+
+    public Status getStatus(int i) {
+        return STATUSES[status[i]];
+    }
+
+    public boolean isSuccess(int i) {
+        return status[i] == 0;
+    }
+
+    /** Why command i failed, or null on success. */
+    public String getError(int i) {
+        return errors[i];
+    }
+
+    public int getSucceeded() {
+        int n = 0;
+        for (byte b : status) if (b == 0) n++;
+        return n;
+    }
+
+    public int getFailed() {
+        return status.length - getSucceeded();
+    }
+
+    /** Indices of the commands that failed, in input order. */
+    public List<Integer> failures() {
+        List<Integer> out = new ArrayList<>();
+        for (int i = 0; i < status.length; i++) if (status[i] != 0) out.add(i);
+        return out;
+    }
+
+    /** Distinct vehicles looked up to run the batch. */
+    public synchronized int getVehicleLookups() {
+        return vehicleLookups;
+    }
+}
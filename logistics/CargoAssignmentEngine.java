@@ -0,0 +1,455 @@
+package logistics;
+
+import vehicles.Vehicle;
+import vehicles.WaterVehicle;
+import vehicles.interfaces.CargoCarrier;
+import vehicles.interfaces.PassengerCarrier;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Bulk cargo assignment across all CargoCarrier vehicles.
+ *
+ * Every carrier (Truck, Bus, Airplane, CargoShip) burns ~11% more fuel once it is
+ * loaded above half its cargo capacity (the 0.9 efficiency factor in move()).
+ * The engine therefore packs in two phases:
+ *   1. fill carriers up to 50% (or up to full capacity when the carrier is
+ *      already penalised, e.g. a half-full Airplane or a sailing ship)
+ *   2. place what is left on the carriers with the cheapest penalty per km
+ * and then spends the remaining time budget moving shipments off penalised
+ * carriers. Several heuristics (best fit, worst fit, randomised best fit) run in
+ * parallel on a snapshot of the carriers' loads and the best plan wins.
+ */
+public class CargoAssignmentEngine {
+
+    /** Same factor Truck/Bus/Airplane/CargoShip apply to efficiency above 50% load. */
+    private static final double HEAVY_LOAD_EFFICIENCY = 0.9;
+    private static final double EPS = 1e-9;
+
+    private final long timeBudgetMillis;
+    private final int parallelism;
+
+    public CargoAssignmentEngine() {
+        this(200, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CargoAssignmentEngine(long timeBudgetMillis, int parallelism) {
+        if (timeBudgetMillis < 0) throw new IllegalArgumentException("Time budget cannot be negative");
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Extra litres per km a vehicle burns when it runs above half load.
+     * Sailing ships and zero-efficiency vehicles pay nothing.
+     */
+    public static double penaltyPerKm(Vehicle v) {
+        if (v instanceof WaterVehicle w && w.gethasSail()) return 0.0;
+        double e = v.calculateFuelEfficiency();
+        if (e <= 0) return 0.0;
+        return 1.0 / (e * HEAVY_LOAD_EFFICIENCY) - 1.0 / e;
+    }
+
+    public CargoPlan plan(List<Shipment> shipments, Collection<? extends Vehicle> vehicles) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+
+        List<Vehicle> carriers = new ArrayList<>();
+        for (Vehicle v : vehicles) {
+            if (v instanceof CargoCarrier) carriers.add(v);
+        }
+
+        Shipment[] ships = shipments.toArray(new Shipment[0]);
+        Arrays.sort(ships, Comparator.comparingDouble(Shipment::getWeight).reversed());
+        Bins bins = new Bins(carriers);
+
+        Solution best;
+        if (carriers.isEmpty() || ships.length == 0) {
+            best = new Packer(bins, ships, "none").snapshot();
+        } else {
+            best = runPortfolio(bins, ships, deadline);
+        }
+
+        Map<Vehicle, List<Shipment>> assignments = new LinkedHashMap<>();
+        List<Shipment> unassigned = new ArrayList<>();
+        for (int s = 0; s < ships.length; s++) {
+            int b = best.binOf[s];
+            if (b < 0) {
+                unassigned.add(ships[s]);
+            } else {
+                assignments.computeIfAbsent(carriers.get(b), k -> new ArrayList<>()).add(ships[s]);
+            }
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new CargoPlan(assignments, unassigned, best.penalty, best.strategy, elapsed);
+    }
+
+    private Solution runPortfolio(Bins bins, Shipment[] ships, long deadline) {
+        List<Callable<Solution>> tasks = new ArrayList<>();
+        tasks.add(() -> solveOnce(bins, ships, deadline, false));
+        tasks.add(() -> solveOnce(bins, ships, deadline, true));
+        for (int i = 2; i < Math.max(parallelism, 3); i++) {
+            long seed = 0x9E3779B97F4A7C15L * i;
+            tasks.add(() -> solveRandomized(bins, ships, deadline, new Random(seed)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()));
+        try {
+            Solution best = null;
+            for (Future<Solution> f : pool.invokeAll(tasks)) {
+                Solution s = f.get();
+                if (best == null || s.betterThan(best)) best = s;
+            }
+            return best;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cargo planning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cargo planning failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Solution solveOnce(Bins bins, Shipment[] ships, long deadline, boolean worstFit) {
+        Packer p = new Packer(bins, ships, worstFit ? "worst-fit-decreasing" : "best-fit-decreasing");
+        p.construct(identityOrder(ships.length), worstFit);
+        p.improve(deadline);
+        return p.snapshot();
+    }
+
+    /** Restarts best fit on perturbed orderings until the deadline. */
+    private static Solution solveRandomized(Bins bins, Shipment[] ships, long deadline, Random rnd) {
+        Solution best = null;
+        do {
+            double[] key = new double[ships.length];
+            Integer[] boxed = new Integer[ships.length];
+            for (int i = 0; i < ships.length; i++) {
+                key[i] = ships[i].getWeight() * (0.8 + 0.4 * rnd.nextDouble());
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, (a, b) -> Double.compare(key[b], key[a]));
+            int[] order = new int[ships.length];
+            for (int i = 0; i < order.length; i++) order[i] = boxed[i];
+
+            Packer p = new Packer(bins, ships, "randomized-best-fit");
+            p.construct(order, false);
+            p.improve(deadline);
+            Solution s = p.snapshot();
+            if (best == null || s.betterThan(best)) best = s;
+        } while (System.nanoTime() < deadline);
+        return best;
+    }
+
+    private static int[] identityOrder(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        return order;
+    }
+
+    // ---------- Carrier snapshot ----------
+
+    /** Immutable per-carrier numbers shared by all heuristics. */
+    private static final class Bins {
+        final int count;
+        final double[] capacity;
+        final double[] half;
+        final double[] base;          // cargo already on board
+        final double[] rate;          // penalty litres/km once above half load
+        final double[] density;       // penalty per kg of capacity above half load
+        final boolean[] prePenalized; // penalty is paid regardless of this plan
+
+        Bins(List<Vehicle> carriers) {
+            count = carriers.size();
+            capacity = new double[count];
+            half = new double[count];
+            base = new double[count];
+            rate = new double[count];
+            density = new double[count];
+            prePenalized = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                Vehicle v = carriers.get(i);
+                CargoCarrier cc = (CargoCarrier) v;
+                capacity[i] = cc.getCargoCapacity();
+                half[i] = cc.getCargoCapacity() / 2;
+                base[i] = cc.getCurrentCargo();
+                rate[i] = penaltyPerKm(v);
+                density[i] = capacity[i] > half[i] ? rate[i] / (capacity[i] - half[i]) : rate[i];
+                boolean heavyPassengers = v instanceof PassengerCarrier pc
+                        && pc.getCurrentPassengers() > pc.getPassengerCapacity() / 2;
+                prePenalized[i] = rate[i] == 0.0 || heavyPassengers || base[i] > half[i];
+            }
+        }
+    }
+
+    // ---------- Heuristic state ----------
+
+    private static final class Solution {
+        final int[] binOf;
+        final double assignedWeight;
+        final double penalty;
+        final String strategy;
+
+        Solution(int[] binOf, double assignedWeight, double penalty, String strategy) {
+            this.binOf = binOf;
+            this.assignedWeight = assignedWeight;
+            this.penalty = penalty;
+            this.strategy = strategy;
+        }
+
+        /** More cargo placed wins; ties go to the lower fuel penalty. */
+        boolean betterThan(Solution o) {
+            if (assignedWeight > o.assignedWeight + EPS) return true;
+            if (assignedWeight < o.assignedWeight - EPS) return false;
+            return penalty < o.penalty - EPS;
+        }
+    }
+
+    /**
+     * Bins ordered by remaining slack, so best fit is a ceiling lookup and worst
+     * fit is the last element. Slack must only change while a bin is removed.
+     */
+    private static final class SlackSet {
+        private final double[] slack;
+        private final TreeSet<Integer> set;
+        private double probe;
+
+        SlackSet(double[] slack) {
+            this.slack = slack;
+            this.set = new TreeSet<>((a, b) -> {
+                int c = Double.compare(value(a), value(b));
+                return c != 0 ? c : Integer.compare(a, b);
+            });
+        }
+
+        private double value(int i) {
+            return i < 0 ? probe : slack[i];
+        }
+
+        void add(int i) { set.add(i); }
+
+        void remove(int i) { set.remove(i); }
+
+        int bestFit(double weight) {
+            probe = weight - EPS;
+            Integer i = set.ceiling(-1);
+            return i == null ? -1 : i;
+        }
+
+        int worstFit(double weight) {
+            if (set.isEmpty()) return -1;
+            int i = set.last();
+            return slack[i] >= weight - EPS ? i : -1;
+        }
+    }
+
+    private static final class Packer {
+        final Bins bins;
+        final Shipment[] ships;
+        final String strategy;
+
+        final int[] binOf;
+        final double[] load;
+        final double[] softSlack;  // room left before crossing 50%
+        final double[] fullSlack;  // room left before capacity
+        final boolean[] penalized;
+        final List<List<Integer>> members;
+
+        final SlackSet soft;                       // unpenalised bins by soft slack
+        final SlackSet hard;                       // penalised bins by full slack
+        final TreeMap<Double, SlackSet> byDensity = new TreeMap<>(); // unpenalised bins by full slack
+
+        Packer(Bins bins, Shipment[] ships, String strategy) {
+            this.bins = bins;
+            this.ships = ships;
+            this.strategy = strategy;
+            binOf = new int[ships.length];
+            Arrays.fill(binOf, -1);
+            load = new double[bins.count];
+            softSlack = new double[bins.count];
+            fullSlack = new double[bins.count];
+            penalized = new boolean[bins.count];
+            members = new ArrayList<>(bins.count);
+            soft = new SlackSet(softSlack);
+            hard = new SlackSet(fullSlack);
+
+            for (int i = 0; i < bins.count; i++) {
+                members.add(new ArrayList<>());
+                softSlack[i] = bins.half[i] - bins.base[i];
+                fullSlack[i] = bins.capacity[i] - bins.base[i];
+                attach(i);
+            }
+        }
+
+        private void attach(int i) {
+            penalized[i] = bins.prePenalized[i] || bins.base[i] + load[i] > bins.half[i] + EPS;
+            if (penalized[i]) {
+                hard.add(i);
+            } else {
+                soft.add(i);
+                byDensity.computeIfAbsent(bins.density[i], r -> new SlackSet(fullSlack)).add(i);
+            }
+        }
+
+        private void detach(int i) {
+            if (penalized[i]) {
+                hard.remove(i);
+            } else {
+                soft.remove(i);
+                byDensity.get(bins.density[i]).remove(i);
+            }
+        }
+
+        private void place(int s, int i) {
+            double w = ships[s].getWeight();
+            detach(i);
+            load[i] += w;
+            softSlack[i] -= w;
+            fullSlack[i] -= w;
+            members.get(i).add(s);
+            binOf[s] = i;
+            attach(i);
+        }
+
+        private void unplace(int s) {
+            int i = binOf[s];
+            double w = ships[s].getWeight();
+            detach(i);
+            load[i] -= w;
+            softSlack[i] += w;
+            fullSlack[i] += w;
+            members.get(i).remove((Integer) s);
+            binOf[s] = -1;
+            attach(i);
+        }
+
+        /** A bin that takes the shipment without adding any penalty, or -1. */
+        private int freeSlot(double w, boolean worstFit) {
+            int i = hard.bestFit(w);
+            if (i >= 0) return i;
+            return worstFit ? soft.worstFit(w) : soft.bestFit(w);
+        }
+
+        /**
+         * Unpenalised bin with the lowest penalty per kg of overflow capacity that
+         * fits the shipment and whose penalty rate stays under maxRate, or -1.
+         */
+        private int cheapestSlot(double w, double maxRate) {
+            for (SlackSet set : byDensity.values()) {
+                int i = set.bestFit(w);
+                if (i >= 0 && bins.rate[i] < maxRate) return i;
+            }
+            return -1;
+        }
+
+        void construct(int[] order, boolean worstFit) {
+            List<Integer> leftover = new ArrayList<>();
+            for (int s : order) {
+                int i = freeSlot(ships[s].getWeight(), worstFit);
+                if (i >= 0) place(s, i);
+                else leftover.add(s);
+            }
+            for (int s : leftover) {
+                double w = ships[s].getWeight();
+                int i = hard.bestFit(w);
+                if (i < 0) i = cheapestSlot(w, Double.MAX_VALUE);
+                if (i >= 0) place(s, i);
+            }
+        }
+
+        /** Relieves penalised carriers and retries unplaced shipments until stable or out of time. */
+        void improve(long deadline) {
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadline) {
+                improved = false;
+
+                List<Integer> candidates = new ArrayList<>();
+                for (int i = 0; i < bins.count; i++) {
+                    if (penalized[i] && !bins.prePenalized[i]) candidates.add(i);
+                }
+                candidates.sort((a, b) -> Double.compare(bins.rate[b], bins.rate[a]));
+                for (int b : candidates) {
+                    if (System.nanoTime() >= deadline) return;
+                    if (relieve(b)) improved = true;
+                }
+
+                for (int s = 0; s < ships.length; s++) {
+                    if (binOf[s] >= 0) continue;
+                    double w = ships[s].getWeight();
+                    int i = freeSlot(w, false);
+                    if (i < 0) i = cheapestSlot(w, Double.MAX_VALUE);
+                    if (i >= 0) {
+                        place(s, i);
+                        improved = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Moves shipments off bin b until it is back at or below half load.
+         * Targets are free slots first, then cheaper bins as long as the penalties
+         * they pick up stay below what b saves. All-or-nothing.
+         */
+        private boolean relieve(int b) {
+            List<Integer> items = new ArrayList<>(members.get(b));
+            items.sort((x, y) -> Double.compare(ships[y].getWeight(), ships[x].getWeight()));
+
+            detach(b);
+            double excess = bins.base[b] + load[b] - bins.half[b];
+            double addedPenalty = 0.0;
+            List<Integer> moved = new ArrayList<>();
+            for (int s : items) {
+                if (excess <= EPS) break;
+                double w = ships[s].getWeight();
+                int t = freeSlot(w, false);
+                if (t < 0) {
+                    t = cheapestSlot(w, bins.rate[b] - addedPenalty - EPS);
+                    if (t < 0) continue;
+                    addedPenalty += bins.rate[t];
+                }
+                shiftOff(b, s, w);
+                place(s, t);
+                moved.add(s);
+                excess -= w;
+            }
+            if (excess <= EPS && addedPenalty < bins.rate[b] - EPS) {
+                attach(b);
+                return true;
+            }
+            for (int s : moved) {
+                double w = ships[s].getWeight();
+                unplace(s);
+                load[b] += w;
+                softSlack[b] -= w;
+                fullSlack[b] -= w;
+                members.get(b).add(s);
+                binOf[s] = b;
+            }
+            attach(b);
+            return false;
+        }
+
+        /** Takes a shipment off a detached bin without touching the indexes. */
+        private void shiftOff(int b, int s, double w) {
+            load[b] -= w;
+            softSlack[b] += w;
+            fullSlack[b] += w;
+            members.get(b).remove((Integer) s);
+            binOf[s] = -1;
+        }
+
+        Solution snapshot() {
+            double assigned = 0.0;
+            for (int s = 0; s < ships.length; s++) {
+                if (binOf[s] >= 0) assigned += ships[s].getWeight();
+            }
+            double penalty = 0.0;
+            for (int i = 0; i < bins.count; i++) {
+                if (penalized[i] && !bins.prePenalized[i]) penalty += bins.rate[i];
+            }
+            return new Solution(binOf.clone(), assigned, penalty, strategy);
+        }
+    }
+}
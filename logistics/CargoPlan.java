@@ -0,0 +1,97 @@
+package logistics;
+
+import vehicles.Vehicle;
+import vehicles.interfaces.CargoCarrier;
+
+import java.util.*;
+
+/**
+ * Result of a CargoAssignmentEngine run: which shipments go on which carrier,
+ * what could not be placed, and the fuel penalty the plan incurs.
+ *
+ * The plan is computed against a snapshot of the carriers' loads; apply()
+ * performs the actual loadCargo() calls and reports anything that no longer fits.
+ */
+public class CargoPlan {
+
+    private final Map<Vehicle, List<Shipment>> assignments;
+    private final List<Shipment> unassigned;
+    private final double penaltyLitresPerKm;
+    private final String strategy;
+    private final long elapsedMillis;
+
+    CargoPlan(Map<Vehicle, List<Shipment>> assignments, List<Shipment> unassigned,
+              double penaltyLitresPerKm, String strategy, long elapsedMillis) {
+        this.assignments = assignments;
+        this.unassigned = unassigned;
+        this.penaltyLitresPerKm = penaltyLitresPerKm;
+        this.strategy = strategy;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /** Shipments per carrier, in the order they will be loaded. */
+    public Map<Vehicle, List<Shipment>> getAssignments() {
+        return Collections.unmodifiableMap(assignments);
+    }
+
+    public List<Shipment> getUnassigned() {
+        return Collections.unmodifiableList(unassigned);
+    }
+
+    /** Extra litres burned per km because carriers run above 50% load. */
+    public double getPenaltyLitresPerKm() {
+        return penaltyLitresPerKm;
+    }
+
+    /** Name of the heuristic that produced the winning plan. */
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public int getAssignedCount() {
+        int n = 0;
+        for (List<Shipment> list : assignments.values()) n += list.size();
+        return n;
+    }
+
+    public double getAssignedWeight() {
+        double total = 0.0;
+        for (List<Shipment> list : assignments.values()) {
+            for (Shipment s : list) total += s.getWeight();
+        }
+        return total;
+    }
+
+    /**
+     * Loads every assigned shipment onto its carrier.
+     *
+     * @return shipments that were rejected with an OverloadException because the
+     *         carrier's load changed after planning
+     */
+    public List<Shipment> apply() {
+        List<Shipment> rejected = new ArrayList<>();
+        for (Map.Entry<Vehicle, List<Shipment>> e : assignments.entrySet()) {
+            CargoCarrier cc = (CargoCarrier) e.getKey();
+            for (Shipment s : e.getValue()) {
+                try {
+                    cc.loadCargo(s.getWeight());
+                } catch (OverloadException ex) {
+                    rejected.add(s);
+                }
+            }
+        }
+        return rejected;
+    }
+
+    public String summary() {
+        return "Cargo plan (" + strategy + "): "
+                + getAssignedCount() + " shipments on " + assignments.size() + " carriers, "
+                + unassigned.size() + " unassigned, "
+                + String.format("penalty %.4f L/km", penaltyLitresPerKm)
+                + ", planned in " + elapsedMillis + " ms";
+    }
+}
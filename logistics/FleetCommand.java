@@ -0,0 +1,67 @@
+package logistics;
+
+/**
+ * One operation of a batch: what to do, to which vehicle, and how much.
+ * Build with the static factories; FleetManager.applyBatch() runs them.
+ */
+public class FleetCommand {
+
+    public enum Kind { REFUEL, LOAD_CARGO, UNLOAD_CARGO, BOARD, DISEMBARK, MOVE, MAINTAIN }
+
+    private final Kind kind;
+    private final String vehicleId;
+    private final double amount;
+
+    public FleetCommand(Kind kind, String vehicleId, double amount) {
+        if (kind == null || vehicleId == null) throw new IllegalArgumentException("Kind and vehicle ID are required");
+        this.kind = kind;
+        this.vehicleId = vehicleId;
+        this.amount = amount;
+    }
+
+    public static FleetCommand refuel(String vehicleId, double litres) {
+        return new FleetCommand(Kind.REFUEL, vehicleId, litres);
+    }
+
+    public static FleetCommand loadCargo(String vehicleId, double weight) {
+        return new FleetCommand(Kind.LOAD_CARGO, vehicleId, weight);
+    }
+
+    public static FleetCommand unloadCargo(String vehicleId, double weight) {
+        return new FleetCommand(Kind.UNLOAD_CARGO, vehicleId, weight);
+    }
+
+    public static FleetCommand board(String vehicleId, int passengers) {
+        return new FleetCommand(Kind.BOARD, vehicleId, passengers);
+    }
+
+    public static FleetCommand disembark(String vehicleId, int passengers) {
+        return new FleetCommand(Kind.DISEMBARK, vehicleId, passengers);
+    }
+
+    public static FleetCommand move(String vehicleId, double distance) {
+        return new FleetCommand(Kind.MOVE, vehicleId, distance);
+    }
+
+    public static FleetCommand maintain(String vehicleId) {
+        return new FleetCommand(Kind.MAINTAIN, vehicleId, 0);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getVehicleId() {
+        return vehicleId;
+    }
+
+    /** Litres, kilograms, passengers or kilometres depending on the kind; unused for MAINTAIN. */
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + vehicleId + (kind == Kind.MAINTAIN ? "" : " " + amount);
+    }
+}
@@ -1,36 +1,66 @@
 package logistics;
 
 import vehicles.Vehicle;
+import vehicles.VehicleChange;
 import vehicles.interfaces.FuelConsumable;
 import vehicles.interfaces.Maintainable;
+import vehicles.interfaces.VehicleObserver;
 
+import indexing.OrderedIdIndex;
+import indexing.SymbolTable;
 import indexing.VehicleHashTable;
+import metrics.FleetAggregates;
 import metrics.FleetMetrics;
+import persistence.CodecStats;
+import persistence.Codecs;
+import persistence.FleetSnapshotReader;
+import persistence.FleetSnapshotWriter;
+import persistence.PipelinedInputStream;
+import persistence.PipelinedOutputStream;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
 /**
  * Collection-based Fleet Manager:
- * - Dynamic storage: ArrayList<Vehicle>
- * - Uniqueness set: HashSet<String> of model names
+ * - Dynamic storage: SnapshotList<Vehicle> (copy-on-write snapshots for readers)
+ * - Model set: BitSet of interned model codes (Vehicle.MODELS)
  * - Ordering/view: TreeSet via getDistinctModelsAlphabetical()
  * - Sorting: comparators for speed/model/efficiency
- * - Persistence: CSV save/load (for A2)
+ * - Persistence: CSV save/load (for A2), CSV delta upsert
  * - A3: Hash-table index + global metrics
+ * - Ordered ID index for range / prefix scans
  */
 public class FleetManager {
 
-    private final List<Vehicle> fleet = new ArrayList<>();
-    private final Set<String> modelNames = new HashSet<>();
+    private final SnapshotList<Vehicle> fleet = new SnapshotList<>();
+    private final BitSet modelCodes = new BitSet();
 
     // A3 additions
     private final VehicleHashTable index = new VehicleHashTable();
+    private final OrderedIdIndex orderedIndex = new OrderedIdIndex();
     private final FleetMetrics metrics = new FleetMetrics();
+    private final FleetAggregates aggregates = new FleetAggregates();
+
+    // Change capture: every tracked vehicle reports to the dispatcher
+    private final List<VehicleObserver> observers = new CopyOnWriteArrayList<>();
+    private final VehicleObserver dispatcher = (v, change, amount) -> {
+        aggregates.onChange(v, change, amount);
+        for (VehicleObserver o : observers) o.onChange(v, change, amount);
+    };
 
     // --- A3 helpers for GUI / metrics ---
 
@@ -38,38 +68,110 @@ public class FleetManager {
         return metrics;
     }
 
-    /** Read-only view of all vehicles, useful for GUI listing. */
+    /** Running totals (mileage, fuel, cargo, counts per type), updated on every change. */
+    public FleetAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /** Recomputes the aggregates from a full scan; returns the drift that was corrected. */
+    public FleetAggregates reconcileAggregates() {
+        return aggregates.reconcile(fleet);
+    }
+
+    /**
+     * Read-only snapshot of all vehicles, useful for GUI listing and long
+     * reports: O(1), consistent, and unaffected by later adds and removes.
+     */
     public List<Vehicle> getAllVehicles() {
-        return Collections.unmodifiableList(fleet);
+        return fleet.snapshot();
+    }
+
+    /** Changes so far to the set or order of vehicles; unchanged means getAllVehicles() is too. */
+    public long getFleetVersion() {
+        return fleet.getVersion();
+    }
+
+    // ---------- Change observers ----------
+
+    /**
+     * Registers an observer for every change to every vehicle in this fleet,
+     * including additions, removals and RESET when a load replaces the fleet.
+     * Observers run synchronously on the mutating thread.
+     */
+    public void addObserver(VehicleObserver observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(VehicleObserver observer) {
+        observers.remove(observer);
+    }
+
+    public boolean hasObservers() {
+        return !observers.isEmpty();
+    }
+
+    /** Notifies observers of a fleet-level change (ADDED, REMOVED, RESET). */
+    void fire(Vehicle v, VehicleChange change) {
+        dispatcher.onChange(v, change, 0);
     }
 
     // ---------- CRUD / Lookup ----------
 
     public void addVehicle(Vehicle v) throws InvalidOperationException {
-        for (Vehicle existing : fleet) {
-            if (existing.getId().equals(v.getId())) {
-                throw new InvalidOperationException("Duplicate vehicle ID: " + v.getId());
-            }
+        if (containsId(v.getId())) {
+            throw new InvalidOperationException("Duplicate vehicle ID: " + v.getId());
         }
+        track(v);
+    }
+
+    /** Adds v to storage, model set, hash index and metrics (no duplicate check). */
+    void track(Vehicle v) {
         fleet.add(v);
-        modelNames.add(v.getModel());
+        if (v.getModelCode() != SymbolTable.NONE) modelCodes.set(v.getModelCode());
 
         // A3: keep hash index + metrics in sync
-        index.put(v.getId(), v);
+        String id = v.getId();
+        index.put(id, v);
+        orderedIndex.put(id, v);
         metrics.incrementVehicleCount();
+
+        v.setObserver(dispatcher);
+        fire(v, VehicleChange.ADDED);
     }
 
     public void removeVehicle(String id) throws InvalidOperationException {
-        boolean removed = fleet.removeIf(v -> {
-            if (v.getId().equals(id)) {
-                index.remove(id);          // A3: remove from hash index too
+        Vehicle v = index.get(id);
+        if (v == null || !fleet.remove(v)) {
+            throw new InvalidOperationException("Vehicle with ID " + id + " not found");
+        }
+        index.remove(id);          // A3: remove from hash index too
+        orderedIndex.remove(id);
+        untrack(v);
+    }
+
+    private void untrack(Vehicle v) {
+        v.setObserver(null);
+        fire(v, VehicleChange.REMOVED);
+    }
+
+    /**
+     * Removes every vehicle matching filter in one pass.
+     *
+     * @return number of vehicles removed
+     */
+    public int removeVehicles(Predicate<Vehicle> filter) {
+        int before = fleet.size();
+        fleet.removeIf(v -> {
+            if (filter.test(v)) {
+                String id = v.getId();
+                index.remove(id);
+                orderedIndex.remove(id);
+                untrack(v);
                 return true;
             }
             return false;
         });
-        if (!removed) {
-            throw new InvalidOperationException("Vehicle with ID " + id + " not found");
-        }
+        return before - fleet.size();
     }
 
     public Vehicle searchById(String id) {
@@ -79,11 +181,42 @@ public class FleetManager {
 
         // Fallback linear scan (defensive)
         for (Vehicle veh : fleet) {
-            if (veh.getId().equals(id)) return veh;
+            if (veh.hasId(id)) return veh;
         }
         return null;
     }
 
+    /**
+     * Looks up ids[0..count) into out[0..count) with one hash index lock
+     * acquisition for the whole batch; unknown IDs give null.
+     */
+    public void searchByIds(String[] ids, int count, Vehicle[] out) {
+        index.getAll(ids, count, out);
+    }
+
+    /**
+     * Vehicles with IDs from..to inclusive, in natural ID order (digit runs
+     * compare by value, so T1000..T1999 is those thousand numbers).
+     */
+    public List<Vehicle> searchByIdRange(String from, String to) {
+        return orderedIndex.range(from, to);
+    }
+
+    /** Vehicles whose ID starts with prefix, in natural ID order. */
+    public List<Vehicle> searchByIdPrefix(String prefix) {
+        return orderedIndex.prefix(prefix);
+    }
+
+    /** Hash index check only; unlike searchById() a miss does not fall back to a scan. */
+    boolean containsId(String id) {
+        return index.get(id) != null;
+    }
+
+    /** Hash index lookup only; unlike searchById() a miss never scans the fleet. */
+    Vehicle lookup(String id) {
+        return index.get(id);
+    }
+
     public List<Vehicle> searchByType(Class<?> type) {
         List<Vehicle> result = new ArrayList<>();
         for (Vehicle v : fleet) if (type.isInstance(v)) result.add(v);
@@ -92,6 +225,23 @@ public class FleetManager {
 
     // ---------- Simulation / Maintenance ----------
 
+    /**
+     * Applies many refuel/cargo/passenger/move/maintain commands in one call.
+     * Each vehicle is looked up once however many commands name it, and a
+     * failed command is recorded in the result instead of aborting the batch.
+     */
+    public BatchResult applyBatch(List<FleetCommand> commands) {
+        BatchResult result = new BatchResult(commands.size());
+        BatchExecutor.apply(commands, null, commands.size(), index, metrics, result);
+        return result;
+    }
+
+    /** Runs the commands at positions[0..count) into a shared result (ShardedFleetManager's per-shard step). */
+    void applyBatch(List<FleetCommand> commands, int[] positions, int count, BatchResult result) {
+        BatchExecutor.apply(commands, positions, count, index, metrics, result);
+    }
+
+
     public void startAllJourneys(double distance) {
         for (Vehicle v : fleet) {
             try {
@@ -150,6 +300,11 @@ public class FleetManager {
         return sorted;
     }
 
+    /** All vehicles in natural ID order, read from the ordered index (no sort). */
+    public List<Vehicle> sortById() {
+        return new ArrayList<>(orderedIndex.values());
+    }
+
     public Vehicle getFastestVehicle() {
         return Collections.max(fleet, Comparator.comparingDouble(Vehicle::getMaxSpeed));
     }
@@ -158,30 +313,66 @@ public class FleetManager {
         return Collections.min(fleet, Comparator.comparingDouble(Vehicle::getMaxSpeed));
     }
 
+    /** Filter / top-K / group-by queries over the fleet (see FleetQuery). */
+    public FleetQuery query() {
+        return new FleetQuery(this);
+    }
+
+    // package-private hooks for FleetQuery's planner, reporting and persistence
+    List<Vehicle> fleetView() {
+        return fleet.snapshot();
+    }
+
+    boolean hasModel(String model) {
+        int code = Vehicle.MODELS.code(model);
+        return code != SymbolTable.NONE && modelCodes.get(code);
+    }
+
     /** Distinct model names, alphabetically ordered via TreeSet view. */
     public Set<String> getDistinctModelsAlphabetical() {
-        return new TreeSet<>(modelNames);
+        Set<String> models = new TreeSet<>();
+        for (int c = modelCodes.nextSetBit(0); c >= 0; c = modelCodes.nextSetBit(c + 1)) {
+            models.add(Vehicle.MODELS.name(c));
+        }
+        return models;
+    }
+
+    // ---------- Cargo planning ----------
+
+    /**
+     * Packs a batch of shipments across every CargoCarrier in the fleet.
+     * Nothing is loaded until CargoPlan.apply() is called.
+     */
+    public CargoPlan planCargoAssignment(List<Shipment> shipments, long timeBudgetMillis) {
+        CargoAssignmentEngine engine =
+                new CargoAssignmentEngine(timeBudgetMillis, Runtime.getRuntime().availableProcessors());
+        return engine.plan(shipments, fleetView());
     }
 
     // ---------- Reporting ----------
 
     public String generateReport() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Fleet Report\n");
-        sb.append("Total vehicles: ").append(fleet.size()).append("\n");
-        double totalMileage = 0;
-        for (Vehicle v : fleet) {
-            totalMileage += v.getCurrentMileage();
-            sb.append(v.getClass().getSimpleName())
-              .append(" ID: ").append(v.getId())
-              .append(", Model: ").append(v.getModel())
-              .append(", MaxSpeed: ").append(v.getMaxSpeed())
-              .append(", Mileage: ").append(v.getCurrentMileage())
-              .append(", Efficiency: ").append(v.calculateFuelEfficiency())
-              .append("\n");
+        StringWriter sw = new StringWriter();
+        try {
+            writeReport(sw, ReportFormat.HUMAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter never throws
         }
-        sb.append("Total mileage: ").append(totalMileage).append("\n");
-        return sb.toString();
+        return sw.toString();
+    }
+
+    /**
+     * Streams the report row by row to out, with summary totals at the end.
+     * Use this instead of generateReport() for large fleets.
+     */
+    public void writeReport(Writer out, ReportFormat format) throws IOException {
+        List<Vehicle> vehicles = fleetView();
+        FleetReportWriter writer = new FleetReportWriter(out, format);
+        writer.writeHeader(vehicles.size());
+        for (Vehicle v : vehicles) {
+            writer.writeVehicle(v);
+        }
+        writer.finish();
     }
 
     /** A2 method your Main is calling – kept exactly the same. */
@@ -197,9 +388,33 @@ public class FleetManager {
 
     // ---------- Persistence (CSV) ----------
 
+    /** Empties storage, model set, index and metrics before a load. */
+    void clearAll() {
+        clearStorage();
+        fire(null, VehicleChange.RESET);
+    }
+
+    /** clearAll() without the RESET notification. */
+    void clearStorage() {
+        for (Vehicle v : fleet) v.setObserver(null);
+        fleet.clear();
+        modelCodes.clear();
+        index.clear();
+        orderedIndex.clear();
+        metrics.reset();
+        aggregates.reset();
+    }
+
+    /**
+     * Writes the fleet as CSV, compressed if filename has a codec extension
+     * (see Codecs), e.g. fleet.csv.gz.
+     */
     public void saveToFile(String filename) {
-        try (BufferedWriter bw = Files.newBufferedWriter(Paths.get(filename))) {
-            for (Vehicle v : fleet) {
+        CodecStats stats;
+        try (PipelinedOutputStream os = Codecs.openOutput(Paths.get(filename));
+             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 64 * 1024)) {
+            stats = os.getStats();
+            for (Vehicle v : fleetView()) {
                 bw.write(v.getClass().getSimpleName() + ","
                         + v.getId() + ","
                         + v.getModel() + ","
@@ -208,19 +423,20 @@ public class FleetManager {
                         + v.calculateFuelEfficiency());
                 bw.newLine();
             }
-            System.out.println("Fleet saved to " + filename);
         } catch (IOException e) {
             System.err.println("Error saving fleet: " + e.getMessage());
+            return;
         }
+        System.out.println("Fleet saved to " + filename + codecNote(stats));
     }
 
     public void loadFromFile(String filename) {
-        fleet.clear();
-        modelNames.clear();
-        index.clear();
-        metrics.reset();
+        clearAll();
 
-        try (BufferedReader br = Files.newBufferedReader(Paths.get(filename))) {
+        CodecStats stats;
+        try (PipelinedInputStream in = Codecs.openInput(Paths.get(filename));
+             BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024)) {
+            stats = in.getStats();
             String line;
             int lineNo = 0;
 
@@ -243,12 +459,7 @@ public class FleetManager {
                     Vehicle v = VehicleFactory.create(type, id, model, maxSpeed);
                     if (v != null) {
                         v.setCurrentMileage(mileage);
-                        fleet.add(v);
-                        modelNames.add(model);
-
-                        // A3: keep index + metrics current
-                        index.put(id, v);
-                        metrics.incrementVehicleCount();
+                        track(v);
                     } else {
                         System.err.println("Unknown vehicle type on line " + lineNo + ": " + type);
                     }
@@ -256,9 +467,209 @@ public class FleetManager {
                     System.err.println("Skipping line " + lineNo + " due to number format: " + nfe.getMessage());
                 }
             }
-            System.out.println("Fleet loaded from " + filename);
         } catch (IOException e) {
             System.err.println("Error loading fleet: " + e.getMessage());
+            return;
+        }
+        System.out.println("Fleet loaded from " + filename + codecNote(stats));
+    }
+
+    /**
+     * Applies a CSV file in the loadFromFile() format on top of the fleet
+     * instead of replacing it: new IDs are added, and existing vehicles take
+     * the file's max speed and mileage. Rows are matched through the hash
+     * index, so the cost is in proportion to the file, not the fleet. Rows
+     * are deduplicated before anything is applied (the last row for an ID
+     * wins), so applying the same file twice changes nothing the second time.
+     *
+     * With removeMissing the file is taken as the whole fleet and vehicles
+     * not in it are removed afterwards; that part scans the fleet, and is
+     * skipped if the file could not be read or any row was skipped.
+     */
+    public UpsertResult upsertFromFile(String filename, boolean removeMissing) {
+        UpsertResult result = new UpsertResult();
+        // deduplicate first so an ID is applied once, with its last row
+        Map<String, DeltaRow> rows = new LinkedHashMap<>();
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                Codecs.openInput(Paths.get(filename)), StandardCharsets.UTF_8), 64 * 1024)) {
+            String line;
+            int lineNo = 0;
+
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+
+                String[] p = line.split(",");
+                if (p.length < 5) {
+                    System.err.println("Skipping malformed line " + lineNo + ": " + line);
+                    result.skipped();
+                    continue;
+                }
+                try {
+                    DeltaRow row = new DeltaRow(lineNo, p[0].trim(), p[2].trim(),
+                            Double.parseDouble(p[3].trim()), Double.parseDouble(p[4].trim()));
+                    if (!(row.maxSpeed > 0) || !(row.mileage >= 0)) {
+                        System.err.println("Skipping line " + lineNo + ": speed must be positive and mileage non-negative");
+                        result.skipped();
+                        continue;
+                    }
+                    if (rows.put(p[1].trim(), row) != null) result.duplicate();
+                } catch (NumberFormatException nfe) {
+                    System.err.println("Skipping line " + lineNo + " due to number format: " + nfe.getMessage());
+                    result.skipped();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading fleet delta: " + e.getMessage());
+            return result;
+        }
+
+        for (Map.Entry<String, DeltaRow> e : rows.entrySet()) {
+            String id = e.getKey();
+            DeltaRow row = e.getValue();
+            Vehicle v = lookup(id);
+            if (v == null) {
+                v = VehicleFactory.create(row.type, id, row.model, row.maxSpeed);
+                if (v == null) {
+                    System.err.println("Unknown vehicle type on line " + row.lineNo + ": " + row.type);
+                    result.skipped();
+                    continue;
+                }
+                v.setCurrentMileage(row.mileage);
+                track(v);
+                result.inserted();
+            } else if (!row.type.equals(v.getClass().getSimpleName())) {
+                System.err.println("Skipping line " + row.lineNo + ": " + id + " is a "
+                        + v.getClass().getSimpleName() + ", not a " + row.type);
+                result.skipped();
+            } else if (v.getMaxSpeed() != row.maxSpeed || v.getCurrentMileage() != row.mileage) {
+                v.setMaxSpeed(row.maxSpeed);
+                v.setCurrentMileage(row.mileage);
+                result.updated();
+            } else {
+                result.unchanged();
+            }
         }
+
+        if (removeMissing) {
+            if (result.getSkipped() > 0) {
+                System.err.println("Not removing missing vehicles: " + result.getSkipped() + " rows were skipped");
+            } else {
+                result.removed(removeVehicles(v -> !rows.containsKey(v.getId())));
+            }
+        }
+        return result;
+    }
+
+    /** One parsed row of a delta file. */
+    private static final class DeltaRow {
+        final int lineNo;
+        final String type;
+        final String model;
+        final double maxSpeed;
+        final double mileage;
+
+        DeltaRow(int lineNo, String type, String model, double maxSpeed, double mileage) {
+            this.lineNo = lineNo;
+            this.type = type;
+            this.model = model;
+            this.maxSpeed = maxSpeed;
+            this.mileage = mileage;
+        }
+    }
+
+    // ---------- Persistence (binary snapshot) ----------
+
+    /**
+     * Saves the full state of every vehicle (fuel, cargo, passengers, shape)
+     * in the binary snapshot format; the CSV format only keeps mileage.
+     */
+    public void saveSnapshot(String filename) {
+        CodecStats stats;
+        try (PipelinedOutputStream os = Codecs.openOutput(Paths.get(filename))) {
+            stats = os.getStats();
+            writeSnapshot(os, v -> true);
+        } catch (IOException e) {
+            System.err.println("Error saving snapshot: " + e.getMessage());
+            return;
+        }
+        System.out.println("Fleet snapshot saved to " + filename + codecNote(stats));
+    }
+
+    /**
+     * Writes the vehicles matching filter as a binary snapshot; out is
+     * flushed but left open.
+     *
+     * @return number of vehicles written
+     */
+    public long writeSnapshot(OutputStream out, Predicate<Vehicle> filter) throws IOException {
+        FleetSnapshotWriter w = new FleetSnapshotWriter(out);
+        for (Vehicle v : fleetView()) {
+            if (filter.test(v)) w.write(v);
+        }
+        w.finish();
+        return w.getWritten();
+    }
+
+    /**
+     * Adds every vehicle in a binary snapshot whose ID is not already in the
+     * fleet, keeping what is there; unlike loadSnapshot() nothing is cleared.
+     *
+     * @return number of vehicles added
+     */
+    public int mergeSnapshot(InputStream in) throws IOException {
+        int added = 0;
+        FleetSnapshotReader r = new FleetSnapshotReader(in);
+        VehicleSnapshot s;
+        while ((s = r.next()) != null) {
+            if (containsId(s.getId())) continue;
+            try {
+                track(VehicleFactory.restore(s));
+                added++;
+            } catch (InvalidOperationException e) {
+                System.err.println("Skipping vehicle " + s.getId() + ": " + e.getMessage());
+            }
+        }
+        return added;
+    }
+
+    /** Replaces the fleet with the given vehicle states, like loadSnapshot() from memory. */
+    public void loadSnapshots(Collection<VehicleSnapshot> vehicles) {
+        clearAll();
+        for (VehicleSnapshot s : vehicles) {
+            try {
+                track(VehicleFactory.restore(s));
+            } catch (InvalidOperationException e) {
+                System.err.println("Skipping vehicle " + s.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void loadSnapshot(String filename) {
+        clearAll();
+
+        CodecStats stats;
+        try (PipelinedInputStream in = Codecs.openInput(Paths.get(filename));
+             FleetSnapshotReader r = new FleetSnapshotReader(in)) {
+            stats = in.getStats();
+            VehicleSnapshot s;
+            while ((s = r.next()) != null) {
+                try {
+                    track(VehicleFactory.restore(s));
+                } catch (InvalidOperationException e) {
+                    System.err.println("Skipping vehicle " + s.getId() + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading snapshot: " + e.getMessage());
+            return;
+        }
+        System.out.println("Fleet snapshot loaded from " + filename + codecNote(stats));
+    }
+
+    /** Size and speed of a compressed fleet file, for the save/load messages; empty for plain files. */
+    private static String codecNote(CodecStats stats) {
+        return stats.isCompressed() ? " (" + stats + ")" : "";
     }
 }
@@ -0,0 +1,249 @@
+package logistics;
+
+import indexing.CompactId;
+import indexing.OrderedIdIndex;
+import indexing.SymbolTable;
+import vehicles.Vehicle;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Small query API over a FleetManager.
+ *
+ *   manager.query().ofType(Truck.class)
+ *          .topK(100, Comparator.comparingDouble(Vehicle::getCurrentMileage));
+ *
+ *   manager.query().groupBy(Vehicle::getModel, Vehicle::calculateFuelEfficiency);
+ *
+ * The planner uses the ID hash index for point lookups, the ordered ID index for
+ * ID ranges and prefixes, and the model name set to short-circuit models that
+ * were never in the fleet; everything else is a scan,
+ * run on a parallel stream once the fleet is large enough to be worth splitting.
+ * Top-K keeps a bounded heap per partition instead of sorting the whole fleet.
+ */
+public class FleetQuery {
+
+    /** Below this many vehicles a sequential scan beats fork/join overhead. */
+    static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final FleetManager manager;
+    private final List<Predicate<Vehicle>> filters = new ArrayList<>();
+    private String idEquals;
+    private String idFrom;
+    private String idTo;
+    private String idPrefix;
+    private String modelEquals;
+    private Boolean parallel; // null = let the planner decide
+
+    FleetQuery(FleetManager manager) {
+        this.manager = manager;
+    }
+
+    // ---------- Filters ----------
+
+    /** Vehicles of the given class or any subclass (e.g. LandVehicle). */
+    public FleetQuery ofType(Class<? extends Vehicle> type) {
+        filters.add(type::isInstance);
+        return this;
+    }
+
+    /** Vehicles implementing a capability interface (CargoCarrier, PassengerCarrier, ...). */
+    public FleetQuery withCapability(Class<?> capability) {
+        filters.add(capability::isInstance);
+        return this;
+    }
+
+    public FleetQuery withModel(String model) {
+        modelEquals = model;
+        int code = Vehicle.MODELS.code(model);
+        if (code != SymbolTable.NONE) filters.add(v -> v.getModelCode() == code);
+        else filters.add(v -> Objects.equals(model, v.getModel()));      // null matches vehicles without a model
+        return this;
+    }
+
+    public FleetQuery withId(String id) {
+        idEquals = id;
+        long code = CompactId.encode(id);
+        if (code != CompactId.NONE) filters.add(v -> v.getIdCode() == code);
+        else filters.add(v -> v.getIdCode() == CompactId.NONE && id.equals(v.getId()));
+        return this;
+    }
+
+    /** IDs from..to inclusive, in natural ID order (T1000..T1999 is those thousand numbers). */
+    public FleetQuery withIdRange(String from, String to) {
+        idFrom = from;
+        idTo = to;
+        long fromCode = CompactId.encode(from);
+        long toCode = CompactId.encode(to);
+        filters.add(v -> {
+            long code = v.getIdCode();
+            if (code != CompactId.NONE && fromCode != CompactId.NONE && toCode != CompactId.NONE) {
+                return code >= fromCode && code <= toCode;      // codes sort in ORDER
+            }
+            String id = v.getId();
+            return OrderedIdIndex.ORDER.compare(id, from) >= 0 && OrderedIdIndex.ORDER.compare(id, to) <= 0;
+        });
+        return this;
+    }
+
+    public FleetQuery withIdPrefix(String prefix) {
+        idPrefix = prefix;
+        filters.add(v -> v.hasIdPrefix(prefix));
+        return this;
+    }
+
+    public FleetQuery where(Predicate<? super Vehicle> predicate) {
+        filters.add(predicate::test);
+        return this;
+    }
+
+    /** Forces a parallel (true) or sequential (false) scan instead of the planner's choice. */
+    public FleetQuery parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    // ---------- Terminal operations ----------
+
+    public List<Vehicle> list() {
+        return stream().collect(Collectors.toList());
+    }
+
+    public long count() {
+        return stream().count();
+    }
+
+    public <R> List<R> select(Function<? super Vehicle, ? extends R> projection) {
+        return stream().map(projection).collect(Collectors.toList());
+    }
+
+    /** The k largest vehicles by order, largest first. */
+    public List<Vehicle> topK(int k, Comparator<? super Vehicle> order) {
+        if (k <= 0) return new ArrayList<>();
+        return stream().collect(Collector.of(
+                () -> new BoundedHeap(k, order),
+                BoundedHeap::offer,
+                BoundedHeap::merge,
+                BoundedHeap::toSortedList));
+    }
+
+    /** The k smallest vehicles by order, smallest first. */
+    public List<Vehicle> bottomK(int k, Comparator<? super Vehicle> order) {
+        return topK(k, Collections.reverseOrder(order::compare));
+    }
+
+    /** count/sum/avg/min/max of a metric over the matching vehicles. */
+    public DoubleSummaryStatistics aggregate(ToDoubleFunction<? super Vehicle> metric) {
+        return stream().collect(Collectors.summarizingDouble(metric));
+    }
+
+    /**
+     * count/sum/avg/min/max of a metric per group, groups in key order when keys
+     * are Comparable. A null key (e.g. a vehicle without a model) is a group of
+     * its own, first in key order.
+     */
+    public <K> Map<K, DoubleSummaryStatistics> groupBy(Function<? super Vehicle, ? extends K> key,
+                                                       ToDoubleFunction<? super Vehicle> metric) {
+        // HashMap rather than Collectors.groupingBy, which rejects null keys
+        Map<K, DoubleSummaryStatistics> groups = stream().collect(HashMap::new,
+                (m, v) -> m.computeIfAbsent(key.apply(v), k -> new DoubleSummaryStatistics())
+                        .accept(metric.applyAsDouble(v)),
+                (a, b) -> b.forEach((k, st) -> a.merge(k, st, (x, y) -> {
+                    x.combine(y);
+                    return x;
+                })));
+        K sample = null;
+        for (K k : groups.keySet()) {
+            if (k != null) {
+                sample = k;
+                break;
+            }
+        }
+        if (sample instanceof Comparable) {
+            @SuppressWarnings("unchecked")
+            Comparator<K> natural = (x, y) -> ((Comparable<? super K>) x).compareTo(y);
+            Map<K, DoubleSummaryStatistics> sorted = new TreeMap<>(Comparator.nullsFirst(natural));
+            sorted.putAll(groups);
+            return sorted;
+        }
+        return groups;
+    }
+
+    /** Human-readable description of the access path the planner picks. */
+    public String explain() {
+        if (idEquals != null) return "IndexLookup(id=" + idEquals + ") + " + filters.size() + " filter(s)";
+        if (modelEquals != null && !manager.hasModel(modelEquals)) return "Empty(unknown model " + modelEquals + ")";
+        if (idFrom != null) return "IndexRange(id=" + idFrom + ".." + idTo + ") + " + filters.size() + " filter(s)";
+        if (idPrefix != null) return "IndexPrefix(id=" + idPrefix + "*) + " + filters.size() + " filter(s)";
+        int size = manager.fleetView().size();
+        return (useParallel(size) ? "ParallelScan" : "Scan") + "(" + size + " vehicles) + "
+                + filters.size() + " filter(s)";
+    }
+
+    // ---------- Planner ----------
+
+    private Stream<Vehicle> stream() {
+        Stream<Vehicle> source;
+        if (idEquals != null) {
+            Vehicle v = manager.searchById(idEquals);
+            source = v == null ? Stream.empty() : Stream.of(v);
+        } else if (modelEquals != null && !manager.hasModel(modelEquals)) {
+            source = Stream.empty();
+        } else if (idFrom != null) {
+            source = manager.searchByIdRange(idFrom, idTo).stream();
+        } else if (idPrefix != null) {
+            source = manager.searchByIdPrefix(idPrefix).stream();
+        } else {
+            List<Vehicle> fleet = manager.fleetView();
+            source = useParallel(fleet.size()) ? fleet.parallelStream() : fleet.stream();
+        }
+        for (Predicate<Vehicle> f : filters) {
+            source = source.filter(f);
+        }
+        return source;
+    }
+
+    private boolean useParallel(int fleetSize) {
+        if (parallel != null) return parallel;
+        return fleetSize >= PARALLEL_THRESHOLD;
+    }
+
+    /** Min-heap holding the k largest elements seen so far. */
+    private static final class BoundedHeap {
+        private final int k;
+        private final Comparator<? super Vehicle> order;
+        private final PriorityQueue<Vehicle> heap;
+
+        BoundedHeap(int k, Comparator<? super Vehicle> order) {
+            this.k = k;
+            this.order = order;
+            this.heap = new PriorityQueue<>(Math.min(k, 1024), order);
+        }
+
+        void offer(Vehicle v) {
+            if (heap.size() < k) {
+                heap.add(v);
+            } else if (order.compare(v, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(v);
+            }
+        }
+
+        BoundedHeap merge(BoundedHeap other) {
+            for (Vehicle v : other.heap) offer(v);
+            return this;
+        }
+
+        List<Vehicle> toSortedList() {
+            List<Vehicle> out = new ArrayList<>(heap);
+            out.sort(order.reversed());
+            return out;
+        }
+    }
+}
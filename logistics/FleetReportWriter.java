@@ -0,0 +1,319 @@
+package logistics;
+
+import indexing.CompactId;
+import vehicles.Vehicle;
+import vehicles.interfaces.CargoCarrier;
+import vehicles.interfaces.FuelConsumable;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams a fleet report row by row instead of building it in one String.
+ *
+ * Rows go straight to the underlying Writer; numbers are formatted into a
+ * reused char buffer, and the only state kept is the running totals for the
+ * summary (vehicle count, mileage, efficiency, fuel, cargo and a count per
+ * vehicle class), so memory use does not grow with fleet size. The summary
+ * always adds up the rows above it.
+ *
+ * finish() writes the summary and flushes, but does not close the target so
+ * callers can stream to System.out.
+ */
+public class FleetReportWriter implements Flushable {
+
+    private static final int FRACTION_DIGITS = 6;
+    private static final long FRACTION_SCALE = 1_000_000L;
+    private static final double MAX_PLAIN = 1e12; // beyond this fall back to Double.toString
+
+    private final Writer out;
+    private final ReportFormat format;
+    private final char[] num = new char[32];
+
+    private long rows;
+    private double totalMileage;
+    private double totalEfficiency;
+    private double totalFuel;
+    private double totalCargo;
+    private double cargoCapacity;
+    private final Map<String, long[]> perType = new LinkedHashMap<>();
+    private boolean headerWritten;
+
+    public FleetReportWriter(Writer out, ReportFormat format) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 64 * 1024);
+        this.format = format;
+    }
+
+    public static FleetReportWriter to(OutputStream out, ReportFormat format) {
+        return new FleetReportWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), format);
+    }
+
+    public static FleetReportWriter to(WritableByteChannel channel, ReportFormat format) {
+        return new FleetReportWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), format);
+    }
+
+    /**
+     * Writes the report header.
+     *
+     * @param expectedVehicles vehicle count for the HUMAN header, or -1 if unknown
+     */
+    public void writeHeader(long expectedVehicles) throws IOException {
+        headerWritten = true;
+        switch (format) {
+            case HUMAN -> {
+                out.write("Fleet Report\n");
+                if (expectedVehicles >= 0) {
+                    out.write("Total vehicles: ");
+                    writeLong(expectedVehicles);
+                    out.write('\n');
+                }
+            }
+            case CSV -> out.write("type,id,model,maxSpeed,mileage,efficiency\n");
+            case JSON_LINES -> { }
+        }
+    }
+
+    public void writeVehicle(Vehicle v) throws IOException {
+        if (!headerWritten) writeHeader(-1);
+
+        String type = v.getClass().getSimpleName();
+        double mileage = v.getCurrentMileage();
+        double efficiency = v.calculateFuelEfficiency();
+        rows++;
+        totalMileage += mileage;
+        totalEfficiency += efficiency;
+        perType.computeIfAbsent(type, k -> new long[1])[0]++;
+        if (v instanceof FuelConsumable f) totalFuel += f.getFuelLevel();
+        if (v instanceof CargoCarrier c) {
+            totalCargo += c.getCurrentCargo();
+            cargoCapacity += c.getCargoCapacity();
+        }
+
+        switch (format) {
+            case HUMAN -> {
+                out.write(type);
+                out.write(" ID: ");
+                writeId(v);
+                out.write(", Model: ");
+                out.write(String.valueOf(v.getModel()));
+                out.write(", MaxSpeed: ");
+                writeDouble(v.getMaxSpeed());
+                out.write(", Mileage: ");
+                writeDouble(mileage);
+                out.write(", Efficiency: ");
+                writeDouble(efficiency);
+                out.write('\n');
+            }
+            case CSV -> {
+                out.write(type);
+                out.write(',');
+                writeId(v);
+                out.write(',');
+                writeCsvField(String.valueOf(v.getModel()));
+                out.write(',');
+                writeDouble(v.getMaxSpeed());
+                out.write(',');
+                writeDouble(mileage);
+                out.write(',');
+                writeDouble(efficiency);
+                out.write('\n');
+            }
+            case JSON_LINES -> {
+                out.write("{\"type\":\"");
+                out.write(type);
+                out.write("\",\"id\":");
+                writeId(v);
+                out.write(",\"model\":");
+                writeJsonString(String.valueOf(v.getModel()));
+                out.write(",\"maxSpeed\":");
+                writeDouble(v.getMaxSpeed());
+                out.write(",\"mileage\":");
+                writeDouble(mileage);
+                out.write(",\"efficiency\":");
+                writeDouble(efficiency);
+                out.write("}\n");
+            }
+        }
+    }
+
+    /** Writes the summary totals and flushes. */
+    public void finish() throws IOException {
+        if (!headerWritten) writeHeader(-1);
+        double avgEfficiency = rows == 0 ? 0.0 : totalEfficiency / rows;
+        double cargoUtilization = cargoCapacity == 0 ? 0.0 : totalCargo / cargoCapacity;
+
+        switch (format) {
+            case HUMAN -> {
+                out.write("Total mileage: ");
+                writeDouble(totalMileage);
+                out.write('\n');
+            }
+            case CSV -> {
+                out.write("#vehicles,");
+                writeLong(rows);
+                out.write("\n#totalMileage,");
+                writeDouble(totalMileage);
+                out.write("\n#avgEfficiency,");
+                writeDouble(avgEfficiency);
+                out.write("\n#totalFuel,");
+                writeDouble(totalFuel);
+                out.write("\n#cargoUtilization,");
+                writeDouble(cargoUtilization);
+                out.write('\n');
+                for (Map.Entry<String, long[]> e : perType.entrySet()) {
+                    out.write("#count.");
+                    out.write(e.getKey());
+                    out.write(',');
+                    writeLong(e.getValue()[0]);
+                    out.write('\n');
+                }
+            }
+            case JSON_LINES -> {
+                out.write("{\"summary\":true,\"vehicles\":");
+                writeLong(rows);
+                out.write(",\"totalMileage\":");
+                writeDouble(totalMileage);
+                out.write(",\"avgEfficiency\":");
+                writeDouble(avgEfficiency);
+                out.write(",\"totalFuel\":");
+                writeDouble(totalFuel);
+                out.write(",\"cargoUtilization\":");
+                writeDouble(cargoUtilization);
+                out.write(",\"byType\":{");
+                boolean first = true;
+                for (Map.Entry<String, long[]> e : perType.entrySet()) {
+                    if (!first) out.write(',');
+                    first = false;
+                    writeJsonString(e.getKey());
+                    out.write(':');
+                    writeLong(e.getValue()[0]);
+                }
+                out.write("}}\n");
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public long getRowsWritten() {
+        return rows;
+    }
+
+    public double getTotalMileage() {
+        return totalMileage;
+    }
+
+    // ---------- Formatting ----------
+
+    /**
+     * Writes v's ID for the format. A compact ID is letters and digits only, so
+     * it needs no escaping and is spelled straight into num, not decoded.
+     */
+    private void writeId(Vehicle v) throws IOException {
+        long code = v.getIdCode();
+        if (code == CompactId.NONE) {
+            switch (format) {
+                case HUMAN -> out.write(v.getId());
+                case CSV -> writeCsvField(v.getId());
+                case JSON_LINES -> writeJsonString(v.getId());
+            }
+            return;
+        }
+        int n = CompactId.getChars(code, num, 0);
+        if (format == ReportFormat.JSON_LINES) out.write('"');
+        out.write(num, 0, n);
+        if (format == ReportFormat.JSON_LINES) out.write('"');
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value));
+            return;
+        }
+        int pos = num.length;
+        boolean negative = value < 0;
+        long v = Math.abs(value);
+        do {
+            num[--pos] = (char) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        if (negative) num[--pos] = '-';
+        out.write(num, pos, num.length - pos);
+    }
+
+    /**
+     * Plain decimal with up to six fraction digits and at least one, so whole
+     * numbers print as "120.0" like Double.toString does.
+     */
+    private void writeDouble(double d) throws IOException {
+        if (Double.isNaN(d) || Double.isInfinite(d) || Math.abs(d) >= MAX_PLAIN) {
+            out.write(Double.toString(d));
+            return;
+        }
+        long scaled = Math.round(Math.abs(d) * FRACTION_SCALE);
+        long whole = scaled / FRACTION_SCALE;
+        long frac = scaled % FRACTION_SCALE;
+
+        int pos = num.length;
+        int digits = FRACTION_DIGITS;
+        while (digits > 1 && frac % 10 == 0) {
+            frac /= 10;
+            digits--;
+        }
+        for (int i = 0; i < digits; i++) {
+            num[--pos] = (char) ('0' + (frac % 10));
+            frac /= 10;
+        }
+        num[--pos] = '.';
+        do {
+            num[--pos] = (char) ('0' + (whole % 10));
+            whole /= 10;
+        } while (whole != 0);
+        if (d < 0 && scaled != 0) num[--pos] = '-';
+        out.write(num, pos, num.length - pos);
+    }
+
+    private void writeCsvField(String s) throws IOException {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private void writeJsonString(String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,289 @@
+package logistics;
+
+import vehicles.Vehicle;
+import vehicles.VehicleChange;
+import vehicles.interfaces.Maintainable;
+import vehicles.interfaces.VehicleObserver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Predicts when each vehicle will cross its maintenance interval and keeps
+ * the fleet ordered by that time, so the next vehicles due come off in
+ * O(log n) and nothing ever rescans the fleet.
+ *
+ * Registered as a FleetManager observer, it learns each vehicle's usage rate
+ * from MOVED events (km per time, smoothed over windows of at least a second)
+ * and projects the due time as now + km left until the vehicle's own
+ * interval / rate. Every event re-projects that one vehicle and moves it in
+ * an indexed binary heap. Vehicles that already need maintenance are due at
+ * the time they became due; vehicles with no usage yet are never due.
+ *
+ * A vehicle that stops moving keeps its last rate until it moves again, so
+ * projections for idle vehicles run early rather than late.
+ */
+public class MaintenanceScheduler implements VehicleObserver {
+
+    /** Due time of vehicles with no usage (and no maintenance need) yet. */
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private static final long RATE_WINDOW_MILLIS = 1_000;
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private static final class Entry {
+        final Vehicle vehicle;
+        final Maintainable maintainable;
+        int heapIndex = -1;
+        long dueAt = NEVER;
+        double rate;        // km per millisecond
+        double windowKm;
+        long windowStart;
+
+        Entry(Vehicle vehicle, long now) {
+            this.vehicle = vehicle;
+            this.maintainable = (Maintainable) vehicle;
+            this.windowStart = now;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private Entry[] heap = new Entry[16];
+    private int size;
+
+    public MaintenanceScheduler() {
+        this(System::currentTimeMillis);
+    }
+
+    /** @param clock epoch milliseconds; replaceable for simulations */
+    public MaintenanceScheduler(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // ---------- Tracking ----------
+
+    /** Starts tracking v if it is Maintainable; vehicles added later arrive via ADDED. */
+    public synchronized void track(Vehicle v) {
+        if (!(v instanceof Maintainable)) return;
+        Entry e = new Entry(v, clock.getAsLong());
+        Entry old = entries.put(v.getId(), e);
+        if (old != null) remove(old);
+        project(e, e.windowStart);
+    }
+
+    /** Seeds the scheduler with an existing fleet (the only full pass it needs). */
+    public synchronized void trackAll(Collection<Vehicle> vehicles) {
+        for (Vehicle v : vehicles) track(v);
+    }
+
+    public synchronized void untrack(String id) {
+        Entry e = entries.remove(id);
+        if (e != null) remove(e);
+    }
+
+    public synchronized int getTracked() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void onChange(Vehicle v, VehicleChange change, double amount) {
+        switch (change) {
+            case ADDED -> track(v);
+            case REMOVED -> untrack(v.getId());
+            case RESET -> {
+                entries.clear();
+                Arrays.fill(heap, 0, size, null);
+                size = 0;
+            }
+            case MOVED, MILEAGE_SET, MAINTENANCE_DUE, MAINTENANCE_DONE -> {
+                Entry e = entries.get(v.getId());
+                if (e == null || e.vehicle != v) return;
+                long now = clock.getAsLong();
+                if (change == VehicleChange.MOVED) observe(e, amount, now);
+                project(e, now);
+            }
+            default -> { }
+        }
+    }
+
+    private static void observe(Entry e, double km, long now) {
+        e.windowKm += km;
+        long elapsed = now - e.windowStart;
+        if (elapsed < RATE_WINDOW_MILLIS) return;
+        double r = e.windowKm / elapsed;
+        e.rate = e.rate == 0 ? r : RATE_SMOOTHING * r + (1 - RATE_SMOOTHING) * e.rate;
+        e.windowKm = 0;
+        e.windowStart = now;
+    }
+
+    private void project(Entry e, long now) {
+        double remaining = e.maintainable.getMaintenanceInterval() - e.vehicle.getMileageSinceService();
+        long due;
+        if (e.maintainable.needsMaintenance() || remaining <= 0) {
+            due = e.heapIndex >= 0 && e.dueAt <= now ? e.dueAt : now;   // stay as overdue as we were
+        } else if (e.rate > 0) {
+            double millis = Math.ceil(remaining / e.rate);
+            due = millis >= NEVER - now ? NEVER : now + (long) millis;
+        } else {
+            due = NEVER;
+        }
+        if (e.heapIndex < 0) {
+            e.dueAt = due;
+            insert(e);
+        } else if (due != e.dueAt) {
+            long old = e.dueAt;
+            e.dueAt = due;
+            if (due < old) siftUp(e.heapIndex);
+            else siftDown(e.heapIndex);
+        }
+    }
+
+    // ---------- Queries ----------
+
+    /** Projected due time of the vehicle, NEVER if unknown, or -1 if it is not tracked. */
+    public synchronized long getDueTime(String id) {
+        Entry e = entries.get(id);
+        if (e == null) return -1;
+        return e.heapIndex >= 0 ? e.dueAt : NEVER;
+    }
+
+    /** Smoothed usage in km per hour, 0 until a full window was observed. */
+    public synchronized double getUsageRate(String id) {
+        Entry e = entries.get(id);
+        return e == null ? 0 : e.rate * 3_600_000;
+    }
+
+    /** Earliest projected due time in the fleet, or NEVER. */
+    public synchronized long getNextDueTime() {
+        return size == 0 ? NEVER : heap[0].dueAt;
+    }
+
+    /**
+     * Removes and returns up to max vehicles that are due now, most overdue
+     * first. They rejoin the queue on their next event, normally the
+     * MAINTENANCE_DONE of their service.
+     */
+    public synchronized List<Vehicle> pollDue(int max) {
+        long now = clock.getAsLong();
+        List<Vehicle> due = new ArrayList<>();
+        while (due.size() < max && size > 0 && heap[0].dueAt <= now) {
+            Entry e = heap[0];
+            remove(e);
+            due.add(e.vehicle);
+        }
+        return due;
+    }
+
+    /** Services up to capacity due vehicles; returns them. */
+    public List<Vehicle> runWorkshop(int capacity) {
+        List<Vehicle> due = pollDue(capacity);
+        // outside the lock: performMaintenance() notifies observers, this one included
+        for (Vehicle v : due) ((Maintainable) v).performMaintenance();
+        return due;
+    }
+
+    /**
+     * Books the vehicles due within horizonMillis into consecutive workshop
+     * slots of slotMillis, at most capacityPerSlot each, in due order. A
+     * vehicle goes into the slot containing its due time, or the next one
+     * with room (counted as late). Already overdue vehicles start at the
+     * first slot.
+     *
+     * Only the due part of the heap is walked (a best-first search from the
+     * root), so the cost is O(k log k) for k planned vehicles.
+     */
+    public synchronized WorkshopPlan planWorkshop(long horizonMillis, long slotMillis, int capacityPerSlot) {
+        if (slotMillis <= 0 || capacityPerSlot <= 0) throw new IllegalArgumentException("Slots need a length and capacity");
+        long now = clock.getAsLong();
+        long end = horizonMillis >= NEVER - now ? NEVER : now + horizonMillis;
+        int slotCount = (int) Math.min(Integer.MAX_VALUE - 8, (horizonMillis + slotMillis - 1) / slotMillis);
+
+        List<WorkshopPlan.Slot> slots = new ArrayList<>();
+        WorkshopPlan plan = new WorkshopPlan(slots);
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> Long.compare(heap[a].dueAt, heap[b].dueAt));
+        if (size > 0) frontier.add(0);
+        int fill = 0;
+        while (!frontier.isEmpty()) {
+            int i = frontier.poll();
+            Entry e = heap[i];
+            if (e.dueAt > end || e.dueAt == NEVER) break;
+            if (2 * i + 1 < size) frontier.add(2 * i + 1);
+            if (2 * i + 2 < size) frontier.add(2 * i + 2);
+
+            int dueSlot = (int) Math.max(0, Math.min(slotCount, (e.dueAt - now) / slotMillis));
+            int slot = Math.max(dueSlot, fill);
+            while (slot < slotCount && slot < slots.size() && slots.get(slot).getVehicles().size() >= capacityPerSlot) slot++;
+            if (slot >= slotCount) {
+                plan.unscheduled(e.vehicle);
+                continue;
+            }
+            while (slots.size() <= slot) {
+                long start = now + (long) slots.size() * slotMillis;
+                slots.add(new WorkshopPlan.Slot(start, start + slotMillis));
+            }
+            WorkshopPlan.Slot s = slots.get(slot);
+            s.book(e.vehicle, slot > dueSlot);
+            if (s.getVehicles().size() >= capacityPerSlot) fill = Math.max(fill, slot + 1);
+        }
+        return plan;
+    }
+
+    // ---------- Indexed binary heap ----------
+
+    private void insert(Entry e) {
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = e;
+        e.heapIndex = size;
+        siftUp(size++);
+    }
+
+    private void remove(Entry e) {
+        int i = e.heapIndex;
+        if (i < 0) return;
+        Entry last = heap[--size];
+        heap[size] = null;
+        e.heapIndex = -1;
+        if (i == size) return;
+        heap[i] = last;
+        last.heapIndex = i;
+        siftDown(i);
+        siftUp(last.heapIndex);
+    }
+
+    private void siftUp(int i) {
+        Entry e = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            Entry p = heap[parent];
+            if (p.dueAt <= e.dueAt) break;
+            heap[i] = p;
+            p.heapIndex = i;
+            i = parent;
+        }
+        heap[i] = e;
+        e.heapIndex = i;
+    }
+
+    private void siftDown(int i) {
+        Entry e = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right].dueAt < heap[child].dueAt) child = right;
+            if (e.dueAt <= heap[child].dueAt) break;
+            heap[i] = heap[child];
+            heap[i].heapIndex = i;
+            i = child;
+        }
+        heap[i] = e;
+        e.heapIndex = i;
+    }
+}
@@ -0,0 +1,11 @@
+package logistics;
+
+/** Output formats supported by FleetReportWriter. */
+public enum ReportFormat {
+    /** Same layout as generateReport(): one "Type ID: ..., Model: ..." line per vehicle. */
+    HUMAN,
+    /** Header row, one row per vehicle, "#"-prefixed summary rows at the end. */
+    CSV,
+    /** One JSON object per line, with a final {"summary":true,...} object. */
+    JSON_LINES
+}
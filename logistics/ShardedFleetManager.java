@@ -0,0 +1,487 @@
+package logistics;
+
+import indexing.OrderedIdIndex;
+import metrics.FleetAggregates;
+import metrics.FleetMetrics;
+import vehicles.Vehicle;
+import vehicles.VehicleChange;
+import vehicles.interfaces.VehicleObserver;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * FleetManager split into N independent shards by vehicle ID hash.
+ *
+ * Each shard is a plain FleetManager (its own list, model set, hash index and
+ * metrics) guarded by its own lock, so operations on different shards never
+ * contend. Point operations (add, remove, search) touch one shard. Fleet-wide
+ * operations scatter to every shard (in parallel once the fleet is large) and
+ * gather the results: sorts are sorted per shard and merged, while top-K and
+ * other queries, reports and saves run over a gathered snapshot of the fleet.
+ *
+ * The public API is FleetManager's, so Main, the simulator and the server can
+ * use either. Only one shard lock is ever held at a time.
+ */
+public class ShardedFleetManager extends FleetManager {
+
+    private static final class Shard {
+        final FleetManager fleet = new FleetManager();
+        final ReentrantLock lock = new ReentrantLock();
+    }
+
+    private static final Comparator<Vehicle> ID_ORDER = Comparator.comparing(Vehicle::getId, OrderedIdIndex.ORDER);
+
+    private final Shard[] shards;
+
+    public ShardedFleetManager(int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("Shard count must be positive");
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) shards[i] = new Shard();
+    }
+
+    /** One shard per available processor. */
+    public ShardedFleetManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /** Vehicle count of each shard, for checking the hash spreads evenly. */
+    public int[] getShardSizes() {
+        List<Integer> sizes = scatter(f -> f.fleetView().size());
+        int[] out = new int[sizes.size()];
+        for (int i = 0; i < out.length; i++) out[i] = sizes.get(i);
+        return out;
+    }
+
+    /** Metrics totalled over all shards; a snapshot, not a live view. */
+    @Override
+    public FleetMetrics getMetrics() {
+        FleetMetrics total = new FleetMetrics();
+        for (FleetMetrics m : scatter(FleetManager::getMetrics)) total.merge(m);
+        return total;
+    }
+
+    /** Aggregates totalled over all shards; a snapshot, not a live view. */
+    @Override
+    public FleetAggregates getAggregates() {
+        FleetAggregates total = new FleetAggregates();
+        for (FleetAggregates a : scatter(FleetManager::getAggregates)) total.merge(a);
+        return total;
+    }
+
+    /** Reconciles every shard under its lock; returns the total drift. */
+    @Override
+    public FleetAggregates reconcileAggregates() {
+        FleetAggregates drift = new FleetAggregates();
+        for (FleetAggregates d : scatter(FleetManager::reconcileAggregates)) drift.merge(d);
+        return drift;
+    }
+
+    /**
+     * Snapshot of all vehicles, shard by shard: each shard's part is that
+     * shard at one version, and nothing is copied.
+     */
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        return fleetView();
+    }
+
+    /** Sum of the shard versions; unchanged means getAllVehicles() is too. */
+    @Override
+    public long getFleetVersion() {
+        long version = 0;
+        for (Shard s : shards) version += s.fleet.getFleetVersion();
+        return version;
+    }
+
+    // ---------- Change observers ----------
+
+    /** Vehicle changes come from the shards; RESET comes from here, once. */
+    @Override
+    public void addObserver(VehicleObserver observer) {
+        super.addObserver(observer);
+        for (Shard s : shards) s.fleet.addObserver(observer);
+    }
+
+    @Override
+    public void removeObserver(VehicleObserver observer) {
+        super.removeObserver(observer);
+        for (Shard s : shards) s.fleet.removeObserver(observer);
+    }
+
+    // ---------- CRUD / Lookup ----------
+
+    @Override
+    public void addVehicle(Vehicle v) throws InvalidOperationException {
+        Shard s = shardOf(v);
+        s.lock.lock();
+        try {
+            s.fleet.addVehicle(v);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    @Override
+    void track(Vehicle v) {
+        Shard s = shardOf(v);
+        s.lock.lock();
+        try {
+            s.fleet.track(v);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeVehicle(String id) throws InvalidOperationException {
+        Shard s = shardOf(id);
+        s.lock.lock();
+        try {
+            s.fleet.removeVehicle(id);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    @Override
+    public int removeVehicles(Predicate<Vehicle> filter) {
+        int removed = 0;
+        for (int n : scatter(f -> f.removeVehicles(filter))) removed += n;
+        return removed;
+    }
+
+    @Override
+    public Vehicle searchById(String id) {
+        Shard s = shardOf(id);
+        s.lock.lock();
+        try {
+            return s.fleet.searchById(id);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** One shard lock per ID; the shards' indexes are separate. */
+    @Override
+    public void searchByIds(String[] ids, int count, Vehicle[] out) {
+        for (int i = 0; i < count; i++) out[i] = searchById(ids[i]);
+    }
+
+    @Override
+    boolean containsId(String id) {
+        Shard s = shardOf(id);
+        s.lock.lock();
+        try {
+            return s.fleet.containsId(id);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    @Override
+    Vehicle lookup(String id) {
+        Shard s = shardOf(id);
+        s.lock.lock();
+        try {
+            return s.fleet.lookup(id);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Each shard scans its own ordered index; the sorted parts are merged. */
+    @Override
+    public List<Vehicle> searchByIdRange(String from, String to) {
+        return mergeSorted(scatter(f -> f.searchByIdRange(from, to)), ID_ORDER);
+    }
+
+    @Override
+    public List<Vehicle> searchByIdPrefix(String prefix) {
+        return mergeSorted(scatter(f -> f.searchByIdPrefix(prefix)), ID_ORDER);
+    }
+
+    @Override
+    public List<Vehicle> searchByType(Class<?> type) {
+        return concat(scatter(f -> f.searchByType(type)));
+    }
+
+    /** Splits the batch by shard and runs each part under its shard's lock, shards in parallel. */
+    @Override
+    public BatchResult applyBatch(List<FleetCommand> commands) {
+        int n = commands.size();
+        int[] counts = new int[shards.length];
+        int[] shardOfCommand = new int[n];
+        for (int i = 0; i < n; i++) {
+            int s = shardIndex(commands.get(i).getVehicleId());
+            shardOfCommand[i] = s;
+            counts[s]++;
+        }
+        int[][] positions = new int[shards.length][];
+        for (int s = 0; s < shards.length; s++) positions[s] = new int[counts[s]];
+        int[] fill = new int[shards.length];
+        for (int i = 0; i < n; i++) {
+            int s = shardOfCommand[i];
+            positions[s][fill[s]++] = i;
+        }
+
+        BatchResult result = new BatchResult(n);
+        scatterIndexed(n, (s, f) -> {
+            if (positions[s].length > 0) f.applyBatch(commands, positions[s], positions[s].length, result);
+            return null;
+        });
+        return result;
+    }
+
+    // ---------- Simulation / Maintenance ----------
+
+    @Override
+    public void startAllJourneys(double distance) {
+        scatter(f -> {
+            f.startAllJourneys(distance);
+            return null;
+        });
+    }
+
+    @Override
+    public double getTotalFuelConsumption(double distance) {
+        double total = 0.0;
+        for (double d : scatter(f -> f.getTotalFuelConsumption(distance))) total += d;
+        return total;
+    }
+
+    @Override
+    public void maintainAll() {
+        scatter(f -> {
+            f.maintainAll();
+            return null;
+        });
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesNeedingMaintenance() {
+        return concat(scatter(FleetManager::getVehiclesNeedingMaintenance));
+    }
+
+    // ---------- Sorting / Analysis ----------
+
+    /** Orders each shard's own list; use sortByEfficiency() for one fleet-wide order. */
+    @Override
+    public void sortFleetByEfficiency() {
+        scatter(f -> {
+            f.sortFleetByEfficiency();
+            return null;
+        });
+    }
+
+    @Override
+    public List<Vehicle> sortBySpeed() {
+        return mergeSorted(scatter(FleetManager::sortBySpeed),
+                Comparator.comparingDouble(Vehicle::getMaxSpeed).reversed());
+    }
+
+    @Override
+    public List<Vehicle> sortByModel() {
+        return mergeSorted(scatter(FleetManager::sortByModel), Comparator.comparing(Vehicle::getModel));
+    }
+
+    @Override
+    public List<Vehicle> sortByEfficiency() {
+        return mergeSorted(scatter(FleetManager::sortByEfficiency),
+                Comparator.comparingDouble(Vehicle::calculateFuelEfficiency).reversed());
+    }
+
+    @Override
+    public List<Vehicle> sortById() {
+        return mergeSorted(scatter(FleetManager::sortById), ID_ORDER);
+    }
+
+    @Override
+    public Vehicle getFastestVehicle() {
+        return Collections.max(nonEmpty(scatter(f -> f.fleetView().isEmpty() ? null : f.getFastestVehicle())),
+                Comparator.comparingDouble(Vehicle::getMaxSpeed));
+    }
+
+    @Override
+    public Vehicle getSlowestVehicle() {
+        return Collections.min(nonEmpty(scatter(f -> f.fleetView().isEmpty() ? null : f.getSlowestVehicle())),
+                Comparator.comparingDouble(Vehicle::getMaxSpeed));
+    }
+
+    @Override
+    List<Vehicle> fleetView() {
+        List<List<Vehicle>> parts = new ArrayList<>(shards.length);
+        for (Shard s : shards) parts.add(s.fleet.fleetView());   // O(1) each, no lock needed
+        return new ConcatView<>(parts);
+    }
+
+    @Override
+    boolean hasModel(String model) {
+        for (boolean b : scatter(f -> f.hasModel(model))) {
+            if (b) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Set<String> getDistinctModelsAlphabetical() {
+        Set<String> all = new TreeSet<>();
+        for (Set<String> models : scatter(FleetManager::getDistinctModelsAlphabetical)) all.addAll(models);
+        return all;
+    }
+
+    // ---------- Persistence ----------
+
+    @Override
+    void clearAll() {
+        scatter(f -> {
+            f.clearStorage();
+            return null;
+        });
+        fire(null, VehicleChange.RESET);
+    }
+
+    // ---------- Scatter / gather ----------
+
+    private interface ShardTask<T> {
+        T run(int shard, FleetManager fleet);
+    }
+
+    private int shardIndex(String id) {
+        return shardIndex(id.hashCode());
+    }
+
+    private int shardIndex(int idHash) {
+        int h = idHash * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    private Shard shardOf(String id) {
+        return shards[shardIndex(id)];
+    }
+
+    /** shardOf(v.getId()), without decoding a compact ID. */
+    private Shard shardOf(Vehicle v) {
+        return shards[shardIndex(v.getIdHash())];
+    }
+
+    /** Runs fn on every shard under its lock; results in shard order. */
+    private <T> List<T> scatter(Function<FleetManager, T> fn) {
+        return scatterIndexed(-1, (s, f) -> fn.apply(f));
+    }
+
+    /**
+     * Runs task on every shard under its lock, on the common fork/join pool
+     * when the work is big enough to be worth it.
+     *
+     * @param workSize items the task will touch, or -1 to use the fleet size
+     */
+    private <T> List<T> scatterIndexed(int workSize, ShardTask<T> task) {
+        List<T> results = new ArrayList<>(Collections.nCopies(shards.length, null));
+        if (shards.length > 1 && workSize(workSize) >= FleetQuery.PARALLEL_THRESHOLD) {
+            Arrays.stream(indices()).parallel().forEach(i -> results.set(i, runLocked(i, task)));
+        } else {
+            for (int i = 0; i < shards.length; i++) results.set(i, runLocked(i, task));
+        }
+        return results;
+    }
+
+    private <T> T runLocked(int i, ShardTask<T> task) {
+        Shard s = shards[i];
+        s.lock.lock();
+        try {
+            return task.run(i, s.fleet);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Racy but lock-free size estimate, only used to pick sequential or parallel. */
+    private int workSize(int requested) {
+        if (requested >= 0) return requested;
+        int n = 0;
+        for (Shard s : shards) n += s.fleet.fleetView().size();
+        return n;
+    }
+
+    private int[] indices() {
+        int[] idx = new int[shards.length];
+        for (int i = 0; i < idx.length; i++) idx[i] = i;
+        return idx;
+    }
+
+    private static <T> List<T> concat(List<? extends List<T>> parts) {
+        int n = 0;
+        for (List<T> p : parts) n += p.size();
+        List<T> out = new ArrayList<>(n);
+        for (List<T> p : parts) out.addAll(p);
+        return out;
+    }
+
+    /** Read-only concatenation of immutable lists, without copying them. */
+    private static final class ConcatView<T> extends AbstractList<T> implements RandomAccess {
+        private final List<List<T>> parts;
+        private final int[] starts;     // starts[i] = index of parts[i]'s first element
+        private final int size;
+
+        ConcatView(List<List<T>> parts) {
+            this.parts = parts;
+            this.starts = new int[parts.size()];
+            int n = 0;
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = n;
+                n += parts.get(i).size();
+            }
+            this.size = n;
+        }
+
+        @Override
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            int part = Arrays.binarySearch(starts, index);
+            if (part < 0) {
+                part = -part - 2;
+            } else {
+                while (parts.get(part).isEmpty()) part++;   // empty parts share the next part's start
+            }
+            return parts.get(part).get(index - starts[part]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            Object[] out = new Object[size];
+            for (int i = 0; i < starts.length; i++) {
+                Object[] part = parts.get(i).toArray();
+                System.arraycopy(part, 0, out, starts[i], part.length);
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Merges per-shard sorted lists. TimSort finds the pre-sorted runs in the
+     * concatenation, so this costs O(n log shards) rather than a full sort.
+     */
+    private static List<Vehicle> mergeSorted(List<List<Vehicle>> sortedParts, Comparator<Vehicle> order) {
+        List<Vehicle> all = concat(sortedParts);
+        all.sort(order);
+        return all;
+    }
+
+    private static List<Vehicle> nonEmpty(List<Vehicle> perShard) {
+        List<Vehicle> out = new ArrayList<>(perShard.size());
+        for (Vehicle v : perShard) if (v != null) out.add(v);
+        return out; // empty when the whole fleet is, so max/min throw like FleetManager's
+    }
+}
@@ -0,0 +1,34 @@
+package logistics;
+
+/**
+ * A single piece of cargo waiting to be assigned to a CargoCarrier.
+ */
+public class Shipment {
+
+    private final String id;
+    private final double weight;
+
+    public Shipment(String id, double weight) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Shipment ID cannot be empty");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Shipment weight must be positive");
+        }
+        this.id = id;
+        this.weight = weight;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return id + " (" + weight + " kg)";
+    }
+}
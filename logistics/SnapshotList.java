@@ -0,0 +1,170 @@
+package logistics;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+
+/**
+ * List with one writer at a time (or writers under one lock) and any number
+ * of readers taking consistent, versioned snapshots without locking or
+ * copying.
+ *
+ * The elements live in an array that is only ever appended to in place. A
+ * snapshot is that array plus the size and version at the time it was
+ * taken, so later appends land past every snapshot's end. A change to an
+ * element a snapshot can see (remove, clear, sort) builds a new array
+ * instead, which costs O(n), the same as the shift ArrayList does on a
+ * remove. Every change publishes the next version with one volatile write.
+ *
+ * Reads through the list itself (get, size, iteration, streams) go to the
+ * current snapshot; an iteration keeps the snapshot it started with, so it
+ * never throws ConcurrentModificationException.
+ */
+public class SnapshotList<E> extends AbstractList<E> implements RandomAccess {
+
+    /** Immutable view of the list at one version. */
+    public static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] items;
+        private final int size;
+        private final long version;
+
+        Snapshot(Object[] items, int size, long version) {
+            this.items = items;
+            this.size = size;
+            this.version = version;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            Objects.checkIndex(index, size);
+            return (E) items[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+
+        /** Number of changes made to the list before this snapshot was taken. */
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile Snapshot<E> current = new Snapshot<>(new Object[INITIAL_CAPACITY], 0, 0);
+
+    /** The list as it is now; O(1), and unaffected by later changes. */
+    public Snapshot<E> snapshot() {
+        return current;
+    }
+
+    public long getVersion() {
+        return current.version;
+    }
+
+    // ---------- Reads ----------
+
+    @Override
+    public E get(int index) {
+        return current.get(index);
+    }
+
+    @Override
+    public int size() {
+        return current.size;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return current.toArray();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return current.iterator();
+    }
+
+    @Override
+    public ListIterator<E> listIterator() {
+        return current.listIterator();
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return current.spliterator();
+    }
+
+    // ---------- Writes ----------
+
+    @Override
+    public boolean add(E e) {
+        Snapshot<E> s = current;
+        Object[] items = s.items;
+        if (s.size == items.length) items = Arrays.copyOf(items, items.length * 2);
+        items[s.size] = e;                  // past the end of every published snapshot
+        publish(items, s.size + 1);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Snapshot<E> s = current;
+        for (int i = 0; i < s.size; i++) {
+            if (Objects.equals(o, s.items[i])) {
+                Object[] items = new Object[Math.max(INITIAL_CAPACITY, s.items.length)];
+                System.arraycopy(s.items, 0, items, 0, i);
+                System.arraycopy(s.items, i + 1, items, i, s.size - i - 1);
+                publish(items, s.size - 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Calls filter once per element, in order; publishes one new version if anything went. */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super E> filter) {
+        Snapshot<E> s = current;
+        Object[] items = new Object[Math.max(INITIAL_CAPACITY, s.items.length)];
+        int kept = 0;
+        for (int i = 0; i < s.size; i++) {
+            if (!filter.test((E) s.items[i])) items[kept++] = s.items[i];
+        }
+        if (kept == s.size) return false;
+        publish(items, kept);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        publish(new Object[INITIAL_CAPACITY], 0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super E> c) {
+        Snapshot<E> s = current;
+        Object[] items = Arrays.copyOf(s.items, s.items.length);
+        Arrays.sort((E[]) items, 0, s.size, c);
+        publish(items, s.size);
+    }
+
+    private void publish(Object[] items, int size) {
+        current = new Snapshot<>(items, size, current.version + 1);
+    }
+}
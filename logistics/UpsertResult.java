@@ -0,0 +1,54 @@
+package logistics;
+
+/**
+ * What FleetManager.upsertFromFile() did with a delta file. Each vehicle ID
+ * in the file is counted once, as inserted, updated, unchanged or skipped;
+ * earlier rows for an ID that appears again are counted as duplicates.
+ */
+public class UpsertResult {
+
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int removed;
+    private int duplicates;
+    private int skipped;
+
+    void inserted() { inserted++; }
+
+    void updated() { updated++; }
+
+    void unchanged() { unchanged++; }
+
+    void duplicate() { duplicates++; }
+
+    void skipped() { skipped++; }
+
+    void removed(int n) { removed += n; }
+
+    public int getInserted() { return inserted; }
+
+    public int getUpdated() { return updated; }
+
+    public int getUnchanged() { return unchanged; }
+
+    /** Vehicles not in the file that were removed (only with removeMissing). */
+    public int getRemoved() { return removed; }
+
+    /** Rows replaced by a later row for the same ID; the last one wins. */
+    public int getDuplicates() { return duplicates; }
+
+    /** Malformed rows, unknown types and rows whose type differs from the vehicle's. */
+    public int getSkipped() { return skipped; }
+
+    /** True if applying the file changed nothing. */
+    public boolean isNoOp() {
+        return inserted == 0 && updated == 0 && removed == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "inserted=" + inserted + " updated=" + updated + " unchanged=" + unchanged
+                + " removed=" + removed + " duplicates=" + duplicates + " skipped=" + skipped;
+    }
+}
@@ -1,26 +1,186 @@
 package logistics;
 
 import vehicles.*;
+import vehicles.interfaces.CargoCarrier;
+import vehicles.interfaces.FuelConsumable;
+import vehicles.interfaces.Maintainable;
+import vehicles.interfaces.PassengerCarrier;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry-based vehicle factory.
+ *
+ * Each type name maps to a small int code and a pre-resolved constructor, so a
+ * CSV row costs one hash lookup instead of a string switch. Parsers that work on
+ * raw bytes can look the type up straight from the line buffer with
+ * codeOf(byte[], int, int) without decoding a String first.
+ *
+ * New vehicle classes plug in through register(); nothing here needs editing.
+ */
 public class VehicleFactory {
 
-    //Creates a vehicle instance from a type string.
+    /** Builds a vehicle; shape carries wheels/altitude/sail and may be null for defaults. */
+    @FunctionalInterface
+    public interface VehicleConstructor {
+        Vehicle create(String id, String model, double maxSpeed, VehicleSnapshot shape);
+    }
+
+    public static final int UNKNOWN = -1;
+
+    private static final class TypeEntry {
+        final int code;
+        final String name;
+        final byte[] nameBytes;
+        final int hash;
+        final VehicleConstructor ctor;
+
+        TypeEntry(int code, String name, VehicleConstructor ctor) {
+            this.code = code;
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.hash = hash(nameBytes, 0, nameBytes.length);
+            this.ctor = ctor;
+        }
+    }
+
+    /** Immutable tables, swapped wholesale on register() so lookups never lock. */
+    private static final class Registry {
+        final TypeEntry[] byCode;
+        final TypeEntry[] byHash; // open addressing, power-of-two length
+        final Map<String, TypeEntry> byName = new HashMap<>();
+
+        Registry(TypeEntry[] byCode) {
+            this.byCode = byCode;
+            for (TypeEntry e : byCode) byName.put(e.name, e);
+            int size = Integer.highestOneBit(Math.max(4, byCode.length * 4 - 1)) << 1;
+            this.byHash = new TypeEntry[size];
+            for (TypeEntry e : byCode) {
+                int i = e.hash & (size - 1);
+                while (byHash[i] != null) i = (i + 1) & (size - 1);
+                byHash[i] = e;
+            }
+        }
+    }
 
+    private static volatile Registry registry = new Registry(new TypeEntry[0]);
+
+    static {
+        register("Car",       (id, model, speed, s) -> new Car(id, model, speed, wheels(s, 4)));
+        register("Truck",     (id, model, speed, s) -> new Truck(id, model, speed, wheels(s, 6)));
+        register("Bus",       (id, model, speed, s) -> new Bus(id, model, speed, wheels(s, 6)));
+        register("Airplane",  (id, model, speed, s) -> new Airplane(id, model, speed, altitude(s, 10000)));
+        register("CargoShip", (id, model, speed, s) -> new CargoShip(id, model, speed, s != null && s.hasSail()));
+    }
+
+    // ---------- Registry ----------
+
+    /**
+     * Registers (or replaces) a vehicle type.
+     *
+     * @return the type's code
+     */
+    public static synchronized int register(String name, VehicleConstructor ctor) {
+        TypeEntry[] current = registry.byCode;
+        for (TypeEntry e : current) {
+            if (e.name.equals(name)) {
+                TypeEntry[] copy = current.clone();
+                copy[e.code] = new TypeEntry(e.code, name, ctor);
+                registry = new Registry(copy);
+                return e.code;
+            }
+        }
+        TypeEntry[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = new TypeEntry(current.length, name, ctor);
+        registry = new Registry(grown);
+        return current.length;
+    }
+
+    public static int codeOf(String type) {
+        if (type == null) return UNKNOWN;
+        TypeEntry e = registry.byName.get(type);
+        return e == null ? UNKNOWN : e.code;
+    }
+
+    /** Looks up a type name held as ASCII/UTF-8 bytes in buf[off, off+len). */
+    public static int codeOf(byte[] buf, int off, int len) {
+        Registry r = registry;
+        int mask = r.byHash.length - 1;
+        int h = hash(buf, off, len);
+        for (int i = h & mask; ; i = (i + 1) & mask) {
+            TypeEntry e = r.byHash[i];
+            if (e == null) return UNKNOWN;
+            if (e.hash == h && Arrays.equals(e.nameBytes, 0, e.nameBytes.length, buf, off, off + len)) {
+                return e.code;
+            }
+        }
+    }
+
+    public static String nameOf(int code) {
+        TypeEntry[] entries = registry.byCode;
+        return code >= 0 && code < entries.length ? entries[code].name : null;
+    }
+
+    // ---------- Construction ----------
+
+    //Creates a vehicle instance from a type string; null if the type is unknown.
     public static Vehicle create(String type, String id, String model, double maxSpeed) {
-        switch (type) {
-            case "Car":
-                return new Car(id, model, maxSpeed, 4);
-            case "Truck":
-                return new Truck(id, model, maxSpeed, 6);
-            case "Bus":
-                return new Bus(id, model, maxSpeed, 6);
-            case "Airplane":
-                return new Airplane(id, model, maxSpeed, 10000); //10000 sample altitude
-            case "CargoShip":
-                return new CargoShip(id, model, maxSpeed, false); // set hasSail as needed
-            default:
-                System.err.println("Unknown vehicle type: " + type);
-                return null;
+        return create(codeOf(type), id, model, maxSpeed);
+    }
+
+    public static Vehicle create(int code, String id, String model, double maxSpeed) {
+        TypeEntry[] entries = registry.byCode;
+        if (code < 0 || code >= entries.length) return null;
+        return entries[code].ctor.create(id, model, maxSpeed, null);
+    }
+
+    public static Vehicle create(byte[] typeBuf, int off, int len, String id, String model, double maxSpeed) {
+        return create(codeOf(typeBuf, off, len), id, model, maxSpeed);
+    }
+
+    /**
+     * Rebuilds a vehicle with its full state: shape, mileage, fuel, cargo,
+     * passengers, last service and pending maintenance.
+     *
+     * @throws InvalidOperationException if the type is unknown or the state does not fit the vehicle
+     */
+    public static Vehicle restore(VehicleSnapshot s) throws InvalidOperationException {
+        int code = codeOf(s.getType());
+        if (code == UNKNOWN) {
+            throw new InvalidOperationException("Unknown vehicle type: " + s.getType());
+        }
+        Vehicle v = registry.byCode[code].ctor.create(s.getId(), s.getModel(), s.getMaxSpeed(), s);
+        v.setCurrentMileage(s.getMileage());
+        v.setServiceMileage(s.getServiceMileage());
+        try {
+            if (v instanceof FuelConsumable fc && s.getFuel() > 0) fc.refuel(s.getFuel());
+            if (v instanceof CargoCarrier cc && s.getCargo() > 0) cc.loadCargo(s.getCargo());
+            if (v instanceof PassengerCarrier pc && s.getPassengers() > 0) pc.boardPassengers(s.getPassengers());
+        } catch (OverloadException e) {
+            throw new InvalidOperationException("Snapshot for " + s.getId() + " exceeds capacity: " + e.getMessage());
+        }
+        if (v instanceof Maintainable m && s.isMaintenanceDue()) m.scheduleMaintenance();
+        return v;
+    }
+
+    // ---------- Helpers ----------
+
+    private static int wheels(VehicleSnapshot s, int fallback) {
+        return s != null && s.getNumWheels() > 0 ? s.getNumWheels() : fallback;
+    }
+
+    private static double altitude(VehicleSnapshot s, double fallback) {
+        return s != null && s.getMaxAltitude() > 0 ? s.getMaxAltitude() : fallback;
+    }
+
+    private static int hash(byte[] buf, int off, int len) {
+        int h = 0x811C9DC5;
+        for (int i = off; i < off + len; i++) {
+            h = (h ^ buf[i]) * 0x01000193;
         }
+        return h ^ (h >>> 16);
     }
 }
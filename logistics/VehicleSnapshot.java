@@ -0,0 +1,105 @@
+package logistics;
+
+import vehicles.AirVehicle;
+import vehicles.LandVehicle;
+import vehicles.Vehicle;
+import vehicles.WaterVehicle;
+import vehicles.interfaces.CargoCarrier;
+import vehicles.interfaces.FuelConsumable;
+import vehicles.interfaces.Maintainable;
+import vehicles.interfaces.PassengerCarrier;
+
+/**
+ * Full state of one vehicle as plain values: the constructor shape (wheels,
+ * altitude, sail) plus the mutable state (mileage, fuel, cargo, passengers,
+ * mileage at the last service, maintenance flag). VehicleFactory.restore() turns it back into a Vehicle.
+ *
+ * Fields that do not apply to a type hold 0 / false.
+ */
+public class VehicleSnapshot {
+
+    private final String type;
+    private final String id;
+    private final String model;
+    private final double maxSpeed;
+    private final double mileage;
+    private final double fuel;
+    private final double cargo;
+    private final int passengers;
+    private final int numWheels;
+    private final double maxAltitude;
+    private final boolean hasSail;
+    private final boolean maintenanceDue;
+    private final double serviceMileage;
+
+    /** A snapshot of a vehicle that was never serviced. */
+    public VehicleSnapshot(String type, String id, String model, double maxSpeed, double mileage,
+                           double fuel, double cargo, int passengers,
+                           int numWheels, double maxAltitude, boolean hasSail, boolean maintenanceDue) {
+        this(type, id, model, maxSpeed, mileage, fuel, cargo, passengers, numWheels, maxAltitude,
+                hasSail, maintenanceDue, 0.0);
+    }
+
+    public VehicleSnapshot(String type, String id, String model, double maxSpeed, double mileage,
+                           double fuel, double cargo, int passengers,
+                           int numWheels, double maxAltitude, boolean hasSail, boolean maintenanceDue,
+                           double serviceMileage) {
+        this.type = type;
+        this.id = id;
+        this.model = model;
+        this.maxSpeed = maxSpeed;
+        this.mileage = mileage;
+        this.fuel = fuel;
+        this.cargo = cargo;
+        this.passengers = passengers;
+        this.numWheels = numWheels;
+        this.maxAltitude = maxAltitude;
+        this.hasSail = hasSail;
+        this.maintenanceDue = maintenanceDue;
+        this.serviceMileage = serviceMileage;
+    }
+
+    public static VehicleSnapshot capture(Vehicle v) {
+        return new VehicleSnapshot(
+                v.getClass().getSimpleName(),
+                v.getId(),
+                v.getModel(),
+                v.getMaxSpeed(),
+                v.getCurrentMileage(),
+                v instanceof FuelConsumable fc ? fc.getFuelLevel() : 0.0,
+                v instanceof CargoCarrier cc ? cc.getCurrentCargo() : 0.0,
+                v instanceof PassengerCarrier pc ? pc.getCurrentPassengers() : 0,
+                v instanceof LandVehicle lv ? lv.getNumWheels() : 0,
+                v instanceof AirVehicle av ? av.getMaxAltitude() : 0.0,
+                v instanceof WaterVehicle wv && wv.gethasSail(),
+                v instanceof Maintainable m && m.needsMaintenance(),
+                v.getServiceMileage());
+    }
+
+    public String getType() { return type; }
+
+    public String getId() { return id; }
+
+    public String getModel() { return model; }
+
+    public double getMaxSpeed() { return maxSpeed; }
+
+    public double getMileage() { return mileage; }
+
+    public double getFuel() { return fuel; }
+
+    public double getCargo() { return cargo; }
+
+    public int getPassengers() { return passengers; }
+
+    public int getNumWheels() { return numWheels; }
+
+    public double getMaxAltitude() { return maxAltitude; }
+
+    public boolean hasSail() { return hasSail; }
+
+    public boolean isMaintenanceDue() { return maintenanceDue; }
+
+    /** Mileage at the last maintenance; 0 if never serviced. */
+    public double getServiceMileage() { return serviceMileage; }
+}
@@ -0,0 +1,81 @@
+package logistics;
+
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Workshop batches planned by MaintenanceScheduler.planWorkshop(): fixed-size
+ * time slots, each servicing at most a fixed number of vehicles, filled in
+ * order of projected due time.
+ */
+public class WorkshopPlan {
+
+    /** One workshop slot and the vehicles booked into it. */
+    public static final class Slot {
+        private final long start;
+        private final long end;
+        private final List<Vehicle> vehicles = new ArrayList<>();
+        private int late;
+
+        Slot(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        void book(Vehicle v, boolean isLate) {
+            vehicles.add(v);
+            if (isLate) late++;
+        }
+
+        /** Slot start, epoch milliseconds. */
+        public long getStart() { return start; }
+
+        public long getEnd() { return end; }
+
+        public List<Vehicle> getVehicles() { return Collections.unmodifiableList(vehicles); }
+
+        /** Vehicles booked here although they fall due before the slot starts. */
+        public int getLate() { return late; }
+    }
+
+    private final List<Slot> slots;
+    private final List<Vehicle> unscheduled = new ArrayList<>();
+
+    WorkshopPlan(List<Slot> slots) {
+        this.slots = slots;
+    }
+
+    void unscheduled(Vehicle v) {
+        unscheduled.add(v);
+    }
+
+    public List<Slot> getSlots() {
+        return Collections.unmodifiableList(slots);
+    }
+
+    /** Vehicles due within the horizon that did not fit into any slot. */
+    public List<Vehicle> getUnscheduled() {
+        return Collections.unmodifiableList(unscheduled);
+    }
+
+    public int getBooked() {
+        int n = 0;
+        for (Slot s : slots) n += s.vehicles.size();
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < slots.size(); i++) {
+            Slot s = slots.get(i);
+            if (s.vehicles.isEmpty()) continue;
+            sb.append(String.format("Slot %d: %d vehicles (%d late)%n", i, s.vehicles.size(), s.late));
+        }
+        sb.append(String.format("Booked %d, unscheduled %d%n", getBooked(), unscheduled.size()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package metrics;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a reconcile periodically on a daemon thread and reports drift beyond
+ * a tolerance to System.err.
+ *
+ * The reconcile is passed in (typically FleetManager::reconcileAggregates) so
+ * it runs under whatever locking the fleet needs.
+ */
+public class AggregateReconciler implements AutoCloseable {
+
+    private final Supplier<FleetAggregates> reconcile;
+    private final double tolerance;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long runs;
+    private volatile long drifted;
+
+    public AggregateReconciler(Supplier<FleetAggregates> reconcile, double tolerance,
+                               long period, TimeUnit unit) {
+        this.reconcile = reconcile;
+        this.tolerance = tolerance;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "aggregate-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnce, period, period, unit);
+    }
+
+    /** Reconciles now, on the calling thread; returns the drift found. */
+    public synchronized FleetAggregates runOnce() {
+        try {
+            FleetAggregates drift = reconcile.get();
+            runs++;
+            if (drift.exceeds(tolerance)) {
+                drifted++;
+                System.err.println("Fleet aggregates drifted, corrected by " + drift);
+            }
+            return drift;
+        } catch (RuntimeException e) {
+            // a failed run must not cancel the schedule
+            System.err.println("Aggregate reconcile failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    /** Runs that found drift beyond the tolerance. */
+    public long getDrifted() {
+        return drifted;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,232 @@
+package metrics;
+
+import vehicles.Vehicle;
+import vehicles.VehicleChange;
+import vehicles.interfaces.CargoCarrier;
+import vehicles.interfaces.FuelConsumable;
+import vehicles.interfaces.PassengerCarrier;
+import vehicles.interfaces.VehicleObserver;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running fleet totals kept up to date from vehicle change notifications, so
+ * reading them is O(1) instead of a scan over the fleet.
+ *
+ * FleetManager feeds every change of its vehicles in here. Anything that
+ * bypasses the hooks (or floating point error over a long run) makes the
+ * running values drift from the truth; reconcile() recomputes them with a
+ * full scan, replaces them and returns the drift that was found.
+ */
+public class FleetAggregates implements VehicleObserver {
+
+    private long vehicles;
+    private final Map<String, long[]> perType = new TreeMap<>();
+    private double totalMileage;
+    private double totalFuel;
+    private double totalCargo;
+    private double cargoCapacity;
+    private long totalPassengers;
+    private long passengerCapacity;
+
+    private long reconciliations;
+    private FleetAggregates lastDrift;
+
+    // ---------- Updates ----------
+
+    @Override
+    public synchronized void onChange(Vehicle v, VehicleChange change, double amount) {
+        switch (change) {
+            case ADDED -> add(v, 1);
+            case REMOVED -> add(v, -1);
+            case RESET -> clear();
+            case MOVED, MILEAGE_SET -> totalMileage += amount;
+            case REFUELED -> totalFuel += amount;
+            case FUEL_CONSUMED -> totalFuel -= amount;
+            case CARGO_CHANGED -> totalCargo += amount;
+            case PASSENGERS_CHANGED -> totalPassengers += (long) amount;
+            default -> { }
+        }
+    }
+
+    /** Adds (sign 1) or subtracts (sign -1) everything v currently contributes. */
+    private void add(Vehicle v, int sign) {
+        vehicles += sign;
+        long[] count = perType.computeIfAbsent(v.getClass().getSimpleName(), k -> new long[1]);
+        count[0] += sign;
+        if (count[0] == 0) perType.remove(v.getClass().getSimpleName());
+
+        totalMileage += sign * v.getCurrentMileage();
+        if (v instanceof FuelConsumable f) totalFuel += sign * f.getFuelLevel();
+        if (v instanceof CargoCarrier c) {
+            totalCargo += sign * c.getCurrentCargo();
+            cargoCapacity += sign * c.getCargoCapacity();
+        }
+        if (v instanceof PassengerCarrier p) {
+            totalPassengers += (long) sign * p.getCurrentPassengers();
+            passengerCapacity += (long) sign * p.getPassengerCapacity();
+        }
+    }
+
+    public synchronized void reset() {
+        clear();
+    }
+
+    private void clear() {
+        vehicles = 0;
+        perType.clear();
+        totalMileage = 0.0;
+        totalFuel = 0.0;
+        totalCargo = 0.0;
+        cargoCapacity = 0.0;
+        totalPassengers = 0;
+        passengerCapacity = 0;
+    }
+
+    // ---------- Queries ----------
+
+    public synchronized long getVehicleCount() {
+        return vehicles;
+    }
+
+    public synchronized long getCount(String type) {
+        long[] c = perType.get(type);
+        return c == null ? 0 : c[0];
+    }
+
+    /** Vehicles per class simple name, sorted by name (a copy). */
+    public synchronized Map<String, Long> getCountByType() {
+        Map<String, Long> out = new TreeMap<>();
+        for (Map.Entry<String, long[]> e : perType.entrySet()) out.put(e.getKey(), e.getValue()[0]);
+        return out;
+    }
+
+    public synchronized double getTotalMileage() {
+        return totalMileage;
+    }
+
+    /** Litres on hand across all fuel-consuming vehicles. */
+    public synchronized double getTotalFuel() {
+        return totalFuel;
+    }
+
+    public synchronized double getTotalCargo() {
+        return totalCargo;
+    }
+
+    public synchronized double getCargoCapacity() {
+        return cargoCapacity;
+    }
+
+    /** Loaded cargo as a fraction of total cargo capacity; 0 with no cargo carriers. */
+    public synchronized double getCargoUtilization() {
+        return cargoCapacity == 0 ? 0.0 : totalCargo / cargoCapacity;
+    }
+
+    public synchronized long getTotalPassengers() {
+        return totalPassengers;
+    }
+
+    public synchronized long getPassengerCapacity() {
+        return passengerCapacity;
+    }
+
+    // ---------- Reconciliation ----------
+
+    /** Totals computed from scratch over vehicles. */
+    public static FleetAggregates scan(Iterable<Vehicle> vehicles) {
+        FleetAggregates a = new FleetAggregates();
+        for (Vehicle v : vehicles) a.add(v, 1);
+        return a;
+    }
+
+    /**
+     * Replaces the running totals with a full scan of vehicles.
+     *
+     * Changes that land while the scan runs can be counted by both the scan
+     * and their notification, so reconcile a busy fleet expecting some drift;
+     * the next reconcile on a quiet fleet settles it.
+     *
+     * @return scanned minus running values before the correction
+     */
+    public FleetAggregates reconcile(Iterable<Vehicle> vehicles) {
+        FleetAggregates truth = scan(vehicles);
+        synchronized (this) {
+            FleetAggregates drift = truth.minus(this);
+            clear();
+            mergeUnlocked(truth);
+            reconciliations++;
+            lastDrift = drift;
+            return drift;
+        }
+    }
+
+    public synchronized long getReconciliations() {
+        return reconciliations;
+    }
+
+    /** Drift found by the last reconcile(), or null if there was none yet. */
+    public synchronized FleetAggregates getLastDrift() {
+        return lastDrift;
+    }
+
+    /** True if any total differs from zero by more than tolerance (for drift values). */
+    public synchronized boolean exceeds(double tolerance) {
+        if (vehicles != 0 || totalPassengers != 0 || passengerCapacity != 0) return true;
+        for (long[] c : perType.values()) if (c[0] != 0) return true;
+        return Math.abs(totalMileage) > tolerance || Math.abs(totalFuel) > tolerance
+                || Math.abs(totalCargo) > tolerance || Math.abs(cargoCapacity) > tolerance;
+    }
+
+    private FleetAggregates minus(FleetAggregates other) {
+        FleetAggregates d = new FleetAggregates();
+        d.vehicles = vehicles - other.vehicles;
+        for (Map.Entry<String, long[]> e : perType.entrySet()) d.perType.put(e.getKey(), new long[] {e.getValue()[0]});
+        for (Map.Entry<String, long[]> e : other.perType.entrySet()) {
+            long[] c = d.perType.computeIfAbsent(e.getKey(), k -> new long[1]);
+            c[0] -= e.getValue()[0];
+            if (c[0] == 0) d.perType.remove(e.getKey());
+        }
+        d.totalMileage = totalMileage - other.totalMileage;
+        d.totalFuel = totalFuel - other.totalFuel;
+        d.totalCargo = totalCargo - other.totalCargo;
+        d.cargoCapacity = cargoCapacity - other.cargoCapacity;
+        d.totalPassengers = totalPassengers - other.totalPassengers;
+        d.passengerCapacity = passengerCapacity - other.passengerCapacity;
+        return d;
+    }
+
+    /** Adds other's totals to this one (used to total per-shard aggregates). */
+    public void merge(FleetAggregates other) {
+        FleetAggregates copy;
+        synchronized (other) {
+            copy = other.minus(new FleetAggregates());
+            copy.reconciliations = other.reconciliations;
+        }
+        synchronized (this) {
+            mergeUnlocked(copy);
+            reconciliations += copy.reconciliations;
+        }
+    }
+
+    private void mergeUnlocked(FleetAggregates other) {
+        vehicles += other.vehicles;
+        for (Map.Entry<String, long[]> e : other.perType.entrySet()) {
+            perType.computeIfAbsent(e.getKey(), k -> new long[1])[0] += e.getValue()[0];
+        }
+        totalMileage += other.totalMileage;
+        totalFuel += other.totalFuel;
+        totalCargo += other.totalCargo;
+        cargoCapacity += other.cargoCapacity;
+        totalPassengers += other.totalPassengers;
+        passengerCapacity += other.passengerCapacity;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("vehicles=%d %s mileage=%.1f fuel=%.1f cargo=%.1f/%.1f passengers=%d/%d",
+                vehicles, getCountByType(), totalMileage, totalFuel, totalCargo, cargoCapacity,
+                totalPassengers, passengerCapacity);
+    }
+}
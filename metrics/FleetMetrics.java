@@ -32,6 +32,23 @@ public class FleetMetrics {
         return totalFuelUsed;
     }
 
+    /** Adds other's counters to this one (used to total per-shard metrics). */
+    public void merge(FleetMetrics other) {
+        int journeys;
+        int vehicles;
+        double fuel;
+        synchronized (other) {
+            journeys = other.totalJourneys;
+            vehicles = other.totalVehicles;
+            fuel = other.totalFuelUsed;
+        }
+        synchronized (this) {
+            totalJourneys += journeys;
+            totalVehicles += vehicles;
+            totalFuelUsed += fuel;
+        }
+    }
+
     public synchronized void reset() {
         totalJourneys = 0;
         totalVehicles = 0;
@@ -0,0 +1,23 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A stream compression format, picked by file extension through Codecs.
+ * Closing a stream returned by compress() finishes the format and closes
+ * the underlying stream.
+ */
+public interface Codec {
+
+    /** Short name for reports, e.g. "gzip". */
+    String getName();
+
+    /** File extension including the dot, e.g. ".gz"; empty for no compression. */
+    String getExtension();
+
+    OutputStream compress(OutputStream out) throws IOException;
+
+    InputStream decompress(InputStream in) throws IOException;
+}
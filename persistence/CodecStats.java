@@ -0,0 +1,65 @@
+package persistence;
+
+/**
+ * Sizes and timings of one file written or read through a Codec. Complete
+ * once the stream is closed (or, when reading, has hit the end).
+ *
+ * Raw bytes are what the caller wrote or read; stored bytes are what is on
+ * disk. Elapsed time runs from opening the stream to closing it, and codec
+ * time is what the background thread spent compressing or decompressing
+ * (including its disk I/O).
+ */
+public class CodecStats {
+
+    private final String codec;
+    private final boolean compressed;
+    private final long start = System.nanoTime();
+
+    private volatile long rawBytes;
+    private volatile long storedBytes;
+    private volatile long codecNanos;
+    private volatile long elapsedNanos;
+
+    CodecStats(Codec codec) {
+        this.codec = codec.getName();
+        this.compressed = codec != Codecs.NONE;
+    }
+
+    void finish(long raw, long stored, long codecTime) {
+        rawBytes = raw;
+        storedBytes = stored;
+        codecNanos = codecTime;
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    public String getCodec() { return codec; }
+
+    /** False for files without a codec extension. */
+    public boolean isCompressed() { return compressed; }
+
+    public long getRawBytes() { return rawBytes; }
+
+    public long getStoredBytes() { return storedBytes; }
+
+    /** Raw size over stored size; 0 before anything was stored. */
+    public double getRatio() {
+        long stored = storedBytes;
+        return stored == 0 ? 0 : (double) rawBytes / stored;
+    }
+
+    public long getCodecNanos() { return codecNanos; }
+
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Raw bytes per second of elapsed time. */
+    public double getThroughput() {
+        long elapsed = elapsedNanos;
+        return elapsed == 0 ? 0 : rawBytes * 1e9 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %.1f MB -> %.1f MB, %.2fx, %.0f MB/s",
+                codec, rawBytes / 1e6, storedBytes / 1e6, getRatio(), getThroughput() / 1e6);
+    }
+}
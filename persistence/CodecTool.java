@@ -0,0 +1,81 @@
+package persistence;
+
+import loadtest.FleetGenerator;
+import loadtest.LoadDriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the codecs on a generated fleet: writes it as CSV and as a binary
+ * snapshot, then runs each file through every codec and back, printing
+ * sizes, ratio and throughput in both directions.
+ *
+ * Usage: java -cp out persistence.CodecTool [--vehicles 1000000] [--dir /tmp] [--seed 1]
+ */
+public class CodecTool {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        int vehicles = Integer.parseInt(opts.getOrDefault("vehicles", "1000000"));
+        Path dir = Paths.get(opts.getOrDefault("dir", System.getProperty("java.io.tmpdir")));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        Files.createDirectories(dir);
+
+        Path csv = dir.resolve("codec-fleet.csv");
+        Path bin = dir.resolve("codec-fleet.bin");
+        FleetGenerator.balanced(seed).writeCsv(csv.toString(), vehicles);
+        FleetGenerator.balanced(seed).writeBinary(bin.toString(), vehicles);
+
+        List<Codec> codecs = List.of(Codecs.NONE, Codecs.GZIP, Codecs.DEFLATE, Codecs.LZ);
+        System.out.printf("%-8s %-5s %10s %10s %7s %12s %12s%n",
+                "codec", "file", "raw MB", "stored MB", "ratio", "write MB/s", "read MB/s");
+        for (Path source : List.of(csv, bin)) {
+            byte[] data = Files.readAllBytes(source);
+            for (int round = 0; round < 2; round++) {          // the first round warms up the JIT
+                for (Codec codec : codecs) {
+                    Path target = dir.resolve(source.getFileName() + "." + codec.getName() + codec.getExtension());
+                    CodecStats written = write(target, data);
+                    CodecStats read = read(target, data.length);
+                    if (round == 1) {
+                        System.out.printf("%-8s %-5s %10.1f %10.1f %6.2fx %12.0f %12.0f%n",
+                                codec.getName(), source.getFileName().toString().endsWith(".csv") ? "csv" : "bin",
+                                written.getRawBytes() / 1e6, written.getStoredBytes() / 1e6, written.getRatio(),
+                                written.getThroughput() / 1e6, read.getThroughput() / 1e6);
+                    }
+                    Files.delete(target);
+                }
+            }
+        }
+        Files.delete(csv);
+        Files.delete(bin);
+    }
+
+    private static CodecStats write(Path target, byte[] data) throws IOException {
+        PipelinedOutputStream out = Codecs.openOutput(target);
+        try (OutputStream os = out) {
+            for (int off = 0; off < data.length; off += 8192) {
+                os.write(data, off, Math.min(8192, data.length - off));
+            }
+        }
+        return out.getStats();
+    }
+
+    private static CodecStats read(Path target, long expected) throws IOException {
+        PipelinedInputStream in = Codecs.openInput(target);
+        long total = 0;
+        try (InputStream is = in) {
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = is.read(buf)) > 0) total += n;
+        }
+        if (total != expected) throw new IOException(target + ": read " + total + " bytes, expected " + expected);
+        return in.getStats();
+    }
+}
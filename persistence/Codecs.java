@@ -0,0 +1,123 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codec registry keyed by file extension, and the entry points that open
+ * fleet files through it: fleet.csv.gz is gzip, fleet.bin.lz is LzCodec and
+ * anything without a registered extension is read and written as is.
+ *
+ *   .gz       gzip (JDK), default level; readable by any gzip tool
+ *   .deflate  raw zlib stream (JDK) at BEST_SPEED
+ *   .lz       LzCodec, the in-project fast codec
+ *
+ * Compression and decompression run on a background thread per file (see
+ * PipelinedOutputStream / PipelinedInputStream), so the caller formats or
+ * parses records while the previous chunk is being compressed and written.
+ */
+public final class Codecs {
+
+    public static final Codec NONE = new Codec() {
+        @Override public String getName() { return "none"; }
+        @Override public String getExtension() { return ""; }
+        @Override public OutputStream compress(OutputStream out) { return out; }
+        @Override public InputStream decompress(InputStream in) { return in; }
+    };
+
+    public static final Codec GZIP = new Codec() {
+        @Override public String getName() { return "gzip"; }
+        @Override public String getExtension() { return ".gz"; }
+        @Override public OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER);
+        }
+        @Override public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER);
+        }
+    };
+
+    public static final Codec DEFLATE = new Codec() {
+        @Override public String getName() { return "deflate"; }
+        @Override public String getExtension() { return ".deflate"; }
+        @Override public OutputStream compress(OutputStream out) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            return new DeflaterOutputStream(out, deflater, BUFFER) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();     // not ended by close() when passed in
+                    }
+                }
+            };
+        }
+        @Override public InputStream decompress(InputStream in) {
+            Inflater inflater = new Inflater();
+            return new InflaterInputStream(in, inflater, BUFFER) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+    };
+
+    public static final Codec LZ = new LzCodec();
+
+    private static final int BUFFER = 64 * 1024;
+    private static final Map<String, Codec> byExtension = new ConcurrentHashMap<>();
+
+    static {
+        register(GZIP);
+        register(DEFLATE);
+        register(LZ);
+    }
+
+    private Codecs() { }
+
+    /** Adds or replaces the codec for its extension. */
+    public static void register(Codec codec) {
+        String ext = codec.getExtension();
+        if (ext == null || !ext.startsWith(".") || ext.length() < 2) {
+            throw new IllegalArgumentException("Codec extension must start with a dot: " + ext);
+        }
+        byExtension.put(ext.toLowerCase(Locale.ROOT), codec);
+    }
+
+    /** The codec for path's last extension, or NONE. */
+    public static Codec forPath(Path path) {
+        Path name = path.getFileName();
+        if (name == null) return NONE;
+        String s = name.toString();
+        int dot = s.lastIndexOf('.');
+        if (dot < 0) return NONE;
+        return byExtension.getOrDefault(s.substring(dot).toLowerCase(Locale.ROOT), NONE);
+    }
+
+    /** Creates or truncates path and compresses what is written with its codec. */
+    public static PipelinedOutputStream openOutput(Path path) throws IOException {
+        return new PipelinedOutputStream(Files.newOutputStream(path), forPath(path));
+    }
+
+    /** Opens path and decompresses it with its codec. */
+    public static PipelinedInputStream openInput(Path path) throws IOException {
+        return new PipelinedInputStream(Files.newInputStream(path), forPath(path));
+    }
+}
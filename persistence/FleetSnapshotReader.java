@@ -0,0 +1,89 @@
+package persistence;
+
+import logistics.VehicleSnapshot;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the binary snapshot format written by FleetSnapshotWriter, one
+ * VehicleSnapshot at a time.
+ */
+public class FleetSnapshotReader implements Closeable {
+
+    private final DataInputStream in;
+    private final List<String> types = new ArrayList<>();
+    private final List<String> models = new ArrayList<>();
+    private final short version;
+    private boolean ended;
+
+    public FleetSnapshotReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 64 * 1024));
+        int magic = this.in.readInt();
+        if (magic != FleetSnapshotWriter.MAGIC) {
+            throw new IOException("Not a fleet snapshot (bad magic " + Integer.toHexString(magic) + ")");
+        }
+        this.version = this.in.readShort();
+        if (version < 1 || version > FleetSnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+    }
+
+    /** The next vehicle, or null at the end of the snapshot. */
+    public VehicleSnapshot next() throws IOException {
+        while (!ended) {
+            byte tag = in.readByte();
+            switch (tag) {
+                case FleetSnapshotWriter.TAG_END -> ended = true;
+                case FleetSnapshotWriter.TAG_TYPE -> define(types);
+                case FleetSnapshotWriter.TAG_MODEL -> define(models);
+                case FleetSnapshotWriter.TAG_VEHICLE -> {
+                    String type = lookup(types, readVarInt());
+                    String id = in.readUTF();
+                    String model = lookup(models, readVarInt());
+                    double maxSpeed = in.readDouble();
+                    double mileage = in.readDouble();
+                    double fuel = in.readDouble();
+                    double cargo = in.readDouble();
+                    int passengers = readVarInt();
+                    int wheels = readVarInt();
+                    double altitude = in.readDouble();
+                    int flags = in.readByte();
+                    double serviceMileage = version >= 2 ? in.readDouble() : 0.0;   // v1: never serviced
+                    return new VehicleSnapshot(type, id, model, maxSpeed, mileage, fuel, cargo, passengers,
+                            wheels, altitude, (flags & 1) != 0, (flags & 2) != 0, serviceMileage);
+                }
+                default -> throw new IOException("Corrupt snapshot: unknown tag " + tag);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void define(List<String> dict) throws IOException {
+        int code = readVarInt();
+        String name = in.readUTF();
+        if (code != dict.size()) throw new IOException("Corrupt snapshot: dictionary code " + code + " out of order");
+        dict.add(name);
+    }
+
+    private static String lookup(List<String> dict, int code) throws IOException {
+        if (code < 0 || code >= dict.size()) throw new IOException("Corrupt snapshot: undefined code " + code);
+        return dict.get(code);
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Corrupt snapshot: varint too long");
+    }
+}
@@ -0,0 +1,119 @@
+package persistence;
+
+import indexing.SymbolTable;
+import logistics.VehicleSnapshot;
+import vehicles.Vehicle;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes vehicles in the binary snapshot format read by FleetSnapshotReader.
+ *
+ * Layout: magic "FLT1", a version short, then a stream of tagged records.
+ * Type and model names are sent once as dictionary records and referenced by
+ * code afterwards, so a million vehicles with a handful of models do not repeat
+ * the model strings. The stream ends with an END tag.
+ *
+ * Models are looked up by their Vehicle.MODELS code, so a record costs an
+ * array read rather than a string hash.
+ */
+public class FleetSnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x464C5431; // "FLT1"
+    static final short VERSION = 2;        // 2 added the service mileage; 1 is still read
+
+    static final byte TAG_END = 0;
+    static final byte TAG_TYPE = 1;
+    static final byte TAG_MODEL = 2;
+    static final byte TAG_VEHICLE = 3;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> types = new HashMap<>();
+    private int[] models = new int[16]; // Vehicle.MODELS code -> snapshot code + 1, 0 if not sent yet
+    private int modelCount;
+    private long written;
+    private boolean finished;
+
+    public FleetSnapshotWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, 64 * 1024));
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+    }
+
+    public void write(Vehicle v) throws IOException {
+        write(VehicleSnapshot.capture(v));
+    }
+
+    public void write(VehicleSnapshot s) throws IOException {
+        int type = code(types, s.getType(), TAG_TYPE);
+        int model = modelCode(s.getModel());
+
+        out.writeByte(TAG_VEHICLE);
+        writeVarInt(type);
+        out.writeUTF(s.getId());
+        writeVarInt(model);
+        out.writeDouble(s.getMaxSpeed());
+        out.writeDouble(s.getMileage());
+        out.writeDouble(s.getFuel());
+        out.writeDouble(s.getCargo());
+        writeVarInt(s.getPassengers());
+        writeVarInt(s.getNumWheels());
+        out.writeDouble(s.getMaxAltitude());
+        out.writeByte((s.hasSail() ? 1 : 0) | (s.isMaintenanceDue() ? 2 : 0));
+        out.writeDouble(s.getServiceMileage());
+        written++;
+    }
+
+    /** Writes the END tag and flushes; the underlying stream stays open. */
+    public void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+        out.writeByte(TAG_END);
+        out.flush();
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    private int code(Map<String, Integer> dict, String name, byte tag) throws IOException {
+        Integer code = dict.get(name);
+        if (code != null) return code;
+        int next = dict.size();
+        dict.put(name, next);
+        out.writeByte(tag);
+        writeVarInt(next);
+        out.writeUTF(name);
+        return next;
+    }
+
+    private int modelCode(String name) throws IOException {
+        int global = Vehicle.MODELS.intern(name);
+        if (global == SymbolTable.NONE) throw new IOException("Vehicle without a model");
+        if (global >= models.length) models = Arrays.copyOf(models, Math.max(global + 1, models.length * 2));
+        if (models[global] != 0) return models[global] - 1;
+        int next = modelCount++;
+        models[global] = next + 1;
+        out.writeByte(TAG_MODEL);
+        writeVarInt(next);
+        out.writeUTF(name);
+        return next;
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
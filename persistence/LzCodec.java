@@ -0,0 +1,315 @@
+package persistence;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Fast LZ77 codec in the style of LZ4: greedy matching through a hash of
+ * the next four bytes, no entropy coding. It gives up ratio against gzip
+ * for several times the speed in both directions, which suits fleet files
+ * that are written and read far more often than they are archived.
+ *
+ * Stream layout: magic "FLZ1", then blocks of at most 64 KB of input, each
+ *
+ *   byte kind (1 compressed, 2 stored, 0 end of stream)
+ *   int  raw length
+ *   int  compressed length (compressed blocks only)
+ *   data
+ *
+ * A compressed block is a run of sequences: a token byte (literal count in
+ * the high nibble, match length - 4 in the low one, 15 meaning "more
+ * follows" as 255-run bytes), the literals, then a 2-byte little-endian
+ * match offset and any extra match length. The last sequence has literals
+ * only. Blocks that do not shrink are stored.
+ */
+public class LzCodec implements Codec {
+
+    static final int MAGIC = 0x464C5A31; // "FLZ1"
+    static final int BLOCK = 64 * 1024;
+
+    private static final byte KIND_END = 0;
+    private static final byte KIND_COMPRESSED = 1;
+    private static final byte KIND_STORED = 2;
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 0xFFFF;
+    private static final int HASH_BITS = 14;
+    private static final int MAX_COMPRESSED = BLOCK + BLOCK / 255 + 16;
+
+    @Override
+    public String getName() { return "lz"; }
+
+    @Override
+    public String getExtension() { return ".lz"; }
+
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        return new LzOutputStream(out);
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+        return new LzInputStream(in);
+    }
+
+    // ---------- Block format ----------
+
+    /**
+     * Compresses src[0, n) into dst, which must hold MAX_COMPRESSED bytes.
+     *
+     * @return compressed length
+     */
+    static int compressBlock(byte[] src, int n, byte[] dst, int[] table) {
+        Arrays.fill(table, -1);
+        int ip = 0;
+        int anchor = 0;
+        int op = 0;
+        int misses = 0;
+        int limit = n - MIN_MATCH;
+        while (ip <= limit) {
+            int seq = getInt(src, ip);
+            int h = (seq * 0x9E3779B1) >>> (32 - HASH_BITS);
+            int ref = table[h];
+            table[h] = ip;
+            if (ref < 0 || ip - ref > MAX_OFFSET || getInt(src, ref) != seq) {
+                ip += 1 + (misses++ >>> 6);        // speed up through data that does not compress
+                continue;
+            }
+            misses = 0;
+            int len = MIN_MATCH;
+            while (ip + len < n && src[ref + len] == src[ip + len]) len++;
+
+            int literals = ip - anchor;
+            int extra = len - MIN_MATCH;
+            dst[op++] = (byte) ((Math.min(literals, 15) << 4) | Math.min(extra, 15));
+            if (literals >= 15) op = writeLength(literals - 15, dst, op);
+            System.arraycopy(src, anchor, dst, op, literals);
+            op += literals;
+            int offset = ip - ref;
+            dst[op++] = (byte) offset;
+            dst[op++] = (byte) (offset >>> 8);
+            if (extra >= 15) op = writeLength(extra - 15, dst, op);
+
+            ip += len;
+            anchor = ip;
+        }
+        int literals = n - anchor;
+        if (literals > 0) {
+            dst[op++] = (byte) (Math.min(literals, 15) << 4);
+            if (literals >= 15) op = writeLength(literals - 15, dst, op);
+            System.arraycopy(src, anchor, dst, op, literals);
+            op += literals;
+        }
+        return op;
+    }
+
+    /** Expands src[0, srcLength) into dst, which must come out exactly rawLength long. */
+    static void decompressBlock(byte[] src, int srcLength, byte[] dst, int rawLength) throws IOException {
+        int ip = 0;
+        int op = 0;
+        try {
+            while (ip < srcLength) {
+                int token = src[ip++] & 0xFF;
+                int literals = token >>> 4;
+                if (literals == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        literals += b;
+                    } while (b == 255);
+                }
+                if (ip + literals > srcLength || op + literals > rawLength) throw corrupt();
+                System.arraycopy(src, ip, dst, op, literals);
+                ip += literals;
+                op += literals;
+                if (ip == srcLength) break;
+
+                int offset = (src[ip++] & 0xFF) | (src[ip++] & 0xFF) << 8;
+                int len = token & 15;
+                if (len == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        len += b;
+                    } while (b == 255);
+                }
+                len += MIN_MATCH;
+                int from = op - offset;
+                if (offset == 0 || from < 0 || op + len > rawLength) throw corrupt();
+                if (offset >= len) {
+                    System.arraycopy(dst, from, dst, op, len);
+                } else {
+                    for (int i = 0; i < len; i++) dst[op + i] = dst[from + i];    // overlapping run
+                }
+                op += len;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw corrupt();
+        }
+        if (op != rawLength) throw corrupt();
+    }
+
+    private static int writeLength(int v, byte[] dst, int op) {
+        while (v >= 255) {
+            dst[op++] = (byte) 255;
+            v -= 255;
+        }
+        dst[op++] = (byte) v;
+        return op;
+    }
+
+    private static int getInt(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    private static IOException corrupt() {
+        return new IOException("Corrupt LZ block");
+    }
+
+    // ---------- Streams ----------
+
+    private static final class LzOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte[] block = new byte[BLOCK];
+        private final byte[] compressed = new byte[MAX_COMPRESSED];
+        private final int[] table = new int[1 << HASH_BITS];
+        private int length;
+        private boolean closed;
+
+        LzOutputStream(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(MAGIC);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == BLOCK) writeBlock();
+            block[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == BLOCK) writeBlock();
+                int n = Math.min(len, BLOCK - length);
+                System.arraycopy(b, off, block, length, n);
+                length += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (length == 0) return;
+            int n = compressBlock(block, length, compressed, table);
+            if (n < length) {
+                out.writeByte(KIND_COMPRESSED);
+                out.writeInt(length);
+                out.writeInt(n);
+                out.write(compressed, 0, n);
+            } else {
+                out.writeByte(KIND_STORED);
+                out.writeInt(length);
+                out.write(block, 0, length);
+            }
+            length = 0;
+        }
+
+        /** Writes out the current block, so a reader sees everything written so far. */
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                writeBlock();
+                out.writeByte(KIND_END);
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private static final class LzInputStream extends InputStream {
+        private final DataInputStream in;
+        private final byte[] block = new byte[BLOCK];
+        private final byte[] compressed = new byte[MAX_COMPRESSED];
+        private int pos;
+        private int length;
+        private boolean ended;
+
+        LzInputStream(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            int magic = this.in.readInt();
+            if (magic != MAGIC) throw new IOException("Not an LZ stream (bad magic " + Integer.toHexString(magic) + ")");
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos == length && !fill()) return -1;
+            return block[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (pos == length && !fill()) return -1;
+            int n = Math.min(len, length - pos);
+            System.arraycopy(block, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return length - pos;
+        }
+
+        private boolean fill() throws IOException {
+            if (ended) return false;
+            try {
+                return readBlock();
+            } catch (EOFException e) {
+                throw new IOException("LZ stream truncated");
+            }
+        }
+
+        private boolean readBlock() throws IOException {
+            byte kind = in.readByte();
+            if (kind == KIND_END) {
+                ended = true;
+                return false;
+            }
+            int raw = in.readInt();
+            if (raw <= 0 || raw > BLOCK) throw corrupt();
+            if (kind == KIND_STORED) {
+                in.readFully(block, 0, raw);
+            } else if (kind == KIND_COMPRESSED) {
+                int n = in.readInt();
+                if (n <= 0 || n > MAX_COMPRESSED) throw corrupt();
+                in.readFully(compressed, 0, n);
+                decompressBlock(compressed, n, block, raw);
+            } else {
+                throw corrupt();
+            }
+            pos = 0;
+            length = raw;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
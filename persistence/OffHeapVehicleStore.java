@@ -0,0 +1,304 @@
+package persistence;
+
+import logistics.InvalidOperationException;
+import logistics.VehicleFactory;
+import logistics.VehicleSnapshot;
+import vehicles.Vehicle;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Vehicle state in fixed-size records outside the Java heap, for fleets
+ * large enough that one object graph per vehicle shows up in GC pauses.
+ *
+ * Records live in direct ByteBuffer pages of PAGE_RECORDS slots each; a
+ * slot number is a vehicle's address for as long as it is stored. Type and
+ * model names are kept once in small dictionaries and referenced by code,
+ * the ID is stored inline (at most MAX_ID_BYTES of UTF-8). The whole store
+ * is saved and loaded by copying the pages to and from a file.
+ *
+ * Two ways in:
+ *   record()  a reusable VehicleRecord cursor reading and writing fields in
+ *             place, for scans and bulk updates without any allocation
+ *   view()    a real Vehicle rebuilt from a record, whose changes are
+ *             written back to it; for operations that need vehicle rules
+ *
+ * Adding and removing records is thread-safe. Field access through records
+ * and views is not synchronized, like plain fields on a Vehicle.
+ */
+public class OffHeapVehicleStore {
+
+    static final int MAGIC = 0x464F4831; // "FOH1"
+    static final short VERSION = 2;        // 2 added the service mileage; 1 is still loaded
+
+    public static final int MAX_ID_BYTES = VehicleRecord.MAX_ID_BYTES;
+    static final int PAGE_SHIFT = 16;
+    public static final int PAGE_RECORDS = 1 << PAGE_SHIFT;
+    public static final int RECORD_BYTES = VehicleRecord.RECORD_BYTES;
+
+    private volatile ByteBuffer[] pages = new ByteBuffer[0];
+    private volatile int slotCount;     // slots ever handed out
+    private int size;
+    private int[] free = new int[16];
+    private int freeCount;
+
+    private final List<String> types = new ArrayList<>();
+    private final Map<String, Integer> typeCodes = new HashMap<>();
+    private volatile String[] typeNames = new String[0];
+    private final List<String> models = new ArrayList<>();
+    private final Map<String, Integer> modelCodes = new HashMap<>();
+    private volatile String[] modelNames = new String[0];
+
+    // ---------- Records ----------
+
+    /** Copies v into a free slot; returns the slot. */
+    public int add(Vehicle v) {
+        return add(VehicleSnapshot.capture(v));
+    }
+
+    /** Stores s in a free slot; returns the slot. */
+    public synchronized int add(VehicleSnapshot s) {
+        byte[] id = s.getId().getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("ID longer than " + MAX_ID_BYTES + " bytes: " + s.getId());
+        }
+        if (VehicleFactory.codeOf(s.getType()) == VehicleFactory.UNKNOWN) {
+            throw new IllegalArgumentException("Unknown vehicle type: " + s.getType());
+        }
+        int slot = freeCount > 0 ? free[--freeCount] : newSlot();
+        new VehicleRecord(this).at(slot).init(s, code(types, typeCodes, s.getType()),
+                code(models, modelCodes, s.getModel()), id);
+        size++;
+        return slot;
+    }
+
+    /** Frees the slot for reuse; views of it stop writing back. */
+    public synchronized void remove(int slot) {
+        if (!isLive(slot)) throw new IllegalArgumentException("No vehicle in slot " + slot);
+        new VehicleRecord(this).at(slot).release();
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = slot;
+        size--;
+    }
+
+    public boolean isLive(int slot) {
+        return slot >= 0 && slot < slotCount && new VehicleRecord(this).at(slot).isLive();
+    }
+
+    /** A new cursor; position it with moveTo(slot). */
+    public VehicleRecord record() {
+        return new VehicleRecord(this);
+    }
+
+    /** Visits every live record with one reused cursor, in slot order. */
+    public void forEach(Consumer<VehicleRecord> action) {
+        VehicleRecord r = new VehicleRecord(this);
+        int n = getSlotCount();
+        for (int slot = 0; slot < n; slot++) {
+            if (r.at(slot).isLive()) action.accept(r);
+        }
+    }
+
+    public VehicleSnapshot snapshot(int slot) {
+        return record().moveTo(slot).toSnapshot();
+    }
+
+    /**
+     * Rebuilds the vehicle in slot as a real Vehicle. Its changes (moves,
+     * fuel, cargo, passengers, maintenance) are written back through its
+     * observer, so the view must not be tracked by a FleetManager, which
+     * installs its own. Once the slot is removed the view is detached.
+     *
+     * @throws InvalidOperationException if the record does not fit its type any more
+     */
+    public Vehicle view(int slot) throws InvalidOperationException {
+        VehicleRecord r = record().moveTo(slot);
+        int generation = r.getGeneration();
+        Vehicle v = VehicleFactory.restore(r.toSnapshot());
+        v.setObserver((vehicle, change, amount) -> writeBack(slot, generation, vehicle));
+        return v;
+    }
+
+    /** Copies the mutable state of v (mileage, fuel, cargo, passengers, maintenance) into slot. */
+    public void write(int slot, Vehicle v) {
+        record().moveTo(slot).writeState(v);
+    }
+
+    private void writeBack(int slot, int generation, Vehicle v) {
+        VehicleRecord r = new VehicleRecord(this).at(slot);
+        if (r.getGeneration() == generation) r.writeState(v);   // else the slot was removed or reused
+    }
+
+    // ---------- Stats ----------
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Slots handed out so far, live or free; valid slots are [0, getSlotCount()). */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /** Direct memory held by the pages. */
+    public long getOffHeapBytes() {
+        return (long) pages.length * PAGE_RECORDS * RECORD_BYTES;
+    }
+
+    // ---------- Save / load ----------
+
+    /**
+     * Writes the dictionaries and then the used part of every page as is.
+     * Layout: [int magic][short version][int recordBytes][int slotCount]
+     * [int dictLength][dictionaries][records].
+     */
+    public synchronized void save(Path file) throws IOException {
+        ByteArrayOutputStream dict = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(dict)) {
+            writeNames(out, types);
+            writeNames(out, models);
+        }
+        ByteBuffer header = ByteBuffer.allocate(18 + dict.size()).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putInt(RECORD_BYTES).putInt(slotCount).putInt(dict.size());
+        header.put(dict.toByteArray()).flip();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(ch, header);
+            for (int p = 0; p * PAGE_RECORDS < slotCount; p++) {
+                int records = Math.min(PAGE_RECORDS, slotCount - p * PAGE_RECORDS);
+                writeFully(ch, pages[p].duplicate().position(0).limit(records * RECORD_BYTES));
+            }
+        }
+    }
+
+    public static OffHeapVehicleStore load(Path file) throws IOException {
+        OffHeapVehicleStore store = new OffHeapVehicleStore();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, header);
+            header.flip();
+            int magic = header.getInt();
+            if (magic != MAGIC) throw new IOException("Not an off-heap fleet store (bad magic " + Integer.toHexString(magic) + ")");
+            short version = header.getShort();
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported store version " + version);
+            int recordBytes = header.getInt();
+            int expected = version == 1 ? VehicleRecord.V1_RECORD_BYTES : RECORD_BYTES;
+            if (recordBytes != expected) throw new IOException("Record size " + recordBytes + " does not match " + expected);
+            int slots = header.getInt();
+            ByteBuffer dict = ByteBuffer.allocate(header.getInt());
+            readFully(ch, dict);
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(dict.array()))) {
+                for (String name : readNames(in)) store.code(store.types, store.typeCodes, name);
+                for (String name : readNames(in)) store.code(store.models, store.modelCodes, name);
+            }
+
+            synchronized (store) {
+                while (store.slotCount < slots) store.newSlot();
+                ByteBuffer v1 = version == 1
+                        ? ByteBuffer.allocate(PAGE_RECORDS * recordBytes).order(ByteOrder.LITTLE_ENDIAN) : null;
+                for (int p = 0; p * PAGE_RECORDS < slots; p++) {
+                    int records = Math.min(PAGE_RECORDS, slots - p * PAGE_RECORDS);
+                    if (v1 == null) {
+                        readFully(ch, store.pages[p].duplicate().position(0).limit(records * RECORD_BYTES));
+                    } else {
+                        readFully(ch, v1.clear().limit(records * recordBytes));
+                        upgradeV1(v1, store.pages[p], records);
+                    }
+                }
+                for (int slot = slots - 1; slot >= 0; slot--) {
+                    if (store.isLive(slot)) {
+                        store.size++;
+                    } else {
+                        if (store.freeCount == store.free.length) store.free = Arrays.copyOf(store.free, store.freeCount * 2);
+                        store.free[store.freeCount++] = slot;
+                    }
+                }
+            }
+        }
+        return store;
+    }
+
+    /** Copies version 1 records into a page; the extra fields start at 0 (never serviced). */
+    private static void upgradeV1(ByteBuffer from, ByteBuffer page, int records) {
+        byte[] record = new byte[VehicleRecord.V1_RECORD_BYTES];
+        for (int i = 0; i < records; i++) {
+            from.get(i * record.length, record);
+            page.put(i * RECORD_BYTES, record);
+            page.putDouble(i * RECORD_BYTES + VehicleRecord.SERVICE_MILEAGE, 0.0);
+        }
+    }
+
+    // ---------- Internals ----------
+
+    ByteBuffer page(int slot) {
+        return pages[slot >>> PAGE_SHIFT];
+    }
+
+    static int offset(int slot) {
+        return (slot & (PAGE_RECORDS - 1)) * RECORD_BYTES;
+    }
+
+    String typeName(int code) {
+        return typeNames[code];
+    }
+
+    String modelName(int code) {
+        return modelNames[code];
+    }
+
+    private int newSlot() {
+        if (slotCount == Integer.MAX_VALUE) throw new IllegalStateException("Off-heap store is full");
+        if ((slotCount >>> PAGE_SHIFT) == pages.length) {
+            ByteBuffer[] grown = Arrays.copyOf(pages, pages.length + 1);
+            grown[pages.length] = ByteBuffer.allocateDirect(PAGE_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            pages = grown;
+        }
+        return slotCount++;
+    }
+
+    private int code(List<String> names, Map<String, Integer> codes, String name) {
+        Integer code = codes.get(name);
+        if (code != null) return code;
+        int next = names.size();
+        names.add(name);
+        codes.put(name, next);
+        if (names == types) typeNames = types.toArray(new String[0]);
+        else modelNames = models.toArray(new String[0]);
+        return next;
+    }
+
+    private static void writeNames(DataOutputStream out, List<String> names) throws IOException {
+        out.writeInt(names.size());
+        for (String name : names) out.writeUTF(name);
+    }
+
+    private static List<String> readNames(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<String> names = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) names.add(in.readUTF());
+        return names;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf);
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) < 0) throw new EOFException("Off-heap fleet store is truncated");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads through a Codec on a background thread, which reads and
+ * decompresses up to DEPTH chunks ahead of the caller, so parsing one chunk
+ * overlaps with reading and decompressing the next. A failure on the
+ * background thread is thrown from read() once the chunks before it have
+ * been consumed.
+ */
+public class PipelinedInputStream extends InputStream {
+
+    static final int CHUNK = 256 * 1024;
+    static final int DEPTH = 4;
+
+    private static final class Chunk {
+        final byte[] data;
+        int length;
+
+        Chunk(int size) {
+            data = new byte[size];
+        }
+    }
+
+    private static final Chunk END = new Chunk(0);
+
+    private final BlockingQueue<Chunk> full = new ArrayBlockingQueue<>(DEPTH + 1);
+    private final BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(DEPTH);
+    private final InputStream source;
+    private final Codec codec;
+    private final CountingInputStream stored;
+    private final CodecStats stats;
+    private final Thread worker;
+
+    private Chunk chunk;
+    private int pos;
+    private long raw;
+    private volatile long codecNanos;
+    private volatile IOException failure;
+    private boolean ended;
+    private boolean closed;
+
+    public PipelinedInputStream(InputStream source, Codec codec) {
+        this.source = source;
+        this.codec = codec;
+        this.stats = new CodecStats(codec);
+        this.stored = new CountingInputStream(source);
+        for (int i = 0; i < DEPTH; i++) free.add(new Chunk(CHUNK));
+        this.worker = new Thread(this::fill, "codec-reader-" + codec.getName());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public CodecStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ready()) return -1;
+        raw++;
+        return chunk.data[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!ready()) return -1;
+        int n = Math.min(len, chunk.length - pos);
+        System.arraycopy(chunk.data, pos, b, off, n);
+        pos += n;
+        raw += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null ? 0 : chunk.length - pos;
+    }
+
+    /** Makes sure the current chunk has bytes left; false at the end of the stream. */
+    private boolean ready() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        while (chunk == null || pos == chunk.length) {
+            if (ended) return false;
+            try {
+                if (chunk != null) free.put(chunk);
+                chunk = full.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading");
+            }
+            pos = 0;
+            if (chunk == END) {
+                chunk = null;
+                ended = true;
+                stats.finish(raw, stored.count, codecNanos);
+                IOException e = failure;
+                if (e != null) throw new IOException("Reading " + stats.getCodec() + " stream failed: " + e.getMessage(), e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Stops the background thread and closes the source, whether or not it was read to the end. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!ended) stats.finish(raw, stored.count, codecNanos);
+        source.close();
+    }
+
+    // ---------- Background thread ----------
+
+    private void fill() {
+        long busy = 0;
+        try (InputStream in = codec.decompress(new BufferedInputStream(stored, 64 * 1024))) {
+            while (true) {
+                Chunk c = free.take();
+                long t0 = System.nanoTime();
+                int n = 0;
+                int r = 0;
+                while (n < CHUNK && (r = in.read(c.data, n, CHUNK - n)) > 0) n += r;
+                busy += System.nanoTime() - t0;
+                c.length = n;
+                if (n > 0) full.put(c);
+                if (r < 0) break;
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            // closed before the end
+        } finally {
+            codecNanos = busy;
+            full.offer(END);        // room is left for it; a closed reader no longer waits
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
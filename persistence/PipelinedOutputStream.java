@@ -0,0 +1,182 @@
+package persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes through a Codec on a background thread. What the caller writes is
+ * gathered into chunks that the thread compresses and writes to the sink,
+ * so formatting the next chunk overlaps with compressing and writing the
+ * last. At most DEPTH chunks wait; a caller that outpaces the disk blocks.
+ *
+ * A failure on the background thread is thrown from the next write() or
+ * from close(). close() waits for everything to reach the sink.
+ */
+public class PipelinedOutputStream extends OutputStream {
+
+    static final int CHUNK = 256 * 1024;
+    static final int DEPTH = 4;
+
+    private static final class Chunk {
+        final byte[] data;
+        int length;
+
+        Chunk(int size) {
+            data = new byte[size];
+        }
+    }
+
+    private static final Chunk END = new Chunk(0);
+
+    private final BlockingQueue<Chunk> full = new ArrayBlockingQueue<>(DEPTH + 1);
+    private final BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(DEPTH);
+    private final CountingOutputStream stored;
+    private final OutputStream target;
+    private final CodecStats stats;
+    private final Thread worker;
+
+    private Chunk chunk = new Chunk(CHUNK);
+    private long raw;
+    private volatile long codecNanos;
+    private volatile IOException failure;
+    private boolean closed;
+
+    public PipelinedOutputStream(OutputStream sink, Codec codec) throws IOException {
+        this.stats = new CodecStats(codec);
+        this.stored = new CountingOutputStream(sink);
+        try {
+            this.target = codec.compress(new BufferedOutputStream(stored, 64 * 1024));
+        } catch (IOException | RuntimeException e) {
+            sink.close();
+            throw e;
+        }
+        for (int i = 0; i < DEPTH; i++) free.add(new Chunk(CHUNK));
+        this.worker = new Thread(this::drain, "codec-writer-" + codec.getName());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public CodecStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (chunk.length == CHUNK) handOff();
+        chunk.data[chunk.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (chunk.length == CHUNK) handOff();
+            int n = Math.min(len, CHUNK - chunk.length);
+            System.arraycopy(b, off, chunk.data, chunk.length, n);
+            chunk.length += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /** Hands the buffered bytes to the background thread; does not wait for them. */
+    @Override
+    public void flush() throws IOException {
+        if (chunk.length > 0) handOff();
+    }
+
+    private void handOff() throws IOException {
+        checkFailure();
+        if (closed) throw new IOException("Stream closed");
+        try {
+            raw += chunk.length;
+            full.put(chunk);
+            chunk = free.take();
+            chunk.length = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            flush();
+        } finally {
+            closed = true;
+            try {
+                full.put(END);
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while closing");
+            }
+            stats.finish(raw, stored.count, codecNanos);
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) throw new IOException("Writing " + stats.getCodec() + " stream failed: " + e.getMessage(), e);
+    }
+
+    // ---------- Background thread ----------
+
+    private void drain() {
+        long busy = 0;
+        try {
+            while (true) {
+                Chunk c = full.take();
+                if (c == END) break;
+                if (failure == null) {
+                    long t0 = System.nanoTime();
+                    try {
+                        target.write(c.data, 0, c.length);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                    busy += System.nanoTime() - t0;
+                }
+                free.put(c);        // keep taking chunks after a failure so the writer never blocks
+            }
+            long t0 = System.nanoTime();
+            try {
+                target.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+            busy += System.nanoTime() - t0;
+        } catch (InterruptedException e) {
+            if (failure == null) failure = new InterruptedIOException("Codec writer interrupted");
+        } finally {
+            codecNanos = busy;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        volatile long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
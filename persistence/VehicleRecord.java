@@ -0,0 +1,165 @@
+package persistence;
+
+import logistics.VehicleSnapshot;
+import vehicles.Vehicle;
+import vehicles.interfaces.CargoCarrier;
+import vehicles.interfaces.FuelConsumable;
+import vehicles.interfaces.Maintainable;
+import vehicles.interfaces.PassengerCarrier;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Flyweight cursor over one OffHeapVehicleStore record: moveTo(slot) points
+ * it at a vehicle and the getters and setters work on the record in place.
+ * One cursor serves any number of records, so scanning millions of vehicles
+ * allocates nothing (getId(), getType() and getModel() aside).
+ *
+ * Setters store raw values and skip vehicle rules such as capacities; use
+ * OffHeapVehicleStore.view() when the rules matter. A cursor is not
+ * thread-safe.
+ */
+public final class VehicleRecord {
+
+    // ---------- Layout (little-endian) ----------
+    static final int TYPE = 0;          // int, store type code
+    static final int MODEL = 4;         // int, store model code
+    static final int MAX_SPEED = 8;     // double
+    static final int MILEAGE = 16;      // double
+    static final int FUEL = 24;         // double
+    static final int CARGO = 32;        // double
+    static final int ALTITUDE = 40;     // double
+    static final int PASSENGERS = 48;   // int
+    static final int WHEELS = 52;       // short
+    static final int FLAGS = 54;        // byte
+    static final int ID_LENGTH = 55;    // byte
+    static final int ID = 56;           // MAX_ID_BYTES
+    static final int GENERATION = 88;   // int, bumped whenever the slot is taken or freed
+    static final int SERVICE_MILEAGE = 96;  // double, mileage at the last maintenance
+    static final int MAX_ID_BYTES = 32;
+    static final int RECORD_BYTES = 104;
+    static final int V1_RECORD_BYTES = 96;  // version 1 stores: no service mileage
+
+    private static final int FLAG_LIVE = 1;
+    private static final int FLAG_SAIL = 2;
+    private static final int FLAG_MAINTENANCE = 4;
+
+    private final OffHeapVehicleStore store;
+    private ByteBuffer page;
+    private int base;
+    private int slot = -1;
+
+    VehicleRecord(OffHeapVehicleStore store) {
+        this.store = store;
+    }
+
+    public VehicleRecord moveTo(int slot) {
+        if (!store.isLive(slot)) throw new IllegalArgumentException("No vehicle in slot " + slot);
+        return at(slot);
+    }
+
+    /** Positions the cursor without checking the slot holds a vehicle. */
+    VehicleRecord at(int slot) {
+        this.page = store.page(slot);
+        this.base = OffHeapVehicleStore.offset(slot);
+        this.slot = slot;
+        return this;
+    }
+
+    public int getSlot() { return slot; }
+
+    public String getType() { return store.typeName(page.getInt(base + TYPE)); }
+
+    public String getId() {
+        byte[] id = new byte[page.get(base + ID_LENGTH)];
+        page.get(base + ID, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    public String getModel() { return store.modelName(page.getInt(base + MODEL)); }
+
+    public double getMaxSpeed() { return page.getDouble(base + MAX_SPEED); }
+
+    public double getMileage() { return page.getDouble(base + MILEAGE); }
+
+    public void setMileage(double mileage) { page.putDouble(base + MILEAGE, mileage); }
+
+    public double getFuel() { return page.getDouble(base + FUEL); }
+
+    public void setFuel(double fuel) { page.putDouble(base + FUEL, fuel); }
+
+    public double getCargo() { return page.getDouble(base + CARGO); }
+
+    public void setCargo(double cargo) { page.putDouble(base + CARGO, cargo); }
+
+    public int getPassengers() { return page.getInt(base + PASSENGERS); }
+
+    public void setPassengers(int passengers) { page.putInt(base + PASSENGERS, passengers); }
+
+    public int getNumWheels() { return page.getShort(base + WHEELS); }
+
+    public double getMaxAltitude() { return page.getDouble(base + ALTITUDE); }
+
+    public boolean hasSail() { return (page.get(base + FLAGS) & FLAG_SAIL) != 0; }
+
+    public double getServiceMileage() { return page.getDouble(base + SERVICE_MILEAGE); }
+
+    public void setServiceMileage(double mileage) { page.putDouble(base + SERVICE_MILEAGE, mileage); }
+
+    public boolean isMaintenanceDue() { return (page.get(base + FLAGS) & FLAG_MAINTENANCE) != 0; }
+
+    public void setMaintenanceDue(boolean due) {
+        int flags = page.get(base + FLAGS);
+        page.put(base + FLAGS, (byte) (due ? flags | FLAG_MAINTENANCE : flags & ~FLAG_MAINTENANCE));
+    }
+
+    public VehicleSnapshot toSnapshot() {
+        return new VehicleSnapshot(getType(), getId(), getModel(), getMaxSpeed(), getMileage(),
+                getFuel(), getCargo(), getPassengers(), getNumWheels(), getMaxAltitude(),
+                hasSail(), isMaintenanceDue(), getServiceMileage());
+    }
+
+    // ---------- Store internals ----------
+
+    boolean isLive() {
+        return (page.get(base + FLAGS) & FLAG_LIVE) != 0;
+    }
+
+    int getGeneration() {
+        return page.getInt(base + GENERATION);
+    }
+
+    void init(VehicleSnapshot s, int type, int model, byte[] id) {
+        page.putInt(base + TYPE, type);
+        page.putInt(base + MODEL, model);
+        page.putDouble(base + MAX_SPEED, s.getMaxSpeed());
+        page.putDouble(base + MILEAGE, s.getMileage());
+        page.putDouble(base + FUEL, s.getFuel());
+        page.putDouble(base + CARGO, s.getCargo());
+        page.putDouble(base + ALTITUDE, s.getMaxAltitude());
+        page.putInt(base + PASSENGERS, s.getPassengers());
+        page.putShort(base + WHEELS, (short) s.getNumWheels());
+        page.putDouble(base + SERVICE_MILEAGE, s.getServiceMileage());
+        page.put(base + ID_LENGTH, (byte) id.length);
+        page.put(base + ID, id);
+        page.putInt(base + GENERATION, getGeneration() + 1);
+        page.put(base + FLAGS, (byte) (FLAG_LIVE | (s.hasSail() ? FLAG_SAIL : 0)
+                | (s.isMaintenanceDue() ? FLAG_MAINTENANCE : 0)));
+    }
+
+    void release() {
+        page.put(base + FLAGS, (byte) 0);
+        page.putInt(base + GENERATION, getGeneration() + 1);
+    }
+
+    /** Copies the state a vehicle changes at runtime: mileage, fuel, cargo, passengers, maintenance. */
+    void writeState(Vehicle v) {
+        setMileage(v.getCurrentMileage());
+        setServiceMileage(v.getServiceMileage());
+        setFuel(v instanceof FuelConsumable fc ? fc.getFuelLevel() : 0.0);
+        setCargo(v instanceof CargoCarrier cc ? cc.getCurrentCargo() : 0.0);
+        setPassengers(v instanceof PassengerCarrier pc ? pc.getCurrentPassengers() : 0);
+        setMaintenanceDue(v instanceof Maintainable m && m.needsMaintenance());
+    }
+}
@@ -0,0 +1,69 @@
+package roads;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Road segments and how they link up. Each road is a ring of equal segments
+ * (a ring road, or a route driven back and forth); connect() reroutes the
+ * end of one segment into another road to build interchanges.
+ *
+ * Build the network before handing it to a TrafficSimulation; the
+ * simulation copies the layout when it is created.
+ */
+public class RoadNetwork {
+
+    private final List<RoadSegment> segments = new ArrayList<>();
+
+    /**
+     * Adds a ring road of count segments.
+     *
+     * @return the ID of its first segment; the others follow in order
+     */
+    public int addRing(String name, int count, double segmentKm, int capacity) {
+        if (count < 1) throw new IllegalArgumentException("A road needs at least one segment");
+        if (segmentKm <= 0) throw new IllegalArgumentException("Segment length must be positive");
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        int first = segments.size();
+        for (int i = 0; i < count; i++) {
+            RoadSegment s = new RoadSegment(first + i, name, segmentKm, capacity);
+            s.next = i + 1 < count ? first + i + 1 : first;
+            segments.add(s);
+        }
+        return first;
+    }
+
+    /** Vehicles leaving segment from continue on segment to. */
+    public void connect(int from, int to) {
+        getSegment(to);
+        getSegment(from).next = to;
+    }
+
+    public RoadSegment getSegment(int id) {
+        if (id < 0 || id >= segments.size()) throw new IllegalArgumentException("No segment " + id);
+        return segments.get(id);
+    }
+
+    public List<RoadSegment> getSegments() {
+        return Collections.unmodifiableList(segments);
+    }
+
+    public int size() {
+        return segments.size();
+    }
+
+    public double getTotalLengthKm() {
+        double km = 0;
+        for (RoadSegment s : segments) km += s.getLengthKm();
+        return km;
+    }
+
+    /** The k segments with the highest travel time factor, worst first. */
+    public List<RoadSegment> mostCongested(int k) {
+        List<RoadSegment> sorted = new ArrayList<>(segments);
+        sorted.sort(Comparator.comparingDouble(RoadSegment::getTravelTimeFactor).reversed());
+        return new ArrayList<>(sorted.subList(0, Math.min(k, sorted.size())));
+    }
+}
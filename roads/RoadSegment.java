@@ -0,0 +1,67 @@
+package roads;
+
+import vehicles.interfaces.TrafficConditions;
+
+/**
+ * A stretch of road with a length and a capacity (vehicles it carries at
+ * free-flow speed). Occupancy above capacity slows everyone on it following
+ * the BPR volume-delay curve: travel time = free time * (1 + 0.15 (v/c)^4).
+ *
+ * The simulation partition that owns the segment publishes its occupancy
+ * once per tick; any thread may read it.
+ */
+public final class RoadSegment implements TrafficConditions {
+
+    static final double BPR_ALPHA = 0.15;
+
+    private final int id;
+    private final String road;
+    private final double lengthKm;
+    private final int capacity;
+    int next;                       // segment a vehicle enters at the end of this one
+    private volatile int occupancy;
+
+    RoadSegment(int id, String road, double lengthKm, int capacity) {
+        this.id = id;
+        this.road = road;
+        this.lengthKm = lengthKm;
+        this.capacity = capacity;
+        this.next = id;
+    }
+
+    /** Travel time multiplier at the given load; 1.0 on an empty road. */
+    static double travelTimeFactor(int occupancy, int capacity) {
+        double r = (double) occupancy / capacity;
+        double r2 = r * r;
+        return 1.0 + BPR_ALPHA * r2 * r2;
+    }
+
+    @Override
+    public double getTravelTimeFactor() {
+        return travelTimeFactor(occupancy, capacity);
+    }
+
+    /** Position in RoadNetwork.getSegments(). */
+    public int getId() { return id; }
+
+    public String getRoad() { return road; }
+
+    public double getLengthKm() { return lengthKm; }
+
+    public int getCapacity() { return capacity; }
+
+    public int getNext() { return next; }
+
+    /** Vehicles on the segment at the start of the last tick. */
+    public int getOccupancy() { return occupancy; }
+
+    void setOccupancy(int occupancy) {
+        this.occupancy = occupancy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s#%d %d/%d vehicles, x%.2f travel time", road, id, occupancy, capacity,
+                getTravelTimeFactor());
+    }
+}
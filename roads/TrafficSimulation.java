@@ -0,0 +1,350 @@
+package roads;
+
+import vehicles.LandVehicle;
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives land vehicles around a RoadNetwork in fixed time steps, with each
+ * vehicle's speed set by the congestion of the segment it is on.
+ *
+ * Segments are split into contiguous ranges, one per partition, and each
+ * partition keeps its vehicles in parallel arrays that only its thread
+ * touches. A vehicle driving off the end of a partition's range is handed
+ * to the owning partition through one of its two lock-free inboxes and
+ * picked up at the start of the next tick. Ticks alternate between the
+ * inboxes, so a partition never drains one that others are filling;
+ * partitions never lock each other, and the only synchronisation is the
+ * end-of-tick join.
+ *
+ * Each tick a partition counts the vehicles on each of its segments,
+ * publishes the counts to the RoadSegments and moves every vehicle by
+ * maxSpeed / travelTimeFactor * dt. A vehicle's LandVehicle traffic points
+ * at its current segment, so estimateJourneyTime() sees the same
+ * congestion. Distance is kept in the simulation and added to the
+ * vehicles' mileage by applyMileage(), not through move().
+ */
+public class TrafficSimulation implements AutoCloseable {
+
+    private static final class Transfer {
+        final LandVehicle vehicle;
+        final int segment;
+        final double position;
+        final double travelled;
+
+        Transfer(LandVehicle vehicle, int segment, double position, double travelled) {
+            this.vehicle = vehicle;
+            this.segment = segment;
+            this.position = position;
+            this.travelled = travelled;
+        }
+    }
+
+    private final RoadNetwork network;
+    private final RoadSegment[] segments;
+    private final double[] lengthKm;
+    private final int[] capacity;
+    private final int[] next;
+    private final int[] owner;          // segment -> partition
+    private final Partition[] partitions;
+    private final ExecutorService pool;
+
+    private long ticks;
+    private double simulatedHours;
+
+    public TrafficSimulation(RoadNetwork network, int partitionCount) {
+        int n = network.size();
+        if (n == 0) throw new IllegalArgumentException("Empty road network");
+        if (partitionCount < 1) throw new IllegalArgumentException("Partition count must be positive");
+        partitionCount = Math.min(partitionCount, n);
+
+        this.network = network;
+        this.segments = network.getSegments().toArray(new RoadSegment[0]);
+        this.lengthKm = new double[n];
+        this.capacity = new int[n];
+        this.next = new int[n];
+        this.owner = new int[n];
+        for (int i = 0; i < n; i++) {
+            lengthKm[i] = segments[i].getLengthKm();
+            capacity[i] = segments[i].getCapacity();
+            next[i] = segments[i].getNext();
+        }
+        this.partitions = new Partition[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            int lo = (int) ((long) n * p / partitionCount);
+            int hi = (int) ((long) n * (p + 1) / partitionCount);
+            partitions[p] = new Partition(lo, hi);
+            Arrays.fill(owner, lo, hi, p);
+        }
+        this.pool = partitionCount == 1 ? null : Executors.newFixedThreadPool(partitionCount, r -> {
+            Thread t = new Thread(r, "traffic-partition");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** One partition per available processor. */
+    public TrafficSimulation(RoadNetwork network) {
+        this(network, Runtime.getRuntime().availableProcessors());
+    }
+
+    // ---------- Vehicles ----------
+
+    /** Puts v on segment, offsetKm from its start. Call between runs only. */
+    public void add(LandVehicle v, int segment, double offsetKm) {
+        if (segment < 0 || segment >= segments.length) throw new IllegalArgumentException("No segment " + segment);
+        partitions[owner[segment]].append(v, segment, Math.max(0, Math.min(offsetKm, lengthKm[segment])), 0);
+        v.setTraffic(segments[segment]);
+        segments[segment].setOccupancy(segments[segment].getOccupancy() + 1);
+    }
+
+    /**
+     * Spreads the land vehicles among vehicles evenly over the whole
+     * network; other vehicles are skipped.
+     *
+     * @return number of vehicles added
+     */
+    public int populate(Collection<? extends Vehicle> vehicles) {
+        List<LandVehicle> land = new ArrayList<>();
+        for (Vehicle v : vehicles) if (v instanceof LandVehicle lv) land.add(lv);
+        double total = network.getTotalLengthKm();
+        double gap = total / Math.max(1, land.size());
+        int segment = 0;
+        double offset = 0;
+        for (LandVehicle v : land) {
+            add(v, segment, offset);
+            offset += gap;
+            while (offset >= lengthKm[segment] && segment + 1 < segments.length) {
+                offset -= lengthKm[segment];
+                segment++;
+            }
+        }
+        return land.size();
+    }
+
+    /** Adds the distance each vehicle drove since the last call to its mileage. */
+    public void applyMileage() {
+        for (Partition p : partitions) p.applyMileage();
+    }
+
+    /** Takes every vehicle off the network and back to TYPICAL traffic. */
+    public void clear() {
+        for (Partition p : partitions) p.clear();
+        for (RoadSegment s : segments) s.setOccupancy(0);
+    }
+
+    // ---------- Running ----------
+
+    /** Runs ticks steps of dtHours each; partitions run in parallel. */
+    public void run(int tickCount, double dtHours) {
+        if (dtHours <= 0) throw new IllegalArgumentException("Time step must be positive");
+        List<Callable<Void>> tasks = new ArrayList<>(partitions.length);
+        for (Partition p : partitions) {
+            tasks.add(() -> {
+                p.tick(dtHours, (int) (ticks & 1));
+                return null;
+            });
+        }
+        for (int t = 0; t < tickCount; t++) {
+            if (pool == null) {
+                partitions[0].tick(dtHours, (int) (ticks & 1));
+            } else {
+                invokeAll(tasks);
+            }
+            ticks++;
+            simulatedHours += dtHours;
+        }
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Traffic simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Traffic partition failed", e.getCause());
+        }
+    }
+
+    // ---------- Stats ----------
+
+    public RoadNetwork getNetwork() { return network; }
+
+    public int getPartitionCount() { return partitions.length; }
+
+    public long getTicks() { return ticks; }
+
+    public double getSimulatedHours() { return simulatedHours; }
+
+    /** Vehicles on the network, including those in transit between partitions. */
+    public int getVehicleCount() {
+        int n = 0;
+        for (Partition p : partitions) n += p.count + p.inbox.get(0).size() + p.inbox.get(1).size();
+        return n;
+    }
+
+    /** Vehicles moved from one partition to another so far. */
+    public long getHandoffs() {
+        long n = 0;
+        for (Partition p : partitions) n += p.handoffs;
+        return n;
+    }
+
+    /** Vehicle-weighted mean travel time factor of the last tick (1.0 = free flow). */
+    public double getMeanTravelTimeFactor() {
+        double sum = 0;
+        int n = 0;
+        for (Partition p : partitions) {
+            sum += p.factorSum;
+            n += p.counted;
+        }
+        return n == 0 ? 1.0 : sum / n;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    // ---------- Partitions ----------
+
+    /** Segments lo..hi-1 and the vehicles on them; touched by one thread per tick. */
+    private final class Partition {
+        final int lo, hi;
+        // filled during even / odd ticks, drained at the start of the next one
+        final List<ConcurrentLinkedQueue<Transfer>> inbox =
+                List.of(new ConcurrentLinkedQueue<>(), new ConcurrentLinkedQueue<>());
+        final int[] occupancy;
+        final double[] factor;
+
+        LandVehicle[] vehicles = new LandVehicle[64];
+        int[] segment = new int[64];
+        double[] position = new double[64];
+        double[] speed = new double[64];
+        double[] travelled = new double[64];
+        int count;
+
+        long handoffs;
+        double factorSum;
+        int counted;
+
+        Partition(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+            this.occupancy = new int[hi - lo];
+            this.factor = new double[hi - lo];
+        }
+
+        void append(LandVehicle v, int seg, double pos, double km) {
+            if (count == vehicles.length) {
+                int cap = count * 2;
+                vehicles = Arrays.copyOf(vehicles, cap);
+                segment = Arrays.copyOf(segment, cap);
+                position = Arrays.copyOf(position, cap);
+                speed = Arrays.copyOf(speed, cap);
+                travelled = Arrays.copyOf(travelled, cap);
+            }
+            vehicles[count] = v;
+            segment[count] = seg;
+            position[count] = pos;
+            speed[count] = v.getMaxSpeed();
+            travelled[count] = km;
+            count++;
+        }
+
+        void tick(double dt, int phase) {
+            Transfer t;
+            while ((t = inbox.get(phase ^ 1).poll()) != null) {
+                append(t.vehicle, t.segment, t.position, t.travelled);
+                t.vehicle.setTraffic(segments[t.segment]);
+            }
+
+            Arrays.fill(occupancy, 0);
+            for (int i = 0; i < count; i++) occupancy[segment[i] - lo]++;
+            for (int s = 0; s < occupancy.length; s++) {
+                factor[s] = RoadSegment.travelTimeFactor(occupancy[s], capacity[lo + s]);
+                segments[lo + s].setOccupancy(occupancy[s]);
+            }
+
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                int seg = segment[i];
+                double f = factor[seg - lo];
+                sum += f;
+                double km = speed[i] / f * dt;
+                double pos = position[i] + km;
+                travelled[i] += km;
+                boolean left = false;
+                while (pos >= lengthKm[seg]) {
+                    pos -= lengthKm[seg];
+                    seg = next[seg];
+                    if (seg < lo || seg >= hi) {
+                        partitions[owner[seg]].inbox.get(phase).add(new Transfer(vehicles[i], seg, pos, travelled[i]));
+                        handoffs++;
+                        removeAt(i--);
+                        left = true;
+                        break;
+                    }
+                }
+                if (left) continue;
+                if (seg != segment[i]) {
+                    segment[i] = seg;
+                    vehicles[i].setTraffic(segments[seg]);
+                }
+                position[i] = pos;
+            }
+            factorSum = sum;
+            counted = count;
+        }
+
+        /** Swaps the last vehicle into i; order within a partition does not matter. */
+        private void removeAt(int i) {
+            int last = --count;
+            vehicles[i] = vehicles[last];
+            segment[i] = segment[last];
+            position[i] = position[last];
+            speed[i] = speed[last];
+            travelled[i] = travelled[last];
+            vehicles[last] = null;
+        }
+
+        void applyMileage() {
+            for (int i = 0; i < count; i++) {
+                if (travelled[i] == 0) continue;
+                vehicles[i].setCurrentMileage(vehicles[i].getCurrentMileage() + travelled[i]);
+                travelled[i] = 0;
+            }
+            // vehicles in transit carry their distance with them; settle those too
+            for (ConcurrentLinkedQueue<Transfer> queue : inbox) {
+                List<Transfer> settled = new ArrayList<>();
+                Transfer t;
+                while ((t = queue.poll()) != null) {
+                    t.vehicle.setCurrentMileage(t.vehicle.getCurrentMileage() + t.travelled);
+                    settled.add(new Transfer(t.vehicle, t.segment, t.position, 0));
+                }
+                queue.addAll(settled);
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < count; i++) vehicles[i].setTraffic(null);
+            Arrays.fill(vehicles, 0, count, null);
+            count = 0;
+            for (ConcurrentLinkedQueue<Transfer> queue : inbox) {
+                Transfer t;
+                while ((t = queue.poll()) != null) t.vehicle.setTraffic(null);
+            }
+        }
+    }
+}
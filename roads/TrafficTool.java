@@ -0,0 +1,71 @@
+package roads;
+
+import loadtest.LoadDriver;
+import logistics.VehicleFactory;
+import vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Capacity planning run: puts synthetic cars on a set of ring roads,
+ * simulates them at each partition count given and prints throughput,
+ * mean slowdown and the most congested segments.
+ *
+ * Usage: java -cp out roads.TrafficTool [--vehicles 1000000] [--roads 16]
+ *            [--segments 4096] [--segment-km 0.5] [--capacity 20]
+ *            [--ticks 100] [--dt-seconds 1] [--threads 1,2,4,8] [--seed 1]
+ */
+public class TrafficTool {
+
+    public static void main(String[] args) {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        int vehicleCount = Integer.parseInt(opts.getOrDefault("vehicles", "1000000"));
+        int roads = Integer.parseInt(opts.getOrDefault("roads", "16"));
+        int segmentsPerRoad = Integer.parseInt(opts.getOrDefault("segments", "4096"));
+        double segmentKm = Double.parseDouble(opts.getOrDefault("segment-km", "0.5"));
+        int capacity = Integer.parseInt(opts.getOrDefault("capacity", "20"));
+        int ticks = Integer.parseInt(opts.getOrDefault("ticks", "100"));
+        double dtHours = Double.parseDouble(opts.getOrDefault("dt-seconds", "1")) / 3600.0;
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        String threads = opts.getOrDefault("threads", Integer.toString(Runtime.getRuntime().availableProcessors()));
+
+        RoadNetwork network = new RoadNetwork();
+        int[] firsts = new int[roads];
+        for (int r = 0; r < roads; r++) firsts[r] = network.addRing("R" + r, segmentsPerRoad, segmentKm, capacity);
+        // one interchange per road pair: the last segment of each road feeds the middle of the next
+        for (int r = 0; r < roads && roads > 1; r++) {
+            network.connect(firsts[r] + segmentsPerRoad - 1, firsts[(r + 1) % roads] + segmentsPerRoad / 2);
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Vehicle> cars = new ArrayList<>(vehicleCount);
+        for (int i = 0; i < vehicleCount; i++) {
+            cars.add(VehicleFactory.create("Car", "C" + i, "Sim", 80 + random.nextInt(51)));
+        }
+        System.out.printf("%d vehicles on %d segments (%.0f km, capacity %d per %.1f km)%n",
+                vehicleCount, network.size(), network.getTotalLengthKm(), capacity, segmentKm);
+
+        String[] runs = threads.split(",");
+        for (int run = 0; run < runs.length; run++) {
+            int partitions = Integer.parseInt(runs[run].trim());
+            try (TrafficSimulation sim = new TrafficSimulation(network, partitions)) {
+                sim.populate(cars);
+                sim.run(Math.min(ticks, 5), dtHours);         // warm-up
+                long start = System.nanoTime();
+                sim.run(ticks, dtHours);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%2d partitions: %.2f ms/tick, %.1fM vehicle-steps/s, %d handoffs, mean travel time x%.3f%n",
+                        sim.getPartitionCount(), seconds * 1000 / ticks, (double) vehicleCount * ticks / seconds / 1e6,
+                        sim.getHandoffs(), sim.getMeanTravelTimeFactor());
+                if (run == runs.length - 1) {
+                    System.out.println("Most congested:");
+                    for (RoadSegment s : network.mostCongested(3)) System.out.println("  " + s);
+                }
+                sim.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package server;
+
+import logistics.InvalidOperationException;
+import logistics.ReportFormat;
+import logistics.VehicleSnapshot;
+
+import java.io.Closeable;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Blocking client for FleetServer.
+ *
+ * The send* methods only queue a request and return its id; flush() pushes
+ * everything queued in one write and receive() reads responses in the order
+ * the requests were sent. That is all pipelining needs. The plain methods
+ * (searchById, addVehicle, ...) do one round trip each and mirror the
+ * FleetManager API, including its InvalidOperationException.
+ *
+ * Not thread-safe: use one client per thread.
+ */
+public class FleetClient implements Closeable {
+
+    /** One decoded response frame. */
+    public static final class Response {
+        private final int requestId;
+        private final byte status;
+        private final ByteBuffer payload;
+
+        Response(int requestId, byte status, ByteBuffer payload) {
+            this.requestId = requestId;
+            this.status = status;
+            this.payload = payload;
+        }
+
+        public int getRequestId() { return requestId; }
+
+        public byte getStatus() { return status; }
+
+        public boolean isOk() { return status == FleetProtocol.STATUS_OK; }
+
+        public boolean isNotFound() { return status == FleetProtocol.STATUS_NOT_FOUND; }
+
+        /** A chunk of a streamed response; more frames for the same request follow. */
+        public boolean isMore() { return status == FleetProtocol.STATUS_MORE; }
+
+        public String getErrorMessage() {
+            return status == FleetProtocol.STATUS_ERROR ? FleetProtocol.getString(payload.duplicate()) : null;
+        }
+
+        public VehicleSnapshot getVehicle() {
+            return isOk() ? FleetProtocol.getVehicle(payload.duplicate()) : null;
+        }
+
+        public int getInt() {
+            return payload.getInt(payload.position());
+        }
+
+        /** The payload bytes themselves (not a copy); do not modify. */
+        public byte[] getBytes() {
+            return payload.array();
+        }
+
+        /** The raw payload, e.g. the binary snapshot of an export. */
+        public InputStream getStream() {
+            ByteBuffer p = payload.duplicate();
+            return new ByteArrayInputStream(p.array(), p.arrayOffset() + p.position(), p.remaining());
+        }
+
+        public String getText() {
+            ByteBuffer p = payload.duplicate();
+            return new String(p.array(), p.arrayOffset() + p.position(), p.remaining(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private final SocketChannel channel;
+    private ByteBuffer out = ByteBuffer.allocate(64 * 1024);              // write mode
+    private ByteBuffer in = ByteBuffer.allocate(64 * 1024).flip();        // read mode
+    private int nextRequestId;
+    private int outstanding;
+
+    public FleetClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    /** Requests sent (or queued) whose responses have not been received yet. */
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    // ---------- Pipelined requests ----------
+
+    public int sendPing() {
+        return begin(FleetProtocol.OP_PING, 0);
+    }
+
+    public int sendCount() {
+        return begin(FleetProtocol.OP_COUNT, 0);
+    }
+
+    public int sendSearch(String id) {
+        int rid = begin(FleetProtocol.OP_SEARCH, FleetProtocol.stringSize(id));
+        FleetProtocol.putString(out, id);
+        return rid;
+    }
+
+    public int sendAdd(String type, String id, String model, double maxSpeed) {
+        int size = FleetProtocol.stringSize(type) + FleetProtocol.stringSize(id) + FleetProtocol.stringSize(model) + 8;
+        int rid = begin(FleetProtocol.OP_ADD, size);
+        FleetProtocol.putString(out, type);
+        FleetProtocol.putString(out, id);
+        FleetProtocol.putString(out, model);
+        out.putDouble(maxSpeed);
+        return rid;
+    }
+
+    public int sendRemove(String id) {
+        int rid = begin(FleetProtocol.OP_REMOVE, FleetProtocol.stringSize(id));
+        FleetProtocol.putString(out, id);
+        return rid;
+    }
+
+    public int sendMove(String id, double distance) {
+        int rid = begin(FleetProtocol.OP_MOVE, FleetProtocol.stringSize(id) + 8);
+        FleetProtocol.putString(out, id);
+        out.putDouble(distance);
+        return rid;
+    }
+
+    public int sendRefuel(String id, double amount) {
+        int rid = begin(FleetProtocol.OP_REFUEL, FleetProtocol.stringSize(id) + 8);
+        FleetProtocol.putString(out, id);
+        out.putDouble(amount);
+        return rid;
+    }
+
+    public int sendJourneyAll(double distance) {
+        int rid = begin(FleetProtocol.OP_JOURNEY_ALL, 8);
+        out.putDouble(distance);
+        return rid;
+    }
+
+    public int sendFastest() {
+        return begin(FleetProtocol.OP_FASTEST, 0);
+    }
+
+    public int sendSlowest() {
+        return begin(FleetProtocol.OP_SLOWEST, 0);
+    }
+
+    /** Asks for a binary snapshot of the given buckets; an empty array means the whole fleet. */
+    public int sendExport(int[] buckets) {
+        int rid = begin(FleetProtocol.OP_EXPORT, 2 + 2 * buckets.length);
+        FleetProtocol.putBuckets(out, buckets);
+        return rid;
+    }
+
+    public int sendImport(byte[] snapshot, int offset, int length) {
+        int rid = begin(FleetProtocol.OP_IMPORT, length);
+        out.put(snapshot, offset, length);
+        return rid;
+    }
+
+    public int sendDrop(int[] buckets) {
+        int rid = begin(FleetProtocol.OP_DROP, 2 + 2 * buckets.length);
+        FleetProtocol.putBuckets(out, buckets);
+        return rid;
+    }
+
+    public int sendReport(ReportFormat format) {
+        int rid = begin(FleetProtocol.OP_REPORT, 1);
+        out.put((byte) format.ordinal());
+        return rid;
+    }
+
+    /** Writes all queued requests. */
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    /** Reads the next response frame, flushing queued requests first. */
+    public Response receive() throws IOException {
+        if (out.position() > 0) flush();
+        fill(4);
+        int len = in.getInt();
+        if (len < 5 || len > FleetProtocol.MAX_FRAME) throw new IOException("Bad frame length " + len);
+        fill(len);
+        int requestId = in.getInt();
+        byte status = in.get();
+        // copy the payload out so the read buffer can be reused
+        byte[] payload = new byte[len - 5];
+        in.get(payload);
+        if (status != FleetProtocol.STATUS_MORE) outstanding--;
+        return new Response(requestId, status, ByteBuffer.wrap(payload));
+    }
+
+    // ---------- Round trips ----------
+
+    public void ping() throws IOException {
+        sendPing();
+        receive();
+    }
+
+    public int count() throws IOException {
+        sendCount();
+        return receive().getInt();
+    }
+
+    public VehicleSnapshot searchById(String id) throws IOException {
+        sendSearch(id);
+        return receive().getVehicle();
+    }
+
+    public void addVehicle(String type, String id, String model, double maxSpeed)
+            throws IOException, InvalidOperationException {
+        sendAdd(type, id, model, maxSpeed);
+        check(receive());
+    }
+
+    public void removeVehicle(String id) throws IOException, InvalidOperationException {
+        sendRemove(id);
+        check(receive());
+    }
+
+    public void move(String id, double distance) throws IOException, InvalidOperationException {
+        sendMove(id, distance);
+        check(receive());
+    }
+
+    public void refuel(String id, double amount) throws IOException, InvalidOperationException {
+        sendRefuel(id, amount);
+        check(receive());
+    }
+
+    public void startAllJourneys(double distance) throws IOException, InvalidOperationException {
+        sendJourneyAll(distance);
+        check(receive());
+    }
+
+    public String report(ReportFormat format) throws IOException, InvalidOperationException {
+        StringWriter text = new StringWriter();
+        report(format, text);
+        return text.toString();
+    }
+
+    /** Streams the report into out chunk by chunk; out is not flushed or closed. */
+    public void report(ReportFormat format, Writer out) throws IOException, InvalidOperationException {
+        sendReport(format);
+        Response r;
+        while ((r = receive()).isMore()) out.write(r.getText());
+        check(r);
+        out.write(r.getText());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ---------- Helpers ----------
+
+    private static void check(Response r) throws InvalidOperationException {
+        if (r.isNotFound()) throw new InvalidOperationException("Vehicle not found");
+        if (!r.isOk()) throw new InvalidOperationException(r.getErrorMessage());
+    }
+
+    private int begin(byte op, int argSize) {
+        int frameSize = 4 + 4 + 1 + argSize;
+        if (out.remaining() < frameSize) {
+            int cap = out.capacity();
+            while (cap < out.position() + frameSize) cap <<= 1;
+            ByteBuffer bigger = ByteBuffer.allocate(cap);
+            out.flip();
+            bigger.put(out);
+            out = bigger;
+        }
+        int rid = nextRequestId++;
+        out.putInt(4 + 1 + argSize);
+        out.putInt(rid);
+        out.put(op);
+        outstanding++;
+        return rid;
+    }
+
+    /** Blocks until at least n bytes are readable in the read buffer. */
+    private void fill(int n) throws IOException {
+        if (in.remaining() >= n) return;
+        if (in.capacity() < n) {
+            ByteBuffer bigger = ByteBuffer.allocate(Integer.highestOneBit(n - 1) << 1);
+            bigger.put(in);
+            in = bigger;
+        } else {
+            in.compact();
+        }
+        while (in.position() < n) {
+            if (channel.read(in) < 0) throw new EOFException("Server closed the connection");
+        }
+        in.flip();
+    }
+}
@@ -0,0 +1,114 @@
+package server;
+
+import loadtest.FleetGenerator;
+import loadtest.LoadDriver;
+import logistics.InvalidOperationException;
+import logistics.VehicleSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a partitioned fleet on localhost: starts worker JVMs (each a
+ * FleetServer), loads a generated fleet through a FleetCoordinator, then
+ * exercises routing, merged aggregates and snapshot handoff by adding and
+ * removing a worker, checking after each step that no vehicle was lost.
+ *
+ * Usage: java -cp out server.FleetCluster [--workers 3] [--size 200000]
+ *            [--base-port 7100] [--seed 1]
+ */
+public class FleetCluster {
+
+    private final List<Process> processes = new ArrayList<>();
+
+    /** Starts a worker JVM with this JVM's java binary and class path. */
+    public String startWorker(int port) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        ProcessBuilder pb = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                FleetServer.class.getName(), "--port", Integer.toString(port));
+        pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        processes.add(pb.start());
+        return "127.0.0.1:" + port;
+    }
+
+    public void stopAll() {
+        for (Process p : processes) p.destroy();
+        processes.clear();
+    }
+
+    public static void main(String[] args) throws IOException, InvalidOperationException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        int workerCount = Integer.parseInt(opts.getOrDefault("workers", "3"));
+        int size = Integer.parseInt(opts.getOrDefault("size", "200000"));
+        int basePort = Integer.parseInt(opts.getOrDefault("base-port", "7100"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+
+        FleetCluster cluster = new FleetCluster();
+        Path fleetFile = Files.createTempFile("fleet-cluster", ".bin");
+        try {
+            FleetGenerator.balanced(seed).writeBinary(fleetFile.toString(), size);
+
+            List<String> addresses = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) addresses.add(cluster.startWorker(basePort + i));
+
+            try (FleetCoordinator coordinator = new FleetCoordinator(addresses)) {
+                long start = System.nanoTime();
+                long loaded = coordinator.loadSnapshot(fleetFile.toString());
+                System.out.printf("Loaded %d vehicles onto %d workers in %.2f s%n",
+                        loaded, workerCount, (System.nanoTime() - start) / 1e9);
+                check("count after load", coordinator.count(), size);
+
+                // generator IDs are prefix + sequence, so these exist
+                VehicleSnapshot first = firstFound(coordinator, size);
+                System.out.println("Routed lookup: " + first.getType() + " " + first.getId());
+                coordinator.addVehicle("Car", "CLUSTER-1", "Sedan", 140);
+                check("count after add", coordinator.count(), size + 1);
+                coordinator.removeVehicle("CLUSTER-1");
+
+                VehicleSnapshot fastest = coordinator.getFastestVehicle();
+                VehicleSnapshot slowest = coordinator.getSlowestVehicle();
+                System.out.printf("Fastest %s (%.0f), slowest %s (%.0f)%n",
+                        fastest.getId(), fastest.getMaxSpeed(), slowest.getId(), slowest.getMaxSpeed());
+
+                start = System.nanoTime();
+                coordinator.addWorker(cluster.startWorker(basePort + workerCount));
+                System.out.printf("Added worker %d in %.2f s%n", workerCount, (System.nanoTime() - start) / 1e9);
+                check("count after adding a worker", coordinator.count(), size);
+                check("lookup after handoff", coordinator.searchById(first.getId()) != null ? 1 : 0, 1);
+
+                start = System.nanoTime();
+                coordinator.removeWorker(0);
+                System.out.printf("Removed worker 0 in %.2f s%n", (System.nanoTime() - start) / 1e9);
+                check("count after removing a worker", coordinator.count(), size);
+                check("lookup after drain", coordinator.searchById(first.getId()) != null ? 1 : 0, 1);
+
+                String report = coordinator.generateReport();
+                check("report rows", report.lines().count() - 3, size);
+                System.out.println("Cluster checks passed");
+            }
+        } finally {
+            cluster.stopAll();
+            Files.deleteIfExists(fleetFile);
+        }
+    }
+
+    private static VehicleSnapshot firstFound(FleetCoordinator coordinator, int size) throws IOException {
+        for (String prefix : new String[] {"C", "T", "B", "A", "S"}) {
+            VehicleSnapshot s = coordinator.searchById(prefix + 1);
+            if (s != null) return s;
+        }
+        throw new IllegalStateException("No generated vehicle found among " + size);
+    }
+
+    private static void check(String what, long actual, long expected) {
+        if (actual != expected) {
+            throw new IllegalStateException(what + ": expected " + expected + " but was " + actual);
+        }
+        System.out.println("  ok: " + what + " = " + actual);
+    }
+}
@@ -0,0 +1,315 @@
+package server;
+
+import logistics.FleetReportWriter;
+import logistics.InvalidOperationException;
+import logistics.ReportFormat;
+import logistics.VehicleFactory;
+import logistics.VehicleSnapshot;
+import persistence.Codecs;
+import persistence.FleetSnapshotReader;
+import persistence.FleetSnapshotWriter;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Routes fleet operations across several FleetServer worker processes.
+ *
+ * Vehicle IDs hash into FleetProtocol.BUCKETS buckets and every bucket is
+ * owned by exactly one worker. Point operations (search, add, remove, move,
+ * refuel) go to the owning worker; fleet-wide ones (count, journeys, fastest,
+ * slowest, reports) are sent to all workers pipelined and the answers merged.
+ *
+ * Moving buckets between workers is snapshot-driven: export the buckets from
+ * the old owner, import the snapshot on the new one, switch the routing table,
+ * then drop the buckets from the old owner. Adding or removing a worker just
+ * moves buckets this way, a few at a time so no snapshot frame gets too big.
+ *
+ * All methods are synchronized, so one coordinator can be shared by threads;
+ * workers must only be mutated through one coordinator.
+ */
+public class FleetCoordinator implements Closeable {
+
+    /** Buckets per export round, when rebalancing and when writing reports. */
+    private static final int HANDOFF_BATCH = 16;
+    /** Vehicles per import frame when distributing a snapshot file. */
+    private static final int LOAD_BATCH = 50_000;
+
+    private final List<String> addresses = new ArrayList<>();
+    private final List<FleetClient> workers = new ArrayList<>();
+    private final int[] owner = new int[FleetProtocol.BUCKETS];
+
+    /** Connects to the workers ("host:port") and spreads the buckets over them round-robin. */
+    public FleetCoordinator(List<String> workerAddresses) throws IOException {
+        if (workerAddresses.isEmpty()) throw new IllegalArgumentException("Need at least one worker");
+        for (String address : workerAddresses) {
+            workers.add(connect(address));
+            addresses.add(address);
+        }
+        for (int b = 0; b < owner.length; b++) owner[b] = b % workers.size();
+    }
+
+    public synchronized int getWorkerCount() {
+        return workers.size();
+    }
+
+    /** Owning worker index of every bucket (a copy). */
+    public synchronized int[] getAssignment() {
+        return owner.clone();
+    }
+
+    // ---------- Routed operations ----------
+
+    public synchronized VehicleSnapshot searchById(String id) throws IOException {
+        return workerFor(id).searchById(id);
+    }
+
+    public synchronized void addVehicle(String type, String id, String model, double maxSpeed)
+            throws IOException, InvalidOperationException {
+        workerFor(id).addVehicle(type, id, model, maxSpeed);
+    }
+
+    public synchronized void removeVehicle(String id) throws IOException, InvalidOperationException {
+        workerFor(id).removeVehicle(id);
+    }
+
+    public synchronized void move(String id, double distance) throws IOException, InvalidOperationException {
+        workerFor(id).move(id, distance);
+    }
+
+    public synchronized void refuel(String id, double amount) throws IOException, InvalidOperationException {
+        workerFor(id).refuel(id, amount);
+    }
+
+    // ---------- Fleet-wide operations ----------
+
+    public synchronized long count() throws IOException {
+        long total = 0;
+        for (FleetClient w : workers) w.sendCount();
+        for (FleetClient w : workers) w.flush();
+        for (FleetClient w : workers) total += w.receive().getInt();
+        return total;
+    }
+
+    public synchronized void startAllJourneys(double distance) throws IOException {
+        for (FleetClient w : workers) w.sendJourneyAll(distance);
+        for (FleetClient w : workers) w.flush();
+        for (FleetClient w : workers) w.receive();
+    }
+
+    /** Fastest vehicle across all workers, or null if the fleet is empty. */
+    public synchronized VehicleSnapshot getFastestVehicle() throws IOException {
+        for (FleetClient w : workers) w.sendFastest();
+        return pickBySpeed(true);
+    }
+
+    public synchronized VehicleSnapshot getSlowestVehicle() throws IOException {
+        for (FleetClient w : workers) w.sendSlowest();
+        return pickBySpeed(false);
+    }
+
+    private VehicleSnapshot pickBySpeed(boolean fastest) throws IOException {
+        for (FleetClient w : workers) w.flush();
+        VehicleSnapshot best = null;
+        for (FleetClient w : workers) {
+            VehicleSnapshot s = w.receive().getVehicle();
+            if (s == null) continue;
+            if (best == null || (fastest ? s.getMaxSpeed() > best.getMaxSpeed() : s.getMaxSpeed() < best.getMaxSpeed())) {
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    public synchronized String generateReport() throws IOException {
+        StringWriter sw = new StringWriter();
+        writeReport(sw, ReportFormat.HUMAN);
+        return sw.toString();
+    }
+
+    /**
+     * One report over every worker, with a single header and summary. Each
+     * worker's vehicles are exported HANDOFF_BATCH buckets at a time, and
+     * each batch is written out before the next is requested, so neither
+     * side holds more than one batch and no frame outgrows MAX_FRAME.
+     */
+    public synchronized void writeReport(Writer out, ReportFormat format) throws IOException {
+        FleetReportWriter writer = new FleetReportWriter(out, format);
+        writer.writeHeader(count());
+        for (int w = 0; w < workers.size(); w++) {
+            FleetClient worker = workers.get(w);
+            List<Integer> owned = new ArrayList<>();
+            for (int b = 0; b < owner.length; b++) {
+                if (owner[b] == w) owned.add(b);
+            }
+            for (int from = 0; from < owned.size(); from += HANDOFF_BATCH) {
+                int[] batch = owned.subList(from, Math.min(owned.size(), from + HANDOFF_BATCH))
+                        .stream().mapToInt(Integer::intValue).toArray();
+                worker.sendExport(batch);
+                FleetClient.Response r = worker.receive();
+                if (!r.isOk()) throw new IOException("Export failed: " + r.getErrorMessage());
+                FleetSnapshotReader reader = new FleetSnapshotReader(r.getStream());
+                VehicleSnapshot s;
+                while ((s = reader.next()) != null) {
+                    try {
+                        writer.writeVehicle(VehicleFactory.restore(s));
+                    } catch (InvalidOperationException e) {
+                        System.err.println("Skipping vehicle " + s.getId() + " in report: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        writer.finish();
+    }
+
+    // ---------- Loading and rebalancing ----------
+
+    /**
+     * Distributes a binary snapshot file over the workers by bucket, adding to
+     * what they already hold.
+     *
+     * @return vehicles imported
+     */
+    public synchronized long loadSnapshot(String filename) throws IOException {
+        int n = workers.size();
+        ByteArrayOutputStream[] buffers = new ByteArrayOutputStream[n];
+        FleetSnapshotWriter[] writers = new FleetSnapshotWriter[n];
+        long imported = 0;
+        try (FleetSnapshotReader reader = new FleetSnapshotReader(Codecs.openInput(Paths.get(filename)))) {
+            VehicleSnapshot s;
+            while ((s = reader.next()) != null) {
+                int w = owner[FleetProtocol.bucketOf(s.getId())];
+                if (writers[w] == null) {
+                    buffers[w] = new ByteArrayOutputStream();
+                    writers[w] = new FleetSnapshotWriter(buffers[w]);
+                }
+                writers[w].write(s);
+                if (writers[w].getWritten() >= LOAD_BATCH) {
+                    imported += importInto(w, writers[w], buffers[w]);
+                    writers[w] = null;
+                }
+            }
+        }
+        for (int w = 0; w < n; w++) {
+            if (writers[w] != null) imported += importInto(w, writers[w], buffers[w]);
+        }
+        return imported;
+    }
+
+    private int importInto(int worker, FleetSnapshotWriter writer, ByteArrayOutputStream buffer) throws IOException {
+        writer.finish();
+        FleetClient w = workers.get(worker);
+        w.sendImport(buffer.toByteArray(), 0, buffer.size());
+        FleetClient.Response r = w.receive();
+        if (!r.isOk()) throw new IOException("Import on " + addresses.get(worker) + " failed: " + r.getErrorMessage());
+        return r.getInt();
+    }
+
+    /** Connects a new worker and moves buckets to it until the load is even. */
+    public synchronized void addWorker(String address) throws IOException {
+        workers.add(connect(address));
+        addresses.add(address);
+        int target = workers.size() - 1;
+        int share = FleetProtocol.BUCKETS / workers.size();
+
+        int[] owned = new int[workers.size()];
+        for (int o : owner) owned[o]++;
+        List<Integer> moving = new ArrayList<>();
+        for (int b = 0; b < owner.length && moving.size() < share; b++) {
+            int o = owner[b];
+            if (o != target && owned[o] > share) {
+                owned[o]--;
+                moving.add(b);
+            }
+        }
+        moveBuckets(moving, target);
+    }
+
+    /** Moves every bucket off the worker (round-robin over the others), then disconnects it. */
+    public synchronized void removeWorker(int index) throws IOException {
+        if (workers.size() == 1) throw new IllegalStateException("Cannot remove the last worker");
+        int next = 0;
+        Map<Integer, List<Integer>> byTarget = new HashMap<>();
+        for (int b = 0; b < owner.length; b++) {
+            if (owner[b] != index) continue;
+            if (next == index) next = (next + 1) % workers.size();
+            byTarget.computeIfAbsent(next, k -> new ArrayList<>()).add(b);
+            next = (next + 1) % workers.size();
+        }
+        for (Map.Entry<Integer, List<Integer>> e : byTarget.entrySet()) {
+            moveBuckets(e.getValue(), e.getKey());
+        }
+
+        workers.remove(index).close();
+        addresses.remove(index);
+        for (int b = 0; b < owner.length; b++) {
+            if (owner[b] > index) owner[b]--;
+        }
+    }
+
+    /** Snapshot handoff of buckets to target, HANDOFF_BATCH buckets of one source at a time. */
+    private void moveBuckets(List<Integer> buckets, int target) throws IOException {
+        Map<Integer, List<Integer>> bySource = new TreeMap<>();
+        for (int b : buckets) bySource.computeIfAbsent(owner[b], k -> new ArrayList<>()).add(b);
+
+        for (Map.Entry<Integer, List<Integer>> e : bySource.entrySet()) {
+            FleetClient source = workers.get(e.getKey());
+            FleetClient dest = workers.get(target);
+            List<Integer> all = e.getValue();
+            for (int from = 0; from < all.size(); from += HANDOFF_BATCH) {
+                int[] batch = all.subList(from, Math.min(all.size(), from + HANDOFF_BATCH))
+                        .stream().mapToInt(Integer::intValue).toArray();
+
+                source.sendExport(batch);
+                FleetClient.Response snapshot = source.receive();
+                if (!snapshot.isOk()) throw new IOException("Export failed: " + snapshot.getErrorMessage());
+
+                byte[] bytes = snapshot.getBytes();
+                dest.sendImport(bytes, 0, bytes.length);
+                FleetClient.Response imported = dest.receive();
+                if (!imported.isOk()) throw new IOException("Import failed: " + imported.getErrorMessage());
+
+                // the new owner has the data: route there, then let the old owner forget it
+                for (int b : batch) owner[b] = target;
+                source.sendDrop(batch);
+                source.receive();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FleetClient w : workers) w.close();
+        workers.clear();
+        addresses.clear();
+    }
+
+    // ---------- Helpers ----------
+
+    private FleetClient workerFor(String id) {
+        return workers.get(owner[FleetProtocol.bucketOf(id)]);
+    }
+
+    /** Connects to "host:port", retrying for a few seconds while a freshly started worker binds. */
+    static FleetClient connect(String address) throws IOException {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("Expected host:port, got " + address);
+        String host = address.substring(0, colon);
+        int port = Integer.parseInt(address.substring(colon + 1));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try {
+                return new FleetClient(host, port);
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) throw e;
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package server;
+
+import loadtest.FleetGenerator;
+import loadtest.LatencyHistogram;
+import loadtest.LoadDriver;
+import logistics.VehicleSnapshot;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load-test client for FleetServer.
+ *
+ * Each connection runs on its own thread, first adding and refuelling its own
+ * block of vehicles, then sending batches of `depth` pipelined requests drawn
+ * from the op mix. A request's latency runs from the moment its batch was
+ * flushed to the moment its response was read.
+ *
+ * Usage: java -cp out server.FleetLoadClient [--host 127.0.0.1] [--port 7070]
+ *            [--connections 4] [--depth 32] [--seconds 10] [--vehicles 10000]
+ *            [--ops search=70,move=20,refuel=10] [--seed 1]
+ */
+public class FleetLoadClient {
+
+    enum Op { SEARCH, MOVE, REFUEL, PING }
+
+    private final String host;
+    private final int port;
+    private final int depth;
+    private final int vehiclesPerConnection;
+    private final Op[] opTable;
+    private final long seed;
+
+    public FleetLoadClient(String host, int port, int depth, int vehiclesPerConnection,
+                           Map<String, Double> opMix, long seed) {
+        this.host = host;
+        this.port = port;
+        this.depth = depth;
+        this.vehiclesPerConnection = vehiclesPerConnection;
+        this.opTable = buildOpTable(opMix);
+        this.seed = seed;
+    }
+
+    /** One connection: its thread body and what it measured. */
+    private static final class Worker implements Runnable {
+        final FleetLoadClient cfg;
+        final int index;
+        final long durationNanos;
+        final LatencyHistogram latency = new LatencyHistogram();
+        long failures;
+        IOException error;
+
+        Worker(FleetLoadClient cfg, int index, long durationNanos) {
+            this.cfg = cfg;
+            this.index = index;
+            this.durationNanos = durationNanos;
+        }
+
+        @Override
+        public void run() {
+            SplittableRandom rnd = new SplittableRandom(cfg.seed + index);
+            try (FleetClient client = new FleetClient(cfg.host, cfg.port)) {
+                String[] ids = populate(client);
+                long end = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < end) {
+                    for (int i = 0; i < cfg.depth; i++) {
+                        String id = ids[rnd.nextInt(ids.length)];
+                        switch (cfg.opTable[rnd.nextInt(cfg.opTable.length)]) {
+                            case SEARCH -> client.sendSearch(id);
+                            case MOVE -> client.sendMove(id, 1 + rnd.nextInt(20));
+                            case REFUEL -> client.sendRefuel(id, 10 + rnd.nextInt(40));
+                            case PING -> client.sendPing();
+                        }
+                    }
+                    long flushed = System.nanoTime();
+                    client.flush();
+                    for (int i = 0; i < cfg.depth; i++) {
+                        FleetClient.Response r = client.receive();
+                        latency.record(System.nanoTime() - flushed);
+                        if (!r.isOk()) failures++;
+                    }
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        /** Adds this connection's vehicles with a full tank; returns their IDs. */
+        private String[] populate(FleetClient client) throws IOException {
+            FleetGenerator gen = FleetGenerator.balanced(cfg.seed * 31 + index);
+            gen.setSequence(2_000_000_000L + (long) index * cfg.vehiclesPerConnection);
+            String[] ids = new String[cfg.vehiclesPerConnection];
+            for (int i = 0; i < ids.length; i++) {
+                VehicleSnapshot s = gen.next();
+                ids[i] = s.getId();
+                client.sendAdd(s.getType(), s.getId(), s.getModel(), s.getMaxSpeed());
+                if (!s.hasSail()) client.sendRefuel(s.getId(), 200);
+                if (client.getOutstanding() >= 1024) drain(client);
+            }
+            drain(client);
+            return ids;
+        }
+
+        private static void drain(FleetClient client) throws IOException {
+            client.flush();
+            while (client.getOutstanding() > 0) client.receive();
+        }
+    }
+
+    public void run(int connections, long durationNanos, PrintStream out) throws InterruptedException {
+        Worker[] workers = new Worker[connections];
+        Thread[] threads = new Thread[connections];
+        for (int i = 0; i < connections; i++) {
+            workers[i] = new Worker(this, i, durationNanos);
+            threads[i] = new Thread(workers[i], "fleet-load-" + i);
+        }
+        long start = System.nanoTime();
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram all = new LatencyHistogram();
+        long failures = 0;
+        for (Worker w : workers) {
+            if (w.error != null) out.println("Connection " + w.index + " failed: " + w.error.getMessage());
+            all.merge(w.latency);
+            failures += w.failures;
+        }
+        out.printf("%d connections, depth %d: %d requests, %.0f req/s, %d not ok%n",
+                connections, depth, all.getCount(), all.getCount() / secs, failures);
+        out.printf("latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+                all.percentile(50) / 1e3, all.percentile(99) / 1e3,
+                all.percentile(99.9) / 1e3, all.getMax() / 1e3);
+    }
+
+    private static Op[] buildOpTable(Map<String, Double> mix) {
+        double total = 0;
+        for (double w : mix.values()) total += w;
+        List<Op> table = new ArrayList<>();
+        for (Map.Entry<String, Double> e : mix.entrySet()) {
+            Op op = Op.valueOf(e.getKey().toUpperCase());
+            long slots = Math.round(e.getValue() / total * 100);
+            for (long i = 0; i < slots; i++) table.add(op);
+        }
+        if (table.isEmpty()) throw new IllegalArgumentException("Operation mix is empty");
+        return table.toArray(new Op[0]);
+    }
+
+    // ---------- CLI ----------
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        String host = opts.getOrDefault("host", "127.0.0.1");
+        int port = Integer.parseInt(opts.getOrDefault("port", Integer.toString(FleetProtocol.DEFAULT_PORT)));
+        int connections = Integer.parseInt(opts.getOrDefault("connections", "4"));
+        int depth = Integer.parseInt(opts.getOrDefault("depth", "32"));
+        long seconds = Long.parseLong(opts.getOrDefault("seconds", "10"));
+        int vehicles = Integer.parseInt(opts.getOrDefault("vehicles", "10000"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        Map<String, Double> ops = FleetGenerator.parseMix(opts.getOrDefault("ops", "search=70,move=20,refuel=10"));
+
+        FleetLoadClient client = new FleetLoadClient(host, port, depth, vehicles, ops, seed);
+        client.run(connections, TimeUnit.SECONDS.toNanos(seconds), System.out);
+    }
+}
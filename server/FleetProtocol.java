@@ -0,0 +1,145 @@
+package server;
+
+import logistics.VehicleSnapshot;
+import vehicles.Vehicle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Wire format shared by FleetServer and FleetClient.
+ *
+ * Every message is a length-prefixed frame; the int length counts the bytes
+ * after itself.
+ *
+ *   request:  [int length][int requestId][byte op][op arguments]
+ *   response: [int length][int requestId][byte status][payload]
+ *
+ * Strings are an unsigned short byte count followed by UTF-8. Responses come
+ * back in request order on each connection, so clients may pipeline freely.
+ *
+ * A response too big for one frame (a report) is sent as STATUS_MORE frames
+ * followed by one STATUS_OK frame, or STATUS_ERROR if it failed part way;
+ * the payload is their concatenation. Text chunks end on whole characters.
+ */
+public final class FleetProtocol {
+
+    public static final int DEFAULT_PORT = 7070;
+    public static final int MAX_FRAME = 64 * 1024 * 1024;
+
+    // ---------- Operations ----------
+    public static final byte OP_PING = 0;
+    public static final byte OP_SEARCH = 1;        // id -> vehicle
+    public static final byte OP_ADD = 2;           // type, id, model, maxSpeed
+    public static final byte OP_REMOVE = 3;        // id
+    public static final byte OP_MOVE = 4;          // id, distance
+    public static final byte OP_JOURNEY_ALL = 5;   // distance
+    public static final byte OP_REFUEL = 6;        // id, litres
+    public static final byte OP_REPORT = 7;        // format ordinal -> report text, in STATUS_MORE chunks
+    public static final byte OP_COUNT = 8;         // -> int vehicle count
+    public static final byte OP_FASTEST = 9;       // -> vehicle, NOT_FOUND if empty
+    public static final byte OP_SLOWEST = 10;      // -> vehicle, NOT_FOUND if empty
+    public static final byte OP_EXPORT = 11;       // bucket list -> binary snapshot of those buckets
+    public static final byte OP_IMPORT = 12;       // binary snapshot -> int vehicles added
+    public static final byte OP_DROP = 13;         // bucket list -> int vehicles removed
+
+    // ---------- Status ----------
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_NOT_FOUND = 1;
+    public static final byte STATUS_ERROR = 2;     // payload: message string
+    public static final byte STATUS_MORE = 3;      // part of the payload; the last part comes as OK or ERROR
+
+    /** Most payload bytes a streamed response puts in one STATUS_MORE frame (before the row that crosses it). */
+    public static final int CHUNK = 256 * 1024;
+
+    /** Hash buckets a partitioned fleet is split into; see bucketOf(). */
+    public static final int BUCKETS = 256;
+
+    private FleetProtocol() { }
+
+    /** Partition bucket of a vehicle ID; coordinator and workers must agree on it. */
+    public static int bucketOf(String id) {
+        return bucket(id.hashCode());
+    }
+
+    /** bucketOf(v.getId()), without building the ID string. */
+    public static int bucketOf(Vehicle v) {
+        return bucket(v.getIdHash());
+    }
+
+    private static int bucket(int idHash) {
+        int h = idHash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (BUCKETS - 1);
+    }
+
+    /** Bucket lists are a short count and that many shorts; an empty list means every bucket. */
+    public static void putBuckets(ByteBuffer buf, int[] buckets) {
+        buf.putShort((short) buckets.length);
+        for (int b : buckets) buf.putShort((short) b);
+    }
+
+    public static boolean[] getBuckets(ByteBuffer buf) {
+        int n = buf.getShort() & 0xFFFF;
+        boolean[] set = new boolean[BUCKETS];
+        if (n == 0) Arrays.fill(set, true);
+        for (int i = 0; i < n; i++) set[buf.getShort() & (BUCKETS - 1)] = true;
+        return set;
+    }
+
+    public static int stringSize(String s) {
+        return 2 + s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public static void putString(ByteBuffer buf, String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (b.length > 0xFFFF) throw new IllegalArgumentException("String too long for protocol: " + b.length);
+        buf.putShort((short) b.length);
+        buf.put(b);
+    }
+
+    public static String getString(ByteBuffer buf) {
+        int len = buf.getShort() & 0xFFFF;
+        String s = new String(buf.array(), buf.arrayOffset() + buf.position(), len, StandardCharsets.UTF_8);
+        buf.position(buf.position() + len);
+        return s;
+    }
+
+    /** Exact encoded size of putVehicle(s). */
+    public static int vehicleSize(VehicleSnapshot s) {
+        return stringSize(s.getType()) + stringSize(s.getId()) + stringSize(s.getModel())
+                + 8 * 6 + 4 + 4 + 1;
+    }
+
+    public static void putVehicle(ByteBuffer buf, VehicleSnapshot s) {
+        putString(buf, s.getType());
+        putString(buf, s.getId());
+        putString(buf, s.getModel());
+        buf.putDouble(s.getMaxSpeed());
+        buf.putDouble(s.getMileage());
+        buf.putDouble(s.getFuel());
+        buf.putDouble(s.getCargo());
+        buf.putInt(s.getPassengers());
+        buf.putInt(s.getNumWheels());
+        buf.putDouble(s.getMaxAltitude());
+        buf.put((byte) ((s.hasSail() ? 1 : 0) | (s.isMaintenanceDue() ? 2 : 0)));
+        buf.putDouble(s.getServiceMileage());
+    }
+
+    public static VehicleSnapshot getVehicle(ByteBuffer buf) {
+        String type = getString(buf);
+        String id = getString(buf);
+        String model = getString(buf);
+        double maxSpeed = buf.getDouble();
+        double mileage = buf.getDouble();
+        double fuel = buf.getDouble();
+        double cargo = buf.getDouble();
+        int passengers = buf.getInt();
+        int wheels = buf.getInt();
+        double altitude = buf.getDouble();
+        byte flags = buf.get();
+        double serviceMileage = buf.getDouble();
+        return new VehicleSnapshot(type, id, model, maxSpeed, mileage, fuel, cargo, passengers,
+                wheels, altitude, (flags & 1) != 0, (flags & 2) != 0, serviceMileage);
+    }
+}
@@ -0,0 +1,421 @@
+package server;
+
+import loadtest.FleetGenerator;
+import loadtest.LoadDriver;
+import logistics.FleetManager;
+import logistics.FleetReportWriter;
+import logistics.InvalidOperationException;
+import logistics.ReportFormat;
+import logistics.VehicleFactory;
+import logistics.VehicleSnapshot;
+import vehicles.Vehicle;
+import vehicles.interfaces.FuelConsumable;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless FleetManager server.
+ *
+ * One selector thread accepts connections, reads request frames, executes them
+ * against the FleetManager and queues the responses. FleetManager is not
+ * thread-safe, so running every operation on the selector thread is also what
+ * keeps it consistent; no locks are needed.
+ *
+ * A client may pipeline: every complete frame in a read is executed in order
+ * and all their responses go out in as few writes as the socket allows.
+ *
+ * A report is streamed: each time the connection's output drains, the next
+ * FleetProtocol.CHUNK of rows is formatted and sent as a STATUS_MORE frame,
+ * so a large fleet neither exceeds MAX_FRAME nor holds the selector thread
+ * for the whole report. Requests pipelined behind it wait until it is done.
+ *
+ * Usage: java -cp out server.FleetServer [--port 7070] [--bind 127.0.0.1]
+ *            [--fleet fleet.csv|fleet.bin | --size 0] [--seed 1]
+ */
+public class FleetServer implements Runnable, Closeable {
+
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    // report rows formatted between checks of the chunk size
+    private static final int REPORT_ROWS = 256;
+
+    private final FleetManager manager;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private volatile boolean running = true;
+
+    private long requests;
+    private long connections;
+
+    /** Per-connection read and write buffers; out is kept in write mode. */
+    private static final class Connection {
+        ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER);
+        ByteBuffer out = ByteBuffer.allocate(INITIAL_BUFFER);
+        ReportStream report;        // report being streamed; later requests wait in in
+    }
+
+    /** An OP_REPORT response in progress: the rows still to go and the chunk being filled. */
+    private static final class ReportStream {
+        final int requestId;
+        final List<Vehicle> vehicles;
+        final Chunk chunk = new Chunk();
+        final FleetReportWriter writer;
+        int next;
+
+        ReportStream(int requestId, FleetManager manager, ReportFormat format) throws IOException {
+            this.requestId = requestId;
+            this.vehicles = manager.getAllVehicles();
+            this.writer = new FleetReportWriter(new OutputStreamWriter(chunk, StandardCharsets.UTF_8), format);
+            writer.writeHeader(vehicles.size());
+        }
+    }
+
+    private static final class Chunk extends ByteArrayOutputStream {
+        Chunk() {
+            super(FleetProtocol.CHUNK + INITIAL_BUFFER);
+        }
+
+        /** Moves the bytes into out and empties the chunk. */
+        void drainTo(ByteBuffer out) {
+            out.put(buf, 0, count);
+            reset();
+        }
+    }
+
+    public FleetServer(FleetManager manager, InetSocketAddress address) throws IOException {
+        this.manager = manager;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /** The bound port, useful when constructed with port 0. */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public long getRequestCount() {
+        return requests;
+    }
+
+    // ---------- Event loop ----------
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    try {
+                        if (!key.isValid()) continue;
+                        if (key.isAcceptable()) accept();
+                        else {
+                            if (key.isReadable()) read(key);
+                            if (key.isValid() && key.isWritable()) write(key);
+                        }
+                    } catch (IOException e) {
+                        closeConnection(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Server stopped: " + e.getMessage());
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    /** Stops the event loop; safe to call from any thread. */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch = serverChannel.accept();
+        if (ch == null) return;
+        ch.configureBlocking(false);
+        ch.socket().setTcpNoDelay(true);
+        ch.register(selector, SelectionKey.OP_READ, new Connection());
+        connections++;
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel ch = (SocketChannel) key.channel();
+        Connection c = (Connection) key.attachment();
+        if (ch.read(c.in) < 0) {
+            closeConnection(key);
+            return;
+        }
+        process(c);
+        if (c.out.position() > 0 || c.report != null) write(key);
+    }
+
+    /** Executes the complete frames in c.in, in order, up to and including a report. */
+    private void process(Connection c) throws IOException {
+        ByteBuffer in = c.in;
+        in.flip();
+        while (c.report == null && in.remaining() >= 4) {
+            int len = in.getInt(in.position());
+            if (len < 5 || len > FleetProtocol.MAX_FRAME) {
+                throw new IOException("Bad frame length " + len);
+            }
+            if (in.remaining() < 4 + len) break;
+            int frameEnd = in.position() + 4 + len;
+            in.position(in.position() + 4);
+            ByteBuffer frame = in.slice(in.position(), len);
+            handle(c, frame);
+            in.position(frameEnd);
+        }
+        in.compact();
+        if (in.position() >= 4) {
+            // a frame bigger than the buffer: grow so the next read can complete it
+            int needed = 4 + in.getInt(0);
+            if (needed > in.capacity()) c.in = grow(in, needed);
+        }
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        SocketChannel ch = (SocketChannel) key.channel();
+        Connection c = (Connection) key.attachment();
+        c.out.flip();
+        ch.write(c.out);
+        c.out.compact();
+        if (c.report != null && c.out.position() == 0) {
+            // drained: queue the next chunk of the report, and what waited behind it once it is done
+            continueReport(c);
+            if (c.report == null) process(c);
+            c.out.flip();
+            ch.write(c.out);
+            c.out.compact();
+        }
+        // no reads while a report streams; the requests behind it are already waiting
+        int ops = c.report != null ? SelectionKey.OP_WRITE
+                : c.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.interestOps() != ops) key.interestOps(ops);
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            for (SelectionKey key : selector.keys()) key.channel().close();
+            selector.close();
+            serverChannel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // ---------- Request handling ----------
+
+    private void handle(Connection c, ByteBuffer frame) {
+        requests++;
+        int requestId = frame.getInt();
+        byte op = frame.get();
+        try {
+            switch (op) {
+                case FleetProtocol.OP_PING -> ok(c, requestId);
+                case FleetProtocol.OP_COUNT -> {
+                    ByteBuffer out = begin(c, requestId, FleetProtocol.STATUS_OK, 4);
+                    out.putInt(manager.getAllVehicles().size());
+                }
+                case FleetProtocol.OP_SEARCH -> vehicle(c, requestId, manager.searchById(FleetProtocol.getString(frame)));
+                case FleetProtocol.OP_FASTEST ->
+                        vehicle(c, requestId, manager.getAllVehicles().isEmpty() ? null : manager.getFastestVehicle());
+                case FleetProtocol.OP_SLOWEST ->
+                        vehicle(c, requestId, manager.getAllVehicles().isEmpty() ? null : manager.getSlowestVehicle());
+                case FleetProtocol.OP_ADD -> {
+                    String type = FleetProtocol.getString(frame);
+                    String id = FleetProtocol.getString(frame);
+                    String model = FleetProtocol.getString(frame);
+                    double maxSpeed = frame.getDouble();
+                    Vehicle v = VehicleFactory.create(type, id, model, maxSpeed);
+                    if (v == null) throw new InvalidOperationException("Unknown vehicle type: " + type);
+                    manager.addVehicle(v);
+                    ok(c, requestId);
+                }
+                case FleetProtocol.OP_REMOVE -> {
+                    manager.removeVehicle(FleetProtocol.getString(frame));
+                    ok(c, requestId);
+                }
+                case FleetProtocol.OP_MOVE -> {
+                    Vehicle v = manager.searchById(FleetProtocol.getString(frame));
+                    if (v == null) {
+                        begin(c, requestId, FleetProtocol.STATUS_NOT_FOUND, 0);
+                    } else {
+                        v.move(frame.getDouble());
+                        ok(c, requestId);
+                    }
+                }
+                case FleetProtocol.OP_REFUEL -> {
+                    Vehicle v = manager.searchById(FleetProtocol.getString(frame));
+                    if (v == null) {
+                        begin(c, requestId, FleetProtocol.STATUS_NOT_FOUND, 0);
+                    } else if (!(v instanceof FuelConsumable fc)) {
+                        error(c, requestId, v.getId() + " does not use fuel");
+                    } else {
+                        fc.refuel(frame.getDouble());
+                        ok(c, requestId);
+                    }
+                }
+                case FleetProtocol.OP_JOURNEY_ALL -> {
+                    manager.startAllJourneys(frame.getDouble());
+                    ok(c, requestId);
+                }
+                case FleetProtocol.OP_REPORT -> {
+                    byte format = frame.get();
+                    ReportFormat[] formats = ReportFormat.values();
+                    if (format < 0 || format >= formats.length) {
+                        error(c, requestId, "Unknown report format " + format);
+                        break;
+                    }
+                    c.report = new ReportStream(requestId, manager, formats[format]);
+                }
+                case FleetProtocol.OP_EXPORT -> {
+                    boolean[] buckets = FleetProtocol.getBuckets(frame);
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    manager.writeSnapshot(bytes, v -> buckets[FleetProtocol.bucketOf(v)]);
+                    ByteBuffer out = begin(c, requestId, FleetProtocol.STATUS_OK, bytes.size());
+                    out.put(bytes.toByteArray());
+                }
+                case FleetProtocol.OP_IMPORT -> {
+                    int added = manager.mergeSnapshot(new ByteArrayInputStream(
+                            frame.array(), frame.arrayOffset() + frame.position(), frame.remaining()));
+                    begin(c, requestId, FleetProtocol.STATUS_OK, 4).putInt(added);
+                }
+                case FleetProtocol.OP_DROP -> {
+                    boolean[] buckets = FleetProtocol.getBuckets(frame);
+                    int removed = manager.removeVehicles(v -> buckets[FleetProtocol.bucketOf(v)]);
+                    begin(c, requestId, FleetProtocol.STATUS_OK, 4).putInt(removed);
+                }
+                default -> error(c, requestId, "Unknown operation " + op);
+            }
+        } catch (InvalidOperationException e) {
+            error(c, requestId, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            error(c, requestId, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Formats rows until the chunk holds FleetProtocol.CHUNK bytes and queues it
+     * as one STATUS_MORE frame, or, after the last row, queues the rest with the
+     * summary as STATUS_OK and ends the report.
+     */
+    private void continueReport(Connection c) {
+        ReportStream r = c.report;
+        try {
+            int n = r.vehicles.size();
+            while (r.next < n && r.chunk.size() < FleetProtocol.CHUNK) {
+                int end = Math.min(n, r.next + REPORT_ROWS);
+                for (; r.next < end; r.next++) r.writer.writeVehicle(r.vehicles.get(r.next));
+                r.writer.flush();        // whole characters only, so each chunk decodes on its own
+            }
+            boolean last = r.next == n;
+            if (last) {
+                r.writer.finish();
+                c.report = null;
+            }
+            ByteBuffer out = begin(c, r.requestId, last ? FleetProtocol.STATUS_OK : FleetProtocol.STATUS_MORE,
+                    r.chunk.size());
+            r.chunk.drainTo(out);
+        } catch (IOException | RuntimeException e) {
+            c.report = null;
+            error(c, r.requestId, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private void vehicle(Connection c, int requestId, Vehicle v) {
+        if (v == null) {
+            begin(c, requestId, FleetProtocol.STATUS_NOT_FOUND, 0);
+        } else {
+            VehicleSnapshot s = VehicleSnapshot.capture(v);
+            ByteBuffer out = begin(c, requestId, FleetProtocol.STATUS_OK, FleetProtocol.vehicleSize(s));
+            FleetProtocol.putVehicle(out, s);
+        }
+    }
+
+    private void ok(Connection c, int requestId) {
+        begin(c, requestId, FleetProtocol.STATUS_OK, 0);
+    }
+
+    private void error(Connection c, int requestId, String message) {
+        String msg = message == null ? "error" : message;
+        ByteBuffer out = begin(c, requestId, FleetProtocol.STATUS_ERROR, FleetProtocol.stringSize(msg));
+        FleetProtocol.putString(out, msg);
+    }
+
+    /** Writes a response header for a payload of exactly payloadSize bytes and returns the buffer to fill. */
+    private ByteBuffer begin(Connection c, int requestId, byte status, int payloadSize) {
+        int frameSize = 4 + 4 + 1 + payloadSize;
+        if (c.out.remaining() < frameSize) c.out = grow(c.out, c.out.position() + frameSize);
+        c.out.putInt(4 + 1 + payloadSize);
+        c.out.putInt(requestId);
+        c.out.put(status);
+        return c.out;
+    }
+
+    /** Copies buf (in write mode) into a buffer of at least minCapacity. */
+    private static ByteBuffer grow(ByteBuffer buf, int minCapacity) {
+        int cap = buf.capacity();
+        while (cap < minCapacity) cap <<= 1;
+        ByteBuffer bigger = ByteBuffer.allocate(cap);
+        buf.flip();
+        bigger.put(buf);
+        return bigger;
+    }
+
+    // ---------- CLI ----------
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        int port = Integer.parseInt(opts.getOrDefault("port", Integer.toString(FleetProtocol.DEFAULT_PORT)));
+        String bind = opts.getOrDefault("bind", "127.0.0.1");
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+
+        PrintStream stdout = System.out;
+        // move() prints on every call; a server must not pay for that
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        FleetManager manager = new FleetManager();
+        String fleet = opts.get("fleet");
+        if (fleet != null && fleet.endsWith(".bin")) {
+            manager.loadSnapshot(fleet);
+        } else if (fleet != null) {
+            manager.loadFromFile(fleet);
+        } else {
+            int size = Integer.parseInt(opts.getOrDefault("size", "0"));
+            try {
+                for (Vehicle v : FleetGenerator.balanced(seed).generate(size)) manager.addVehicle(v);
+            } catch (InvalidOperationException e) {
+                stdout.println("Could not build fleet: " + e.getMessage());
+                return;
+            }
+        }
+
+        FleetServer server = new FleetServer(manager, new InetSocketAddress(InetAddress.getByName(bind), port));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        stdout.printf("Serving %d vehicles on %s:%d%n", manager.getAllVehicles().size(), bind, server.getPort());
+        server.run();
+        stdout.printf("Server stopped after %d requests on %d connections%n", server.requests, server.connections);
+    }
+}
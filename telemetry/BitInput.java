@@ -0,0 +1,31 @@
+package telemetry;
+
+/** Reads a bit stream written by BitOutput. */
+final class BitInput {
+
+    private final long[] words;
+    private int pos;
+
+    BitInput(long[] words) {
+        this.words = words;
+    }
+
+    /** Reads n bits as an unsigned value; 0 <= n <= 64. */
+    long read(int n) {
+        if (n == 0) return 0;
+        int idx = pos >>> 6;
+        int used = pos & 63;
+        int avail = 64 - used;
+        pos += n;
+        if (n <= avail) {
+            return (words[idx] << used) >>> (64 - n);
+        }
+        long hi = words[idx] & ((1L << avail) - 1);
+        int rest = n - avail;
+        return (hi << rest) | (words[idx + 1] >>> (64 - rest));
+    }
+
+    boolean readBit() {
+        return read(1) != 0;
+    }
+}
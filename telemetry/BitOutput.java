@@ -0,0 +1,43 @@
+package telemetry;
+
+import java.util.Arrays;
+
+/** Append-only bit stream packed big-endian into longs. */
+final class BitOutput {
+
+    private long[] words = new long[16];
+    private int bits;
+
+    /** Writes the low n bits of value, most significant first; 0 <= n <= 64. */
+    void write(long value, int n) {
+        if (n == 0) return;
+        if (n < 64) value &= (1L << n) - 1;
+        int idx = bits >>> 6;
+        if (idx + 1 >= words.length) words = Arrays.copyOf(words, words.length * 2);
+        int free = 64 - (bits & 63);
+        if (n <= free) {
+            words[idx] |= value << (free - n);
+        } else {
+            words[idx] |= value >>> (n - free);
+            words[idx + 1] |= value << (64 - (n - free));
+        }
+        bits += n;
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    int bitLength() {
+        return bits;
+    }
+
+    /** The backing words (not a copy); only the first wordCount() are in use. */
+    long[] words() {
+        return words;
+    }
+
+    int wordCount() {
+        return (bits + 63) >>> 6;
+    }
+}
@@ -0,0 +1,66 @@
+package telemetry;
+
+/** Walks the samples of a block written by BlockEncoder, oldest first. */
+final class BlockDecoder {
+
+    private final BitInput in;
+    private final int count;
+    private int read;
+
+    private long ts;
+    private long delta;
+    private final long[] bits = new long[TelemetryField.COUNT];
+    private final int[] lead = new int[TelemetryField.COUNT];
+    private final int[] trail = new int[TelemetryField.COUNT];
+    private final double[] values = new double[TelemetryField.COUNT];
+
+    BlockDecoder(long[] words, int count) {
+        this.in = new BitInput(words);
+        this.count = count;
+    }
+
+    /** Advances to the next sample; false once the block is exhausted. */
+    boolean next() {
+        if (read == count) return false;
+        if (read == 0) {
+            ts = in.read(64);
+            for (int f = 0; f < TelemetryField.COUNT; f++) bits[f] = in.read(64);
+        } else {
+            delta += readDeltaOfDelta();
+            ts += delta;
+            for (int f = 0; f < TelemetryField.COUNT; f++) readXor(f);
+        }
+        for (int f = 0; f < TelemetryField.COUNT; f++) values[f] = Double.longBitsToDouble(bits[f]);
+        read++;
+        return true;
+    }
+
+    long timestamp() {
+        return ts;
+    }
+
+    /** Field values of the current sample; overwritten by next(). */
+    double[] values() {
+        return values;
+    }
+
+    private long readDeltaOfDelta() {
+        if (!in.readBit()) return 0;
+        if (!in.readBit()) return in.read(7) - 63;
+        if (!in.readBit()) return in.read(9) - 255;
+        if (!in.readBit()) return in.read(12) - 2047;
+        return in.read(64);
+    }
+
+    private void readXor(int f) {
+        if (!in.readBit()) return;
+        if (in.readBit()) {
+            lead[f] = (int) in.read(5);
+            int significant = (int) in.read(6);
+            if (significant == 0) significant = 64;
+            trail[f] = 64 - lead[f] - significant;
+        }
+        int significant = 64 - lead[f] - trail[f];
+        bits[f] ^= in.read(significant) << trail[f];
+    }
+}
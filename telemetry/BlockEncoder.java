@@ -0,0 +1,106 @@
+package telemetry;
+
+/**
+ * Gorilla-style compression of one block of samples.
+ *
+ * Timestamps are stored as delta-of-delta: regular sampling makes the second
+ * difference mostly zero, which costs one bit. Each field is XORed with its
+ * previous value; an unchanged value costs one bit, and a changed one only
+ * stores the meaningful bits between the leading and trailing zeros of the
+ * XOR, reusing the previous window when the new bits fit in it.
+ */
+final class BlockEncoder {
+
+    private final BitOutput out = new BitOutput();
+    private final BlockSummary summary = new BlockSummary();
+
+    private long lastTs;
+    private long lastDelta;
+    private final long[] prev = new long[TelemetryField.COUNT];
+    private final int[] prevLead = new int[TelemetryField.COUNT];
+    private final int[] prevTrail = new int[TelemetryField.COUNT];
+
+    void append(long ts, double[] values) {
+        if (summary.count == 0) {
+            out.write(ts, 64);
+            for (int f = 0; f < TelemetryField.COUNT; f++) {
+                prev[f] = Double.doubleToRawLongBits(values[f]);
+                prevLead[f] = -1;
+                out.write(prev[f], 64);
+            }
+        } else {
+            long delta = ts - lastTs;
+            writeDeltaOfDelta(delta - lastDelta);
+            lastDelta = delta;
+            for (int f = 0; f < TelemetryField.COUNT; f++) writeXor(f, Double.doubleToRawLongBits(values[f]));
+        }
+        lastTs = ts;
+        summary.add(ts, values);
+    }
+
+    private void writeDeltaOfDelta(long dod) {
+        if (dod == 0) {
+            out.write(0b0, 1);
+        } else if (dod >= -63 && dod <= 64) {
+            out.write(0b10, 2);
+            out.write(dod + 63, 7);
+        } else if (dod >= -255 && dod <= 256) {
+            out.write(0b110, 3);
+            out.write(dod + 255, 9);
+        } else if (dod >= -2047 && dod <= 2048) {
+            out.write(0b1110, 4);
+            out.write(dod + 2047, 12);
+        } else {
+            out.write(0b1111, 4);
+            out.write(dod, 64);
+        }
+    }
+
+    private void writeXor(int f, long bits) {
+        long xor = bits ^ prev[f];
+        prev[f] = bits;
+        if (xor == 0) {
+            out.write(0, 1);
+            return;
+        }
+        out.write(1, 1);
+        int lead = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trail = Long.numberOfTrailingZeros(xor);
+        if (prevLead[f] >= 0 && lead >= prevLead[f] && trail >= prevTrail[f]) {
+            out.write(0, 1);
+            out.write(xor >>> prevTrail[f], 64 - prevLead[f] - prevTrail[f]);
+        } else {
+            int significant = 64 - lead - trail;
+            out.write(1, 1);
+            out.write(lead, 5);
+            out.write(significant == 64 ? 0 : significant, 6);
+            out.write(xor >>> trail, significant);
+            prevLead[f] = lead;
+            prevTrail[f] = trail;
+        }
+    }
+
+    int count() {
+        return summary.count;
+    }
+
+    long lastTimestamp() {
+        return lastTs;
+    }
+
+    BlockSummary summary() {
+        return summary;
+    }
+
+    int bitLength() {
+        return out.bitLength();
+    }
+
+    long[] words() {
+        return out.words();
+    }
+
+    int wordCount() {
+        return out.wordCount();
+    }
+}
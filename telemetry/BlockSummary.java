@@ -0,0 +1,60 @@
+package telemetry;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Time range, sample count and per-field min/max/sum/last of one block. It is
+ * stored in the block's header, so rollups over whole blocks need no decoding.
+ */
+final class BlockSummary {
+
+    static final int BYTES = 8 + 8 + 4 + 4 * 8 * TelemetryField.COUNT;
+
+    int count;
+    long minTs;
+    long maxTs;
+    final double[] min = new double[TelemetryField.COUNT];
+    final double[] max = new double[TelemetryField.COUNT];
+    final double[] sum = new double[TelemetryField.COUNT];
+    final double[] last = new double[TelemetryField.COUNT];
+
+    BlockSummary() {
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    void add(long ts, double[] values) {
+        if (count == 0) minTs = ts;
+        maxTs = ts;
+        count++;
+        for (int f = 0; f < values.length; f++) {
+            double v = values[f];
+            if (v < min[f]) min[f] = v;
+            if (v > max[f]) max[f] = v;
+            sum[f] += v;
+            last[f] = v;
+        }
+    }
+
+    void write(ByteBuffer buf) {
+        buf.putLong(minTs).putLong(maxTs).putInt(count);
+        for (int f = 0; f < TelemetryField.COUNT; f++) {
+            buf.putDouble(min[f]).putDouble(max[f]).putDouble(sum[f]).putDouble(last[f]);
+        }
+    }
+
+    static BlockSummary read(ByteBuffer buf) {
+        BlockSummary s = new BlockSummary();
+        s.minTs = buf.getLong();
+        s.maxTs = buf.getLong();
+        s.count = buf.getInt();
+        for (int f = 0; f < TelemetryField.COUNT; f++) {
+            s.min[f] = buf.getDouble();
+            s.max[f] = buf.getDouble();
+            s.sum[f] = buf.getDouble();
+            s.last[f] = buf.getDouble();
+        }
+        return s;
+    }
+}
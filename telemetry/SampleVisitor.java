@@ -0,0 +1,8 @@
+package telemetry;
+
+/** Receives samples from a range query without allocating one object per sample. */
+@FunctionalInterface
+public interface SampleVisitor {
+    /** values is indexed by TelemetryField.ordinal() and reused between calls. */
+    void visit(long timestamp, double[] values);
+}
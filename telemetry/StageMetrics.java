@@ -0,0 +1,81 @@
+package telemetry;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Counters of one TelemetryPipeline stage. Each stage has a single thread
+ * that writes its counters; any thread may read them.
+ *
+ * Busy time is time spent processing, blocked time is time spent waiting
+ * for room downstream (backpressure), and lag is how long after the reader
+ * took a batch in this stage finished it.
+ */
+public class StageMetrics {
+
+    private final String name;
+    private final BlockingQueue<?> input;
+
+    private volatile long batches;
+    private volatile long recordsIn;
+    private volatile long recordsOut;
+    private volatile long busyNanos;
+    private volatile long blockedNanos;
+    private volatile long lagNanosTotal;
+    private volatile long lagNanosMax;
+
+    StageMetrics(String name, BlockingQueue<?> input) {
+        this.name = name;
+        this.input = input;
+    }
+
+    void record(int in, int out, long busy, long lag) {
+        batches++;
+        recordsIn += in;
+        recordsOut += out;
+        busyNanos += busy;
+        lagNanosTotal += lag;
+        if (lag > lagNanosMax) lagNanosMax = lag;
+    }
+
+    void blocked(long nanos) {
+        blockedNanos += nanos;
+    }
+
+    public String getName() { return name; }
+
+    public long getBatches() { return batches; }
+
+    public long getRecordsIn() { return recordsIn; }
+
+    public long getRecordsOut() { return recordsOut; }
+
+    /** Records this stage let through less than it received (see TelemetryPipeline for why, per stage). */
+    public long getDropped() { return recordsIn - recordsOut; }
+
+    public long getBusyNanos() { return busyNanos; }
+
+    public long getBlockedNanos() { return blockedNanos; }
+
+    public double getMeanLagMillis() {
+        long b = batches;
+        return b == 0 ? 0 : lagNanosTotal / 1e6 / b;
+    }
+
+    public double getMaxLagMillis() { return lagNanosMax / 1e6; }
+
+    /** Batches waiting for this stage; 0 for the reader. */
+    public int getQueueDepth() { return input == null ? 0 : input.size(); }
+
+    /** Records per second of busy time: what the stage could do if never starved or blocked. */
+    public double getThroughput() {
+        long busy = busyNanos;
+        return busy == 0 ? 0 : recordsIn * 1e9 / busy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-8s in=%d out=%d dropped=%d busy=%.0fms blocked=%.0fms queue=%d lag=%.1f/%.1fms (%.1fM rec/s busy)",
+                name, recordsIn, recordsOut, getDropped(), busyNanos / 1e6, blockedNanos / 1e6, getQueueDepth(),
+                getMeanLagMillis(), getMaxLagMillis(), getThroughput() / 1e6);
+    }
+}
@@ -0,0 +1,79 @@
+package telemetry;
+
+import vehicles.Vehicle;
+
+import java.util.Arrays;
+
+/**
+ * One unit of work in a TelemetryPipeline: a chunk of raw input (whole
+ * lines only) and the records decoded from it, in parallel arrays. Batches
+ * are pooled and reused, so stages never allocate per record except the ID
+ * strings.
+ */
+final class TelemetryBatch {
+
+    byte[] raw;
+    int rawLength;
+
+    String[] ids;
+    long[] timestamps;
+    double[] odometers;
+    double[] fuels;
+    Vehicle[] vehicles;
+    int count;
+
+    long createdNanos;      // when the reader filled it, for lag
+    boolean last;           // end-of-stream marker, carries no records
+
+    TelemetryBatch(int chunkBytes, int records) {
+        raw = new byte[chunkBytes];
+        ids = new String[records];
+        timestamps = new long[records];
+        odometers = new double[records];
+        fuels = new double[records];
+        vehicles = new Vehicle[records];
+    }
+
+    void reset() {
+        Arrays.fill(ids, 0, count, null);
+        Arrays.fill(vehicles, 0, count, null);
+        rawLength = 0;
+        count = 0;
+        last = false;
+    }
+
+    void add(String id, long timestamp, double odometer, double fuel) {
+        if (count == ids.length) grow();
+        ids[count] = id;
+        timestamps[count] = timestamp;
+        odometers[count] = odometer;
+        fuels[count] = fuel;
+        count++;
+    }
+
+    /** Moves record from to position to; used to drop records in place. */
+    void move(int from, int to) {
+        if (from == to) return;
+        ids[to] = ids[from];
+        timestamps[to] = timestamps[from];
+        odometers[to] = odometers[from];
+        fuels[to] = fuels[from];
+        vehicles[to] = vehicles[from];
+    }
+
+    /** Keeps records 0..kept-1 and clears references past them. */
+    void truncate(int kept) {
+        Arrays.fill(ids, kept, count, null);
+        Arrays.fill(vehicles, kept, count, null);
+        count = kept;
+    }
+
+    private void grow() {
+        int cap = ids.length * 2;
+        ids = Arrays.copyOf(ids, cap);
+        timestamps = Arrays.copyOf(timestamps, cap);
+        odometers = Arrays.copyOf(odometers, cap);
+        fuels = Arrays.copyOf(fuels, cap);
+        vehicles = Arrays.copyOf(vehicles, cap);
+    }
+}
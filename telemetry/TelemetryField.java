@@ -0,0 +1,11 @@
+package telemetry;
+
+/** The values recorded with every telemetry sample, in storage order. */
+public enum TelemetryField {
+    MILEAGE,    // km
+    FUEL,       // litres on hand
+    CARGO,      // kg loaded
+    PASSENGERS; // on board
+
+    static final int COUNT = values().length;
+}
@@ -0,0 +1,141 @@
+package telemetry;
+
+import loadtest.FleetGenerator;
+import loadtest.LoadDriver;
+import logistics.FleetManager;
+import logistics.InvalidOperationException;
+import persistence.Codecs;
+import vehicles.Vehicle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds a TelemetryPipeline from a file or a socket and prints per-stage
+ * metrics every second, or writes a synthetic telemetry file to feed it.
+ * The fleet is generated (FleetGenerator, same seed) so the IDs match.
+ * Files may be compressed; the codec follows the extension (see Codecs).
+ *
+ * Usage: java -cp out telemetry.TelemetryIngestTool --generate 10000000 --file tlm.csv
+ *            [--vehicles 100000] [--seed 1]
+ *        java -cp out telemetry.TelemetryIngestTool --file tlm.csv [--vehicles 100000] [--seed 1]
+ *        java -cp out telemetry.TelemetryIngestTool --port 9400 [--vehicles 100000] [--seed 1]
+ */
+public class TelemetryIngestTool {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        int vehicles = Integer.parseInt(opts.getOrDefault("vehicles", "100000"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        List<Vehicle> fleetVehicles = FleetGenerator.balanced(seed).generate(vehicles);
+
+        if (opts.containsKey("generate")) {
+            generate(Paths.get(opts.getOrDefault("file", "telemetry.csv")), Long.parseLong(opts.get("generate")),
+                    fleetVehicles, seed);
+            return;
+        }
+
+        FleetManager fleet = new FleetManager();
+        for (Vehicle v : fleetVehicles) {
+            try {
+                fleet.addVehicle(v);
+            } catch (InvalidOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        try (TelemetryPipeline pipeline = new TelemetryPipeline(fleet)) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "telemetry-report");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleAtFixedRate(() -> report(pipeline), 1, 1, TimeUnit.SECONDS);
+            if (opts.containsKey("port")) {
+                serve(pipeline, Integer.parseInt(opts.get("port")));
+            } else {
+                long start = System.nanoTime();
+                try (InputStream in = Codecs.openInput(Paths.get(opts.getOrDefault("file", "telemetry.csv")))) {
+                    pipeline.ingest(in);
+                }
+                pipeline.flush();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                reporter.shutdownNow();
+                report(pipeline);
+                System.out.printf("Applied %d records, %.1f MB in %.2f s: %.2fM records/s%n",
+                        pipeline.getApplied(), pipeline.getBytesRead() / 1e6, seconds,
+                        pipeline.getStageMetrics().get(1).getRecordsIn() / seconds / 1e6);
+            }
+        }
+    }
+
+    /** Accepts connections until killed; each is ingested on its own thread. */
+    private static void serve(TelemetryPipeline pipeline, int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port)) {
+            System.out.println("Listening for telemetry on port " + port);
+            while (true) {
+                Socket s = server.accept();
+                Thread t = new Thread(() -> {
+                    try (Socket socket = s) {
+                        pipeline.ingest(socket.getInputStream());
+                    } catch (IOException e) {
+                        System.err.println("Telemetry connection failed: " + e.getMessage());
+                    }
+                }, "telemetry-source-" + s.getPort());
+                t.setDaemon(true);
+                t.start();
+            }
+        }
+    }
+
+    private static void report(TelemetryPipeline pipeline) {
+        for (StageMetrics m : pipeline.getStageMetrics()) System.out.println("  " + m);
+    }
+
+    /** Vehicles report in rounds, each a little further along and a little lighter on fuel. */
+    private static void generate(Path file, long records, List<Vehicle> vehicles, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int n = vehicles.size();
+        String[] ids = new String[n];
+        double[] odometer = new double[n];
+        double[] fuel = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = vehicles.get(i).getId();
+            odometer[i] = vehicles.get(i).getCurrentMileage();
+            fuel[i] = 500;
+        }
+        long timestamp = 1_700_000_000_000L;
+        try (BufferedWriter w = new BufferedWriter(new OutputStreamWriter(
+                Codecs.openOutput(file), StandardCharsets.US_ASCII), 64 * 1024)) {
+            for (long r = 0; r < records; r++) {
+                int i = (int) (r % n);
+                if (i == 0) timestamp += 1000;
+                odometer[i] += random.nextInt(200) / 10.0;
+                fuel[i] = fuel[i] < 20 ? 500 : fuel[i] - random.nextInt(30) / 10.0;
+                w.write(ids[i]);
+                w.write(',');
+                w.write(Long.toString(timestamp));
+                w.write(',');
+                w.write(String.format(Locale.ROOT, "%.1f", odometer[i]));
+                w.write(',');
+                w.write(String.format(Locale.ROOT, "%.1f", fuel[i]));
+                w.newLine();
+            }
+        }
+        System.out.println("Wrote " + records + " telemetry records for " + n + " vehicles to " + file);
+    }
+}
@@ -0,0 +1,450 @@
+package telemetry;
+
+import logistics.FleetManager;
+import logistics.InvalidOperationException;
+import vehicles.Vehicle;
+import vehicles.VehicleChange;
+import vehicles.interfaces.FuelConsumable;
+import vehicles.interfaces.VehicleObserver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies a stream of vehicle telemetry to a fleet. Input is text, one
+ * record per line: id,timestamp,odometer,fuel (timestamp in epoch ms,
+ * odometer in km, fuel in litres); blank lines and lines starting with #
+ * are skipped.
+ *
+ * Records travel in batches (a chunk of whole lines) through five stages,
+ * each on its own thread, joined by bounded queues:
+ *
+ *   read     ingest() fills a pooled batch from the source
+ *   decode   parses the lines; drops malformed ones
+ *   validate drops negative or non-finite values and bad timestamps
+ *   resolve  looks the whole batch's IDs up in the fleet's VehicleHashTable
+ *            with one lock acquisition; drops unknown IDs
+ *   apply    sets odometer and fuel; drops readings older than the last one
+ *            applied to the vehicle, odometers that go backwards and vehicles
+ *            removed from the fleet since they were resolved
+ *
+ * A full queue blocks the stage feeding it, and the reader blocks while
+ * every pooled batch is in flight, so a slow stage slows the source rather
+ * than growing memory. For a socket source that reaches the sender through
+ * TCP flow control. Each stage reports its counters as StageMetrics.
+ */
+public class TelemetryPipeline implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    public static final int DEFAULT_CHUNK_BYTES = 64 * 1024;
+
+    private interface Stage {
+        /** Processes b in place; returns the number of records it received. */
+        int process(TelemetryBatch b);
+    }
+
+    private final FleetManager fleet;
+    private final int chunkBytes;
+    private final BlockingQueue<TelemetryBatch> free;
+    private final List<Thread> threads = new ArrayList<>();
+    private final List<StageMetrics> metrics = new ArrayList<>();
+    private final StageMetrics readMetrics;
+    private final BlockingQueue<TelemetryBatch> decodeQueue;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    // touched by the apply thread only; entries go when their vehicle leaves the fleet
+    private final Map<Vehicle, long[]> lastTimestamp = new IdentityHashMap<>();
+    private final ConcurrentLinkedQueue<Vehicle> removed = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean reset = new AtomicBoolean();
+    private final VehicleObserver removals = (v, change, amount) -> {
+        if (change == VehicleChange.REMOVED) removed.add(v);
+        else if (change == VehicleChange.RESET) reset.set(true);
+    };
+    private volatile boolean closed;
+
+    public TelemetryPipeline(FleetManager fleet) {
+        this(fleet, DEFAULT_QUEUE_CAPACITY, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * @param queueCapacity batches each queue between stages holds
+     * @param chunkBytes    bytes of input per batch (grown for longer lines)
+     */
+    public TelemetryPipeline(FleetManager fleet, int queueCapacity, int chunkBytes) {
+        if (queueCapacity < 1) throw new IllegalArgumentException("Queue capacity must be positive");
+        if (chunkBytes < 64) throw new IllegalArgumentException("Chunk must be at least 64 bytes");
+        this.fleet = fleet;
+        this.chunkBytes = chunkBytes;
+        fleet.addObserver(removals);
+
+        // every queue can fill up, plus one batch in the hands of each stage
+        int poolSize = 4 * queueCapacity + 5;
+        this.free = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) free.add(new TelemetryBatch(chunkBytes, chunkBytes / 16));
+
+        this.readMetrics = new StageMetrics("read", null);
+        metrics.add(readMetrics);
+        this.decodeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<TelemetryBatch> validateQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<TelemetryBatch> resolveQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<TelemetryBatch> applyQueue = new ArrayBlockingQueue<>(queueCapacity);
+        start("decode", decodeQueue, validateQueue, this::decode);
+        start("validate", validateQueue, resolveQueue, this::validate);
+        start("resolve", resolveQueue, applyQueue, this::resolve);
+        start("apply", applyQueue, null, this::apply);
+    }
+
+    // ---------- Source ----------
+
+    /**
+     * Reads in to the end on the calling thread and feeds the pipeline;
+     * blocks while the pipeline is full. Several sources may ingest at
+     * once. Returns before the records are applied; see flush().
+     *
+     * @return bytes read
+     */
+    public long ingest(InputStream in) throws IOException {
+        if (closed) throw new IllegalStateException("Pipeline is closed");
+        byte[] carry = new byte[chunkBytes];
+        int carryLength = 0;
+        long total = 0;
+        boolean eof = false;
+        while (!eof) {
+            TelemetryBatch b = takeFree();
+            if (b.raw.length < carryLength + 1) b.raw = Arrays.copyOf(b.raw, Math.max(b.raw.length * 2, carryLength + 1));
+            System.arraycopy(carry, 0, b.raw, 0, carryLength);
+            int length = carryLength;
+            int cut = -1;
+            while (cut < 0) {
+                if (length == b.raw.length) b.raw = Arrays.copyOf(b.raw, b.raw.length * 2);   // a very long line
+                int n = in.read(b.raw, length, b.raw.length - length);
+                if (n < 0) {
+                    eof = true;
+                    break;
+                }
+                int from = length;
+                length += n;
+                total += n;
+                cut = lastNewline(b.raw, from, length);
+            }
+            if (eof) {
+                cut = length;                           // last line without a newline
+                carryLength = 0;
+            } else {
+                carryLength = length - (cut + 1);
+                if (carry.length < carryLength) carry = new byte[Math.max(carry.length * 2, carryLength)];
+                System.arraycopy(b.raw, cut + 1, carry, 0, carryLength);
+                cut++;
+            }
+            if (cut == 0) {
+                free.add(b);
+                continue;
+            }
+            b.rawLength = cut;
+            b.createdNanos = System.nanoTime();
+            submit(b);
+        }
+        bytesRead.addAndGet(total);
+        return total;
+    }
+
+    private TelemetryBatch takeFree() {
+        long t0 = System.nanoTime();
+        TelemetryBatch b = take(free);
+        synchronized (readMetrics) {
+            readMetrics.blocked(System.nanoTime() - t0);
+        }
+        return b;
+    }
+
+    private void submit(TelemetryBatch b) {
+        submitted.incrementAndGet();
+        long t0 = System.nanoTime();
+        put(decodeQueue, b);
+        synchronized (readMetrics) {
+            readMetrics.blocked(System.nanoTime() - t0);
+            readMetrics.record(0, 0, 0, 0);
+        }
+    }
+
+    private static int lastNewline(byte[] buf, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buf[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    // ---------- Stages ----------
+
+    private int decode(TelemetryBatch b) {
+        byte[] buf = b.raw;
+        int end = b.rawLength;
+        int lines = 0;
+        int pos = 0;
+        while (pos < end) {
+            int eol = pos;
+            while (eol < end && buf[eol] != '\n') eol++;
+            int lineEnd = eol > pos && buf[eol - 1] == '\r' ? eol - 1 : eol;
+            if (lineEnd > pos && buf[pos] != '#') {
+                lines++;
+                decodeLine(b, buf, pos, lineEnd);
+            }
+            pos = eol + 1;
+        }
+        return lines;
+    }
+
+    /** Adds the record on buf[from..to) to b, or nothing if it is malformed. */
+    private static void decodeLine(TelemetryBatch b, byte[] buf, int from, int to) {
+        int c1 = indexOf(buf, from, to, (byte) ',');
+        int c2 = c1 < 0 ? -1 : indexOf(buf, c1 + 1, to, (byte) ',');
+        int c3 = c2 < 0 ? -1 : indexOf(buf, c2 + 1, to, (byte) ',');
+        if (c3 < 0 || c1 == from) return;
+        long timestamp = parseLong(buf, c1 + 1, c2);
+        double odometer = parseDouble(buf, c2 + 1, c3);
+        double fuel = parseDouble(buf, c3 + 1, to);
+        if (timestamp == Long.MIN_VALUE || Double.isNaN(odometer) || Double.isNaN(fuel)) return;
+        b.add(new String(buf, from, c1 - from, StandardCharsets.ISO_8859_1), timestamp, odometer, fuel);
+    }
+
+    private int validate(TelemetryBatch b) {
+        int in = b.count;
+        int kept = 0;
+        for (int i = 0; i < in; i++) {
+            double odometer = b.odometers[i];
+            double fuel = b.fuels[i];
+            if (b.timestamps[i] <= 0 || odometer < 0 || fuel < 0
+                    || Double.isInfinite(odometer) || Double.isInfinite(fuel)) continue;
+            b.move(i, kept++);
+        }
+        b.truncate(kept);
+        return in;
+    }
+
+    private int resolve(TelemetryBatch b) {
+        int in = b.count;
+        fleet.searchByIds(b.ids, in, b.vehicles);
+        int kept = 0;
+        for (int i = 0; i < in; i++) {
+            if (b.vehicles[i] != null) b.move(i, kept++);
+        }
+        b.truncate(kept);
+        return in;
+    }
+
+    private int apply(TelemetryBatch b) {
+        int in = b.count;
+        int applied = 0;
+        for (int i = 0; i < in; i++) {
+            Vehicle v = b.vehicles[i];
+            // removal clears the observer before REMOVED is queued, so a removed
+            // vehicle never gets an entry after forgetRemoved() has run for it
+            if (v.getObserver() == null) continue;
+            long[] last = lastTimestamp.computeIfAbsent(v, k -> new long[] {Long.MIN_VALUE});
+            long ts = b.timestamps[i];
+            double odometer = b.odometers[i];
+            if (ts <= last[0] || odometer < v.getCurrentMileage()) continue;
+            try {
+                if (v instanceof FuelConsumable fc && fc.getFuelLevel() != b.fuels[i]) fc.setFuelLevel(b.fuels[i]);
+            } catch (InvalidOperationException e) {
+                // no tank to report (sail ship): keep the odometer reading
+            }
+            if (odometer > v.getCurrentMileage()) v.setCurrentMileage(odometer);
+            last[0] = ts;
+            applied++;
+        }
+        b.count = applied;                              // for the metrics; the batch is recycled next
+        forgetRemoved();
+        return in;
+    }
+
+    /** Drops the timestamps of vehicles that left the fleet; on the apply thread. */
+    private void forgetRemoved() {
+        if (reset.getAndSet(false)) lastTimestamp.clear();
+        Vehicle v;
+        while ((v = removed.poll()) != null) lastTimestamp.remove(v);
+    }
+
+    // ---------- Plumbing ----------
+
+    private void start(String name, BlockingQueue<TelemetryBatch> in, BlockingQueue<TelemetryBatch> out, Stage stage) {
+        StageMetrics m = new StageMetrics(name, in);
+        metrics.add(m);
+        Thread t = new Thread(() -> runStage(in, out, m, stage), "telemetry-" + name);
+        t.setDaemon(true);
+        threads.add(t);
+        t.start();
+    }
+
+    private void runStage(BlockingQueue<TelemetryBatch> in, BlockingQueue<TelemetryBatch> out,
+                          StageMetrics m, Stage stage) {
+        while (true) {
+            TelemetryBatch b = take(in);
+            if (b.last) {
+                if (out != null) put(out, b);
+                return;
+            }
+            long t0 = System.nanoTime();
+            int received;
+            try {
+                received = stage.process(b);
+            } catch (RuntimeException e) {
+                // a bad batch must not stall the pipeline behind it
+                if (failures.getAndIncrement() == 0) System.err.println("Telemetry " + m.getName() + " failed: " + e);
+                b.truncate(0);
+                received = 0;
+            }
+            long t1 = System.nanoTime();
+            m.record(received, b.count, t1 - t0, t1 - b.createdNanos);
+            if (out == null) {
+                b.reset();
+                free.add(b);
+                completed.incrementAndGet();
+            } else {
+                put(out, b);
+                m.blocked(System.nanoTime() - t1);
+            }
+        }
+    }
+
+    private static TelemetryBatch take(BlockingQueue<TelemetryBatch> q) {
+        try {
+            return q.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for telemetry", e);
+        }
+    }
+
+    private static void put(BlockingQueue<TelemetryBatch> q, TelemetryBatch b) {
+        try {
+            q.put(b);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing telemetry", e);
+        }
+    }
+
+    /** Waits until every batch ingested so far has been applied. */
+    public void flush() {
+        long target = submitted.get();
+        while (completed.get() < target) LockSupport.parkNanos(100_000);
+    }
+
+    /** Flushes, then stops the stage threads. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        flush();
+        fleet.removeObserver(removals);
+        TelemetryBatch end = take(free);
+        end.last = true;
+        put(decodeQueue, end);
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // ---------- Metrics ----------
+
+    /** read, decode, validate, resolve, apply; live counters. */
+    public List<StageMetrics> getStageMetrics() {
+        return metrics;
+    }
+
+    /** Records applied to vehicles so far. */
+    public long getApplied() {
+        return metrics.get(metrics.size() - 1).getRecordsOut();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /** Batches a stage threw on; their records are dropped. */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    // ---------- Parsing ----------
+
+    private static int indexOf(byte[] buf, int from, int to, byte c) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == c) return i;
+        }
+        return -1;
+    }
+
+    /** Decimal long, or Long.MIN_VALUE if malformed. */
+    private static long parseLong(byte[] buf, int from, int to) {
+        if (from >= to || to - from > 18) return Long.MIN_VALUE;
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) return Long.MIN_VALUE;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    /**
+     * Plain decimals (-12.345) parsed directly; anything else goes through
+     * Double.parseDouble. NaN if malformed.
+     */
+    private static double parseDouble(byte[] buf, int from, int to) {
+        int i = from;
+        boolean negative = i < to && buf[i] == '-';
+        if (negative) i++;
+        long mantissa = 0;
+        int digits = 0, fraction = -1;
+        for (; i < to; i++) {
+            byte c = buf[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction >= 0) fraction++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == to && digits > 0 && digits <= 15 && fraction < POW10.length) {
+            // mantissa and 10^fraction are exact doubles, so one division rounds correctly
+            double v = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+            return negative ? -v : v;
+        }
+        try {
+            return Double.parseDouble(new String(buf, from, to - from, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
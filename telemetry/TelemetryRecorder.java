@@ -0,0 +1,57 @@
+package telemetry;
+
+import vehicles.Vehicle;
+import vehicles.VehicleChange;
+import vehicles.interfaces.CargoCarrier;
+import vehicles.interfaces.FuelConsumable;
+import vehicles.interfaces.PassengerCarrier;
+import vehicles.interfaces.VehicleObserver;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records a telemetry sample of a vehicle's state whenever it changes.
+ * Register it with FleetManager.addObserver() to capture journeys, refuels,
+ * loading and simulator steps.
+ *
+ * Samples are stamped with the wall clock. Store errors cannot propagate out
+ * of a vehicle hook, so they are counted and the first one is reported.
+ */
+public class TelemetryRecorder implements VehicleObserver {
+
+    private final TelemetryStore store;
+    private final AtomicLong failures = new AtomicLong();
+
+    public TelemetryRecorder(TelemetryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void onChange(Vehicle v, VehicleChange change, double amount) {
+        switch (change) {
+            case REMOVED, RESET, MAINTENANCE_DUE, MAINTENANCE_DONE -> { return; }
+            default -> { }
+        }
+        record(v, System.currentTimeMillis());
+    }
+
+    /** Appends one sample of v's current state. */
+    public void record(Vehicle v, long timestamp) {
+        double fuel = v instanceof FuelConsumable f ? f.getFuelLevel() : 0.0;
+        double cargo = v instanceof CargoCarrier c ? c.getCurrentCargo() : 0.0;
+        double passengers = v instanceof PassengerCarrier p ? p.getCurrentPassengers() : 0.0;
+        try {
+            store.append(v.getId(), timestamp, v.getCurrentMileage(), fuel, cargo, passengers);
+        } catch (IOException e) {
+            if (failures.getAndIncrement() == 0) {
+                System.err.println("Telemetry recording failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Samples that could not be stored. */
+    public long getFailures() {
+        return failures.get();
+    }
+}
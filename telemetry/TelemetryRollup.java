@@ -0,0 +1,54 @@
+package telemetry;
+
+/** Downsampled statistics of one vehicle over one time bucket. */
+public class TelemetryRollup {
+
+    private final long bucketStart;
+    private final BlockSummary stats = new BlockSummary();
+
+    TelemetryRollup(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    void add(long ts, double[] values) {
+        stats.add(ts, values);
+    }
+
+    /** Folds in a whole block that lies after everything added so far. */
+    void add(BlockSummary block) {
+        if (stats.count == 0) stats.minTs = block.minTs;
+        stats.maxTs = block.maxTs;
+        stats.count += block.count;
+        for (int f = 0; f < TelemetryField.COUNT; f++) {
+            stats.min[f] = Math.min(stats.min[f], block.min[f]);
+            stats.max[f] = Math.max(stats.max[f], block.max[f]);
+            stats.sum[f] += block.sum[f];
+            stats.last[f] = block.last[f];
+        }
+    }
+
+    /** Start of the bucket, epoch milliseconds. */
+    public long getBucketStart() { return bucketStart; }
+
+    public int getCount() { return stats.count; }
+
+    public long getFirstTimestamp() { return stats.minTs; }
+
+    public long getLastTimestamp() { return stats.maxTs; }
+
+    public double getMin(TelemetryField field) { return stats.min[field.ordinal()]; }
+
+    public double getMax(TelemetryField field) { return stats.max[field.ordinal()]; }
+
+    public double getMean(TelemetryField field) { return stats.sum[field.ordinal()] / stats.count; }
+
+    /** Value of the newest sample in the bucket. */
+    public double getLast(TelemetryField field) { return stats.last[field.ordinal()]; }
+
+    @Override
+    public String toString() {
+        return String.format("%d n=%d mileage=%.1f..%.1f fuel=%.1f..%.1f", bucketStart, stats.count,
+                getMin(TelemetryField.MILEAGE), getMax(TelemetryField.MILEAGE),
+                getMin(TelemetryField.FUEL), getMax(TelemetryField.FUEL));
+    }
+}
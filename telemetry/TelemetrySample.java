@@ -0,0 +1,32 @@
+package telemetry;
+
+/** One recorded vehicle state. */
+public class TelemetrySample {
+
+    private final long timestamp;
+    private final double[] values;
+
+    TelemetrySample(long timestamp, double[] values) {
+        this.timestamp = timestamp;
+        this.values = values.clone();
+    }
+
+    /** Epoch milliseconds. */
+    public long getTimestamp() { return timestamp; }
+
+    public double get(TelemetryField field) { return values[field.ordinal()]; }
+
+    public double getMileage() { return values[TelemetryField.MILEAGE.ordinal()]; }
+
+    public double getFuel() { return values[TelemetryField.FUEL.ordinal()]; }
+
+    public double getCargo() { return values[TelemetryField.CARGO.ordinal()]; }
+
+    public double getPassengers() { return values[TelemetryField.PASSENGERS.ordinal()]; }
+
+    @Override
+    public String toString() {
+        return timestamp + " mileage=" + getMileage() + " fuel=" + getFuel()
+                + " cargo=" + getCargo() + " passengers=" + getPassengers();
+    }
+}
@@ -0,0 +1,489 @@
+package telemetry;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded time-series store for per-vehicle telemetry (mileage, fuel, cargo,
+ * passengers over time).
+ *
+ * Each vehicle has an open in-memory block that samples are compressed into
+ * (see BlockEncoder). A full block is sealed and appended to the active
+ * segment file; segments are append-only and roll over at a size limit. An
+ * in-memory index keeps, per vehicle, the location and time range of every
+ * sealed block, so a range query only reads and decodes the blocks that
+ * overlap its window, however much history the store holds.
+ *
+ * Every block also carries min/max/sum/last per field in its header, which
+ * lets downsample() fold whole blocks into a bucket without decoding them.
+ *
+ * Segment record: [int length][int crc32][ushort idLength][id][summary]
+ * [int bitLength][payload longs]; length and crc cover everything after the
+ * crc. Opening a directory rebuilds the index from the segments and truncates
+ * a torn record at the end of the last one. Samples still in open blocks are
+ * only durable after flush() or close().
+ *
+ * Appends and queries are thread-safe. Per vehicle, timestamps are expected
+ * to be non-decreasing; an older timestamp is recorded as the latest one.
+ */
+public class TelemetryStore implements Closeable {
+
+    public static final int DEFAULT_BLOCK_SAMPLES = 1024;
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".tlm";
+    private static final int RECORD_PREFIX = 8;               // length + crc
+    private static final int MAX_RECORD = 64 << 20;
+
+    /** Sealed blocks and the open block of one vehicle. */
+    private static final class Series {
+        final String id;
+        final byte[] idBytes;
+        final double[] scratch = new double[TelemetryField.COUNT];
+        BlockEncoder head = new BlockEncoder();
+        long lastTs = Long.MIN_VALUE;
+
+        int blocks;
+        int[] segment = new int[4];
+        long[] offset = new long[4];
+        int[] length = new int[4];
+        long[] minTs = new long[4];
+        long[] maxTs = new long[4];
+
+        Series(String id) {
+            this.id = id;
+            this.idBytes = id.getBytes(StandardCharsets.UTF_8);
+            if (idBytes.length > 0xFFFF) throw new IllegalArgumentException("Vehicle ID too long");
+        }
+
+        void addBlock(int seg, long off, int len, long min, long max) {
+            if (blocks == segment.length) {
+                int cap = blocks * 2;
+                segment = Arrays.copyOf(segment, cap);
+                offset = Arrays.copyOf(offset, cap);
+                length = Arrays.copyOf(length, cap);
+                minTs = Arrays.copyOf(minTs, cap);
+                maxTs = Arrays.copyOf(maxTs, cap);
+            }
+            segment[blocks] = seg;
+            offset[blocks] = off;
+            length[blocks] = len;
+            minTs[blocks] = min;
+            maxTs[blocks] = max;
+            blocks++;
+            if (max > lastTs) lastTs = max;
+        }
+    }
+
+    /** What a query sees of a series: sealed blocks up to n, plus a copy of the open block. */
+    private static final class View {
+        int n;
+        int[] segment;
+        long[] offset;
+        int[] length;
+        long[] minTs;
+        long[] maxTs;
+        long[] headWords;
+        int headCount;
+    }
+
+    private static final class Segment {
+        final int number;
+        final FileChannel channel;
+        long size;
+
+        Segment(int number, FileChannel channel, long size) {
+            this.number = number;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private final Path dir;
+    private final int blockSamples;
+    private final long segmentBytes;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private Segment active;
+    private volatile boolean closed;
+
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong sealedBlocks = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    public TelemetryStore(Path dir) throws IOException {
+        this(dir, DEFAULT_BLOCK_SAMPLES, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /** Opens (creating if needed) the store in dir and indexes its existing segments. */
+    public TelemetryStore(Path dir, int blockSamples, long segmentBytes) throws IOException {
+        if (blockSamples < 2) throw new IllegalArgumentException("Blocks need at least 2 samples");
+        this.dir = dir;
+        this.blockSamples = blockSamples;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    // ---------- Writing ----------
+
+    public void append(String vehicleId, long timestamp, double mileage, double fuel, double cargo,
+                       double passengers) throws IOException {
+        Series s = series.computeIfAbsent(vehicleId, Series::new);
+        synchronized (s) {
+            double[] v = s.scratch;
+            v[TelemetryField.MILEAGE.ordinal()] = mileage;
+            v[TelemetryField.FUEL.ordinal()] = fuel;
+            v[TelemetryField.CARGO.ordinal()] = cargo;
+            v[TelemetryField.PASSENGERS.ordinal()] = passengers;
+            appendLocked(s, timestamp, v);
+        }
+    }
+
+    /** @param values indexed by TelemetryField.ordinal() */
+    public void append(String vehicleId, long timestamp, double[] values) throws IOException {
+        if (values.length != TelemetryField.COUNT) {
+            throw new IllegalArgumentException("Expected " + TelemetryField.COUNT + " values");
+        }
+        Series s = series.computeIfAbsent(vehicleId, Series::new);
+        synchronized (s) {
+            appendLocked(s, timestamp, values);
+        }
+    }
+
+    private void appendLocked(Series s, long timestamp, double[] values) throws IOException {
+        if (closed) throw new IOException("Telemetry store is closed");
+        long ts = Math.max(timestamp, s.lastTs);
+        s.head.append(ts, values);
+        s.lastTs = ts;
+        samples.incrementAndGet();
+        if (s.head.count() >= blockSamples) seal(s);
+    }
+
+    /** Writes the open block of s to the active segment and starts a new one. */
+    private void seal(Series s) throws IOException {
+        BlockEncoder block = s.head;
+        BlockSummary summary = block.summary();
+        int words = block.wordCount();
+        int body = 2 + s.idBytes.length + BlockSummary.BYTES + 4 + words * 8;
+
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_PREFIX + body);
+        buf.position(RECORD_PREFIX);
+        buf.putShort((short) s.idBytes.length).put(s.idBytes);
+        summary.write(buf);
+        buf.putInt(block.bitLength());
+        buf.asLongBuffer().put(block.words(), 0, words);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), RECORD_PREFIX, body);
+        buf.putInt(0, body).putInt(4, (int) crc.getValue());
+        buf.position(0).limit(RECORD_PREFIX + body);
+
+        int segment;
+        long offset;
+        synchronized (writeLock) {
+            if (active == null || (active.size > 0 && active.size + buf.remaining() > segmentBytes)) {
+                active = createSegment(active == null ? 0 : active.number + 1);
+            }
+            segment = active.number;
+            offset = active.size;
+            long pos = offset;
+            while (buf.hasRemaining()) pos += active.channel.write(buf, pos);
+            active.size = pos;
+        }
+        s.addBlock(segment, offset, RECORD_PREFIX + body, summary.minTs, summary.maxTs);
+        s.head = new BlockEncoder();
+        sealedBlocks.incrementAndGet();
+        storedBytes.addAndGet(RECORD_PREFIX + body);
+    }
+
+    /** Seals every open block and forces the active segment to disk. */
+    public void flush() throws IOException {
+        for (Series s : series.values()) {
+            synchronized (s) {
+                if (s.head.count() > 0) seal(s);
+            }
+        }
+        synchronized (writeLock) {
+            if (active != null) active.channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        flush();
+        closed = true;
+        synchronized (writeLock) {
+            for (Segment seg : segments.values()) seg.channel.close();
+        }
+    }
+
+    // ---------- Queries ----------
+
+    /**
+     * Visits the samples of one vehicle with from <= timestamp <= to, oldest
+     * first.
+     *
+     * @return samples visited
+     */
+    public long query(String vehicleId, long from, long to, SampleVisitor visitor) throws IOException {
+        View view = view(vehicleId);
+        if (view == null) return 0;
+        long visited = 0;
+        for (int i = firstBlock(view, from); i < view.n && view.minTs[i] <= to; i++) {
+            BlockDecoder d = readBlock(view.segment[i], view.offset[i], view.length[i]);
+            visited += visitRange(d, from, to, visitor);
+        }
+        if (view.headCount > 0) visited += visitRange(new BlockDecoder(view.headWords, view.headCount), from, to, visitor);
+        return visited;
+    }
+
+    public List<TelemetrySample> query(String vehicleId, long from, long to) throws IOException {
+        List<TelemetrySample> out = new ArrayList<>();
+        query(vehicleId, from, to, (ts, values) -> out.add(new TelemetrySample(ts, values)));
+        return out;
+    }
+
+    /**
+     * Downsamples one vehicle's samples in [from, to] into buckets of
+     * bucketMillis (aligned to the epoch). Sealed blocks that fall entirely
+     * inside the window and one bucket are folded in from their header
+     * without being decoded, so coarse rollups over long ranges stay cheap.
+     */
+    public List<TelemetryRollup> downsample(String vehicleId, long from, long to, long bucketMillis) throws IOException {
+        if (bucketMillis <= 0) throw new IllegalArgumentException("Bucket must be positive");
+        List<TelemetryRollup> out = new ArrayList<>();
+        View view = view(vehicleId);
+        if (view == null) return out;
+
+        SampleVisitor addSample = (ts, values) -> rollupFor(out, ts, bucketMillis).add(ts, values);
+        for (int i = firstBlock(view, from); i < view.n && view.minTs[i] <= to; i++) {
+            long minTs = view.minTs[i];
+            long maxTs = view.maxTs[i];
+            if (minTs >= from && maxTs <= to
+                    && Math.floorDiv(minTs, bucketMillis) == Math.floorDiv(maxTs, bucketMillis)) {
+                rollupFor(out, minTs, bucketMillis).add(readSummary(view.segment[i], view.offset[i], vehicleId));
+            } else {
+                visitRange(readBlock(view.segment[i], view.offset[i], view.length[i]), from, to, addSample);
+            }
+        }
+        if (view.headCount > 0) {
+            visitRange(new BlockDecoder(view.headWords, view.headCount), from, to, addSample);
+        }
+        return out;
+    }
+
+    private static TelemetryRollup rollupFor(List<TelemetryRollup> out, long ts, long bucketMillis) {
+        long start = Math.floorDiv(ts, bucketMillis) * bucketMillis;
+        TelemetryRollup last = out.isEmpty() ? null : out.get(out.size() - 1);
+        if (last == null || last.getBucketStart() != start) {
+            last = new TelemetryRollup(start);
+            out.add(last);
+        }
+        return last;
+    }
+
+    private View view(String vehicleId) {
+        Series s = series.get(vehicleId);
+        if (s == null) return null;
+        View v = new View();
+        synchronized (s) {
+            // sealed entries below n never change, so the arrays can be read after unlocking
+            v.n = s.blocks;
+            v.segment = s.segment;
+            v.offset = s.offset;
+            v.length = s.length;
+            v.minTs = s.minTs;
+            v.maxTs = s.maxTs;
+            v.headCount = s.head.count();
+            v.headWords = Arrays.copyOf(s.head.words(), s.head.wordCount());
+        }
+        return v;
+    }
+
+    /** First sealed block whose time range ends at or after from (blocks are in time order). */
+    private static int firstBlock(View v, long from) {
+        int lo = 0;
+        int hi = v.n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (v.maxTs[mid] < from) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static long visitRange(BlockDecoder d, long from, long to, SampleVisitor visitor) {
+        long visited = 0;
+        while (d.next()) {
+            long ts = d.timestamp();
+            if (ts < from) continue;
+            if (ts > to) break;
+            visitor.visit(ts, d.values());
+            visited++;
+        }
+        return visited;
+    }
+
+    private BlockDecoder readBlock(int segment, long offset, int length) throws IOException {
+        ByteBuffer buf = read(segment, offset, length);
+        buf.position(RECORD_PREFIX);
+        int idLength = Short.toUnsignedInt(buf.getShort());
+        buf.position(buf.position() + idLength);
+        BlockSummary summary = BlockSummary.read(buf);
+        int bitLength = buf.getInt();
+        long[] words = new long[(bitLength + 63) >>> 6];
+        buf.asLongBuffer().get(words);
+        return new BlockDecoder(words, summary.count);
+    }
+
+    private BlockSummary readSummary(int segment, long offset, String vehicleId) throws IOException {
+        int idLength = vehicleId.getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer buf = read(segment, offset, RECORD_PREFIX + 2 + idLength + BlockSummary.BYTES);
+        buf.position(RECORD_PREFIX + 2 + idLength);
+        return BlockSummary.read(buf);
+    }
+
+    private ByteBuffer read(int segment, long offset, int length) throws IOException {
+        Segment seg = segments.get(segment);
+        if (seg == null) throw new IOException("Missing telemetry segment " + segment);
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        long pos = offset;
+        while (buf.hasRemaining()) {
+            int n = seg.channel.read(buf, pos);
+            if (n < 0) throw new EOFException("Telemetry segment " + segment + " ends early");
+            pos += n;
+        }
+        return buf.flip();
+    }
+
+    // ---------- Stats ----------
+
+    /** Samples appended since open plus samples found in existing segments. */
+    public long getSampleCount() {
+        return samples.get();
+    }
+
+    public int getVehicleCount() {
+        return series.size();
+    }
+
+    public long getBlockCount() {
+        return sealedBlocks.get();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /** Bytes in segment files, headers included. */
+    public long getStoredBytes() {
+        return storedBytes.get();
+    }
+
+    // ---------- Segments and recovery ----------
+
+    private Segment createSegment(int number) throws IOException {
+        Path path = dir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Segment seg = new Segment(number, channel, channel.size());
+        segments.put(number, seg);
+        return seg;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            String name = files.get(i).getFileName().toString();
+            int number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment seg = createSegment(number);
+            // only the last segment can end in a torn write; older ones are trusted and
+            // just have their block headers read, so opening costs O(blocks), not O(bytes)
+            long valid = scan(seg, files.get(i), i == files.size() - 1);
+            if (valid < seg.size) {
+                System.err.println("Telemetry segment " + name + ": discarding " + (seg.size - valid)
+                        + " bytes after the last valid block");
+                if (i == files.size() - 1) {
+                    seg.channel.truncate(valid);
+                    seg.size = valid;
+                }
+            }
+            storedBytes.addAndGet(valid);
+            active = seg;
+        }
+    }
+
+    /**
+     * Indexes the blocks of one segment; returns the length of its valid
+     * prefix. With verify, every block's checksum is checked.
+     */
+    private long scan(Segment seg, Path path, boolean verify) throws IOException {
+        long pos = 0;
+        CRC32 crc = new CRC32();
+        byte[] header = new byte[2 + 0xFFFF + BlockSummary.BYTES];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (pos + RECORD_PREFIX <= seg.size) {
+                int body = in.readInt();
+                int checksum = in.readInt();
+                if (body < 2 || body > MAX_RECORD || pos + RECORD_PREFIX + body > seg.size) break;
+                byte[] bytes;
+                if (verify) {
+                    bytes = in.readNBytes(body);
+                    if (bytes.length < body) break;
+                    crc.reset();
+                    crc.update(bytes);
+                    if ((int) crc.getValue() != checksum) break;
+                } else {
+                    bytes = header;
+                    in.readFully(bytes, 0, 2);
+                    int headerLength = 2 + ((bytes[0] & 0xFF) << 8 | (bytes[1] & 0xFF)) + BlockSummary.BYTES;
+                    if (headerLength > body) break;
+                    in.readFully(bytes, 2, headerLength - 2);
+                    in.skipNBytes(body - headerLength);
+                }
+
+                ByteBuffer buf = ByteBuffer.wrap(bytes);
+                int idLength = Short.toUnsignedInt(buf.getShort());
+                String id = new String(bytes, 2, idLength, StandardCharsets.UTF_8);
+                buf.position(2 + idLength);
+                BlockSummary summary = BlockSummary.read(buf);
+
+                Series s = series.computeIfAbsent(id, Series::new);
+                s.addBlock(seg.number, pos, RECORD_PREFIX + body, summary.minTs, summary.maxTs);
+                samples.addAndGet(summary.count);
+                sealedBlocks.incrementAndGet();
+                pos += RECORD_PREFIX + body;
+            }
+        } catch (EOFException e) {
+            // torn record at the end; pos marks the last complete one
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,114 @@
+package telemetry;
+
+import loadtest.LoadDriver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Queries a telemetry directory, or fills it with synthetic samples and
+ * measures ingest rate, compression and range query latency.
+ *
+ * Usage: java -cp out telemetry.TelemetryTool --dir telemetry --id C1
+ *            [--from ms] [--to ms] [--bucket ms]
+ *        java -cp out telemetry.TelemetryTool --dir /tmp/tlm --bench 10000000
+ *            [--vehicles 1000] [--queries 1000] [--seed 1]
+ */
+public class TelemetryTool {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long SAMPLE_INTERVAL = 1_000L;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        Path dir = Paths.get(opts.getOrDefault("dir", "telemetry"));
+        try (TelemetryStore store = new TelemetryStore(dir)) {
+            if (opts.containsKey("bench")) {
+                bench(store, Long.parseLong(opts.get("bench")),
+                        Integer.parseInt(opts.getOrDefault("vehicles", "1000")),
+                        Integer.parseInt(opts.getOrDefault("queries", "1000")),
+                        Long.parseLong(opts.getOrDefault("seed", "1")));
+            } else if (opts.containsKey("id")) {
+                print(store, opts);
+            } else {
+                System.out.printf("%d vehicles, %d samples in %d blocks, %d segments, %d bytes%n",
+                        store.getVehicleCount(), store.getSampleCount(), store.getBlockCount(),
+                        store.getSegmentCount(), store.getStoredBytes());
+            }
+        }
+    }
+
+    private static void print(TelemetryStore store, Map<String, String> opts) throws IOException {
+        String id = opts.get("id");
+        long from = Long.parseLong(opts.getOrDefault("from", Long.toString(Long.MIN_VALUE)));
+        long to = Long.parseLong(opts.getOrDefault("to", Long.toString(Long.MAX_VALUE)));
+        if (opts.containsKey("bucket")) {
+            for (TelemetryRollup r : store.downsample(id, from, to, Long.parseLong(opts.get("bucket")))) {
+                System.out.println(r);
+            }
+        } else {
+            store.query(id, from, to, (ts, v) -> System.out.printf("%d mileage=%.1f fuel=%.1f cargo=%.1f passengers=%.0f%n",
+                    ts, v[0], v[1], v[2], v[3]));
+        }
+    }
+
+    /** Vehicles report once a second with a little jitter, driving, burning fuel and refuelling. */
+    private static void bench(TelemetryStore store, long total, int vehicles, int queries, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] mileage = new double[vehicles];
+        double[] fuel = new double[vehicles];
+        double[] cargo = new double[vehicles];
+        int[] passengers = new int[vehicles];
+        for (int v = 0; v < vehicles; v++) {
+            fuel[v] = 200;
+            cargo[v] = random.nextInt(20) * 100;
+        }
+        String[] ids = new String[vehicles];
+        for (int v = 0; v < vehicles; v++) ids[v] = "V" + v;
+        double[] values = new double[TelemetryField.COUNT];
+        long start = 1_700_000_000_000L;
+        long rounds = total / vehicles;
+
+        long t0 = System.nanoTime();
+        for (long r = 0; r < rounds; r++) {
+            long now = start + r * SAMPLE_INTERVAL;
+            for (int v = 0; v < vehicles; v++) {
+                double km = random.nextInt(30) / 1000.0;          // up to ~100 km/h
+                mileage[v] += km;
+                fuel[v] -= km / 8;
+                if (fuel[v] < 20) fuel[v] = 200;
+                if (random.nextInt(600) == 0) passengers[v] = random.nextInt(50);
+                values[0] = mileage[v];
+                values[1] = fuel[v];
+                values[2] = cargo[v];
+                values[3] = passengers[v];
+                store.append(ids[v], now + random.nextInt(20), values);
+            }
+        }
+        store.flush();
+        double secs = (System.nanoTime() - t0) / 1e9;
+        long written = rounds * vehicles;
+        System.out.printf("Ingested %d samples in %.2f s (%.0f samples/s)%n", written, secs, written / secs);
+        System.out.printf("Stored %d bytes in %d blocks: %.2f bytes/sample (raw 40)%n",
+                store.getStoredBytes(), store.getBlockCount(), store.getStoredBytes() / (double) store.getSampleCount());
+
+        long end = start + rounds * SAMPLE_INTERVAL;
+        long matched = 0;
+        t0 = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            long from = start + (long) (random.nextDouble() * Math.max(1, end - start - HOUR));
+            matched += store.query("V" + random.nextInt(vehicles), from, from + HOUR, (ts, v) -> { });
+        }
+        double micros = (System.nanoTime() - t0) / 1e3 / queries;
+        System.out.printf("%d one-hour range queries: %.1f us each, %.0f samples each%n",
+                queries, micros, matched / (double) queries);
+
+        t0 = System.nanoTime();
+        int buckets = store.downsample("V0", start, end, HOUR).size();
+        System.out.printf("Hourly downsample of V0 over %.1f h: %d buckets in %.2f ms%n",
+                (end - start) / (double) HOUR, buckets, (System.nanoTime() - t0) / 1e6);
+    }
+}
@@ -1,26 +1,50 @@
 package ui;
 
 import logistics.FleetManager;
+import metrics.AggregateReconciler;
+import telemetry.TelemetryRecorder;
+import telemetry.TelemetryStore;
 import vehicles.Vehicle;
 import vehicles.interfaces.FuelConsumable;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 
 public class FleetHighwaySimulator extends JFrame {
 
+    // Simulated time runs at this many hours per real second.
+    private static final double SIM_HOURS_PER_SECOND = 0.1;
+    // Step period while someone watches (GUI visible or a fleet observer such
+    // as telemetry), and the batched period while nobody does.
+    private static final long FINE_STEP_MS = 80L;
+    private static final long BATCH_STEP_MS = 1000L;
+    private static final long CHECKPOINT_SECONDS = 5;
+
     // --- Model / controller ---
     private final FleetManager fleetManager = new FleetManager();
+    // running totals are checked against a full scan now and then
+    private final AggregateReconciler reconciler =
+            new AggregateReconciler(fleetManager::reconcileAggregates, 1e-6, 5, TimeUnit.SECONDS);
     private final Map<String, VehicleStatusPanel> panelById = new HashMap<>();
 
     private final HighwayState highwayState = new HighwayState();
 
     private final Map<String, Thread> workers = new HashMap<>();
 
+    // null unless started with a checkpoint directory
+    private final SimulationCheckpointer checkpointer;
+    // checkpoint loaded at startup, continued by the next Start
+    private SimulationCheckpoint resumable;
+
     private final JButton startButton   = new JButton("Start");
     private final JButton pauseButton   = new JButton("Pause");
     private final JButton resumeButton  = new JButton("Resume");
@@ -33,7 +57,17 @@ public class FleetHighwaySimulator extends JFrame {
     private final JPanel vehicleListPanel = new JPanel();
 
     public FleetHighwaySimulator() {
+        this(null, null);
+    }
+
+    /**
+     * @param telemetry     store that records every simulator step, or null
+     * @param checkpointDir directory for checkpoints and the step log, or
+     *                      null; a checkpoint found there is resumed by Start
+     */
+    public FleetHighwaySimulator(TelemetryStore telemetry, Path checkpointDir) {
         super("Fleet Highway Simulator");
+        if (telemetry != null) fleetManager.addObserver(new TelemetryRecorder(telemetry));
 
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         setSize(900, 600);
@@ -44,6 +78,7 @@ public class FleetHighwaySimulator extends JFrame {
         } catch (Exception ex) {
             System.err.println("Could not load sample_fleet.csv: " + ex.getMessage());
         }
+        checkpointer = openCheckpoints(checkpointDir);
 
         buildUi();
         refreshAllVehiclePanels("Idle");
@@ -102,6 +137,32 @@ public class FleetHighwaySimulator extends JFrame {
         resumeButton.addActionListener(e -> onResume());
         stopButton.addActionListener(e -> onStopAndReset());
         lockCheck.addActionListener(e -> highwayState.useLock = lockCheck.isSelected());
+
+        // nobody sees the panels while iconified: workers batch their steps
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowIconified(WindowEvent e) {
+                highwayState.watched = false;
+            }
+
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (checkpointer != null && highwayState.running) {
+                    try {
+                        checkpointer.checkpoint();
+                    } catch (IOException ex) {
+                        System.err.println("Could not checkpoint on exit: " + ex.getMessage());
+                    }
+                }
+            }
+
+            @Override
+            public void windowDeiconified(WindowEvent e) {
+                highwayState.watched = true;
+                refreshAllVehiclePanels(highwayState.paused ? "Paused" : highwayState.running ? "Running" : "Idle");
+                updateSummary();
+            }
+        });
     }
 
     private void populateVehiclePanels() {
@@ -134,12 +195,28 @@ public class FleetHighwaySimulator extends JFrame {
 
         lockCheck.setEnabled(true); // allow choice before race
 
-        for (Vehicle v : fleetManager.getAllVehicles()) {
-            v.setCurrentMileage(0.0);
-            if (v instanceof FuelConsumable fc) {
+        if (resumable == null) {
+            highwayState.ticks.set(0);
+            for (Vehicle v : fleetManager.getAllVehicles()) {
+                v.setCurrentMileage(0.0);
+                if (v instanceof FuelConsumable fc) {
 
+                }
+            }
+        } else {
+            // continue the checkpointed run
+            highwayState.highwayDistance = resumable.getHighwayDistance();
+        }
+        if (checkpointer != null) {
+            try {
+                if (resumable == null) checkpointer.beginRun();
+                else checkpointer.resumeRun(resumable);
+                checkpointer.startPeriodic(CHECKPOINT_SECONDS, TimeUnit.SECONDS);
+            } catch (IOException ex) {
+                System.err.println("Checkpoints disabled for this run: " + ex.getMessage());
             }
         }
+        resumable = null;
         refreshAllVehiclePanels("Running");
         updateSummary();
 
@@ -186,7 +263,22 @@ public class FleetHighwaySimulator extends JFrame {
         for (Thread t : workers.values()) {
             t.interrupt();
         }
+        if (checkpointer != null) {
+            // keep the stopped run: the next launch resumes it. Waited for, so
+            // it (and any periodic one already queued) is written before the
+            // reset below, which would otherwise be what it captures.
+            joinWorkers();
+            checkpointer.stopPeriodic();
+            try {
+                checkpointer.checkpointAsync().get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                System.err.println("Could not checkpoint on stop: " + ex.getCause());
+            }
+        }
         workers.clear();
+        resumable = null;
 
         // reset metrics & vehicles
         highwayState.highwayDistance = 0.0;
@@ -202,6 +294,33 @@ public class FleetHighwaySimulator extends JFrame {
         stopButton.setEnabled(false);
     }
 
+    private SimulationCheckpointer openCheckpoints(Path dir) {
+        if (dir == null) return null;
+        try {
+            SimulationCheckpointer c = new SimulationCheckpointer(dir, fleetManager, highwayState);
+            SimulationCheckpoint cp = c.latest();
+            if (cp != null) {
+                fleetManager.loadSnapshots(cp.getVehicles());
+                highwayState.highwayDistance = cp.getHighwayDistance();
+                highwayState.ticks.set(cp.getTicks());
+                resumable = cp;
+                System.out.println("Resuming from checkpoint at tick " + cp.getTicks() + " in " + dir);
+            }
+            return c;
+        } catch (IOException ex) {
+            System.err.println("Checkpoints disabled: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private void joinWorkers() {
+        try {
+            for (Thread t : workers.values()) t.join(1000);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void refreshAllVehiclePanels(String status) {
         for (VehicleStatusPanel panel : panelById.values()) {
             panel.refreshFromVehicle(status);
@@ -209,73 +328,72 @@ public class FleetHighwaySimulator extends JFrame {
     }
 
     private void updateSummary() {
-        double sum = 0.0;
-        for (Vehicle v : fleetManager.getAllVehicles()) {
-            sum += v.getCurrentMileage();
-        }
+        double sum = fleetManager.getAggregates().getTotalMileage();
 
         highwayLabel.setText(String.format("Highway distance: %.1f km", highwayState.highwayDistance));
         sumLabel.setText(String.format("Sum of individual mileages: %.1f km", sum));
     }
 
-    private static class HighwayState {
-        volatile boolean running = false;
-        volatile boolean paused  = false;
-        volatile boolean stopped = false;
-
-        volatile boolean useLock = false;
-
-        double highwayDistance = 0.0;
-        final ReentrantLock lock = new ReentrantLock();
-
-        void addDistance(double delta) {
-            if (useLock) {
-                lock.lock();
-                try {
-                    highwayDistance += delta;
-                } finally {
-                    lock.unlock();
-                }
-            } else {
-                highwayDistance += delta;
-            }
-        }
-    }
-
+    /**
+     * Advances one vehicle in simulated time: each step covers the distance
+     * the vehicle's estimateJourneyTime model gives for the real time that
+     * passed, so an Airplane outruns a CargoShip. While someone is watching
+     * it steps every FINE_STEP_MS and refreshes its panel; otherwise it
+     * sleeps BATCH_STEP_MS and covers the whole interval in one move() call.
+     * With checkpoints on, every step is logged and staged for the next
+     * checkpoint.
+     */
     private class VehicleWorker implements Runnable {
 
         private final Vehicle vehicle;
-        private final double stepKm = 1.0;     // step size per update
-        private final long sleepMs = 80L;      // simulation speed
+        private final double kmPerHour;
 
         VehicleWorker(Vehicle vehicle) {
             this.vehicle = vehicle;
+            double hoursPerKm = vehicle.estimateJourneyTime(1.0);
+            this.kmPerHour = hoursPerKm > 0 && Double.isFinite(hoursPerKm) ? 1.0 / hoursPerKm : 0.0;
         }
 
         @Override
         public void run() {
             try {
+                long step = checkpointer == null ? 0 : checkpointer.stepOf(vehicle.getId());
+                long last = System.nanoTime();
                 while (!Thread.currentThread().isInterrupted()
                         && highwayState.running
                         && !highwayState.stopped) {
 
                     if (highwayState.paused) {
-                        Thread.sleep(80);
+                        Thread.sleep(FINE_STEP_MS);
+                        last = System.nanoTime();   // paused time does not count
                         continue;
                     }
 
+                    boolean watched = highwayState.watched || fleetManager.hasObservers();
+                    Thread.sleep(watched ? FINE_STEP_MS : BATCH_STEP_MS);
+
+                    long now = System.nanoTime();
+                    double dtHours = (now - last) / 1e9 * SIM_HOURS_PER_SECOND;
+                    last = now;
+                    double stepKm = kmPerHour * dtHours;
+                    if (stepKm <= 0 || highwayState.paused || highwayState.stopped) continue;
+
                     try {
                         vehicle.move(stepKm);
                         highwayState.addDistance(stepKm);
-
-                        // reflect changes in GUI
-                        SwingUtilities.invokeLater(() -> {
-                            VehicleStatusPanel panel = panelById.get(vehicle.getId());
-                            if (panel != null) {
-                                panel.refreshFromVehicle("Running");
-                            }
-                            updateSummary();
-                        });
+                        highwayState.ticks.incrementAndGet();
+                        if (checkpointer != null) checkpointer.recordStep(vehicle, ++step, stepKm);
+
+                        // reflect changes in GUI; a deiconify refreshes everything
+                        if (highwayState.watched) {
+                            SwingUtilities.invokeLater(() -> {
+                                VehicleStatusPanel panel = panelById.get(vehicle.getId());
+                                if (panel != null) {
+                                    panel.refreshFromVehicle("Running");
+                                }
+                                updateSummary();
+                            });
+                        }
                     } catch (Exception ex) {
                         ex.printStackTrace();
                         SwingUtilities.invokeLater(() -> {
@@ -286,8 +404,6 @@ public class FleetHighwaySimulator extends JFrame {
                         });
                         break; // stop this worker on error
                     }
-
-                    Thread.sleep(sleepMs);
                 }
             } catch (InterruptedException ie) {
                 // exiting thread
@@ -1,12 +1,36 @@
 package ui;
 
+import loadtest.LoadDriver;
+import telemetry.TelemetryStore;
+
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
 
+/** Usage: java -cp out ui.HighwaySimulatorLauncher [--telemetry DIR] [--checkpoints DIR] */
 public class HighwaySimulatorLauncher {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        TelemetryStore telemetry = null;
+        if (opts.containsKey("telemetry")) {
+            TelemetryStore store = new TelemetryStore(Paths.get(opts.get("telemetry")));
+            // the window exits the JVM on close; seal the open blocks on the way out
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close telemetry: " + e.getMessage());
+                }
+            }));
+            telemetry = store;
+        }
+        TelemetryStore recording = telemetry;
+        Path checkpoints = opts.containsKey("checkpoints") ? Paths.get(opts.get("checkpoints")) : null;
         SwingUtilities.invokeLater(() -> {
-            FleetHighwaySimulator sim = new FleetHighwaySimulator();
+            FleetHighwaySimulator sim = new FleetHighwaySimulator(recording, checkpoints);
             sim.setVisible(true);
         });
     }
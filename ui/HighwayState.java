@@ -0,0 +1,53 @@
+package ui;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared state of the highway simulation: run flags plus the total distance
+ * every VehicleWorker adds to. With useLock off the += is a deliberate data race
+ * (the A3 demo); with it on, updates are serialised through a ReentrantLock.
+ * watched is false while nobody can see the vehicle panels (window iconified).
+ * ticks counts the steps of all workers, for checkpoints.
+ */
+public class HighwayState {
+    volatile boolean running = false;
+    volatile boolean paused  = false;
+    volatile boolean stopped = false;
+
+    volatile boolean useLock = false;
+    volatile boolean watched = true;
+
+    double highwayDistance = 0.0;
+    final ReentrantLock lock = new ReentrantLock();
+    final AtomicLong ticks = new AtomicLong();
+
+    public void addDistance(double delta) {
+        if (useLock) {
+            lock.lock();
+            try {
+                highwayDistance += delta;
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            highwayDistance += delta;
+        }
+    }
+
+    public double getHighwayDistance() {
+        return highwayDistance;
+    }
+
+    public void setUseLock(boolean useLock) {
+        this.useLock = useLock;
+    }
+
+    public void resetDistance() {
+        highwayDistance = 0.0;
+    }
+
+    public long getTicks() {
+        return ticks.get();
+    }
+}
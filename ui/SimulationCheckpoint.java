@@ -0,0 +1,103 @@
+package ui;
+
+import logistics.VehicleSnapshot;
+import persistence.FleetSnapshotReader;
+import persistence.FleetSnapshotWriter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full state of a highway simulation at one point: every vehicle with the
+ * number of steps it had taken, the highway distance and the tick counter.
+ * Together with a SimulationLog it lets a run resume, or be replayed.
+ *
+ * Layout: magic "SIM1", a version short, ticks, highway distance, the
+ * vehicle count and (ID, step) per vehicle, then the vehicles themselves in
+ * the same order in FleetSnapshotWriter's format.
+ */
+public class SimulationCheckpoint {
+
+    static final int MAGIC = 0x53494D31; // "SIM1"
+    static final short VERSION = 1;
+
+    private final long ticks;
+    private final double highwayDistance;
+    private final Map<String, Long> steps;
+    private final List<VehicleSnapshot> vehicles;
+
+    /** @param steps step number per vehicle ID, in the order of vehicles */
+    public SimulationCheckpoint(long ticks, double highwayDistance,
+                                Map<String, Long> steps, List<VehicleSnapshot> vehicles) {
+        if (steps.size() != vehicles.size()) throw new IllegalArgumentException("One step per vehicle expected");
+        this.ticks = ticks;
+        this.highwayDistance = highwayDistance;
+        this.steps = Collections.unmodifiableMap(steps);
+        this.vehicles = Collections.unmodifiableList(vehicles);
+    }
+
+    public long getTicks() { return ticks; }
+
+    public double getHighwayDistance() { return highwayDistance; }
+
+    /** Steps each vehicle had taken when it was captured. */
+    public Map<String, Long> getSteps() { return steps; }
+
+    public List<VehicleSnapshot> getVehicles() { return vehicles; }
+
+    /** Writes to a temporary file first, so path always holds a complete checkpoint. */
+    public void write(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+            DataOutputStream out = new DataOutputStream(os);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(ticks);
+            out.writeDouble(highwayDistance);
+            out.writeInt(vehicles.size());
+            for (VehicleSnapshot v : vehicles) {
+                out.writeUTF(v.getId());
+                out.writeLong(steps.get(v.getId()));
+            }
+            out.flush();
+            FleetSnapshotWriter w = new FleetSnapshotWriter(os);
+            for (VehicleSnapshot v : vehicles) w.write(v);
+            w.finish();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static SimulationCheckpoint read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            int magic = in.readInt();
+            if (magic != MAGIC) {
+                throw new IOException("Not a simulation checkpoint (bad magic " + Integer.toHexString(magic) + ")");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            long ticks = in.readLong();
+            double distance = in.readDouble();
+            int count = in.readInt();
+            Map<String, Long> steps = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) steps.put(in.readUTF(), in.readLong());
+
+            List<VehicleSnapshot> vehicles = new ArrayList<>(count);
+            FleetSnapshotReader r = new FleetSnapshotReader(in);
+            VehicleSnapshot s;
+            while ((s = r.next()) != null) vehicles.add(s);
+            if (vehicles.size() != count) {
+                throw new IOException("Corrupt checkpoint: " + count + " vehicles listed, " + vehicles.size() + " stored");
+            }
+            return new SimulationCheckpoint(ticks, distance, steps, vehicles);
+        }
+    }
+}
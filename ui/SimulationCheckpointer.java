@@ -0,0 +1,187 @@
+package ui;
+
+import logistics.FleetManager;
+import logistics.VehicleSnapshot;
+import vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkpoints a running highway simulation in the background, without
+ * pausing the workers, and logs every step for replay.
+ *
+ * After each move a worker stages an immutable copy of its vehicle together
+ * with the vehicle's step number; a checkpoint is built from the staged
+ * copies only, so it never reads a vehicle mid-move and never takes a lock
+ * a worker waits on. Steps are logged before they are staged, and the log
+ * is flushed before a checkpoint is written, so the log always covers every
+ * step in the checkpoint.
+ *
+ * Files in the directory: base.sim (the state the run started from),
+ * checkpoint.sim (the latest checkpoint) and steps.log.
+ */
+public class SimulationCheckpointer implements AutoCloseable {
+
+    public static final String BASE_FILE = "base.sim";
+    public static final String CHECKPOINT_FILE = "checkpoint.sim";
+    public static final String LOG_FILE = "steps.log";
+
+    private static final class Staged {
+        final long step;
+        final VehicleSnapshot state;
+
+        Staged(long step, VehicleSnapshot state) {
+            this.step = step;
+            this.state = state;
+        }
+    }
+
+    private final Path dir;
+    private final FleetManager fleet;
+    private final HighwayState state;
+    private final Map<String, Staged> staged = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> periodic;
+    private volatile SimulationLog log;
+
+    private volatile long checkpoints;
+
+    public SimulationCheckpointer(Path dir, FleetManager fleet, HighwayState state) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.fleet = fleet;
+        this.state = state;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "simulation-checkpointer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** The latest checkpoint in the directory, or null if there is none. */
+    public SimulationCheckpoint latest() throws IOException {
+        Path p = dir.resolve(CHECKPOINT_FILE);
+        return Files.exists(p) ? SimulationCheckpoint.read(p) : null;
+    }
+
+    /**
+     * Starts a fresh run from the fleet as it is now: writes it as both the
+     * base and the latest checkpoint, and empties the log.
+     */
+    public synchronized void beginRun() throws IOException {
+        closeLog();
+        staged.clear();
+        for (Vehicle v : fleet.getAllVehicles()) stage(v.getId(), 0, VehicleSnapshot.capture(v));
+        SimulationCheckpoint base = capture();
+        base.write(dir.resolve(BASE_FILE));
+        base.write(dir.resolve(CHECKPOINT_FILE));
+        SimulationLog.reset(dir.resolve(LOG_FILE));
+        log = new SimulationLog(dir.resolve(LOG_FILE));
+    }
+
+    /**
+     * Continues the run cp was taken from; the caller has already loaded
+     * cp into the fleet and the highway state. Logged steps past cp are
+     * dropped, since the vehicles will take them again.
+     */
+    public synchronized void resumeRun(SimulationCheckpoint cp) throws IOException {
+        closeLog();
+        staged.clear();
+        for (VehicleSnapshot v : cp.getVehicles()) stage(v.getId(), cp.getSteps().get(v.getId()), v);
+        long dropped = SimulationLog.truncateAfter(dir.resolve(LOG_FILE), cp.getSteps());
+        if (dropped > 0) System.out.println("Dropped " + dropped + " logged steps past the checkpoint");
+        log = new SimulationLog(dir.resolve(LOG_FILE));
+    }
+
+    /** Steps vehicle id has taken in this run (0 for a vehicle new to it). */
+    public long stepOf(String id) {
+        Staged s = staged.get(id);
+        return s == null ? 0 : s.step;
+    }
+
+    /** Called by a worker after its vehicle moved km as step number step. */
+    public void recordStep(Vehicle v, long step, double km) throws IOException {
+        SimulationLog l = log;
+        if (l != null) l.append(v.getId(), step, km);
+        stage(v.getId(), step, VehicleSnapshot.capture(v));
+    }
+
+    private void stage(String id, long step, VehicleSnapshot state) {
+        staged.put(id, new Staged(step, state));
+    }
+
+    /** Checkpoints every period until stopPeriodic(). */
+    public synchronized void startPeriodic(long period, TimeUnit unit) {
+        stopPeriodic();
+        periodic = scheduler.scheduleWithFixedDelay(this::checkpointQuietly, period, period, unit);
+    }
+
+    public synchronized void stopPeriodic() {
+        if (periodic != null) periodic.cancel(false);
+        periodic = null;
+    }
+
+    /** Queues a checkpoint on the background thread. */
+    public Future<?> checkpointAsync() {
+        return scheduler.submit(this::checkpointQuietly);
+    }
+
+    /** Writes a checkpoint now, on the calling thread. */
+    public synchronized void checkpoint() throws IOException {
+        if (log == null) return;        // no run begun or resumed
+        log.flush();
+        capture().write(dir.resolve(CHECKPOINT_FILE));
+        checkpoints++;
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            // a failed checkpoint must not cancel the schedule
+            System.err.println("Simulation checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    private SimulationCheckpoint capture() {
+        Map<String, Long> steps = new LinkedHashMap<>();
+        List<VehicleSnapshot> vehicles = new ArrayList<>();
+        for (Vehicle v : fleet.getAllVehicles()) {
+            Staged s = staged.get(v.getId());
+            if (s == null) continue;
+            steps.put(v.getId(), s.step);
+            vehicles.add(s.state);
+        }
+        return new SimulationCheckpoint(state.getTicks(), state.getHighwayDistance(), steps, vehicles);
+    }
+
+    public long getCheckpoints() {
+        return checkpoints;
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    private void closeLog() throws IOException {
+        if (log != null) log.close();
+        log = null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        scheduler.shutdownNow();
+        closeLog();
+    }
+}
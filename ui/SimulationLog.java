@@ -0,0 +1,148 @@
+package ui;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Append-only log of every simulator step: vehicle ID, the vehicle's step
+ * number (1, 2, 3, ... per vehicle) and the km moved. Replaying the steps
+ * onto the state they started from reproduces the run, because a vehicle's
+ * move() depends only on its own state.
+ *
+ * Layout: magic "SLG1", a version short, then records until end of file. A
+ * record cut short by a crash is ignored on read.
+ */
+public class SimulationLog implements Closeable {
+
+    static final int MAGIC = 0x534C4731; // "SLG1"
+    static final short VERSION = 1;
+
+    /** Receives the records of read(). */
+    public interface StepVisitor {
+        void step(String vehicleId, long step, double km);
+    }
+
+    private final DataOutputStream out;
+    private long written;
+
+    /** Opens path for appending, creating it (with its header) if missing. */
+    public SimulationLog(Path path) throws IOException {
+        boolean fresh = !Files.exists(path) || Files.size(path) == 0;
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024));
+        if (fresh) writeHeader(out);
+    }
+
+    /** Called from every worker thread; records are written in call order. */
+    public synchronized void append(String vehicleId, long step, double km) throws IOException {
+        out.writeUTF(vehicleId);
+        out.writeLong(step);
+        out.writeDouble(km);
+        written++;
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    /** Records appended since this log was opened. */
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /** Creates an empty log at path, replacing any old one. */
+    public static void reset(Path path) throws IOException {
+        try (DataOutputStream o = new DataOutputStream(Files.newOutputStream(path))) {
+            writeHeader(o);
+        }
+    }
+
+    /**
+     * Calls visitor for every complete record in path, in order.
+     *
+     * @return number of records read
+     */
+    public static long read(Path path, StepVisitor visitor) throws IOException {
+        long n = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            readHeader(in);
+            while (true) {
+                String id;
+                long step;
+                double km;
+                try {
+                    id = in.readUTF();
+                    step = in.readLong();
+                    km = in.readDouble();
+                } catch (EOFException e) {
+                    break;      // end of log, or a record cut short by a crash
+                }
+                visitor.step(id, step, km);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Drops every step past the one recorded for its vehicle in keep (and
+     * every step of vehicles not in keep), so a run resumed from a
+     * checkpoint does not log the same step numbers twice.
+     *
+     * @return number of records dropped
+     */
+    public static long truncateAfter(Path path, Map<String, Long> keep) throws IOException {
+        if (!Files.exists(path)) {
+            reset(path);
+            return 0;
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long[] dropped = new long[1];
+        try (DataOutputStream o = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+            writeHeader(o);
+            read(path, (id, step, km) -> {
+                Long last = keep.get(id);
+                if (last == null || step > last) {
+                    dropped[0]++;
+                    return;
+                }
+                try {
+                    o.writeUTF(id);
+                    o.writeLong(step);
+                    o.writeDouble(km);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return dropped[0];
+    }
+
+    private static void writeHeader(DataOutputStream o) throws IOException {
+        o.writeInt(MAGIC);
+        o.writeShort(VERSION);
+    }
+
+    private static void readHeader(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not a simulation log (bad magic " + Integer.toHexString(magic) + ")");
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported simulation log version " + version);
+        }
+    }
+}
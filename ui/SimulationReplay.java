@@ -0,0 +1,117 @@
+package ui;
+
+import loadtest.LoadDriver;
+import logistics.FleetManager;
+import logistics.InvalidOperationException;
+import logistics.VehicleSnapshot;
+import vehicles.Vehicle;
+import vehicles.interfaces.FuelConsumable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fast-forwards a recorded highway simulation headless: loads the state the
+ * run started from (or its latest checkpoint) and applies the logged steps
+ * back to back, with no sleeps, threads or GUI.
+ *
+ * Replaying from the base also checks every vehicle against the latest
+ * checkpoint as it passes the step the checkpoint was taken at.
+ *
+ * Usage: java -cp out ui.SimulationReplay --dir checkpoints
+ *            [--from base|checkpoint] [--save final.bin]
+ */
+public class SimulationReplay {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private final FleetManager fleet = new FleetManager();
+    private final Map<String, Long> steps;
+    private final Map<String, Long> checkSteps = new HashMap<>();
+    private final Map<String, VehicleSnapshot> expected = new HashMap<>();
+
+    private double highwayDistance;
+    private long ticks;
+    private long applied, failed, matched, mismatched;
+
+    SimulationReplay(SimulationCheckpoint start, SimulationCheckpoint check) {
+        fleet.loadSnapshots(start.getVehicles());
+        steps = new HashMap<>(start.getSteps());
+        highwayDistance = start.getHighwayDistance();
+        ticks = start.getTicks();
+        if (check != null) {
+            checkSteps.putAll(check.getSteps());
+            for (VehicleSnapshot v : check.getVehicles()) expected.put(v.getId(), v);
+        }
+    }
+
+    void step(String id, long step, double km) {
+        Long at = steps.get(id);
+        Vehicle v = fleet.searchById(id);
+        if (at == null || v == null || step <= at) return;     // before the start state, or not in it
+        try {
+            v.move(km);
+        } catch (InvalidOperationException e) {
+            failed++;       // the live run logged it, so the replay has diverged
+        }
+        steps.put(id, step);
+        highwayDistance += km;
+        ticks++;
+        applied++;
+        Long checkAt = checkSteps.get(id);
+        if (checkAt != null && checkAt == step) check(v);
+    }
+
+    private void check(Vehicle v) {
+        VehicleSnapshot e = expected.get(v.getId());
+        double fuel = v instanceof FuelConsumable fc ? fc.getFuelLevel() : 0.0;
+        if (Math.abs(v.getCurrentMileage() - e.getMileage()) <= TOLERANCE && Math.abs(fuel - e.getFuel()) <= TOLERANCE) {
+            matched++;
+        } else {
+            mismatched++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opts = LoadDriver.parseArgs(args);
+        Path dir = Paths.get(opts.getOrDefault("dir", "checkpoints"));
+        boolean fromBase = !"checkpoint".equals(opts.getOrDefault("from", "base"));
+        Path checkpointFile = dir.resolve(SimulationCheckpointer.CHECKPOINT_FILE);
+
+        SimulationCheckpoint start = SimulationCheckpoint.read(
+                dir.resolve(fromBase ? SimulationCheckpointer.BASE_FILE : SimulationCheckpointer.CHECKPOINT_FILE));
+        SimulationCheckpoint check = fromBase && Files.exists(checkpointFile) ? SimulationCheckpoint.read(checkpointFile) : null;
+
+        PrintStream stdout = System.out;
+        // move() prints on every call; that is not what we are replaying for
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        SimulationReplay replay;
+        long records;
+        long t0 = System.nanoTime();
+        try {
+            replay = new SimulationReplay(start, check);
+            records = SimulationLog.read(dir.resolve(SimulationCheckpointer.LOG_FILE), replay::step);
+        } finally {
+            System.setOut(stdout);
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("Replayed %d of %d logged steps from %s in %.3f s (%.0f steps/s)%n",
+                replay.applied, records, fromBase ? "base" : "checkpoint", seconds, replay.applied / seconds);
+        System.out.printf("%d vehicles, tick %d, highway distance %.1f km, total mileage %.1f km%n",
+                replay.fleet.getAllVehicles().size(), replay.ticks, replay.highwayDistance,
+                replay.fleet.getAggregates().getTotalMileage());
+        if (replay.failed > 0) System.out.println(replay.failed + " steps failed to replay");
+        if (check != null) {
+            System.out.printf("Checkpoint at tick %d: %d vehicles matched, %d differed%n",
+                    check.getTicks(), replay.matched, replay.mismatched);
+        }
+        if (opts.containsKey("save")) replay.fleet.saveSnapshot(opts.get("save"));
+    }
+}
@@ -16,7 +16,6 @@ public class Airplane extends AirVehicle
     private int currentPassengers = 0;
     private final double cargoCapacity = 5000.0;   
     private double currentCargo = 0.0;
-    private boolean maintenanceNeeded = false;
 
     public Airplane(String id, String model, double maxSpeed, double maxAltitude) {
         super(id, model, maxSpeed, maxAltitude);
@@ -39,11 +38,10 @@ public class Airplane extends AirVehicle
         }
 
         fuelLevel -= requiredFuel;
+        notifyChange(VehicleChange.FUEL_CONSUMED, requiredFuel);
         updateMileage(distance);
 
         System.out.println("Flying at " + getMaxAltitude() + " meters for " + distance + " km...");
-
-        if (getCurrentMileage() > 10000) maintenanceNeeded = true;
     }
 
     @Override
@@ -56,6 +54,7 @@ public class Airplane extends AirVehicle
     public void refuel(double amount) throws InvalidOperationException {
         if (amount <= 0) throw new InvalidOperationException("Refuel amount must be positive");
         fuelLevel += amount;
+        notifyChange(VehicleChange.REFUELED, amount);
     }
 
     @Override
@@ -63,34 +62,46 @@ public class Airplane extends AirVehicle
         return fuelLevel;
     }
 
+    @Override
+    public void setFuelLevel(double level) throws InvalidOperationException {
+        if (level < 0) throw new InvalidOperationException("Fuel level cannot be negative");
+        double delta = level - fuelLevel;
+        fuelLevel = level;
+        if (delta > 0) notifyChange(VehicleChange.REFUELED, delta);
+        else if (delta < 0) notifyChange(VehicleChange.FUEL_CONSUMED, -delta);
+    }
+
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
         double needed = distance / calculateFuelEfficiency();
         if (fuelLevel < needed) throw new InsufficientFuelException("Insufficient fuel");
         fuelLevel -= needed;
+        notifyChange(VehicleChange.FUEL_CONSUMED, needed);
         return needed;
     }
 
     // PassengerCarrier
     @Override
-    public void boardPassengers(int count) throws OverloadException {
+    public synchronized void boardPassengers(int count) throws OverloadException {
         if (currentPassengers + count > passengerCapacity)
             throw new OverloadException("Exceeds passenger capacity of " + passengerCapacity);
         currentPassengers += count;
+        notifyChange(VehicleChange.PASSENGERS_CHANGED, count);
     }
 
     @Override
-    public void disembarkPassengers(int count) throws InvalidOperationException {
+    public synchronized void disembarkPassengers(int count) throws InvalidOperationException {
         if (count > currentPassengers)
             throw new InvalidOperationException("Not enough passengers to disembark");
         currentPassengers -= count;
+        notifyChange(VehicleChange.PASSENGERS_CHANGED, -count);
     }
 
     @Override
     public int getPassengerCapacity() { return passengerCapacity; }
 
     @Override
-    public int getCurrentPassengers() { return currentPassengers; }
+    public synchronized int getCurrentPassengers() { return currentPassengers; }
 
     // CargoCarrier
     @Override
@@ -98,6 +109,7 @@ public class Airplane extends AirVehicle
         if (currentCargo + weight > cargoCapacity)
             throw new OverloadException("Exceeds cargo capacity of " + cargoCapacity + " kg");
         currentCargo += weight;
+        notifyChange(VehicleChange.CARGO_CHANGED, weight);
     }
 
     @Override
@@ -105,6 +117,7 @@ public class Airplane extends AirVehicle
         if (weight > currentCargo)
             throw new InvalidOperationException("Not enough cargo to unload");
         currentCargo -= weight;
+        notifyChange(VehicleChange.CARGO_CHANGED, -weight);
     }
 
     @Override
@@ -112,19 +125,4 @@ public class Airplane extends AirVehicle
 
     @Override
     public double getCurrentCargo() { return currentCargo; }
-
-    // Maintainable
-    @Override
-    public void scheduleMaintenance() { maintenanceNeeded = true; }
-
-    @Override
-    public boolean needsMaintenance() {
-        return maintenanceNeeded || getCurrentMileage() > 10000;
-    }
-
-    @Override
-    public void performMaintenance() {
-        maintenanceNeeded = false;
-        System.out.println("Maintenance completed for Airplane " + getId());
-    }
 }
@@ -16,7 +16,6 @@ public class Bus extends LandVehicle
     private int currentPassengers = 0;
     private final double cargoCapacity = 500.0; // kg
     private double currentCargo = 0.0;
-    private boolean maintenanceNeeded = false;
 
     public Bus(String id, String model, double maxSpeed, int numWheels) {
         super(id, model, maxSpeed, numWheels);
@@ -37,11 +36,10 @@ public class Bus extends LandVehicle
         }
 
         fuelLevel -= requiredFuel;
+        notifyChange(VehicleChange.FUEL_CONSUMED, requiredFuel);
         updateMileage(distance);
 
         System.out.println("Transporting passengers and cargo for " + distance + " km...");
-
-        if (getCurrentMileage() > 10000) maintenanceNeeded = true;
     }
 
     @Override
@@ -54,6 +52,7 @@ public class Bus extends LandVehicle
     public void refuel(double amount) throws InvalidOperationException {
         if (amount <= 0) throw new InvalidOperationException("Refuel amount must be positive");
         fuelLevel += amount;
+        notifyChange(VehicleChange.REFUELED, amount);
     }
 
     @Override
@@ -61,27 +60,39 @@ public class Bus extends LandVehicle
         return fuelLevel;
     }
 
+    @Override
+    public void setFuelLevel(double level) throws InvalidOperationException {
+        if (level < 0) throw new InvalidOperationException("Fuel level cannot be negative");
+        double delta = level - fuelLevel;
+        fuelLevel = level;
+        if (delta > 0) notifyChange(VehicleChange.REFUELED, delta);
+        else if (delta < 0) notifyChange(VehicleChange.FUEL_CONSUMED, -delta);
+    }
+
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
         double needed = distance / calculateFuelEfficiency();
         if (fuelLevel < needed) throw new InsufficientFuelException("Insufficient fuel");
         fuelLevel -= needed;
+        notifyChange(VehicleChange.FUEL_CONSUMED, needed);
         return needed;
     }
 
     // PassengerCarrier
     @Override
-    public void boardPassengers(int count) throws OverloadException {
+    public synchronized void boardPassengers(int count) throws OverloadException {
         if (currentPassengers + count > passengerCapacity)
             throw new OverloadException("Exceeds passenger capacity");
         currentPassengers += count;
+        notifyChange(VehicleChange.PASSENGERS_CHANGED, count);
     }
 
     @Override
-    public void disembarkPassengers(int count) throws InvalidOperationException {
+    public synchronized void disembarkPassengers(int count) throws InvalidOperationException {
         if (count > currentPassengers)
             throw new InvalidOperationException("Not enough passengers to disembark");
         currentPassengers -= count;
+        notifyChange(VehicleChange.PASSENGERS_CHANGED, -count);
     }
 
     @Override
@@ -90,7 +101,7 @@ public class Bus extends LandVehicle
     }
 
     @Override
-    public int getCurrentPassengers() {
+    public synchronized int getCurrentPassengers() {
         return currentPassengers;
     }
 
@@ -100,6 +111,7 @@ public class Bus extends LandVehicle
         if (currentCargo + weight > cargoCapacity)
             throw new OverloadException("Exceeds cargo capacity");
         currentCargo += weight;
+        notifyChange(VehicleChange.CARGO_CHANGED, weight);
     }
 
     @Override
@@ -107,6 +119,7 @@ public class Bus extends LandVehicle
         if (weight > currentCargo)
             throw new InvalidOperationException("Not enough cargo to unload");
         currentCargo -= weight;
+        notifyChange(VehicleChange.CARGO_CHANGED, -weight);
     }
 
     @Override
@@ -118,21 +131,4 @@ public class Bus extends LandVehicle
     public double getCurrentCargo() {
         return currentCargo;
     }
-
-    // Maintainable
-    @Override
-    public void scheduleMaintenance() {
-        maintenanceNeeded = true;
-    }
-
-    @Override
-    public boolean needsMaintenance() {
-        return maintenanceNeeded || getCurrentMileage() > 10000;
-    }
-
-    @Override
-    public void performMaintenance() {
-        maintenanceNeeded = false;
-        System.out.println("Maintenance completed for Bus " + getId());
-    }
 }
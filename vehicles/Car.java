@@ -12,7 +12,6 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
     private double fuelLevel = 0.0;
     private final int passengerCapacity = 5;
     private int currentPassengers = 0;
-    private boolean maintenanceNeeded = false;
 
     public Car(String id, String model, double maxSpeed, int numWheels) {
         super(id, model, maxSpeed, numWheels);
@@ -25,13 +24,9 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
             throw new InvalidOperationException("Not enough fuel to travel " + distance + " km");
         }
         fuelLevel -= requiredFuel;
+        notifyChange(VehicleChange.FUEL_CONSUMED, requiredFuel);
         updateMileage(distance);
         System.out.println("Driving on road for " + distance + " km...");
-
-        // Trigger maintenance after long usage
-        if (getCurrentMileage() > 10000) {
-            maintenanceNeeded = true;
-        }
     }
 
     @Override
@@ -44,6 +39,7 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
     public void refuel(double amount) throws InvalidOperationException {
         if (amount <= 0) throw new InvalidOperationException("Refuel amount must be positive");
         fuelLevel += amount;
+        notifyChange(VehicleChange.REFUELED, amount);
     }
 
     @Override
@@ -51,27 +47,39 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
         return fuelLevel;
     }
 
+    @Override
+    public void setFuelLevel(double level) throws InvalidOperationException {
+        if (level < 0) throw new InvalidOperationException("Fuel level cannot be negative");
+        double delta = level - fuelLevel;
+        fuelLevel = level;
+        if (delta > 0) notifyChange(VehicleChange.REFUELED, delta);
+        else if (delta < 0) notifyChange(VehicleChange.FUEL_CONSUMED, -delta);
+    }
+
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
         double needed = distance / calculateFuelEfficiency();
         if (fuelLevel < needed) throw new InsufficientFuelException("Insufficient fuel");
         fuelLevel -= needed;
+        notifyChange(VehicleChange.FUEL_CONSUMED, needed);
         return needed;
     }
 
     // PassengerCarrier
     @Override
-    public void boardPassengers(int count) throws OverloadException {
+    public synchronized void boardPassengers(int count) throws OverloadException {
         if (currentPassengers + count > passengerCapacity)
             throw new OverloadException("Passenger limit exceeded");
         currentPassengers += count;
+        notifyChange(VehicleChange.PASSENGERS_CHANGED, count);
     }
 
     @Override
-    public void disembarkPassengers(int count) throws InvalidOperationException {
+    public synchronized void disembarkPassengers(int count) throws InvalidOperationException {
         if (count > currentPassengers)
             throw new InvalidOperationException("Cannot remove more passengers than present");
         currentPassengers -= count;
+        notifyChange(VehicleChange.PASSENGERS_CHANGED, -count);
     }
 
     @Override
@@ -80,24 +88,7 @@ public class Car extends LandVehicle implements FuelConsumable, PassengerCarrier
     }
 
     @Override
-    public int getCurrentPassengers() {
+    public synchronized int getCurrentPassengers() {
         return currentPassengers;
     }
-
-    // Maintainable
-    @Override
-    public void scheduleMaintenance() {
-        maintenanceNeeded = true;
-    }
-
-    @Override
-    public boolean needsMaintenance() {
-        return maintenanceNeeded || getCurrentMileage() > 10000;
-    }
-
-    @Override
-    public void performMaintenance() {
-        maintenanceNeeded = false;
-        System.out.println("Maintenance completed for Car " + getId());
-    }
 }
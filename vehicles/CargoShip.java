@@ -12,7 +12,6 @@ public class CargoShip extends WaterVehicle
 
     private final double cargoCapacity = 200000.0; 
     private double currentCargo = 0.0;
-    private boolean maintenanceNeeded = false;
 
     // Fuel tracking (used only if not sailing)
     private double fuelLevel = 0.0;
@@ -35,12 +34,11 @@ public class CargoShip extends WaterVehicle
                 throw new InvalidOperationException("Not enough fuel to sail " + distance + " km");
             }
             fuelLevel -= requiredFuel;
+            notifyChange(VehicleChange.FUEL_CONSUMED, requiredFuel);
         }
 
         updateMileage(distance);
         System.out.println("Sailing with cargo for " + distance + " km...");
-
-        if (getCurrentMileage() > 10000) maintenanceNeeded = true;
     }
 
     @Override
@@ -54,6 +52,7 @@ public class CargoShip extends WaterVehicle
         if (currentCargo + weight > cargoCapacity)
             throw new OverloadException("Exceeds cargo capacity of " + cargoCapacity + " kg");
         currentCargo += weight;
+        notifyChange(VehicleChange.CARGO_CHANGED, weight);
     }
 
     @Override
@@ -61,6 +60,7 @@ public class CargoShip extends WaterVehicle
         if (weight > currentCargo)
             throw new InvalidOperationException("Not enough cargo to unload");
         currentCargo -= weight;
+        notifyChange(VehicleChange.CARGO_CHANGED, -weight);
     }
 
     @Override
@@ -73,23 +73,6 @@ public class CargoShip extends WaterVehicle
         return currentCargo;
     }
 
-    // Maintainable
-    @Override
-    public void scheduleMaintenance() {
-        maintenanceNeeded = true;
-    }
-
-    @Override
-    public boolean needsMaintenance() {
-        return maintenanceNeeded || getCurrentMileage() > 10000;
-    }
-
-    @Override
-    public void performMaintenance() {
-        maintenanceNeeded = false;
-        System.out.println("Maintenance completed for CargoShip " + getId());
-    }
-
     // FuelConsumable (only if engine-powered)
     @Override
     public void refuel(double amount) throws InvalidOperationException {
@@ -97,6 +80,7 @@ public class CargoShip extends WaterVehicle
             throw new InvalidOperationException("This ship uses sails and cannot be refueled.");
         if (amount <= 0) throw new InvalidOperationException("Refuel amount must be positive");
         fuelLevel += amount;
+        notifyChange(VehicleChange.REFUELED, amount);
     }
 
     @Override
@@ -104,6 +88,17 @@ public class CargoShip extends WaterVehicle
         return gethasSail() ? 0.0 : fuelLevel;
     }
 
+    @Override
+    public void setFuelLevel(double level) throws InvalidOperationException {
+        if (gethasSail())
+            throw new InvalidOperationException("This ship uses sails and has no fuel.");
+        if (level < 0) throw new InvalidOperationException("Fuel level cannot be negative");
+        double delta = level - fuelLevel;
+        fuelLevel = level;
+        if (delta > 0) notifyChange(VehicleChange.REFUELED, delta);
+        else if (delta < 0) notifyChange(VehicleChange.FUEL_CONSUMED, -delta);
+    }
+
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
         if (gethasSail())
@@ -112,6 +107,7 @@ public class CargoShip extends WaterVehicle
         if (fuelLevel < needed)
             throw new InsufficientFuelException("Insufficient fuel for voyage");
         fuelLevel -= needed;
+        notifyChange(VehicleChange.FUEL_CONSUMED, needed);
         return needed;
     }
 }
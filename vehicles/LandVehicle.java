@@ -1,9 +1,12 @@
 package vehicles;
 
 import logistics.InvalidOperationException;
+import vehicles.interfaces.TrafficConditions;
 
 public abstract class LandVehicle extends Vehicle{
     private int numWheels;
+    // the road segment it is on in a traffic simulation, else TYPICAL
+    private TrafficConditions traffic = TrafficConditions.TYPICAL;
 
     // Constructor
     public LandVehicle(String id, String model, double maxSpeed, int numWheels) {
@@ -15,7 +18,7 @@ public abstract class LandVehicle extends Vehicle{
     @Override
     public double estimateJourneyTime(double distance) {
         double baseTime = distance / getMaxSpeed();
-        return baseTime * 1.1; // Add 10% for traffic
+        return baseTime * traffic.getTravelTimeFactor(); // congestion where it drives
     }
 
     @Override
@@ -27,4 +30,13 @@ public abstract class LandVehicle extends Vehicle{
     public int getNumWheels() {
         return numWheels;
     }
+
+    public TrafficConditions getTraffic() {
+        return traffic;
+    }
+
+    /** null puts the vehicle back on TYPICAL traffic. */
+    public void setTraffic(TrafficConditions traffic) {
+        this.traffic = traffic == null ? TrafficConditions.TYPICAL : traffic;
+    }
 }
@@ -12,7 +12,6 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
     private double fuelLevel = 0.0;
     private final double cargoCapacity = 2000.0; 
     private double currentCargo = 0.0;
-    private boolean maintenanceNeeded = false;
 
     public Truck(String id, String model, double maxSpeed, int numWheels) {
         super(id, model, maxSpeed, numWheels);
@@ -33,14 +32,10 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
         }
 
         fuelLevel -= requiredFuel;
+        notifyChange(VehicleChange.FUEL_CONSUMED, requiredFuel);
         updateMileage(distance);
 
         System.out.println("Hauling cargo for " + distance + " km...");
-
-        // Maintenance check
-        if (getCurrentMileage() > 10000) {
-            maintenanceNeeded = true;
-        }
     }
 
     @Override
@@ -53,6 +48,7 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
     public void refuel(double amount) throws InvalidOperationException {
         if (amount <= 0) throw new InvalidOperationException("Refuel amount must be positive");
         fuelLevel += amount;
+        notifyChange(VehicleChange.REFUELED, amount);
     }
 
     @Override
@@ -60,6 +56,15 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
         return fuelLevel;
     }
 
+    @Override
+    public void setFuelLevel(double level) throws InvalidOperationException {
+        if (level < 0) throw new InvalidOperationException("Fuel level cannot be negative");
+        double delta = level - fuelLevel;
+        fuelLevel = level;
+        if (delta > 0) notifyChange(VehicleChange.REFUELED, delta);
+        else if (delta < 0) notifyChange(VehicleChange.FUEL_CONSUMED, -delta);
+    }
+
     @Override
     public double consumeFuel(double distance) throws InsufficientFuelException {
         double efficiency = calculateFuelEfficiency();
@@ -70,6 +75,7 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
         double required = distance / efficiency;
         if (fuelLevel < required) throw new InsufficientFuelException("Insufficient fuel for trip");
         fuelLevel -= required;
+        notifyChange(VehicleChange.FUEL_CONSUMED, required);
         return required;
     }
 
@@ -80,6 +86,7 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
             throw new OverloadException("Exceeds cargo capacity of " + cargoCapacity + " kg");
         }
         currentCargo += weight;
+        notifyChange(VehicleChange.CARGO_CHANGED, weight);
     }
 
     @Override
@@ -88,6 +95,7 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
             throw new InvalidOperationException("Not enough cargo to unload");
         }
         currentCargo -= weight;
+        notifyChange(VehicleChange.CARGO_CHANGED, -weight);
     }
 
     @Override
@@ -99,21 +107,4 @@ public class Truck extends LandVehicle implements FuelConsumable, CargoCarrier,
     public double getCurrentCargo() {
         return currentCargo;
     }
-
-    // Maintainable
-    @Override
-    public void scheduleMaintenance() {
-        maintenanceNeeded = true;
-    }
-
-    @Override
-    public boolean needsMaintenance() {
-        return maintenanceNeeded || getCurrentMileage() > 10000;
-    }
-
-    @Override
-    public void performMaintenance() {
-        maintenanceNeeded = false;
-        System.out.println("Maintenance completed for Truck " + getId());
-    }
 }
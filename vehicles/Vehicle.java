@@ -1,20 +1,34 @@
 package vehicles;
 
+import indexing.CompactId;
+import indexing.SymbolTable;
 import logistics.InvalidOperationException;
+import vehicles.interfaces.Maintainable;
+import vehicles.interfaces.VehicleObserver;
 
 public abstract class Vehicle implements Comparable<Vehicle> {
+    /** Model names of all vehicles; each vehicle keeps only the code. */
+    public static final SymbolTable MODELS = new SymbolTable();
+    /** Kilometres between services unless a type overrides getMaintenanceInterval(). */
+    public static final double MAINTENANCE_INTERVAL = 10000;
+
+    private long idCode;    // CompactId code, or CompactId.NONE with the ID in id
     private String id;
-    private String model;
+    private int model;      // code in MODELS
     private double maxSpeed;
     private double currentMileage;
+    private double serviceMileage; // mileage at the last maintenance
+    private boolean maintenanceNeeded; // scheduled, or the interval ran out; cleared by a service
+    private volatile VehicleObserver observer;
 
     // Constructor
     public Vehicle(String id, String model, double maxSpeed) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("ID cannot be empty");
         }
-        this.id = id;
-        this.model = model;
+        this.idCode = CompactId.encode(id);
+        this.id = idCode == CompactId.NONE ? id : null;
+        this.model = MODELS.intern(model);
         this.maxSpeed = maxSpeed;
         this.currentMileage = 0.0;
     }
@@ -26,8 +40,8 @@ public abstract class Vehicle implements Comparable<Vehicle> {
 
     // Concrete methods
     public void displayInfo() {
-        System.out.println("Vehicle ID: " + id);
-        System.out.println("Model: " + model);
+        System.out.println("Vehicle ID: " + getId());
+        System.out.println("Model: " + getModel());
         System.out.println("Max Speed: " + maxSpeed + " km/h");
         System.out.println("Total Mileage: " + currentMileage + " km");
     }
@@ -41,10 +55,35 @@ public abstract class Vehicle implements Comparable<Vehicle> {
     }
 
     public String getId() {
-        return id;
+        return id != null ? id : CompactId.decode(idCode);
+    }
+
+    /** The ID as a CompactId code, or CompactId.NONE if it does not have that shape. */
+    public long getIdCode() {
+        return idCode;
+    }
+
+    /** getId().equals(other), without building the ID string. */
+    public boolean hasId(String other) {
+        return id != null ? id.equals(other) : CompactId.encode(other) == idCode;
+    }
+
+    /** getId().startsWith(prefix), without building the ID string. */
+    public boolean hasIdPrefix(String prefix) {
+        return id != null ? id.startsWith(prefix) : CompactId.startsWith(idCode, prefix);
+    }
+
+    /** getId().hashCode(), without building the ID string; for routing by ID hash. */
+    public int getIdHash() {
+        return id != null ? id.hashCode() : CompactId.hashCode(idCode);
     }
 
     public String getModel() {
+        return MODELS.name(model);
+    }
+
+    /** The model's code in MODELS; vehicles of the same model have the same code. */
+    public int getModelCode() {
         return model;
     }
 
@@ -52,11 +91,92 @@ public abstract class Vehicle implements Comparable<Vehicle> {
         if (mileage < 0) {
             throw new IllegalArgumentException("Mileage cannot be negative");
         }
+        double delta = mileage - currentMileage;
         this.currentMileage = mileage;
+        if (serviceMileage > mileage) serviceMileage = mileage;
+        if (delta != 0) notifyChange(VehicleChange.MILEAGE_SET, delta);
+    }
+
+    public void setMaxSpeed(double maxSpeed) {
+        if (maxSpeed <= 0) {
+            throw new IllegalArgumentException("Max speed must be positive");
+        }
+        double delta = maxSpeed - this.maxSpeed;
+        this.maxSpeed = maxSpeed;
+        if (delta != 0) notifyChange(VehicleChange.SPEED_SET, delta);
+    }
+
+    /** Kilometres driven since the last performMaintenance() (or ever, if never serviced). */
+    public double getMileageSinceService() {
+        return currentMileage - serviceMileage;
+    }
+
+    /** Mileage at the last maintenance (0 if never serviced). */
+    public double getServiceMileage() {
+        return serviceMileage;
+    }
+
+    /**
+     * Sets the mileage of the last maintenance, for restoring saved state;
+     * clamped to 0..current mileage.
+     */
+    public void setServiceMileage(double mileage) {
+        serviceMileage = Math.max(0.0, Math.min(mileage, currentMileage));
+    }
+
+    protected void recordService() {
+        serviceMileage = currentMileage;
     }
 
     protected void updateMileage(double distance) {
         this.currentMileage += distance;
+        notifyChange(VehicleChange.MOVED, distance);
+        if (this instanceof Maintainable && getMileageSinceService() > getMaintenanceInterval()) {
+            markMaintenanceDue();
+        }
+    }
+
+    // Maintenance, shared by the Maintainable types; they override only the interval
+
+    /** Kilometres between services for this vehicle type. */
+    public double getMaintenanceInterval() {
+        return MAINTENANCE_INTERVAL;
+    }
+
+    public boolean needsMaintenance() {
+        return maintenanceNeeded || getMileageSinceService() > getMaintenanceInterval();
+    }
+
+    public void scheduleMaintenance() {
+        markMaintenanceDue();
+    }
+
+    public void performMaintenance() {
+        maintenanceNeeded = false;
+        recordService();
+        notifyChange(VehicleChange.MAINTENANCE_DONE, 0);
+        System.out.println("Maintenance completed for " + getClass().getSimpleName() + " " + getId());
+    }
+
+    private void markMaintenanceDue() {
+        if (!maintenanceNeeded) {
+            maintenanceNeeded = true;
+            notifyChange(VehicleChange.MAINTENANCE_DUE, getCurrentMileage());
+        }
+    }
+
+    // Change hook: FleetManager installs one observer per vehicle
+    public void setObserver(VehicleObserver observer) {
+        this.observer = observer;
+    }
+
+    public VehicleObserver getObserver() {
+        return observer;
+    }
+
+    protected void notifyChange(VehicleChange change, double amount) {
+        VehicleObserver o = observer;
+        if (o != null) o.onChange(this, change, amount);
     }
 
     // Comparable implementation for sorting by fuel efficiency
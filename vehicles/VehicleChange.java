@@ -0,0 +1,20 @@
+package vehicles;
+
+/**
+ * Kinds of state change reported to a VehicleObserver. The amount passed with
+ * each is noted per constant.
+ */
+public enum VehicleChange {
+    ADDED,              // joined a fleet (fired by FleetManager); amount 0
+    REMOVED,            // left a fleet (fired by FleetManager); amount 0
+    RESET,              // the whole fleet was cleared before a load; vehicle is null
+    MOVED,              // km travelled
+    MILEAGE_SET,        // setCurrentMileage(); amount is new minus old mileage
+    SPEED_SET,          // setMaxSpeed(); amount is new minus old max speed
+    REFUELED,           // litres added
+    FUEL_CONSUMED,      // litres burned by move() or consumeFuel()
+    CARGO_CHANGED,      // kg loaded (positive) or unloaded (negative)
+    PASSENGERS_CHANGED, // passengers boarded (positive) or disembarked (negative)
+    MAINTENANCE_DUE,    // mileage when maintenance became due
+    MAINTENANCE_DONE    // amount 0
+}
@@ -8,4 +8,10 @@ public interface FuelConsumable {
     void refuel(double amount) throws InvalidOperationException;
     double getFuelLevel();
     double consumeFuel(double distance) throws InsufficientFuelException;
+
+    /**
+     * Sets the level to a gauge reading (e.g. from telemetry), reported to
+     * observers as REFUELED or FUEL_CONSUMED by the difference.
+     */
+    void setFuelLevel(double level) throws InvalidOperationException;
 }
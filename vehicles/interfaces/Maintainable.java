@@ -4,4 +4,7 @@ public interface Maintainable {
     void scheduleMaintenance();
     boolean needsMaintenance();
     void performMaintenance();
+
+    /** Kilometres between services for this vehicle type. */
+    double getMaintenanceInterval();
 }
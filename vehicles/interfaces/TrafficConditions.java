@@ -0,0 +1,13 @@
+package vehicles.interfaces;
+
+/**
+ * Traffic where a land vehicle is driving, as a multiplier on its
+ * free-flow journey time (1.0 = empty road).
+ */
+public interface TrafficConditions {
+
+    /** Off any simulated road: the flat 10% allowance for traffic. */
+    TrafficConditions TYPICAL = () -> 1.1;
+
+    double getTravelTimeFactor();
+}
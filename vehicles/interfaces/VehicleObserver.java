@@ -0,0 +1,12 @@
+package vehicles.interfaces;
+
+import vehicles.Vehicle;
+import vehicles.VehicleChange;
+
+/**
+ * Called synchronously, on the mutating thread, after a vehicle's state
+ * changed. Keep it short: it runs inside move(), refuel() and friends.
+ */
+public interface VehicleObserver {
+    void onChange(Vehicle vehicle, VehicleChange change, double amount);
+}